@@ -43,6 +43,7 @@ project("core-ng") {
         implementation("org.apache.kafka:kafka-clients:4.0.0") {
             exclude("org.xerial.snappy")
         }
+        implementation("org.lz4:lz4-java:1.8.0")     // same version as kafka-clients transitive dependency
         compileOnly("org.jboss.logging:jboss-logging-annotations:2.2.1.Final")
         compileOnly("com.github.spotbugs:spotbugs-annotations:4.9.3")
         testImplementation("org.junit.jupiter:junit-jupiter-api:${junitVersion}")
@@ -2,6 +2,8 @@ package core.framework.module;
 
 import core.framework.util.Strings;
 
+import java.time.Duration;
+
 /**
  * @author neo
  */
@@ -18,4 +20,8 @@ public class TestDBConfig extends DBConfig {
     @Override
     public void password(String password) {
     }
+
+    @Override
+    public void maxReplicationLag(Duration maxLag) {
+    }
 }
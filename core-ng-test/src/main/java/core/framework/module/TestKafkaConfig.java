@@ -1,6 +1,8 @@
 package core.framework.module;
 
+import core.framework.internal.kafka.BinaryMessageCodec;
 import core.framework.internal.kafka.MockMessagePublisher;
+import core.framework.kafka.MessageFormat;
 import core.framework.kafka.MessagePublisher;
 import org.mockito.Mockito;
 
@@ -9,7 +11,8 @@ import org.mockito.Mockito;
  */
 public class TestKafkaConfig extends KafkaConfig {
     @Override
-    <T> MessagePublisher<T> createMessagePublisher(String topic, Class<T> messageClass) {
+    <T> MessagePublisher<T> createMessagePublisher(String topic, Class<T> messageClass, MessageFormat format) {
+        if (format == MessageFormat.BINARY) new BinaryMessageCodec<>(messageClass);     // verify message class is supported by binary codec
         // create custom mock message publisher to do validation check on integration test
         // as well as leveraging mockito feature on test
         return Mockito.spy(new MockMessagePublisher<>(messageClass));
@@ -1,5 +1,7 @@
 package core.framework.module;
 
+import java.nio.file.Path;
+
 /**
  * @author neo
  */
@@ -8,4 +10,12 @@ public class TestLogConfig extends LogConfig {
     public void appendToKafka(String uri) {
         appendToConsole();
     }
+
+    @Override
+    public void kafkaQueue(int capacity, double dropTraceRatio, double dropStatRatio) {
+    }
+
+    @Override
+    public void kafkaSpill(Path directory, long maxSizeInBytes) {
+    }
 }
@@ -18,6 +18,14 @@ public class TestRedisConfig extends RedisConfig {
     void setHost(String host) {
     }
 
+    @Override
+    void setCluster(String... hosts) {
+    }
+
+    @Override
+    public void readFromReplica() {
+    }
+
     @Override
     public void password(String password) {
     }
@@ -26,6 +34,10 @@ public class TestRedisConfig extends RedisConfig {
     public void poolSize(int minSize, int maxSize) {
     }
 
+    @Override
+    public void multiplex(int connections) {
+    }
+
     @Override
     public void timeout(Duration timeout) {
     }
@@ -0,0 +1,72 @@
+package core.framework.test.redis;
+
+import core.framework.redis.Redis;
+import core.framework.redis.RedisPipeline;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+public final class MockRedisPipeline implements RedisPipeline {
+    private final Redis redis;
+    private final List<Runnable> commands = new ArrayList<>();
+    private boolean executed;
+
+    MockRedisPipeline(Redis redis) {
+        this.redis = redis;
+    }
+
+    @Override
+    public Supplier<@Nullable String> get(String key) {
+        var result = new Result<String>();
+        commands.add(() -> result.value = redis.get(key));
+        return result;
+    }
+
+    @Override
+    public void set(String key, String value, @Nullable Duration expiration) {
+        commands.add(() -> redis.set(key, value, expiration, false));
+    }
+
+    @Override
+    public void expire(String key, Duration expiration) {
+        commands.add(() -> redis.expire(key, expiration));
+    }
+
+    @Override
+    public void del(String... keys) {
+        commands.add(() -> redis.del(keys));
+    }
+
+    @Override
+    public Supplier<Long> increaseBy(String key, long increment) {
+        var result = new Result<Long>();
+        commands.add(() -> result.value = redis.increaseBy(key, increment));
+        return result;
+    }
+
+    @Override
+    public void execute() {
+        assertThat(executed).as("pipeline was executed").isFalse();
+        assertThat(commands).as("pipeline must not be empty").isNotEmpty();
+        commands.forEach(Runnable::run);
+        executed = true;
+    }
+
+    private final class Result<T> implements Supplier<T> {
+        T value;
+
+        @Override
+        public T get() {
+            assertThat(executed).as("pipeline is not executed").isTrue();
+            return value;
+        }
+    }
+}
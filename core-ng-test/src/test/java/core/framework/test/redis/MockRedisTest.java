@@ -1,11 +1,13 @@
 package core.framework.test.redis;
 
+import core.framework.redis.RedisPipeline;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.entry;
@@ -103,4 +105,20 @@ class MockRedisTest {
         assertThat(redis.get("key7")).isEqualTo("value7");
         assertThat(redis.get("key8")).isEqualTo("value8");
     }
+
+    @Test
+    void pipeline() {
+        redis.set("key1", "value1");
+        RedisPipeline pipeline = redis.pipeline();
+        Supplier<String> value = pipeline.get("key1");
+        pipeline.set("key2", "value2", Duration.ofMinutes(1));
+        Supplier<Long> count = pipeline.increaseBy("counter", 2);
+        pipeline.del("key1");
+        pipeline.execute();
+
+        assertThat(value.get()).isEqualTo("value1");
+        assertThat(count.get()).isEqualTo(2);
+        assertThat(redis.get("key1")).isNull();
+        assertThat(redis.get("key2")).isEqualTo("value2");
+    }
 }
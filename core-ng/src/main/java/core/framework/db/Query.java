@@ -1,7 +1,10 @@
 package core.framework.db;
 
+import org.jspecify.annotations.Nullable;
+
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * @author neo
@@ -19,6 +22,9 @@ public interface Query<T> {
 
     List<T> fetch();
 
+    // stream all rows with server side cursor, refer to core.framework.db.Database.forEach
+    void forEach(Consumer<T> consumer);
+
     Optional<T> fetchOne();
 
     <P> List<P> project(String projection, Class<P> viewClass);
@@ -30,19 +36,42 @@ public interface Query<T> {
         return projectOne("count(1)", Long.class).orElseThrow();
     }
 
+    // keyset pagination, fetch next page after last value of previous page, pass null for first page, column must be unique and indexed, e.g. primary key,
+    // unlike skip, db doesn't need to scan all skipped rows, so cost of each page stays same regardless how deep it is, e.g.
+    // query.after("id", lastId);
+    // query.limit(1000);
+    // List<T> page = query.fetch();
+    default void after(String column, @Nullable Object lastValue) {
+        if (column == null) throw new Error("column must not be null");
+        if (lastValue != null) where(column + " > ?", lastValue);
+        orderBy(column);
+    }
+
     // syntax sugar, to help to build "where in clause" with dynamic params
+    // number of placeholders is padded by repeating last param, so different sizes share few sql templates,
+    // which keeps prepared statement cache effective (both db server and jdbc driver cache by sql text)
     default <V> void in(String field, List<V> params) {
         if (field == null) throw new Error("field must not be null");
         if (params == null || params.isEmpty()) throw new Error("params must not be empty");
-        // efficient version of: where(Strings.format("{} IN ({})", field, params.stream().map(param -> "?").collect(Collectors.joining(", "))), params.toArray());
         int size = params.size();
-        var builder = new StringBuilder(field.length() + size * 3 + 6);    // e.g. field in (?, ?, ?)
+        int paddedSize = paddedSize(size);
+        var builder = new StringBuilder(field.length() + paddedSize * 3 + 6);    // e.g. field in (?, ?, ?, ?)
         builder.append(field).append(" IN (");
-        for (int i = 0; i < size; i++) {
+        Object[] values = new Object[paddedSize];
+        for (int i = 0; i < paddedSize; i++) {
             if (i > 0) builder.append(", ");
             builder.append('?');
+            values[i] = params.get(Math.min(i, size - 1));
         }
         builder.append(')');
-        where(builder.toString(), params.toArray());
+        where(builder.toString(), values);
+    }
+
+    // pad to power of 2 up to 256, then to multiple of 256 to bound extra params of large list,
+    // and never exceed 65535, which is max number of params per statement of both mysql and postgresql
+    private static int paddedSize(int size) {
+        if (size <= 256) return size == 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+        int paddedSize = (size + 255) & ~255;
+        return Math.max(size, Math.min(paddedSize, 65535));
     }
 }
@@ -3,6 +3,7 @@ package core.framework.db;
 import org.jspecify.annotations.Nullable;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalLong;
 
@@ -32,6 +33,11 @@ public interface Repository<T> {
 
     Optional<T> get(Object... primaryKeys);
 
+    // get entities by "WHERE id IN (...)" in one query (split per 1000 keys), return found entities keyed by primary key, keys must be same type as primary key field
+    // only for entity with single primary key column, to replace loop of get()
+    // for String key, map is keyed by value stored in db, with case-insensitive collation or PAD SPACE (mysql), it may not equal to given key, e.g. "a" finds "A"
+    <K> Map<K, T> getAll(List<K> primaryKeys);
+
     OptionalLong insert(T entity);
 
     // refer to https://dev.mysql.com/doc/refman/8.0/en/insert.html
@@ -65,6 +71,11 @@ public interface Repository<T> {
 
     Optional<long[]> batchInsert(List<T> entities);
 
+    // load large number of rows with "LOAD DATA LOCAL INFILE" (mysql) or "COPY FROM STDIN" (postgresql), rows are streamed to db without building sql params, return inserted rows
+    // mysql requires "local_infile=ON" on server and "allowLoadLocalInfile=true" in url, BE CAUTION, mysql treats duplicate key as warning and skips the row (like insert ignore)
+    // it's not limited by query timeout, split rows into chunks (e.g. 100k each) to keep each load reasonable, auto increment ids are not returned
+    long bulkInsert(List<T> entities);
+
     // return true if any row inserted
     // this is drawback of MySQL thin driver, though expected behavior
     // with batch insert ignore (or insert on duplicate key), MySQL thin driver fills entire affectedRows array with same value, java.sql.Statement.SUCCESS_NO_INFO if updated count > 0
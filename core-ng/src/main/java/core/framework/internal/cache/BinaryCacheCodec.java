@@ -0,0 +1,92 @@
+package core.framework.internal.cache;
+
+import core.framework.internal.codec.BeanCodec;
+import core.framework.internal.codec.BeanCodecBuilder;
+import core.framework.internal.codec.BinaryInput;
+import core.framework.internal.codec.BinaryOutput;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * compact binary format generated from cache class, to save encoding/decoding cost and redis memory comparing to JSON,
+ * format is [format(1 byte)][fingerprint(4 bytes)][value], or [format][fingerprint][original length(4 bytes)][lz4 compressed value] if value is larger than compressThreshold,
+ * value with different format or fingerprint (e.g. JSON or written by old class structure) is treated as stale and will be reloaded
+ *
+ * @author neo
+ */
+public final class BinaryCacheCodec<T> implements CacheCodec<T> {
+    static final byte FORMAT_BINARY = (byte) 0xB1;
+    static final byte FORMAT_LZ4 = (byte) 0xB2;
+    private static final int HEADER_LENGTH = 5;
+
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4FastDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().fastDecompressor();
+
+    final int fingerprint;
+    private final BeanCodec codec;
+    int compressThreshold = 1024;
+
+    public BinaryCacheCodec(Class<T> cacheClass) {
+        var builder = new BeanCodecBuilder<>(cacheClass);
+        codec = builder.build();
+        fingerprint = builder.fingerprint();
+    }
+
+    @Override
+    public byte[] encode(T value) {
+        var output = new BinaryOutput(256);
+        output.writeByte(FORMAT_BINARY);
+        output.writeFixedInt(fingerprint);
+        codec.encode(output, value);
+
+        int length = output.size() - HEADER_LENGTH;
+        if (length <= compressThreshold) return output.toByteArray();
+
+        int maxLength = COMPRESSOR.maxCompressedLength(length);
+        byte[] compressed = new byte[HEADER_LENGTH + 4 + maxLength];
+        int compressedLength = COMPRESSOR.compress(output.buffer(), HEADER_LENGTH, length, compressed, HEADER_LENGTH + 4, maxLength);
+        if (compressedLength >= length) return output.toByteArray();   // not compressible
+
+        System.arraycopy(output.buffer(), 0, compressed, 0, HEADER_LENGTH);
+        compressed[0] = FORMAT_LZ4;
+        compressed[HEADER_LENGTH] = (byte) (length >>> 24);
+        compressed[HEADER_LENGTH + 1] = (byte) (length >>> 16);
+        compressed[HEADER_LENGTH + 2] = (byte) (length >>> 8);
+        compressed[HEADER_LENGTH + 3] = (byte) length;
+        return Arrays.copyOf(compressed, HEADER_LENGTH + 4 + compressedLength);
+    }
+
+    @Nullable
+    @Override
+    @SuppressWarnings("unchecked")
+    public T decode(byte[] value) throws IOException {
+        if (value.length < HEADER_LENGTH || value[0] != FORMAT_BINARY && value[0] != FORMAT_LZ4)
+            throw new IOException("unknown cache value format");
+        var input = new BinaryInput(value, 1);
+        int fingerprint = input.readFixedInt();
+        if (fingerprint != this.fingerprint)
+            throw new IOException("cache value was written by different class structure, fingerprint=" + Integer.toHexString(fingerprint));
+
+        try {
+            if (value[0] == FORMAT_LZ4) {
+                int length = input.readFixedInt();
+                // lz4 compression ratio is at most 255, reject corrupted length before allocating
+                if (length < 0 || length > (long) (value.length - HEADER_LENGTH - 4) * 255)
+                    throw new IOException("invalid decompressed length of cache value, length=" + length);
+                byte[] decompressed = new byte[length];
+                DECOMPRESSOR.decompress(value, HEADER_LENGTH + 4, decompressed, 0, length);
+                input = new BinaryInput(decompressed, 0);
+            }
+            T result = (T) codec.decode(input);
+            if (input.hasRemaining()) throw new IOException("unexpected trailing bytes of cache value");
+            return result;
+        } catch (RuntimeException e) {  // e.g. truncated value or enum constant out of range
+            throw new IOException("failed to decode cache value, error=" + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package core.framework.internal.cache;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+
+/**
+ * @author neo
+ */
+public interface CacheCodec<T> {
+    byte[] encode(T value);
+
+    // throw IOException if value is invalid or stale, e.g. class structure is changed, then cache will be reloaded
+    @Nullable
+    T decode(byte[] value) throws IOException;
+}
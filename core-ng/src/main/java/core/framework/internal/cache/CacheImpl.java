@@ -10,11 +10,20 @@ import org.slf4j.LoggerFactory;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 
+import static core.framework.log.Markers.errorCode;
+
 /**
  * @author neo
  */
@@ -23,10 +32,17 @@ public class CacheImpl<T> implements Cache<T> {
     public final Class<T> cacheClass;
     public final Duration duration;
 
-    final CacheContext<T> context;
+    public final CacheContext<T> context;
+    // in-flight loads, concurrent misses of same key wait for the first loader instead of hitting db all together
+    final Map<String, CompletableFuture<T>> loadings = new ConcurrentHashMap<>();
+    // expiration time and load elapsed of keys loaded by this instance, only tracked if earlyRefresh is enabled
+    final Map<String, LoadStat> loadStats = new ConcurrentHashMap<>();
     private final Logger logger = LoggerFactory.getLogger(CacheImpl.class);
 
     public CacheStore cacheStore;
+    public boolean earlyRefresh;
+    int maxLoadStats = 10000;
+    long maxWaitTimeInNano = Duration.ofSeconds(30).toNanos();  // used if not within action or action has no remaining process time
 
     public CacheImpl(String name, Class<T> cacheClass, Duration duration) {
         this.name = name;
@@ -41,16 +57,48 @@ public class CacheImpl<T> implements Cache<T> {
         T cacheValue = cacheStore.get(cacheKey, context);
         if (cacheValue != null) {
             stat("cache_hits", 1);
+            if (earlyRefresh && shouldRefresh(cacheKey)) {
+                var future = new CompletableFuture<T>();
+                if (loadings.putIfAbsent(cacheKey, future) == null) {  // only one caller refreshes, others still use current value
+                    logger.debug("refresh value before expiration, key={}", key);
+                    try {
+                        loadAndPut(loader, key, cacheKey, future);
+                    } catch (RuntimeException e) {     // current value is still valid, refresh will be retried by later calls
+                        logger.warn("failed to refresh cache value, key={}", key, e);
+                    }
+                }
+            }
             return cacheValue;
         }
 
-        logger.debug("load value, key={}", key);
-        T value = load(loader, key);
-        cacheStore.put(cacheKey, value, duration, context);
+        var future = new CompletableFuture<T>();
+        CompletableFuture<T> loading = loadings.putIfAbsent(cacheKey, future);
+        if (loading != null) {
+            stat("cache_coalesced_waits", 1);
+            return await(loading, loader, key, cacheKey);
+        }
+        T value = loadAndPut(loader, key, cacheKey, future);
         stat("cache_misses", 1);
         return value;
     }
 
+    private T loadAndPut(Function<String, T> loader, String key, String cacheKey, CompletableFuture<T> future) {
+        try {
+            logger.debug("load value, key={}", key);
+            long start = System.nanoTime();
+            T value = load(loader, key);
+            cacheStore.putLoaded(cacheKey, value, duration, context);
+            trackLoad(cacheKey, System.nanoTime() - start);
+            future.complete(value);
+            return value;
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loadings.remove(cacheKey, future);
+        }
+    }
+
     public Optional<T> get(String key) {
         T result = cacheStore.get(cacheKey(key), context);
         if (result == null) return Optional.empty();
@@ -64,22 +112,54 @@ public class CacheImpl<T> implements Cache<T> {
         String[] cacheKeys = cacheKeys(keys);
         Map<String, T> values = Maps.newHashMapWithExpectedSize(size);
         List<CacheStore.Entry<T>> newValues = new ArrayList<>(size);
+        Map<String, CompletableFuture<T>> futures = new HashMap<>();     // keys loaded by this call
+        Map<String, CompletableFuture<T>> loadingValues = new HashMap<>();  // keys loaded by other callers
         Map<String, T> cacheValues = cacheStore.getAll(cacheKeys, context);
         stat("cache_hits", cacheValues.size());
-        for (String key : keys) {
-            String cacheKey = cacheKeys[index];
-            T result = cacheValues.get(cacheKey);
-            if (result == null) {
-                logger.debug("load value, key={}", key);
-                result = load(loader, key);
-                newValues.add(new CacheStore.Entry<>(cacheKey, result));
+        try {
+            for (String key : keys) {
+                String cacheKey = cacheKeys[index];
+                T result = cacheValues.get(cacheKey);
+                if (result == null) {
+                    var future = new CompletableFuture<T>();
+                    CompletableFuture<T> loading = loadings.putIfAbsent(cacheKey, future);
+                    if (loading != null) {
+                        loadingValues.put(key, loading);
+                        index++;
+                        continue;
+                    }
+                    futures.put(cacheKey, future);
+                    logger.debug("load value, key={}", key);
+                    result = load(loader, key);
+                    newValues.add(new CacheStore.Entry<>(cacheKey, result));
+                }
+                values.put(key, result);
+                index++;
+            }
+            if (!newValues.isEmpty()) {
+                cacheStore.putAllLoaded(newValues, duration, context);
+                stat("cache_misses", newValues.size());
+                for (CacheStore.Entry<T> newValue : newValues) {
+                    futures.get(newValue.key()).complete(newValue.value());
+                }
+            }
+        } catch (Throwable e) {
+            for (CompletableFuture<T> future : futures.values()) {
+                future.completeExceptionally(e);
+            }
+            throw e;
+        } finally {
+            for (Map.Entry<String, CompletableFuture<T>> entry : futures.entrySet()) {
+                loadings.remove(entry.getKey(), entry.getValue());
             }
-            values.put(key, result);
-            index++;
         }
-        if (!newValues.isEmpty()) {
-            cacheStore.putAll(newValues, duration, context);
-            stat("cache_misses", newValues.size());
+        // wait after own loads are completed, to avoid deadlock with other callers loading overlapping keys
+        if (!loadingValues.isEmpty()) {
+            stat("cache_coalesced_waits", loadingValues.size());
+            for (Map.Entry<String, CompletableFuture<T>> entry : loadingValues.entrySet()) {
+                String key = entry.getKey();
+                values.put(key, await(entry.getValue(), loader, key, cacheKey(key)));
+            }
         }
         return values;
     }
@@ -100,13 +180,18 @@ public class CacheImpl<T> implements Cache<T> {
 
     @Override
     public void evict(String key) {
-        cacheStore.delete(cacheKey(key));
+        String cacheKey = cacheKey(key);
+        cacheStore.delete(cacheKey);
+        loadStats.remove(cacheKey);
     }
 
     @Override
     public void evictAll(Collection<String> keys) {
         String[] cacheKeys = cacheKeys(keys);
         cacheStore.delete(cacheKeys);
+        for (String cacheKey : cacheKeys) {
+            loadStats.remove(cacheKey);
+        }
     }
 
     private String[] cacheKeys(Collection<String> keys) {
@@ -129,6 +214,56 @@ public class CacheImpl<T> implements Cache<T> {
         return value;
     }
 
+    // wait no longer than remaining process time of current action, if first loader is stuck, load by self
+    private T await(CompletableFuture<T> loading, Function<String, T> loader, String key, String cacheKey) {
+        try {
+            return loading.get(maxWaitTimeInNano(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException exception) throw exception;
+            if (cause instanceof Error error) throw error;
+            throw new Error(cause);
+        } catch (TimeoutException e) {
+            logger.warn(errorCode("CACHE_LOAD_TIMEOUT"), "timeout to wait for other caller loading value, load directly, key={}", key);
+            stat("cache_wait_timeouts", 1);
+            T value = load(loader, key);
+            cacheStore.putLoaded(cacheKey, value, duration, context);
+            return value;
+        } catch (InterruptedException e) {
+            throw new Error("interrupted during waiting for cache loading, key=" + key, e);
+        }
+    }
+
+    private long maxWaitTimeInNano() {
+        ActionLog actionLog = LogManager.CURRENT_ACTION_LOG.get();
+        if (actionLog == null) return maxWaitTimeInNano;
+        long remainingTime = actionLog.remainingProcessTimeInNano();
+        return remainingTime > 0 ? remainingTime : maxWaitTimeInNano;
+    }
+
+    private void trackLoad(String cacheKey, long elapsed) {
+        if (!earlyRefresh) return;
+        if (loadStats.size() >= maxLoadStats && !loadStats.containsKey(cacheKey)) return;   // bound memory, keys beyond limit simply expire as usual
+        loadStats.put(cacheKey, new LoadStat(System.currentTimeMillis() + duration.toMillis(), elapsed));
+    }
+
+    // XFetch, refer to https://cseweb.ucsd.edu/~avattani/papers/cache_stampede.pdf
+    // refresh with probability increasing as expiration approaches, and earlier for values take longer to load, with beta = 1
+    boolean shouldRefresh(String cacheKey) {
+        LoadStat stat = loadStats.get(cacheKey);
+        if (stat == null) return false;
+        long now = System.currentTimeMillis();
+        if (now >= stat.expirationTime) {   // value was refreshed by other instance or stat is stale
+            loadStats.remove(cacheKey, stat);
+            return false;
+        }
+        double gap = -stat.elapsed / 1_000_000d * Math.log(ThreadLocalRandom.current().nextDouble());
+        return now + gap >= stat.expirationTime;
+    }
+
+    record LoadStat(long expirationTime, long elapsed) {
+    }
+
     // set to actionLog directly to keep trace log concise
     private void stat(String key, double value) {
         ActionLog actionLog = LogManager.CURRENT_ACTION_LOG.get();
@@ -0,0 +1,66 @@
+package core.framework.internal.cache;
+
+import core.framework.internal.redis.RedisException;
+import core.framework.internal.redis.RedisImpl;
+import core.framework.internal.redis.RedisSubscriber;
+import core.framework.util.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static core.framework.log.Markers.errorCode;
+
+/**
+ * broadcast updated/evicted keys via redis pub/sub, to evict local copies of near cache on other instances,
+ * message format is "{instanceId}\n{key1}\n{key2}...", cache keys are not expected to contain line break,
+ * channel is per app, as near cache only evicts copies of same app, to avoid receiving messages of all apps sharing same redis
+ *
+ * @author neo
+ */
+public class CacheInvalidator implements RedisSubscriber.Listener {
+    public static String channel(String appName) {
+        return "cache:invalidation:" + appName;
+    }
+
+    final String instanceId = UUID.randomUUID().toString();
+    private final Logger logger = LoggerFactory.getLogger(CacheInvalidator.class);
+    private final RedisImpl redis;
+    private final String channel;
+    private final LocalCacheStore localCacheStore;
+
+    public CacheInvalidator(RedisImpl redis, String channel, LocalCacheStore localCacheStore) {
+        this.redis = redis;
+        this.channel = channel;
+        this.localCacheStore = localCacheStore;
+    }
+
+    void invalidate(String... keys) {
+        var builder = new StringBuilder(instanceId);
+        for (String key : keys) {
+            builder.append('\n').append(key);
+        }
+        try {
+            redis.publish(channel, Strings.bytes(builder.toString()));
+        } catch (UncheckedIOException | RedisException e) {
+            logger.warn(errorCode("CACHE_STORE_FAILED"), "failed to publish cache invalidation, error={}", e.getMessage(), e);
+        }
+    }
+
+    // messages may be lost during reconnecting, clear all local copies
+    @Override
+    public void onSubscribe() {
+        logger.info("clear near cache after subscribed to cache invalidation channel");
+        localCacheStore.clear();
+    }
+
+    @Override
+    public void onMessage(byte[] message) {
+        String[] values = Strings.split(new String(message, StandardCharsets.UTF_8), '\n');
+        if (instanceId.equals(values[0])) return;  // local copies are already updated by sender
+        localCacheStore.delete(Arrays.copyOfRange(values, 1, values.length));
+    }
+}
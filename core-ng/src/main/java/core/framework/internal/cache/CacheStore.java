@@ -19,6 +19,15 @@ public interface CacheStore {   // all keys here are direct cacheKey, not the ke
 
     <T> void putAll(List<Entry<T>> values, Duration expiration, CacheContext<T> context);
 
+    // put values loaded by cache loader after miss or refresh, not updated by application, store may skip work only needed for updates
+    default <T> void putLoaded(String key, T value, Duration expiration, CacheContext<T> context) {
+        put(key, value, expiration, context);
+    }
+
+    default <T> void putAllLoaded(List<Entry<T>> values, Duration expiration, CacheContext<T> context) {
+        putAll(values, expiration, context);
+    }
+
     boolean delete(String... keys);
 
     record Entry<T>(String key, T value) {
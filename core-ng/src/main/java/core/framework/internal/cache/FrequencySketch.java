@@ -0,0 +1,85 @@
+package core.framework.internal.cache;
+
+/**
+ * count-min sketch with 4 bits counters to estimate access frequency of keys, used by TinyLFU admission,
+ * counters are halved after sample size of accesses, to keep frequency of recent history
+ * refer to https://arxiv.org/abs/1512.00727
+ *
+ * not thread safe, all methods must be called within lock
+ *
+ * @author neo
+ */
+final class FrequencySketch {
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+
+    static int spread(int hash) {
+        int value = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        value = ((value >>> 16) ^ value) * 0x45d9f3b;
+        return (value >>> 16) ^ value;
+    }
+
+    long[] table = new long[0];
+    private int tableMask;
+    private int sampleSize;
+    private int size;
+
+    // each long contains 16 counters, and table size is power of 2, so to have at least one counter per cache item
+    void ensureCapacity(int maxSize) {
+        int capacity = Math.max(Integer.highestOneBit(Math.max(maxSize, 2) - 1) << 1, 8);
+        if (table.length >= capacity) return;
+        table = new long[capacity];
+        tableMask = capacity - 1;
+        sampleSize = 10 * maxSize;
+        size = 0;
+    }
+
+    int frequency(String key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xFL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    void increment(String key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && ++size >= sampleSize) reset();
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        int offset = counter << 2;
+        long mask = 0xFL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    // halve all counters
+    void reset() {
+        int count = 0;
+        for (int i = 0; i < table.length; i++) {
+            count += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size = (size >>> 1) - (count >>> 2);
+    }
+
+    private int indexOf(int hash, int depth) {
+        long value = (hash + SEEDS[depth]) * SEEDS[depth];
+        value += value >>> 32;
+        return (int) value & tableMask;
+    }
+}
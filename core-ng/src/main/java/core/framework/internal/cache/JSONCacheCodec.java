@@ -0,0 +1,43 @@
+package core.framework.internal.cache;
+
+import core.framework.internal.json.JSONMapper;
+import core.framework.internal.json.JSONReader;
+import core.framework.internal.json.JSONWriter;
+import core.framework.internal.validate.Validator;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * @author neo
+ */
+public final class JSONCacheCodec<T> implements CacheCodec<T> {
+    private final JSONReader<T> reader;
+    private final JSONWriter<T> writer;
+    // only validate when retrieve cache from store, in case data in cache store is stale, e.g. the class structure is changed but still got old data from cache
+    // it's opposite as DB, which only validate on save
+    private final Validator<T> validator;
+
+    public JSONCacheCodec(Class<T> cacheClass) {
+        reader = JSONMapper.reader(cacheClass);
+        writer = JSONMapper.writer(cacheClass);
+        validator = Validator.of(cacheClass);
+    }
+
+    @Override
+    public byte[] encode(T value) {
+        return writer.toJSON(value);
+    }
+
+    @Nullable
+    @Override
+    public T decode(byte[] value) throws IOException {
+        T result = reader.fromJSON(value);
+        if (result == null) return null;
+
+        Map<String, String> errors = validator.errors(result, false);
+        if (errors != null) throw new IOException("failed to validate value from cache, errors=" + errors);
+        return result;
+    }
+}
@@ -8,13 +8,19 @@ import core.framework.internal.stat.Stats;
  */
 public class LocalCacheMetrics implements Metrics {
     private final LocalCacheStore cacheStore;
+    private final String statName;
 
     public LocalCacheMetrics(LocalCacheStore cacheStore) {
+        this(cacheStore, "cache_size");
+    }
+
+    public LocalCacheMetrics(LocalCacheStore cacheStore, String statName) {
         this.cacheStore = cacheStore;
+        this.statName = statName;
     }
 
     @Override
     public void collect(Stats stats) {
-        stats.put("cache_size", cacheStore.caches.size());
+        stats.put(statName, cacheStore.caches.size());
     }
 }
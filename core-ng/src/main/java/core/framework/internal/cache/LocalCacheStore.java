@@ -2,20 +2,35 @@ package core.framework.internal.cache;
 
 import core.framework.internal.log.filter.ArrayLogParam;
 import core.framework.util.Maps;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
+ * bounded local cache with W-TinyLFU eviction, refer to https://arxiv.org/abs/1512.00727
+ * new items enter small LRU window, then compete with victim of main segmented LRU (probation/protected) by estimated access frequency,
+ * expired items are evicted by timer wheel when writing or cleanup
+ *
+ * reads are lock free, and only record access if lock is available (lossy like caffeine read buffer), writes are serialized by lock,
+ * assume local cache is read heavy, which is used for rarely changed items
+ *
  * @author neo
  */
 public class LocalCacheStore implements CacheStore {
     final Map<String, CacheItem<?>> caches = Maps.newConcurrentHashMap();
     private final Logger logger = LoggerFactory.getLogger(LocalCacheStore.class);
+    private final ReentrantLock lock = new ReentrantLock();
+    // all following fields are guarded by lock
+    private final FrequencySketch sketch = new FrequencySketch();
+    private final TimerWheel timerWheel = new TimerWheel(System.currentTimeMillis());
+    private final AccessQueue window = new AccessQueue();
+    private final AccessQueue probation = new AccessQueue();
+    private final AccessQueue protectedQueue = new AccessQueue();
     public int maxSize = 10000;  // 10000 simple objects roughly takes 1M-10M heap + hashmap overhead
 
     @Override
@@ -24,16 +39,19 @@ public class LocalCacheStore implements CacheStore {
         return get(key, System.currentTimeMillis());
     }
 
+    @Nullable
     private <T> T get(String key, long now) {
         @SuppressWarnings("unchecked")
         CacheItem<T> item = (CacheItem<T>) caches.get(key);
-        if (item == null) return null;
-        if (item.expired(now)) {
-            caches.remove(key);
-            return null;
+        if (item != null && item.expired(now)) item = null;    // expired item will be removed by timer wheel
+        if (lock.tryLock()) {   // skip recording access under contention, it only impacts eviction accuracy
+            try {
+                recordAccess(key, item);
+            } finally {
+                lock.unlock();
+            }
         }
-        item.hits++;
-        return item.value;
+        return item == null ? null : item.value;
     }
 
     @Override
@@ -51,16 +69,30 @@ public class LocalCacheStore implements CacheStore {
     @Override
     public <T> void put(String key, T value, Duration expiration, CacheContext<T> context) {
         logger.debug("put, key={}, expiration={}", key, expiration);
-        long expirationTime = System.currentTimeMillis() + expiration.toMillis();
-        caches.put(key, new CacheItem<>(value, expirationTime));
+        long now = System.currentTimeMillis();
+        long expirationTime = now + expiration.toMillis();
+        lock.lock();
+        try {
+            put(new CacheItem<>(key, value, expirationTime), now);
+            maintain(now);
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
     public <T> void putAll(List<Entry<T>> values, Duration expiration, CacheContext<T> context) {
         logger.debug("putAll, keys={}, expiration={}", new ArrayLogParam(keys(values)), expiration);
-        long expirationTime = System.currentTimeMillis() + expiration.toMillis();
-        for (Entry<T> value : values) {
-            caches.put(value.key(), new CacheItem<>(value.value(), expirationTime));
+        long now = System.currentTimeMillis();
+        long expirationTime = now + expiration.toMillis();
+        lock.lock();
+        try {
+            for (Entry<T> value : values) {
+                put(new CacheItem<>(value.key(), value.value(), expirationTime), now);
+            }
+            maintain(now);
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -78,58 +110,149 @@ public class LocalCacheStore implements CacheStore {
     public boolean delete(String... keys) {
         logger.debug("delete, keys={}", new ArrayLogParam(keys));
         boolean deleted = false;
-        for (String key : keys) {
-            CacheItem<?> previous = caches.remove(key);
-            if (!deleted && previous != null) deleted = true;
+        lock.lock();
+        try {
+            for (String key : keys) {
+                CacheItem<?> previous = caches.remove(key);
+                if (previous != null) {
+                    unlink(previous);
+                    deleted = true;
+                }
+            }
+        } finally {
+            lock.unlock();
         }
         return deleted;
     }
 
-    public void cleanup() {    // cleanup is only called by background thread with fixed delay, not need to synchronize
+    public void cleanup() {    // expire items in case there is no write for long time
         logger.info("clean up local cache store");
-        long now = System.currentTimeMillis();
-        caches.values().removeIf(item -> item.expired(now));
-        int size = caches.size();
-        if (size > maxSize) {
-            logger.info("evict least frequently used cache items, currentSize={}, maxSize={}", size, maxSize);
-            int evictSize = size - maxSize;
-            evictLeastFrequentlyUsedItems(evictSize);
-        }
-    }
-
-    // use LFU to trade off between simplicity and access efficiency,
-    // assume local cache is only used for rarely changed items, and tolerate stale data, or use message to notify updates
-    // cleanup is running in background thread, it maintains approximate maxSize loosely
-    private void evictLeastFrequentlyUsedItems(int evictSize) {
-        Map<Integer, Integer> sizes = new TreeMap<>();
-        for (CacheItem<?> item : caches.values()) {
-            int hits = item.hits;
-            int size = sizes.getOrDefault(hits, 0);
-            sizes.put(hits, size + 1);
-        }
-        int minHits = 0;
-        int currentEvictSize = 0;
-        for (Map.Entry<Integer, Integer> entry : sizes.entrySet()) {
-            currentEvictSize += entry.getValue();
-            if (currentEvictSize >= evictSize) {
-                minHits = entry.getKey();
-                break;
-            }
+        lock.lock();
+        try {
+            maintain(System.currentTimeMillis());
+        } finally {
+            lock.unlock();
         }
-        int targetHits = minHits;
-        caches.values().removeIf(item -> item.hits <= targetHits);
     }
 
     public void clear() {
-        caches.clear();
+        lock.lock();
+        try {
+            caches.clear();
+            window.clear();
+            probation.clear();
+            protectedQueue.clear();
+            timerWheel.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(CacheItem<?> item, long now) {
+        if (item.expired(now)) {    // e.g. expiration is zero
+            CacheItem<?> previous = caches.remove(item.key);
+            if (previous != null) unlink(previous);
+            return;
+        }
+
+        sketch.ensureCapacity(maxSize);
+        sketch.increment(item.key);
+        CacheItem<?> previous = caches.put(item.key, item);
+        AccessQueue queue = window;
+        if (previous != null) {
+            if (previous.queue != null) queue = previous.queue;     // keep updated item in same segment
+            unlink(previous);
+        }
+        queue.add(item);
+        timerWheel.schedule(item);
+    }
+
+    private void recordAccess(String key, @Nullable CacheItem<?> item) {
+        sketch.ensureCapacity(maxSize);
+        sketch.increment(key);
+        if (item == null || item.queue == null) return;    // item may be removed between map lookup and lock
+
+        if (item.queue == window) {
+            window.moveToLast(item);
+        } else if (item.queue == probation) {
+            probation.remove(item);
+            protectedQueue.add(item);
+            int maxProtectedSize = maxMainSize() * 4 / 5;
+            while (protectedQueue.size > maxProtectedSize) {
+                CacheItem<?> demoted = protectedQueue.first();
+                protectedQueue.remove(demoted);
+                probation.add(demoted);
+            }
+        } else {
+            protectedQueue.moveToLast(item);
+        }
+    }
+
+    private void maintain(long now) {
+        timerWheel.advance(now, this::evict);
+
+        int maxWindowSize = maxSize - maxMainSize();
+        while (window.size > maxWindowSize) {
+            CacheItem<?> candidate = window.first();
+            window.remove(candidate);
+            if (probation.size + protectedQueue.size < maxMainSize()) {
+                probation.add(candidate);
+            } else {
+                admit(candidate);
+            }
+        }
+    }
+
+    // TinyLFU admission, candidate from window only replaces victim of main if it's accessed more frequently
+    private void admit(CacheItem<?> candidate) {
+        CacheItem<?> victim = probation.size > 0 ? probation.first() : protectedQueue.first();
+        if (victim != null && sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+            evict(victim);
+            probation.add(candidate);
+        } else {
+            evict(candidate);
+        }
     }
 
-    static class CacheItem<T> {
+    // main takes 99% of capacity, and window takes 1%
+    private int maxMainSize() {
+        return maxSize - Math.max(1, maxSize / 100);
+    }
+
+    private void evict(CacheItem<?> item) {
+        caches.remove(item.key, item);
+        unlink(item);
+    }
+
+    private void unlink(CacheItem<?> item) {
+        if (item.queue != null) item.queue.remove(item);
+        timerWheel.deschedule(item);
+    }
+
+    static final class CacheItem<T> {
+        static CacheItem<?> sentinel() {
+            var sentinel = new CacheItem<>("", null, Long.MAX_VALUE);
+            sentinel.previous = sentinel;
+            sentinel.next = sentinel;
+            sentinel.timerPrevious = sentinel;
+            sentinel.timerNext = sentinel;
+            return sentinel;
+        }
+
+        final String key;
         final T value;
         final long expirationTime;
-        int hits;
 
-        CacheItem(T value, long expirationTime) {
+        // links of access queue and timer wheel, guarded by lock
+        @Nullable
+        AccessQueue queue;
+        CacheItem<?> previous;
+        CacheItem<?> next;
+        CacheItem<?> timerPrevious;
+        CacheItem<?> timerNext;
+
+        CacheItem(String key, T value, long expirationTime) {
+            this.key = key;
             this.value = value;
             this.expirationTime = expirationTime;
         }
@@ -138,4 +261,45 @@ public class LocalCacheStore implements CacheStore {
             return now >= expirationTime;
         }
     }
+
+    // LRU ordered double linked list, first is least recently used
+    static final class AccessQueue {
+        private final CacheItem<?> head = CacheItem.sentinel();
+        int size;
+
+        void add(CacheItem<?> item) {
+            CacheItem<?> last = head.previous;
+            item.previous = last;
+            item.next = head;
+            last.next = item;
+            head.previous = item;
+            item.queue = this;
+            size++;
+        }
+
+        void remove(CacheItem<?> item) {
+            item.previous.next = item.next;
+            item.next.previous = item.previous;
+            item.previous = null;
+            item.next = null;
+            item.queue = null;
+            size--;
+        }
+
+        void moveToLast(CacheItem<?> item) {
+            remove(item);
+            add(item);
+        }
+
+        @Nullable
+        CacheItem<?> first() {
+            return head.next == head ? null : head.next;
+        }
+
+        void clear() {
+            head.previous = head;
+            head.next = head;
+            size = 0;
+        }
+    }
 }
@@ -0,0 +1,107 @@
+package core.framework.internal.cache;
+
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * local cache in front of redis, to save network round trip and deserialization for read heavy cache,
+ * updates are written to redis and broadcast to evict local copies of other instances,
+ * local copy expires after localDuration, which bounds stale data in case invalidation message is lost
+ *
+ * @author neo
+ */
+public class NearCacheStore implements CacheStore {
+    private final LocalCacheStore localCacheStore;
+    private final CacheStore redisCacheStore;
+    private final CacheInvalidator invalidator;
+    private final Duration localDuration;
+
+    public NearCacheStore(LocalCacheStore localCacheStore, CacheStore redisCacheStore, CacheInvalidator invalidator, Duration localDuration) {
+        this.localCacheStore = localCacheStore;
+        this.redisCacheStore = redisCacheStore;
+        this.invalidator = invalidator;
+        this.localDuration = localDuration;
+    }
+
+    @Nullable
+    @Override
+    public <T> T get(String key, CacheContext<T> context) {
+        T value = localCacheStore.get(key, context);
+        if (value != null) return value;
+
+        value = redisCacheStore.get(key, context);
+        if (value != null) localCacheStore.put(key, value, localDuration, context);
+        return value;
+    }
+
+    @Override
+    public <T> Map<String, T> getAll(String[] keys, CacheContext<T> context) {
+        Map<String, T> values = localCacheStore.getAll(keys, context);
+        if (values.size() == keys.length) return values;
+
+        List<String> missingKeys = new ArrayList<>(keys.length - values.size());
+        for (String key : keys) {
+            if (!values.containsKey(key)) missingKeys.add(key);
+        }
+        Map<String, T> redisValues = redisCacheStore.getAll(missingKeys.toArray(String[]::new), context);
+        if (!redisValues.isEmpty()) {
+            List<Entry<T>> entries = new ArrayList<>(redisValues.size());
+            for (Map.Entry<String, T> entry : redisValues.entrySet()) {
+                entries.add(new Entry<>(entry.getKey(), entry.getValue()));
+            }
+            localCacheStore.putAll(entries, localDuration, context);
+        }
+        Map<String, T> results = new HashMap<>(values);
+        results.putAll(redisValues);
+        return results;
+    }
+
+    @Override
+    public <T> void put(String key, T value, Duration expiration, CacheContext<T> context) {
+        redisCacheStore.put(key, value, expiration, context);
+        localCacheStore.put(key, value, localExpiration(expiration), context);
+        invalidator.invalidate(key);
+    }
+
+    @Override
+    public <T> void putAll(List<Entry<T>> values, Duration expiration, CacheContext<T> context) {
+        redisCacheStore.putAll(values, expiration, context);
+        localCacheStore.putAll(values, localExpiration(expiration), context);
+        String[] keys = new String[values.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = values.get(i).key();
+        }
+        invalidator.invalidate(keys);
+    }
+
+    // not broadcast for loaded values, other instances can only hold local copies read from redis before, which are bounded by localDuration as usual,
+    // updates/evictions via Cache<T> are broadcast by put/delete, so publishing on every miss is pure overhead for read heavy cache
+    @Override
+    public <T> void putLoaded(String key, T value, Duration expiration, CacheContext<T> context) {
+        redisCacheStore.put(key, value, expiration, context);
+        localCacheStore.put(key, value, localExpiration(expiration), context);
+    }
+
+    @Override
+    public <T> void putAllLoaded(List<Entry<T>> values, Duration expiration, CacheContext<T> context) {
+        redisCacheStore.putAll(values, expiration, context);
+        localCacheStore.putAll(values, localExpiration(expiration), context);
+    }
+
+    @Override
+    public boolean delete(String... keys) {
+        boolean deleted = redisCacheStore.delete(keys);
+        localCacheStore.delete(keys);
+        invalidator.invalidate(keys);
+        return deleted;
+    }
+
+    private Duration localExpiration(Duration expiration) {
+        return expiration.compareTo(localDuration) < 0 ? expiration : localDuration;
+    }
+}
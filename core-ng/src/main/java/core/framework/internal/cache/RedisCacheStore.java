@@ -1,9 +1,7 @@
 package core.framework.internal.cache;
 
-import core.framework.internal.json.JSONReader;
 import core.framework.internal.redis.RedisException;
 import core.framework.internal.redis.RedisImpl;
-import core.framework.internal.validate.Validator;
 import core.framework.util.Maps;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
@@ -35,7 +33,7 @@ public class RedisCacheStore implements CacheStore {
         try {
             byte[] value = redis.getBytes(key);
             if (value == null) return null;
-            return deserialize(value, context.reader, context.validator);
+            return deserialize(value, context.codec);
         } catch (UncheckedIOException | RedisException e) {
             logger.warn(errorCode("CACHE_STORE_FAILED"), "failed to connect to redis, error={}", e.getMessage(), e);
             return null;
@@ -48,7 +46,7 @@ public class RedisCacheStore implements CacheStore {
             Map<String, byte[]> redisValues = redis.multiGetBytes(keys);
             Map<String, T> values = Maps.newHashMapWithExpectedSize(redisValues.size());
             for (Map.Entry<String, byte[]> entry : redisValues.entrySet()) {
-                T value = deserialize(entry.getValue(), context.reader, context.validator);
+                T value = deserialize(entry.getValue(), context.codec);
                 if (value != null) {
                     values.put(entry.getKey(), value);
                 }
@@ -60,18 +58,10 @@ public class RedisCacheStore implements CacheStore {
         }
     }
 
-    private <T> T deserialize(byte[] value, JSONReader<T> reader, Validator<T> validator) {
+    @Nullable
+    private <T> T deserialize(byte[] value, CacheCodec<T> codec) {
         try {
-            T result = reader.fromJSON(value);
-            if (result == null) return null;
-
-            Map<String, String> errors = validator.errors(result, false);
-            if (errors != null) {
-                logger.warn(errorCode("INVALID_CACHE_DATA"), "failed to validate value from cache, will reload, errors={}", errors);
-                return null;
-            }
-
-            return result;
+            return codec.decode(value);
         } catch (IOException e) {
             logger.warn(errorCode("INVALID_CACHE_DATA"), "failed to deserialize value from cache, will reload, error={}", e.getMessage(), e);
             return null;
@@ -81,7 +71,7 @@ public class RedisCacheStore implements CacheStore {
     @Override
     public <T> void put(String key, T value, Duration expiration, CacheContext<T> context) {
         try {
-            redis.set(key, context.writer.toJSON(value), expiration, false);
+            redis.set(key, context.codec.encode(value), expiration, false);
         } catch (UncheckedIOException | RedisException e) {
             logger.warn(errorCode("CACHE_STORE_FAILED"), "failed to connect to redis, error={}", e.getMessage(), e);
         }
@@ -91,7 +81,7 @@ public class RedisCacheStore implements CacheStore {
     public <T> void putAll(List<Entry<T>> values, Duration expiration, CacheContext<T> context) {
         Map<String, byte[]> cacheValues = Maps.newHashMapWithExpectedSize(values.size());
         for (Entry<T> value : values) {
-            cacheValues.put(value.key(), context.writer.toJSON(value.value()));
+            cacheValues.put(value.key(), context.codec.encode(value.value()));
         }
         try {
             redis.multiSet(cacheValues, expiration);
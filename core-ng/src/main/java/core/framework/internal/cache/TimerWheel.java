@@ -0,0 +1,108 @@
+package core.framework.internal.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * hierarchical timer wheel to expire cache items in O(1), refer to http://www.cs.columbia.edu/~nahum/w6998/papers/ton97-timing-wheels.pdf
+ * items are put into bucket by expiration time, with coarse granularity (~1s for the first wheel),
+ * when time advances, items in passed buckets are either expired or rescheduled into finer wheel
+ *
+ * not thread safe, all methods must be called within lock
+ *
+ * @author neo
+ */
+final class TimerWheel {
+    // spans are in ms, power of 2, ~1s, ~1m, ~1h, ~1d, ~6d
+    static final int[] BUCKETS = {64, 64, 32, 4, 1};
+    static final long[] SPANS = {1L << 10, 1L << 16, 1L << 22, 1L << 27, 1L << 29, 1L << 29};
+    private static final int[] SHIFTS = {10, 16, 22, 27, 29};
+
+    final LocalCacheStore.CacheItem<?>[][] wheel = new LocalCacheStore.CacheItem<?>[BUCKETS.length][];
+    long currentTime;
+
+    TimerWheel(long currentTime) {
+        this.currentTime = currentTime;
+        for (int i = 0; i < BUCKETS.length; i++) {
+            wheel[i] = new LocalCacheStore.CacheItem<?>[BUCKETS[i]];
+            for (int j = 0; j < BUCKETS[i]; j++) {
+                wheel[i][j] = LocalCacheStore.CacheItem.sentinel();
+            }
+        }
+    }
+
+    void schedule(LocalCacheStore.CacheItem<?> item) {
+        LocalCacheStore.CacheItem<?> sentinel = bucket(item.expirationTime);
+        LocalCacheStore.CacheItem<?> last = sentinel.timerPrevious;
+        item.timerPrevious = last;
+        item.timerNext = sentinel;
+        last.timerNext = item;
+        sentinel.timerPrevious = item;
+    }
+
+    void deschedule(LocalCacheStore.CacheItem<?> item) {
+        if (item.timerNext == null) return;
+        item.timerNext.timerPrevious = item.timerPrevious;
+        item.timerPrevious.timerNext = item.timerNext;
+        item.timerNext = null;
+        item.timerPrevious = null;
+    }
+
+    void clear() {
+        for (LocalCacheStore.CacheItem<?>[] buckets : wheel) {
+            for (LocalCacheStore.CacheItem<?> sentinel : buckets) {
+                sentinel.timerPrevious = sentinel;
+                sentinel.timerNext = sentinel;
+            }
+        }
+    }
+
+    // advance to current time, and pass all expired items to expiration
+    void advance(long now, Consumer<LocalCacheStore.CacheItem<?>> expiration) {
+        long previousTime = currentTime;
+        currentTime = now;
+        for (int i = 0; i < SHIFTS.length; i++) {
+            long previousTicks = previousTime >>> SHIFTS[i];
+            long currentTicks = now >>> SHIFTS[i];
+            if (currentTicks - previousTicks <= 0) break;
+            expire(i, previousTicks, currentTicks - previousTicks, expiration);
+        }
+    }
+
+    private void expire(int index, long previousTicks, long delta, Consumer<LocalCacheStore.CacheItem<?>> expiration) {
+        LocalCacheStore.CacheItem<?>[] buckets = wheel[index];
+        int mask = buckets.length - 1;
+        int steps = (int) Math.min(1 + delta, buckets.length);
+        int start = (int) (previousTicks & mask);
+        int end = start + steps;
+        for (int i = start; i < end; i++) {
+            LocalCacheStore.CacheItem<?> sentinel = buckets[i & mask];
+            LocalCacheStore.CacheItem<?> item = sentinel.timerNext;
+            sentinel.timerPrevious = sentinel;
+            sentinel.timerNext = sentinel;
+            while (item != sentinel) {
+                LocalCacheStore.CacheItem<?> next = item.timerNext;
+                item.timerPrevious = null;
+                item.timerNext = null;
+                if (item.expired(currentTime)) {
+                    expiration.accept(item);
+                } else {
+                    schedule(item);     // not expired yet, move to finer wheel
+                }
+                item = next;
+            }
+        }
+    }
+
+    private LocalCacheStore.CacheItem<?> bucket(long time) {
+        long duration = time - currentTime;
+        int length = wheel.length - 1;
+        for (int i = 0; i < length; i++) {
+            if (duration < SPANS[i + 1]) {
+                long ticks = time >>> SHIFTS[i];
+                int index = (int) (ticks & (wheel[i].length - 1));
+                return wheel[i][index];
+            }
+        }
+        return wheel[length][0];
+    }
+}
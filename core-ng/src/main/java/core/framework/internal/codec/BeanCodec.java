@@ -0,0 +1,10 @@
+package core.framework.internal.codec;
+
+/**
+ * @author neo
+ */
+public interface BeanCodec {    // generated by BeanCodecBuilder
+    void encode(BinaryOutput output, Object bean);
+
+    Object decode(BinaryInput input);
+}
@@ -0,0 +1,213 @@
+package core.framework.internal.codec;
+
+import core.framework.internal.asm.CodeBuilder;
+import core.framework.internal.asm.DynamicInstanceBuilder;
+import core.framework.internal.reflect.Classes;
+import core.framework.internal.reflect.GenericTypes;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+import static core.framework.internal.asm.Literal.type;
+
+/**
+ * generate codec to write/read fields in declared order, the schema (field names/types, enum constants) is hashed as fingerprint,
+ * so value written by different class structure can be detected
+ *
+ * @author neo
+ */
+public final class BeanCodecBuilder<T> {
+    private static final Map<Class<?>, String> VALUE_TYPES = Map.ofEntries(
+        Map.entry(String.class, "String"),
+        Map.entry(Boolean.class, "Boolean"),
+        Map.entry(Integer.class, "Integer"),
+        Map.entry(Long.class, "Long"),
+        Map.entry(Double.class, "Double"),
+        Map.entry(BigDecimal.class, "BigDecimal"),
+        Map.entry(LocalDate.class, "LocalDate"),
+        Map.entry(LocalDateTime.class, "LocalDateTime"),
+        Map.entry(ZonedDateTime.class, "ZonedDateTime"),
+        Map.entry(Instant.class, "Instant"),
+        Map.entry(LocalTime.class, "LocalTime"),
+        Map.entry(UUID.class, "UUID"));
+
+    final DynamicInstanceBuilder<BeanCodec> builder;
+    private final Class<T> beanClass;
+    private final StringBuilder schema = new StringBuilder();
+    private final Map<Class<?>, String> encodeMethods = new HashMap<>();
+    private final Map<Class<?>, String> decodeMethods = new HashMap<>();
+    private final Map<Class<?>, String> enumFields = new HashMap<>();
+    private int index;
+
+    public BeanCodecBuilder(Class<T> beanClass) {
+        this.beanClass = beanClass;
+        builder = new DynamicInstanceBuilder<>(BeanCodec.class, beanClass.getSimpleName());
+    }
+
+    public BeanCodec build() {
+        String encodeMethod = encodeMethod(beanClass);
+        var builder = new CodeBuilder().append("public void encode({} output, Object bean) {\n", type(BinaryOutput.class));
+        builder.indent(1).append("{}(output, ({}) bean);\n", encodeMethod, type(beanClass));
+        builder.append('}');
+        this.builder.addMethod(builder.build());
+
+        String decodeMethod = decodeMethod(beanClass);
+        builder = new CodeBuilder().append("public Object decode({} input) {\n", type(BinaryInput.class));
+        builder.indent(1).append("return {}(input);\n", decodeMethod);
+        builder.append('}');
+        this.builder.addMethod(builder.build());
+
+        return this.builder.build();
+    }
+
+    public int fingerprint() {
+        var crc = new CRC32C();
+        crc.update(schema.toString().getBytes(StandardCharsets.UTF_8));
+        return (int) crc.getValue();
+    }
+
+    private String encodeMethod(Class<?> beanClass) {
+        String methodName = encodeMethods.get(beanClass);
+        if (methodName != null) return methodName;
+        methodName = "encode" + beanClass.getSimpleName() + (index++);
+        encodeMethods.put(beanClass, methodName);
+
+        schema.append(beanClass.getName()).append('{');
+        var builder = new CodeBuilder().append("private void {}({} output, {} bean) {\n", methodName, type(BinaryOutput.class), type(beanClass));
+        builder.indent(1).append("if (!output.writePresence(bean)) return;\n");
+        for (Field field : Classes.instanceFields(beanClass)) {
+            schema.append(field.getName()).append(':').append(field.getGenericType().getTypeName()).append(';');
+            encodeValue(builder, field.getGenericType(), "bean." + field.getName(), 1);
+        }
+        schema.append('}');
+        builder.append('}');
+        this.builder.addMethod(builder.build());
+        return methodName;
+    }
+
+    private void encodeValue(CodeBuilder builder, Type type, String value, int indent) {
+        Class<?> valueClass = GenericTypes.rawClass(type);
+        String valueType = VALUE_TYPES.get(valueClass);
+        if (valueType != null) {
+            builder.indent(indent).append("output.write{}({});\n", valueType, value);
+        } else if (valueClass.isEnum()) {
+            enumField(valueClass);
+            builder.indent(indent).append("output.writeEnum({});\n", value);
+        } else if (GenericTypes.isList(type)) {
+            int index = this.index++;
+            builder.indent(indent).append("java.util.List list{} = {};\n", index, value);
+            builder.indent(indent).append("if (list{} == null) output.writeNull();\n", index);
+            builder.indent(indent).append("else {\n");
+            builder.indent(indent + 1).append("output.writeSize(list{}.size());\n", index);
+            builder.indent(indent + 1).append("java.util.Iterator iterator{} = list{}.iterator();\n", index, index);
+            builder.indent(indent + 1).append("while (iterator{}.hasNext()) {\n", index);
+            Class<?> elementClass = GenericTypes.listValueClass(type);
+            encodeValue(builder, elementClass, "(" + type(elementClass) + ") iterator" + index + ".next()", indent + 2);
+            builder.indent(indent + 1).append("}\n");
+            builder.indent(indent).append("}\n");
+        } else if (GenericTypes.isMap(type)) {
+            int index = this.index++;
+            builder.indent(indent).append("java.util.Map map{} = {};\n", index, value);
+            builder.indent(indent).append("if (map{} == null) output.writeNull();\n", index);
+            builder.indent(indent).append("else {\n");
+            builder.indent(indent + 1).append("output.writeSize(map{}.size());\n", index);
+            builder.indent(indent + 1).append("java.util.Iterator iterator{} = map{}.entrySet().iterator();\n", index, index);
+            builder.indent(indent + 1).append("while (iterator{}.hasNext()) {\n", index);
+            builder.indent(indent + 2).append("java.util.Map.Entry entry{} = (java.util.Map.Entry) iterator{}.next();\n", index, index);
+            Class<?> keyClass = GenericTypes.mapKeyClass(type);
+            encodeValue(builder, keyClass, "(" + type(keyClass) + ") entry" + index + ".getKey()", indent + 2);
+            Type valueTypeOfMap = GenericTypes.mapValueType(type);
+            encodeValue(builder, valueTypeOfMap, "(" + type(GenericTypes.rawClass(valueTypeOfMap)) + ") entry" + index + ".getValue()", indent + 2);
+            builder.indent(indent + 1).append("}\n");
+            builder.indent(indent).append("}\n");
+        } else {
+            String method = encodeMethod(valueClass);
+            builder.indent(indent).append("{}(output, {});\n", method, value);
+        }
+    }
+
+    private String decodeMethod(Class<?> beanClass) {
+        String methodName = decodeMethods.get(beanClass);
+        if (methodName != null) return methodName;
+        methodName = "decode" + beanClass.getSimpleName() + (index++);
+        decodeMethods.put(beanClass, methodName);
+
+        var builder = new CodeBuilder().append("private {} {}({} input) {\n", type(beanClass), methodName, type(BinaryInput.class));
+        builder.indent(1).append("if (!input.readPresence()) return null;\n");
+        builder.indent(1).append("{} bean = new {}();\n", type(beanClass), type(beanClass));
+        for (Field field : Classes.instanceFields(beanClass)) {
+            String value = decodeValue(builder, field.getGenericType(), 1);
+            builder.indent(1).append("bean.{} = {};\n", field.getName(), value);
+        }
+        builder.indent(1).append("return bean;\n");
+        builder.append('}');
+        this.builder.addMethod(builder.build());
+        return methodName;
+    }
+
+    // append statements to prepare value if needed, and return value expression
+    private String decodeValue(CodeBuilder builder, Type type, int indent) {
+        Class<?> valueClass = GenericTypes.rawClass(type);
+        String valueType = VALUE_TYPES.get(valueClass);
+        if (valueType != null) {
+            return "input.read" + valueType + "()";
+        } else if (valueClass.isEnum()) {
+            return "(" + type(valueClass) + ") input.readEnum(" + enumField(valueClass) + ")";
+        } else if (GenericTypes.isList(type)) {
+            int index = this.index++;
+            builder.indent(indent).append("java.util.List list{} = null;\n", index);
+            builder.indent(indent).append("int size{} = input.readCollectionSize();\n", index);
+            builder.indent(indent).append("if (size{} >= 0) {\n", index);
+            builder.indent(indent + 1).append("list{} = new java.util.ArrayList(size{});\n", index, index);
+            builder.indent(indent + 1).append("for (int i{} = 0; i{} < size{}; i{}++) {\n", index, index, index, index);
+            String element = decodeValue(builder, GenericTypes.listValueClass(type), indent + 2);
+            builder.indent(indent + 2).append("list{}.add({});\n", index, element);
+            builder.indent(indent + 1).append("}\n");
+            builder.indent(indent).append("}\n");
+            return "list" + index;
+        } else if (GenericTypes.isMap(type)) {
+            int index = this.index++;
+            Class<?> keyClass = GenericTypes.mapKeyClass(type);
+            builder.indent(indent).append("java.util.Map map{} = null;\n", index);
+            builder.indent(indent).append("int size{} = input.readCollectionSize();\n", index);
+            builder.indent(indent).append("if (size{} >= 0) {\n", index);
+            if (keyClass.isEnum()) builder.indent(indent + 1).append("map{} = new java.util.EnumMap({});\n", index, type(keyClass) + ".class");
+            else builder.indent(indent + 1).append("map{} = new java.util.LinkedHashMap(size{});\n", index, index);    // keep order as JSON
+            builder.indent(indent + 1).append("for (int i{} = 0; i{} < size{}; i{}++) {\n", index, index, index, index);
+            String key = decodeValue(builder, keyClass, indent + 2);
+            builder.indent(indent + 2).append("Object key{} = {};\n", index, key);
+            String value = decodeValue(builder, GenericTypes.mapValueType(type), indent + 2);
+            builder.indent(indent + 2).append("map{}.put(key{}, {});\n", index, index, value);
+            builder.indent(indent + 1).append("}\n");
+            builder.indent(indent).append("}\n");
+            return "map" + index;
+        } else {
+            return decodeMethod(valueClass) + "(input)";
+        }
+    }
+
+    private String enumField(Class<?> enumClass) {
+        String field = enumFields.get(enumClass);
+        if (field != null) return field;
+        field = "enumValues" + (index++);
+        enumFields.put(enumClass, field);
+        schema.append(enumClass.getName()).append('[');
+        for (Object constant : enumClass.getEnumConstants()) {
+            schema.append(((Enum<?>) constant).name()).append(',');
+        }
+        schema.append("];");
+        builder.addField("private final {}[] {} = {}.values();", type(enumClass), field, type(enumClass));
+        return field;
+    }
+}
@@ -0,0 +1,167 @@
+package core.framework.internal.codec;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * used by generated BeanCodec, read values written by BinaryOutput, throws IndexOutOfBoundsException if data is truncated
+ *
+ * @author neo
+ */
+public final class BinaryInput {
+    private final byte[] buffer;
+    private int position;
+
+    public BinaryInput(byte[] buffer, int position) {
+        this.buffer = buffer;
+        this.position = position;
+    }
+
+    // return -1 if null
+    public int readSize() {
+        return readVarInt() - 1;
+    }
+
+    // every element takes at least 1 byte, reject malformed size before preallocating collection
+    public int readCollectionSize() {
+        int size = readSize();
+        if (size > buffer.length - position) throw new IndexOutOfBoundsException("invalid collection size, size=" + size);
+        return size;
+    }
+
+    public boolean readPresence() {
+        return readByte() != 0;
+    }
+
+    public String readString() {
+        int length = readSize();
+        if (length < 0) return null;
+        checkLength(length);
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    public Boolean readBoolean() {
+        byte value = readByte();
+        if (value == 0) return null;
+        return value == 2;
+    }
+
+    public Integer readInteger() {
+        if (!readPresence()) return null;
+        return (int) unzigzag(readVarLong());
+    }
+
+    public Long readLong() {
+        if (!readPresence()) return null;
+        return unzigzag(readVarLong());
+    }
+
+    public Double readDouble() {
+        if (!readPresence()) return null;
+        return Double.longBitsToDouble(readFixedLong());
+    }
+
+    public BigDecimal readBigDecimal() {
+        if (!readPresence()) return null;
+        int scale = (int) unzigzag(readVarLong());
+        int length = readSize();
+        checkLength(length);
+        byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+        position += length;
+        return new BigDecimal(new BigInteger(bytes), scale);
+    }
+
+    public LocalDate readLocalDate() {
+        if (!readPresence()) return null;
+        return LocalDate.ofEpochDay(unzigzag(readVarLong()));
+    }
+
+    public LocalTime readLocalTime() {
+        if (!readPresence()) return null;
+        return LocalTime.ofNanoOfDay(readVarLong());
+    }
+
+    public LocalDateTime readLocalDateTime() {
+        if (!readPresence()) return null;
+        LocalDate date = LocalDate.ofEpochDay(unzigzag(readVarLong()));
+        return LocalDateTime.of(date, LocalTime.ofNanoOfDay(readVarLong()));
+    }
+
+    public Instant readInstant() {
+        if (!readPresence()) return null;
+        long seconds = unzigzag(readVarLong());
+        return Instant.ofEpochSecond(seconds, readVarLong());
+    }
+
+    public ZonedDateTime readZonedDateTime() {
+        if (!readPresence()) return null;
+        long seconds = unzigzag(readVarLong());
+        Instant instant = Instant.ofEpochSecond(seconds, readVarLong());
+        return ZonedDateTime.ofInstant(instant, ZoneId.of(readString()));
+    }
+
+    public UUID readUUID() {
+        if (!readPresence()) return null;
+        long mostSignificantBits = readFixedLong();
+        return new UUID(mostSignificantBits, readFixedLong());
+    }
+
+    public Enum<?> readEnum(Enum<?>[] values) {
+        int ordinal = readVarInt() - 1;
+        if (ordinal < 0) return null;
+        return values[ordinal];
+    }
+
+    byte readByte() {
+        return buffer[position++];
+    }
+
+    public int readFixedInt() {
+        checkLength(4);
+        int value = ((buffer[position] & 0xFF) << 24) | ((buffer[position + 1] & 0xFF) << 16) | ((buffer[position + 2] & 0xFF) << 8) | (buffer[position + 3] & 0xFF);
+        position += 4;
+        return value;
+    }
+
+    long readFixedLong() {
+        long high = readFixedInt();
+        return (high << 32) | (readFixedInt() & 0xFFFFFFFFL);
+    }
+
+    int readVarInt() {
+        return (int) readVarLong();
+    }
+
+    long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte current = buffer[position++];
+            value |= (long) (current & 0x7F) << shift;
+            if ((current & 0x80) == 0) return value;
+        }
+        throw new IllegalStateException("malformed varint");
+    }
+
+    public boolean hasRemaining() {
+        return position < buffer.length;
+    }
+
+    private long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private void checkLength(int length) {
+        if (length < 0 || position + length > buffer.length) throw new IndexOutOfBoundsException("invalid length, length=" + length);
+    }
+}
@@ -0,0 +1,177 @@
+package core.framework.internal.codec;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * used by generated BeanCodec, nullable values start with presence byte, string/list/map start with varint of size + 1, where 0 means null
+ *
+ * @author neo
+ */
+public final class BinaryOutput {
+    private byte[] buffer;
+    private int position;
+
+    public BinaryOutput(int capacity) {
+        buffer = new byte[capacity];
+    }
+
+    public void writeNull() {
+        writeByte(0);
+    }
+
+    public void writeSize(int size) {
+        writeVarInt(size + 1);
+    }
+
+    public boolean writePresence(Object value) {
+        boolean present = value != null;
+        writeByte(present ? 1 : 0);
+        return present;
+    }
+
+    public void writeString(String value) {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeSize(bytes.length);
+        writeBytes(bytes);
+    }
+
+    public void writeBoolean(Boolean value) {
+        if (value == null) writeByte(0);
+        else writeByte(value ? 2 : 1);
+    }
+
+    public void writeInteger(Integer value) {
+        if (writePresence(value)) writeVarLong(zigzag(value));
+    }
+
+    public void writeLong(Long value) {
+        if (writePresence(value)) writeVarLong(zigzag(value));
+    }
+
+    public void writeDouble(Double value) {
+        if (writePresence(value)) writeFixedLong(Double.doubleToLongBits(value));
+    }
+
+    public void writeBigDecimal(BigDecimal value) {
+        if (writePresence(value)) {
+            writeVarLong(zigzag(value.scale()));
+            byte[] bytes = value.unscaledValue().toByteArray();
+            writeSize(bytes.length);
+            writeBytes(bytes);
+        }
+    }
+
+    public void writeLocalDate(LocalDate value) {
+        if (writePresence(value)) writeVarLong(zigzag(value.toEpochDay()));
+    }
+
+    public void writeLocalTime(LocalTime value) {
+        if (writePresence(value)) writeVarLong(value.toNanoOfDay());
+    }
+
+    public void writeLocalDateTime(LocalDateTime value) {
+        if (writePresence(value)) {
+            writeVarLong(zigzag(value.toLocalDate().toEpochDay()));
+            writeVarLong(value.toLocalTime().toNanoOfDay());
+        }
+    }
+
+    public void writeInstant(Instant value) {
+        if (writePresence(value)) {
+            writeVarLong(zigzag(value.getEpochSecond()));
+            writeVarLong(value.getNano());
+        }
+    }
+
+    public void writeZonedDateTime(ZonedDateTime value) {
+        if (writePresence(value)) {
+            writeVarLong(zigzag(value.toEpochSecond()));
+            writeVarLong(value.getNano());
+            writeString(value.getZone().getId());
+        }
+    }
+
+    public void writeUUID(UUID value) {
+        if (writePresence(value)) {
+            writeFixedLong(value.getMostSignificantBits());
+            writeFixedLong(value.getLeastSignificantBits());
+        }
+    }
+
+    public void writeEnum(Enum<?> value) {
+        if (value == null) writeNull();
+        else writeVarInt(value.ordinal() + 1);
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    void writeBytes(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    public void writeFixedInt(int value) {
+        ensureCapacity(4);
+        buffer[position++] = (byte) (value >>> 24);
+        buffer[position++] = (byte) (value >>> 16);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+    }
+
+    void writeFixedLong(long value) {
+        writeFixedInt((int) (value >>> 32));
+        writeFixedInt((int) value);
+    }
+
+    void writeVarInt(int value) {
+        writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    void writeVarLong(long value) {
+        ensureCapacity(10);
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        buffer[position++] = (byte) remaining;
+    }
+
+    private long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private void ensureCapacity(int length) {
+        if (position + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, position + length));
+        }
+    }
+
+    public int size() {
+        return position;
+    }
+
+    public byte[] buffer() {
+        return buffer;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+}
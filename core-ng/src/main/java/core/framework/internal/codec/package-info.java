@@ -0,0 +1,4 @@
+@NullMarked
+package core.framework.internal.codec;
+
+import org.jspecify.annotations.NullMarked;
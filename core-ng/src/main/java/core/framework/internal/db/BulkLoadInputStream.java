@@ -0,0 +1,55 @@
+package core.framework.internal.db;
+
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * encode entities row by row while driver reads the stream, so it doesn't hold encoded content of all rows in memory
+ *
+ * @author neo
+ */
+final class BulkLoadInputStream<T> extends InputStream {
+    private final Iterator<T> entities;
+    private final InsertQuery<T> query;
+    private final BulkLoadWriter writer;
+    private int position;
+    int rows;
+
+    BulkLoadInputStream(List<T> entities, InsertQuery<T> query, BulkLoadWriter writer) {
+        this.entities = entities.iterator();
+        this.query = query;
+        this.writer = writer;
+    }
+
+    @Override
+    public int read() {
+        if (!fill()) return -1;
+        return writer.bytes[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) {
+        if (length == 0) return 0;
+        int count = 0;
+        while (count < length && fill()) {
+            int size = Math.min(length - count, writer.size - position);
+            System.arraycopy(writer.bytes, position, buffer, offset + count, size);
+            position += size;
+            count += size;
+        }
+        return count == 0 ? -1 : count;
+    }
+
+    // encode next rows if current ones are all read, return false if no more rows
+    private boolean fill() {
+        if (position < writer.size) return true;
+        writer.reset();
+        position = 0;
+        while (writer.size < 8192 && entities.hasNext()) {     // encode multiple small rows at once, to reduce number of small reads
+            query.encode(entities.next(), writer);
+            rows++;
+        }
+        return writer.size > 0;
+    }
+}
@@ -0,0 +1,156 @@
+package core.framework.internal.db;
+
+import org.jspecify.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * encode rows into tab separated text, which is default format of both mysql "LOAD DATA" and postgresql "COPY FROM" (text format),
+ * columns are separated by tab, rows end with newline, null is \N, backslash/tab/newline/carriage return are escaped by backslash
+ *
+ * used by generated code of core.framework.internal.db.InsertQueryBuilder, write methods must be called in column order
+ *
+ * @author neo
+ */
+public final class BulkLoadWriter {
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("uuuu-MM-dd HH:mm:ss.SSSSSS");
+    private static final byte[] NULL = {'\\', 'N'};
+
+    private final Dialect dialect;
+    private final EnumDBMapper enumMapper;
+    byte[] bytes = new byte[256];
+    int size;
+    private boolean firstColumn = true;
+
+    BulkLoadWriter(Dialect dialect, EnumDBMapper enumMapper) {
+        this.dialect = dialect;
+        this.enumMapper = enumMapper;
+    }
+
+    public void writeString(@Nullable String value) {
+        startColumn();
+        if (value == null) {
+            writeBytes(NULL);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(bytes.length * 2);
+        for (byte b : bytes) {  // multibyte utf-8 sequence never contains ascii bytes, so it's safe to escape by byte
+            switch (b) {
+                case '\\' -> escape((byte) '\\');
+                case '\t' -> escape((byte) 't');
+                case '\n' -> escape((byte) 'n');
+                case '\r' -> escape((byte) 'r');
+                default -> this.bytes[size++] = b;
+            }
+        }
+    }
+
+    public void writeNumber(@Nullable Number value) {
+        writeASCII(value == null ? null : value.toString());
+    }
+
+    public void writeDecimal(@Nullable BigDecimal value) {
+        writeASCII(value == null ? null : value.toPlainString());
+    }
+
+    public void writeBoolean(@Nullable Boolean value) {
+        writeASCII(value == null ? null : value ? "1" : "0");
+    }
+
+    public void writeDate(@Nullable LocalDate value) {
+        writeASCII(value == null ? null : value.toString());
+    }
+
+    public void writeDateTime(@Nullable LocalDateTime value) {
+        writeASCII(value == null ? null : DATE_TIME_FORMATTER.format(value));
+    }
+
+    // refer to core.framework.internal.db.DatabaseOperation.setParam, mysql saves UTC value, postgresql saves with time zone
+    public void writeZonedDateTime(@Nullable ZonedDateTime value) {
+        if (value == null) {
+            writeASCII(null);
+            return;
+        }
+        Instant instant = value.toInstant();
+        LocalDateTime dateTime = LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+        if (dialect == Dialect.POSTGRESQL) {
+            writeASCII(DATE_TIME_FORMATTER.format(dateTime) + "+00");
+        } else {
+            checkTimestamp(value);
+            writeASCII(DATE_TIME_FORMATTER.format(dateTime));
+        }
+    }
+
+    // mysql TIMESTAMP column starts from 1970-01-01 00:00:01 UTC, also called before streaming, not to fail in middle of bulk load
+    static void checkTimestamp(ZonedDateTime value) {
+        if (value.toInstant().getEpochSecond() <= 0) throw new Error("timestamp must be after 1970-01-01 00:00:00, value=" + value);
+    }
+
+    public void writeUUID(@Nullable UUID value) {
+        writeASCII(value == null ? null : value.toString());
+    }
+
+    public void writeEnum(@Nullable Enum<?> value) {
+        writeString(value == null ? null : enumMapper.getDBValue(value));
+    }
+
+    public void endRow() {
+        ensureCapacity(1);
+        bytes[size++] = '\n';
+        firstColumn = true;
+    }
+
+    void reset() {
+        size = 0;
+        firstColumn = true;
+    }
+
+    private void writeASCII(@Nullable String value) {
+        startColumn();
+        if (value == null) {
+            writeBytes(NULL);
+            return;
+        }
+        int length = value.length();
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            bytes[size++] = (byte) value.charAt(i);
+        }
+    }
+
+    private void startColumn() {
+        if (firstColumn) {
+            firstColumn = false;
+        } else {
+            ensureCapacity(1);
+            bytes[size++] = '\t';
+        }
+    }
+
+    private void escape(byte ch) {
+        bytes[size++] = '\\';
+        bytes[size++] = ch;
+    }
+
+    private void writeBytes(byte[] value) {
+        ensureCapacity(value.length);
+        System.arraycopy(value, 0, bytes, size, value.length);
+        size += value.length;
+    }
+
+    private void ensureCapacity(int length) {
+        if (size + length > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length << 1, size + length));
+        }
+    }
+}
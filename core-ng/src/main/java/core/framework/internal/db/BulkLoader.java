@@ -0,0 +1,71 @@
+package core.framework.internal.db;
+
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * bulk load is driver specific api, core-ng doesn't depend on jdbc driver at compile time (refer to DatabaseImpl.driver()), so to call by reflection,
+ * it's only called once per bulk load, reflection overhead is negligible
+ *
+ * @author neo
+ */
+final class BulkLoader {
+    // refer to org.postgresql.copy.CopyManager.copyIn(String, InputStream)
+    static long copyIn(Connection connection, String sql, InputStream stream) throws SQLException {
+        try {
+            Object pgConnection = connection.unwrap(PostgreSQL.CONNECTION_CLASS);
+            Object copyManager = PostgreSQL.GET_COPY_API.invoke(pgConnection);
+            return (long) PostgreSQL.COPY_IN.invoke(copyManager, sql, stream);
+        } catch (InvocationTargetException e) {
+            throw sqlException(e);
+        } catch (IllegalAccessException e) {
+            throw new Error(e);
+        }
+    }
+
+    // refer to com.mysql.cj.jdbc.JdbcStatement.setLocalInfileInputStream(InputStream),
+    // driver sends stream instead of reading local file, requires "local_infile=ON" on server and "allowLoadLocalInfile=true" in url
+    static long loadData(Connection connection, String sql, InputStream stream) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            Object mysqlStatement = statement.unwrap(MySQL.STATEMENT_CLASS);
+            MySQL.SET_LOCAL_INFILE_INPUT_STREAM.invoke(mysqlStatement, stream);
+            return statement.executeLargeUpdate(sql);
+        } catch (InvocationTargetException e) {
+            throw sqlException(e);
+        } catch (IllegalAccessException e) {
+            throw new Error(e);
+        }
+    }
+
+    private static SQLException sqlException(InvocationTargetException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof SQLException exception) return exception;
+        if (cause instanceof RuntimeException exception) throw exception;
+        if (cause instanceof Error error) throw error;
+        return new SQLException(cause);     // e.g. IOException from copyIn
+    }
+
+    private static Method method(String className, String name, Class<?>... parameterTypes) {
+        try {
+            return Class.forName(className).getMethod(name, parameterTypes);
+        } catch (ReflectiveOperationException e) {
+            throw new Error("bulk load is not supported by jdbc driver, class=" + className, e);
+        }
+    }
+
+    // lazy load driver classes in holder, only when bulk load is used
+    private static final class PostgreSQL {
+        static final Method GET_COPY_API = method("org.postgresql.PGConnection", "getCopyAPI");
+        static final Class<?> CONNECTION_CLASS = GET_COPY_API.getDeclaringClass();
+        static final Method COPY_IN = method("org.postgresql.copy.CopyManager", "copyIn", String.class, InputStream.class);
+    }
+
+    private static final class MySQL {
+        static final Method SET_LOCAL_INFILE_INPUT_STREAM = method("com.mysql.cj.jdbc.JdbcStatement", "setLocalInfileInputStream", InputStream.class);
+        static final Class<?> STATEMENT_CLASS = SET_LOCAL_INFILE_INPUT_STREAM.getDeclaringClass();
+    }
+}
@@ -24,12 +24,15 @@ import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * @author neo
@@ -42,27 +45,32 @@ public final class DatabaseImpl implements Database {
 
     public final Pool<Connection> pool;
     final DatabaseOperation operation;
+    final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger replicaIndex = new AtomicInteger();     // to spread reads among replicas with same outstanding requests
     private final Logger logger = LoggerFactory.getLogger(DatabaseImpl.class);
     private final Map<Class<?>, RowMapper<?>> rowMappers = new HashMap<>(32);
+    private final String name;
 
     public @Nullable String user;
     public @Nullable String password;
     public @Nullable CloudAuthProvider authProvider;
     public @Nullable IsolationLevel isolationLevel;
     public TransactionManager transactionManager;
+    public long batchGetWindowInNanos;      // coalesce concurrent repository.get() within window, 0 to disable
 
     private @Nullable String url;
     private @Nullable Properties driverProperties;
     private Duration timeout;
     private Driver driver;
+    private int minPoolSize = 5;    // default optimization for AWS medium/large instances
+    private int maxPoolSize = 50;
 
     public DatabaseImpl(String name) {
+        this.name = name;
         initializeRowMappers();
 
         pool = new Pool<>(this::createConnection, name);
-        pool.size(5, 50);    // default optimization for AWS medium/large instances
-        pool.maxIdleTime = Duration.ofHours(2);  // make sure db server does not kill connection shorter than this, e.g. MySQL default wait_timeout is 8 hours
-        pool.validator(connection -> connection.isValid(1), Duration.ofSeconds(30));
+        configure(pool);
 
         transactionManager = new TransactionManager(pool);
         operation = new DatabaseOperation(transactionManager);
@@ -82,6 +90,13 @@ public final class DatabaseImpl implements Database {
         rowMappers.put(UUID.class, new RowMapper.UUIDRowMapper());
     }
 
+    private void configure(Pool<Connection> pool) {
+        pool.size(minPoolSize, maxPoolSize);
+        pool.maxIdleTime = Duration.ofHours(2);  // make sure db server does not kill connection shorter than this, e.g. MySQL default wait_timeout is 8 hours
+        pool.validator(connection -> connection.isValid(1), Duration.ofSeconds(30));
+        if (timeout != null) pool.checkoutTimeout(timeout);
+    }
+
     private Connection createConnection() {
         if (url == null) throw new Error("url must not be null");
         Properties driverProperties = this.driverProperties;
@@ -89,6 +104,19 @@ public final class DatabaseImpl implements Database {
             driverProperties = driverProperties(url);
             this.driverProperties = driverProperties;
         }
+        return connect(url, driverProperties);
+    }
+
+    private Connection createConnection(Replica replica) {
+        Properties driverProperties = replica.driverProperties;
+        if (driverProperties == null) {
+            driverProperties = driverProperties(replica.url);
+            replica.driverProperties = driverProperties;
+        }
+        return connect(replica.url, driverProperties);
+    }
+
+    private Connection connect(String url, Properties driverProperties) {
         if (authProvider != null) {
             // properties are thread safe, it's ok to set user/password with multiple threads
             driverProperties.setProperty("user", authProvider.user(operation.dialect));
@@ -127,6 +155,9 @@ public final class DatabaseImpl implements Database {
             properties.setProperty("rewriteBatchedStatements", "true");
             properties.setProperty("logger", "Slf4JLogger");
             properties.setProperty("cachePrepStmts", "true");
+            // default cache only keeps 25 statements shorter than 256 chars, which excludes most repository sql with full column list
+            properties.setProperty("prepStmtCacheSize", "256");
+            properties.setProperty("prepStmtCacheSqlLimit", "4096");
 
             int index = url.indexOf('?');
             // mysql with ssl has overhead, usually we ensure security on arch level, e.g. gcloud sql proxy or firewall rule
@@ -156,12 +187,28 @@ public final class DatabaseImpl implements Database {
     public void close() {
         logger.info("close database client, url={}", url);
         pool.close();
+        for (Replica replica : replicas) {
+            replica.close();
+        }
     }
 
     public void timeout(Duration timeout) {
         this.timeout = timeout;
         operation.queryTimeoutInSeconds = (int) timeout.getSeconds();
         pool.checkoutTimeout(timeout);
+        for (Replica replica : replicas) {
+            replica.operation.queryTimeoutInSeconds = operation.queryTimeoutInSeconds;
+            replica.pool.checkoutTimeout(timeout);
+        }
+    }
+
+    public void poolSize(int minSize, int maxSize) {
+        minPoolSize = minSize;
+        maxPoolSize = maxSize;
+        pool.size(minSize, maxSize);
+        for (Replica replica : replicas) {
+            replica.pool.size(minSize, maxSize);
+        }
     }
 
     public void url(String url) {
@@ -171,15 +218,62 @@ public final class DatabaseImpl implements Database {
         logger.info("set database connection url, url={}, driver={}.{}", url, driver.getMajorVersion(), driver.getMinorVersion());
     }
 
+    // replica uses same driver, user and pool settings as primary
+    public Replica replica(String url) {
+        if (this.url == null) throw new Error("url must be configured before replica, replicaURL=" + url);
+        try {
+            if (!driver.acceptsURL(url)) throw new Error("replica must use same database as primary, url=" + this.url + ", replicaURL=" + url);
+        } catch (SQLException e) {
+            throw new UncheckedSQLException(e);
+        }
+        var replica = new Replica(url, name + "-replica" + (replicas.size() + 1), this::createConnection, operation);
+        configure(replica.pool);
+        replicas.add(replica);
+        logger.info("add database replica, url={}", url);
+        return replica;
+    }
+
+    public void checkReplicationLag(Duration maxLag) {
+        for (Replica replica : replicas) {
+            replica.checkReplicationLag(maxLag);
+        }
+    }
+
+    // route read outside transaction to available replica with least outstanding requests, return null to read from primary
+    @Nullable
+    Replica replica() {
+        int size = replicas.size();
+        if (size == 0 || TransactionManager.inTransaction()) return null;
+        ActionLog actionLog = LogManager.CURRENT_ACTION_LOG.get();
+        if (actionLog != null && actionLog.readFromPrimaryDB) return null;
+
+        long now = System.currentTimeMillis();
+        int start = size == 1 ? 0 : Math.floorMod(replicaIndex.getAndIncrement(), size);
+        Replica selected = null;
+        int minRequests = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.available(now)) continue;
+            int requests = replica.outstandingRequests.get();
+            if (requests < minRequests) {
+                selected = replica;
+                minRequests = requests;
+            }
+        }
+        return selected;
+    }
+
     private Driver driver(String url) {
         if (url.startsWith("jdbc:mysql:")) {
             operation.dialect = Dialect.MYSQL;
+            operation.fetchSize = Integer.MIN_VALUE;     // mysql driver streams rows one by one only with this value, refer to com.mysql.cj.jdbc.StatementImpl.createStreamingResultSet
             return createDriver("com.mysql.cj.jdbc.Driver");
         } else if (url.startsWith("jdbc:postgresql:")) {
             operation.dialect = Dialect.POSTGRESQL;
             return createDriver("org.postgresql.Driver");
         } else if (url.startsWith("jdbc:hsqldb:")) {
             operation.dialect = Dialect.MYSQL;    // unit test use mysql dialect
+            operation.bulkLoadSupported = false;
             return createDriver("org.hsqldb.jdbc.JDBCDriver");
         } else {
             throw new Error("not supported database, url=" + url);
@@ -226,7 +320,9 @@ public final class DatabaseImpl implements Database {
         validateSQL(sql);
         int returnedRows = 0;
         try {
-            List<T> results = operation.select(sql, rowMapper(viewClass), params);
+            RowMapper<T> mapper = rowMapper(viewClass);
+            Replica replica = replica();
+            List<T> results = replica == null ? operation.select(sql, mapper, params) : selectFromReplica(replica, sql, mapper, params);
             returnedRows = results.size();
             return results;
         } finally {
@@ -242,7 +338,9 @@ public final class DatabaseImpl implements Database {
         validateSQL(sql);
         int returnedRows = 0;
         try {
-            Optional<T> result = operation.selectOne(sql, rowMapper(viewClass), params);
+            RowMapper<T> mapper = rowMapper(viewClass);
+            Replica replica = replica();
+            Optional<T> result = replica == null ? operation.selectOne(sql, mapper, params) : selectOneFromReplica(replica, sql, mapper, params);
             if (result.isPresent()) returnedRows = 1;
             return result;
         } finally {
@@ -252,6 +350,24 @@ public final class DatabaseImpl implements Database {
         }
     }
 
+    @Override
+    public <T> void forEach(String sql, Class<T> viewClass, Consumer<T> consumer, Object... params) {
+        var watch = new StopWatch();
+        validateSQL(sql);
+        int returnedRows = 0;
+        var timedConsumer = new TimedConsumer<>(consumer);
+        try {
+            RowMapper<T> mapper = rowMapper(viewClass);
+            Replica replica = replica();
+            // not to retry on primary, as rows may be partially consumed
+            returnedRows = replica == null ? operation.forEach(sql, mapper, timedConsumer, params) : replica.forEach(sql, mapper, timedConsumer, params);
+        } finally {
+            long elapsed = watch.elapsed() - timedConsumer.elapsed;     // only track db time, exclude time spent by consumer
+            logger.debug("forEach, sql={}, params={}, returnedRows={}, elapsed={}", sql, new SQLParams(operation.enumMapper, params), returnedRows, elapsed);
+            track(elapsed, returnedRows, 0, 1);
+        }
+    }
+
     @Override
     public int execute(String sql, Object... params) {
         var watch = new StopWatch();
@@ -290,6 +406,25 @@ public final class DatabaseImpl implements Database {
         }
     }
 
+    // retry on primary if failed to connect to replica, as read is safe to retry
+    private <T> List<T> selectFromReplica(Replica replica, String sql, RowMapper<T> mapper, Object... params) {
+        try {
+            return replica.select(sql, mapper, params);
+        } catch (UncheckedSQLException e) {
+            if (e.errorType != UncheckedSQLException.ErrorType.CONNECTION_ERROR) throw e;
+            return operation.select(sql, mapper, params);
+        }
+    }
+
+    private <T> Optional<T> selectOneFromReplica(Replica replica, String sql, RowMapper<T> mapper, Object... params) {
+        try {
+            return replica.selectOne(sql, mapper, params);
+        } catch (UncheckedSQLException e) {
+            if (e.errorType != UncheckedSQLException.ErrorType.CONNECTION_ERROR) throw e;
+            return operation.selectOne(sql, mapper, params);
+        }
+    }
+
     private <T> RowMapper<T> rowMapper(Class<T> viewClass) {
         @SuppressWarnings("unchecked")
         RowMapper<T> mapper = (RowMapper<T>) rowMappers.get(viewClass);
@@ -309,6 +444,7 @@ public final class DatabaseImpl implements Database {
     void track(long elapsed, int readRows, int writeRows, int queries) {
         ActionLog actionLog = LogManager.CURRENT_ACTION_LOG.get();
         if (actionLog != null) {
+            if (writeRows > 0) actionLog.readFromPrimaryDB = true;
             actionLog.stats.compute("db_queries", (k, oldValue) -> (oldValue == null) ? queries : oldValue + queries);
             actionLog.track("db", elapsed, readRows, writeRows);
         }
@@ -341,4 +477,24 @@ public final class DatabaseImpl implements Database {
         if (sql.indexOf('\'') != -1)
             throw new Error("sql must not contain single quote('), please use prepared statement and question mark(?), sql=" + sql);
     }
+
+    // consumer is called by db operation for each row, it adds 2 nanoTime() calls per row, which is negligible compared to fetching
+    private static final class TimedConsumer<T> implements Consumer<T> {
+        private final Consumer<T> consumer;
+        long elapsed;
+
+        TimedConsumer(Consumer<T> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void accept(T value) {
+            long start = System.nanoTime();
+            try {
+                consumer.accept(value);
+            } finally {
+                elapsed += System.nanoTime() - start;
+            }
+        }
+    }
 }
@@ -10,6 +10,7 @@ import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -24,6 +25,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static core.framework.log.Markers.errorCode;
 import static core.framework.util.Strings.format;
@@ -32,14 +34,22 @@ import static core.framework.util.Strings.format;
  * @author neo
  */
 public class DatabaseOperation {
-    final EnumDBMapper enumMapper = new EnumDBMapper();
+    final EnumDBMapper enumMapper;
     private final TransactionManager transactionManager;
     private final Logger logger = LoggerFactory.getLogger(DatabaseOperation.class);
     Dialect dialect;
     int queryTimeoutInSeconds;
+    int fetchSize = 500;    // for forEach, rows are fetched by batch of fetch size with server side cursor
+    boolean bulkLoadSupported = true;   // hsqldb (used by unit test) doesn't support bulk load
 
     DatabaseOperation(TransactionManager transactionManager) {
+        this(transactionManager, new EnumDBMapper());
+    }
+
+    // replica shares enum mapper with primary, as enum classes are registered by primary
+    DatabaseOperation(TransactionManager transactionManager, EnumDBMapper enumMapper) {
         this.transactionManager = transactionManager;
+        this.enumMapper = enumMapper;
     }
 
     // as for the boilerplate code, it is mainly for performance and maintainability purpose, as framework code it's more important to keep straightforward than DRY
@@ -109,6 +119,44 @@ public class DatabaseOperation {
         }
     }
 
+    // postgresql only uses cursor with fetch size when auto commit is off, so to disable it if not within transaction
+    <T> int forEach(String sql, RowMapper<T> mapper, Consumer<T> consumer, Object... params) {
+        PoolItem<Connection> connection = transactionManager.getConnection();
+        boolean resetAutoCommit = false;
+        try {
+            if (dialect == Dialect.POSTGRESQL && connection.resource.getAutoCommit()) {
+                connection.resource.setAutoCommit(false);
+                resetAutoCommit = true;
+            }
+            try (PreparedStatement statement = connection.resource.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setQueryTimeout(queryTimeoutInSeconds);
+                statement.setFetchSize(fetchSize);
+                setParams(statement, params);
+                return fetch(connection, statement, mapper, consumer);
+            }
+        } catch (SQLException e) {
+            Connections.checkConnectionState(connection, e);
+            throw new UncheckedSQLException(e);
+        } finally {
+            try {
+                if (resetAutoCommit) resetAutoCommit(connection);
+            } finally {
+                transactionManager.returnConnection(connection);
+            }
+        }
+    }
+
+    // not to throw in finally block to hide original exception, connection in unknown state will be closed by pool
+    private void resetAutoCommit(PoolItem<Connection> connection) {
+        try {
+            connection.resource.rollback();     // only read, close cursor transaction
+            connection.resource.setAutoCommit(true);
+        } catch (SQLException e) {
+            logger.warn("failed to reset auto commit, close connection", e);
+            connection.broken = true;
+        }
+    }
+
     OptionalLong insert(String sql, Object[] params, @Nullable String generatedColumn) {
         PoolItem<Connection> connection = transactionManager.getConnection();
         try (PreparedStatement statement = insertStatement(connection.resource, sql, generatedColumn)) {
@@ -147,6 +195,23 @@ public class DatabaseOperation {
         }
     }
 
+    // not to set query timeout, bulk load may take long, caller should split rows into chunks with reasonable size
+    long bulkLoad(String sql, InputStream stream) {
+        PoolItem<Connection> connection = transactionManager.getConnection();
+        try {
+            if (dialect == Dialect.POSTGRESQL) return BulkLoader.copyIn(connection.resource, sql, stream);
+            return BulkLoader.loadData(connection.resource, sql, stream);
+        } catch (SQLException e) {
+            Connections.checkConnectionState(connection, e);
+            throw new UncheckedSQLException(e);
+        } catch (RuntimeException | Error e) {  // e.g. failed to encode row while driver is streaming, connection is left in middle of protocol
+            connection.broken = true;
+            throw e;
+        } finally {
+            transactionManager.returnConnection(connection);
+        }
+    }
+
     private PreparedStatement insertStatement(Connection connection, String sql, @Nullable String generatedColumn) throws SQLException {
         if (generatedColumn == null) return connection.prepareStatement(sql);
         return connection.prepareStatement(sql, new String[]{generatedColumn});
@@ -180,6 +245,35 @@ public class DatabaseOperation {
         }
     }
 
+    private <T> int fetch(PoolItem<Connection> connection, PreparedStatement statement, RowMapper<T> mapper, Consumer<T> consumer) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            logSlowQuery(statement);
+
+            var wrapper = new ResultSetWrapper(resultSet, dialect);
+            int rows = 0;
+            try {
+                while (resultSet.next()) {
+                    consumer.accept(mapper.map(wrapper));
+                    rows++;
+                }
+            } catch (RuntimeException | Error e) {
+                if (fetchSize == Integer.MIN_VALUE) cancelStreaming(connection, statement);
+                throw e;
+            }
+            return rows;
+        }
+    }
+
+    // mysql streaming result set reads all remaining rows on close, cancel query to stop server sending, and discard connection as it's in unknown state
+    private void cancelStreaming(PoolItem<Connection> connection, PreparedStatement statement) {
+        connection.broken = true;
+        try {
+            statement.cancel();
+        } catch (SQLException e) {
+            logger.warn("failed to cancel streaming query", e);
+        }
+    }
+
     // MySQL:
     // the LAST_INSERT_ID() function returns BIGINT, so here it uses Long
     // http://dev.mysql.com/doc/refman/5.7/en/information-functions.html
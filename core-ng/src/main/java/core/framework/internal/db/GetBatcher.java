@@ -0,0 +1,101 @@
+package core.framework.internal.db;
+
+import core.framework.internal.log.ActionLog;
+import core.framework.internal.log.LogManager;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * coalesce concurrent repository.get() into one "WHERE id IN (...)" query,
+ * first caller opens batch and waits for window, callers within window add keys and wait for result of first caller,
+ * entity is mutable, so caller of key already in batch queries by itself, not to share same instance with other caller
+ *
+ * @author neo
+ */
+final class GetBatcher<T> {
+    static final int MAX_BATCH_SIZE = 1000;
+
+    final long windowInNanos;
+    private final RepositoryImpl<T> repository;
+    private final ReentrantLock lock = new ReentrantLock();     // not to pin virtual thread
+    @Nullable
+    private Batch<T> batch;     // current open batch
+
+    GetBatcher(RepositoryImpl<T> repository, long windowInNanos) {
+        this.repository = repository;
+        this.windowInNanos = windowInNanos;
+    }
+
+    Optional<T> get(Object primaryKey) {
+        Batch<T> batch;
+        boolean leader = false;
+        boolean added;
+        lock.lock();
+        try {
+            batch = this.batch;
+            if (batch == null || batch.keys.size() >= MAX_BATCH_SIZE) {
+                batch = new Batch<>();
+                this.batch = batch;
+                leader = true;
+            }
+            added = batch.keys.add(primaryKey);
+        } finally {
+            lock.unlock();
+        }
+
+        if (!added) return Optional.ofNullable(repository.getAll(List.of(primaryKey)).get(primaryKey));
+        if (!leader) {
+            stat("db_coalesced_gets", 1);
+            return Optional.ofNullable(await(batch.result).get(primaryKey));
+        }
+
+        LockSupport.parkNanos(windowInNanos);
+        lock.lock();
+        try {
+            if (this.batch == batch) this.batch = null;    // close batch, keys won't be changed after
+        } finally {
+            lock.unlock();
+        }
+        try {
+            Map<Object, T> results = repository.getAll(new ArrayList<>(batch.keys));
+            batch.result.complete(results);
+            return Optional.ofNullable(results.get(primaryKey));
+        } catch (Throwable e) {
+            batch.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Map<Object, T> await(CompletableFuture<Map<Object, T>> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException exception) throw exception;
+            if (cause instanceof Error error) throw error;
+            throw e;
+        }
+    }
+
+    private void stat(String key, double value) {
+        ActionLog actionLog = LogManager.CURRENT_ACTION_LOG.get();
+        if (actionLog != null) {
+            actionLog.stats.compute(key, (k, oldValue) -> (oldValue == null) ? value : oldValue + value);
+        }
+    }
+
+    private static final class Batch<T> {
+        final Set<Object> keys = new LinkedHashSet<>();
+        final CompletableFuture<Map<Object, T>> result = new CompletableFuture<>();
+    }
+}
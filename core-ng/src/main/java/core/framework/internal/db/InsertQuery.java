@@ -2,6 +2,10 @@ package core.framework.internal.db;
 
 import org.jspecify.annotations.Nullable;
 
+import java.lang.reflect.Field;
+import java.time.ZonedDateTime;
+import java.util.List;
+
 /**
  * @author neo
  */
@@ -9,19 +13,39 @@ final class InsertQuery<T> {
     final String insertSQL;
     final String insertIgnoreSQL;
     final String upsertSQL;
+    final String bulkLoadSQL;
     @Nullable
     final String generatedColumn;
     private final InsertQueryParamBuilder<T> paramBuilder;
+    private final List<Field> timestampFields;     // ZonedDateTime fields with limited range, only for mysql
 
-    InsertQuery(String insertSQL, String insertIgnoreSQL, String upsertSQL, @Nullable String generatedColumn, InsertQueryParamBuilder<T> paramBuilder) {
+    InsertQuery(String insertSQL, String insertIgnoreSQL, String upsertSQL, String bulkLoadSQL, @Nullable String generatedColumn, InsertQueryParamBuilder<T> paramBuilder, List<Field> timestampFields) {
         this.insertSQL = insertSQL;
         this.insertIgnoreSQL = insertIgnoreSQL;
         this.upsertSQL = upsertSQL;
+        this.bulkLoadSQL = bulkLoadSQL;
         this.generatedColumn = generatedColumn;
         this.paramBuilder = paramBuilder;
+        this.timestampFields = timestampFields;
     }
 
     Object[] params(T entity) {
         return paramBuilder.params(entity);
     }
+
+    void encode(T entity, BulkLoadWriter writer) {
+        paramBuilder.encode(entity, writer);
+    }
+
+    // check values which encode() rejects, before streaming to db, as failure in middle of bulk load leaves connection in unknown state
+    void checkBulkLoadRange(T entity) {
+        for (Field field : timestampFields) {
+            try {
+                var value = (ZonedDateTime) field.get(entity);
+                if (value != null) BulkLoadWriter.checkTimestamp(value);
+            } catch (IllegalAccessException e) {
+                throw new Error(e);
+            }
+        }
+    }
 }
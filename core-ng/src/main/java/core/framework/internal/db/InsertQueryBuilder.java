@@ -11,8 +11,13 @@ import core.framework.util.Strings;
 import org.jspecify.annotations.Nullable;
 
 import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 import static core.framework.internal.asm.Literal.type;
 
@@ -24,6 +29,7 @@ class InsertQueryBuilder<T> {
     private final Class<T> entityClass;
     private final Dialect dialect;
     private final List<PrimaryKeyField> primaryKeyFields = Lists.newArrayList();
+    private final List<Field> timestampFields = Lists.newArrayList();
 
     @Nullable
     private String generatedColumn;
@@ -31,6 +37,7 @@ class InsertQueryBuilder<T> {
     private String insertSQL;
     private String insertIgnoreSQL;
     private String upsertSQL;
+    private String bulkLoadSQL;
 
     InsertQueryBuilder(Class<T> entityClass, Dialect dialect) {
         this.entityClass = entityClass;
@@ -41,8 +48,9 @@ class InsertQueryBuilder<T> {
     InsertQuery<T> build() {
         buildSQL();
         builder.addMethod(applyMethod());
+        builder.addMethod(encodeMethod());
         InsertQueryParamBuilder<T> paramBuilder = builder.build();
-        return new InsertQuery<>(insertSQL, insertIgnoreSQL, upsertSQL, generatedColumn, paramBuilder);
+        return new InsertQuery<>(insertSQL, insertIgnoreSQL, upsertSQL, bulkLoadSQL, generatedColumn, paramBuilder, timestampFields);
     }
 
     private void buildSQL() {
@@ -71,7 +79,8 @@ class InsertQueryBuilder<T> {
                     updates.add(Strings.format("{} = EXCLUDED.{}", columnName, columnName));
                 }
             }
-            paramFields.add(new ParamField(field.getName(), column.json()));
+            paramFields.add(new ParamField(field.getName(), field.getType(), column.json()));
+            if (dialect == Dialect.MYSQL && ZonedDateTime.class.equals(field.getType())) timestampFields.add(field);
             columns.add(columnName);
             if (dialect == Dialect.POSTGRESQL && column.json()) {
                 params.add("?::jsonb");
@@ -80,11 +89,19 @@ class InsertQueryBuilder<T> {
             }
         }
 
+        String table = entityClass.getDeclaredAnnotation(Table.class).name();
         var builder = new CodeBuilder()
-            .append("INSERT INTO {} (", entityClass.getDeclaredAnnotation(Table.class).name()).appendCommaSeparatedValues(columns)
+            .append("INSERT INTO {} (", table).appendCommaSeparatedValues(columns)
             .append(") VALUES (").appendCommaSeparatedValues(params).append(')');
         insertSQL = builder.build();
 
+        if (dialect == Dialect.MYSQL) {
+            // file name is not used, driver sends stream set by com.mysql.cj.jdbc.JdbcStatement.setLocalInfileInputStream
+            bulkLoadSQL = new CodeBuilder().append("LOAD DATA LOCAL INFILE 'stream' INTO TABLE {} CHARACTER SET utf8mb4 (", table).appendCommaSeparatedValues(columns).append(')').build();
+        } else if (dialect == Dialect.POSTGRESQL) {
+            bulkLoadSQL = new CodeBuilder().append("COPY {} (", table).appendCommaSeparatedValues(columns).append(") FROM STDIN").build();
+        }
+
         if (generatedColumn != null)
             return;  // auto-increment entity doesn't need insert ignore and upsert, refer to core.framework.internal.db.RepositoryImpl.insertIgnore
 
@@ -133,7 +150,47 @@ class InsertQueryBuilder<T> {
         return builder.build();
     }
 
-    private record ParamField(String name, boolean json) {
+    private String encodeMethod() {
+        var builder = new CodeBuilder();
+
+        String entityClassLiteral = type(entityClass);
+        builder.append("public void encode(Object value, {} writer) {\n", type(BulkLoadWriter.class))
+            .indent(1).append("{} entity = ({}) value;\n", entityClassLiteral, entityClassLiteral);
+
+        if (generatedColumn == null) {
+            for (PrimaryKeyField field : primaryKeyFields) {
+                builder.indent(1).append("if (entity.{} == null) throw new Error(\"primary key must not be null, field={}\");\n", field.name, field.name);
+            }
+        }
+
+        for (ParamField field : paramFields) {
+            if (field.json) {
+                builder.indent(1).append("writer.writeString({}.toJSON(entity.{}));\n", type(JSONHelper.class), field.name);
+            } else {
+                builder.indent(1).append("writer.{}(entity.{});\n", writeMethod(field.type), field.name);
+            }
+        }
+
+        builder.indent(1).append("writer.endRow();\n")
+            .append("}");
+
+        return builder.build();
+    }
+
+    private String writeMethod(Class<?> fieldType) {
+        if (String.class.equals(fieldType)) return "writeString";
+        if (Integer.class.equals(fieldType) || Long.class.equals(fieldType) || Double.class.equals(fieldType)) return "writeNumber";
+        if (BigDecimal.class.equals(fieldType)) return "writeDecimal";
+        if (Boolean.class.equals(fieldType)) return "writeBoolean";
+        if (LocalDate.class.equals(fieldType)) return "writeDate";
+        if (LocalDateTime.class.equals(fieldType)) return "writeDateTime";
+        if (ZonedDateTime.class.equals(fieldType)) return "writeZonedDateTime";
+        if (UUID.class.equals(fieldType)) return "writeUUID";
+        if (fieldType.isEnum()) return "writeEnum";
+        throw new Error("unsupported field type, type=" + fieldType.getCanonicalName());    // all types are validated by DatabaseClassValidator
+    }
+
+    private record ParamField(String name, Class<?> type, boolean json) {
     }
 
     private record PrimaryKeyField(String name, String columnName) {
@@ -5,4 +5,6 @@ package core.framework.internal.db;
  */
 interface InsertQueryParamBuilder<T> {
     Object[] params(T entity);
+
+    void encode(T entity, BulkLoadWriter writer);
 }
@@ -8,6 +8,7 @@ import org.jspecify.annotations.Nullable;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * @author neo
@@ -74,6 +75,14 @@ public class QueryImpl<T> implements Query<T> {
         return database.select(sql, entityClass, params);
     }
 
+    @Override
+    public void forEach(Consumer<T> consumer) {
+        if (groupBy != null) throw new Error("forEach must not be used with groupBy, groupBy=" + groupBy);
+        String sql = selectQuery.fetchSQL(whereClause, sort, skip, limit);
+        Object[] params = selectQuery.params(this.params, skip, limit);
+        database.forEach(sql, entityClass, consumer, params);
+    }
+
     @Override
     public Optional<T> fetchOne() {
         if (groupBy != null) throw new Error("fetch must not be used with groupBy, groupBy=" + groupBy);
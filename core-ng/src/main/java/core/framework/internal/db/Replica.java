@@ -0,0 +1,156 @@
+package core.framework.internal.db;
+
+import core.framework.db.UncheckedSQLException;
+import core.framework.internal.resource.Pool;
+import core.framework.internal.resource.PoolItem;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static core.framework.log.Markers.errorCode;
+
+/**
+ * read replica with its own pool, only serves reads outside transaction,
+ * replica is ejected for a while on connection error, or while replication lag exceeds max lag
+ *
+ * @author neo
+ */
+public final class Replica {
+    static final long EJECT_TIME_IN_MS = Duration.ofSeconds(30).toMillis();
+
+    public final String url;
+    public final Pool<Connection> pool;
+    final DatabaseOperation operation;
+    final AtomicInteger outstandingRequests = new AtomicInteger();
+    private final Logger logger = LoggerFactory.getLogger(Replica.class);
+    @Nullable
+    Properties driverProperties;
+    String lagSQL;
+    volatile long ejectedUntil;
+    volatile boolean lagging;
+
+    Replica(String url, String name, Function<Replica, Connection> factory, DatabaseOperation primary) {
+        this.url = url;
+        pool = new Pool<>(() -> factory.apply(this), name);
+        // replica never begins transaction, transaction manager is only to borrow/return connection
+        operation = new DatabaseOperation(new TransactionManager(pool), primary.enumMapper);
+        operation.dialect = primary.dialect;
+        operation.queryTimeoutInSeconds = primary.queryTimeoutInSeconds;
+        operation.fetchSize = primary.fetchSize;
+        lagSQL = primary.dialect == Dialect.POSTGRESQL
+            // not in recovery means it's not replica (e.g. local env), wal functions return null
+            // replay timestamp stops moving if primary is idle, so to treat as no lag if all received wal is replayed
+            ? "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END"
+            : "SHOW REPLICA STATUS";
+    }
+
+    boolean available(long now) {
+        return !lagging && now >= ejectedUntil;
+    }
+
+    <T> List<T> select(String sql, RowMapper<T> mapper, Object... params) {
+        outstandingRequests.incrementAndGet();
+        try {
+            return operation.select(sql, mapper, params);
+        } catch (UncheckedSQLException e) {
+            failed(e);
+            throw e;
+        } finally {
+            outstandingRequests.decrementAndGet();
+        }
+    }
+
+    <T> Optional<T> selectOne(String sql, RowMapper<T> mapper, Object... params) {
+        outstandingRequests.incrementAndGet();
+        try {
+            return operation.selectOne(sql, mapper, params);
+        } catch (UncheckedSQLException e) {
+            failed(e);
+            throw e;
+        } finally {
+            outstandingRequests.decrementAndGet();
+        }
+    }
+
+    <T> int forEach(String sql, RowMapper<T> mapper, Consumer<T> consumer, Object... params) {
+        outstandingRequests.incrementAndGet();
+        try {
+            return operation.forEach(sql, mapper, consumer, params);
+        } catch (UncheckedSQLException e) {
+            failed(e);
+            throw e;
+        } finally {
+            outstandingRequests.decrementAndGet();
+        }
+    }
+
+    private void failed(UncheckedSQLException e) {
+        if (e.errorType == UncheckedSQLException.ErrorType.CONNECTION_ERROR) {
+            logger.warn(errorCode("DB_REPLICA_FAILURE"), "failed to connect to db replica, eject replica, url={}", url, e);
+            ejectedUntil = System.currentTimeMillis() + EJECT_TIME_IN_MS;
+        }
+    }
+
+    void checkReplicationLag(Duration maxLag) {
+        double lag;
+        try {
+            lag = replicationLag();
+        } catch (Throwable e) {
+            logger.warn(errorCode("DB_REPLICA_FAILURE"), "failed to check replication lag, eject replica, url={}", url, e);
+            lagging = true;
+            return;
+        }
+        boolean lagging = lag < 0 || lag > maxLag.toSeconds();
+        if (lagging && !this.lagging) {
+            logger.warn(errorCode("DB_REPLICA_LAG"), "replication lag exceeds max lag, eject replica, url={}, lag={}s, maxLag={}", url, lag, maxLag);
+        } else if (!lagging && this.lagging) {
+            logger.info("replication lag is back to normal, url={}, lag={}s", url, lag);
+        }
+        this.lagging = lagging;
+    }
+
+    // return lag in seconds, or -1 if replication is stopped
+    double replicationLag() throws SQLException {
+        PoolItem<Connection> connection = pool.borrowItem();
+        try (Statement statement = connection.resource.createStatement()) {
+            statement.setQueryTimeout(operation.queryTimeoutInSeconds);
+            try (ResultSet resultSet = statement.executeQuery(lagSQL)) {
+                if (!resultSet.next()) return 0;    // not replica, e.g. local env
+                // mysql "SHOW REPLICA STATUS" returns null if replication sql thread is not running
+                double lag = resultSet.getDouble(lagColumn(resultSet.getMetaData()));
+                return resultSet.wasNull() ? -1 : lag;
+            }
+        } catch (SQLException e) {
+            Connections.checkConnectionState(connection, e);
+            throw e;
+        } finally {
+            pool.returnItem(connection);
+        }
+    }
+
+    private int lagColumn(ResultSetMetaData metaData) throws SQLException {
+        int count = metaData.getColumnCount();
+        for (int i = 1; i <= count; i++) {
+            if ("Seconds_Behind_Source".equalsIgnoreCase(metaData.getColumnLabel(i))) return i;
+        }
+        return 1;
+    }
+
+    void close() {
+        logger.info("close db replica, url={}", url);
+        pool.close();
+    }
+}
@@ -1,17 +1,25 @@
 package core.framework.internal.db;
 
+import core.framework.db.Column;
 import core.framework.db.Query;
 import core.framework.db.Repository;
+import core.framework.internal.log.ActionLog;
+import core.framework.internal.log.LogManager;
 import core.framework.internal.validate.Validator;
+import core.framework.util.Maps;
 import core.framework.util.StopWatch;
 import core.framework.util.Strings;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.Field;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalLong;
 
@@ -29,6 +37,8 @@ public final class RepositoryImpl<T> implements Repository<T> {
     private final UpdateQuery<T> updateQuery;
     private final String deleteSQL;
     private final Class<T> entityClass;
+    @Nullable
+    private final GetBatcher<T> batcher;
 
     RepositoryImpl(DatabaseImpl database, Class<T> entityClass) {
         this.database = database;
@@ -38,6 +48,7 @@ public final class RepositoryImpl<T> implements Repository<T> {
         updateQuery = new UpdateQueryBuilder<>(entityClass, database.operation.dialect).build();
         deleteSQL = DeleteQueryBuilder.build(entityClass);
         this.entityClass = entityClass;
+        batcher = database.batchGetWindowInNanos > 0 && batchable(selectQuery.primaryKeyField) ? new GetBatcher<>(this, database.batchGetWindowInNanos) : null;
     }
 
     @Override
@@ -49,9 +60,51 @@ public final class RepositoryImpl<T> implements Repository<T> {
     public Optional<T> get(Object... primaryKeys) {
         if (primaryKeys.length != selectQuery.primaryKeyColumns)
             throw new Error(Strings.format("the length of primary keys does not match columns, primaryKeys={}, columns={}", selectQuery.primaryKeyColumns, primaryKeys.length));
+        if (batcher != null && batchable(primaryKeys[0])) return batcher.get(primaryKeys[0]);
         return database.selectOne(selectQuery.getSQL, entityClass, primaryKeys);
     }
 
+    // batch result is keyed by value from db, with case-insensitive collation or PAD SPACE of mysql, String key may not match value returned,
+    // e.g. get("a") finds row "A", so only batch non-String keys
+    private boolean batchable(@Nullable Field primaryKeyField) {
+        return primaryKeyField != null && primaryKeyField.getType() != String.class;
+    }
+
+    // within transaction or after write, get must read from current connection or primary, so not to join batch of other callers
+    private boolean batchable(Object primaryKey) {
+        Field primaryKeyField = selectQuery.primaryKeyField;
+        if (primaryKeyField == null || primaryKey.getClass() != primaryKeyField.getType()) return false;    // result is keyed by entity field value
+        if (TransactionManager.inTransaction()) return false;
+        ActionLog actionLog = LogManager.CURRENT_ACTION_LOG.get();
+        return actionLog == null || !actionLog.readFromPrimaryDB;
+    }
+
+    @Override
+    public <K> Map<K, T> getAll(List<K> primaryKeys) {
+        Field primaryKeyField = selectQuery.primaryKeyField;
+        if (primaryKeyField == null) throw new Error("getAll only supports entity with single primary key, entityClass=" + entityClass.getCanonicalName());
+        if (!primaryKeys.isEmpty() && primaryKeys.getFirst().getClass() != primaryKeyField.getType())    // result is keyed by entity field value, which must be K
+            throw new Error(Strings.format("primary key type does not match field type, keyClass={}, fieldType={}", primaryKeys.getFirst().getClass().getCanonicalName(), primaryKeyField.getType().getCanonicalName()));
+        List<K> keys = new ArrayList<>(new LinkedHashSet<>(primaryKeys));     // remove duplicate keys, not to waste IN clause
+        int size = keys.size();
+        Map<K, T> results = Maps.newHashMapWithExpectedSize(size);
+        String column = primaryKeyField.getDeclaredAnnotation(Column.class).name();
+        for (int from = 0; from < size; from += GetBatcher.MAX_BATCH_SIZE) {
+            Query<T> query = select();
+            query.in(column, keys.subList(from, Math.min(size, from + GetBatcher.MAX_BATCH_SIZE)));
+            for (T entity : query.fetch()) {
+                try {
+                    @SuppressWarnings("unchecked")
+                    K primaryKey = (K) primaryKeyField.get(entity);
+                    results.put(primaryKey, entity);
+                } catch (IllegalAccessException e) {
+                    throw new Error(e);
+                }
+            }
+        }
+        return results;
+    }
+
     @Override
     public OptionalLong insert(T entity) {
         var watch = new StopWatch();
@@ -181,6 +234,31 @@ public final class RepositoryImpl<T> implements Repository<T> {
         }
     }
 
+    @Override
+    public long bulkInsert(List<T> entities) {
+        var watch = new StopWatch();
+        if (entities.isEmpty()) throw new Error("entities must not be empty");
+        for (T entity : entities) {
+            validator.validate(entity, false);
+            insertQuery.checkBulkLoadRange(entity);
+        }
+        if (!database.operation.bulkLoadSupported) {   // e.g. hsqldb in unit test
+            batchInsert(entities);
+            return entities.size();
+        }
+        String sql = insertQuery.bulkLoadSQL;
+        var stream = new BulkLoadInputStream<>(entities, insertQuery, new BulkLoadWriter(database.operation.dialect, database.operation.enumMapper));
+        long insertedRows = 0;
+        try {
+            insertedRows = database.operation.bulkLoad(sql, stream);
+            return insertedRows;
+        } finally {
+            long elapsed = watch.elapsed();
+            logger.debug("bulkInsert, sql={}, size={}, encodedRows={}, insertedRows={}, elapsed={}", sql, entities.size(), stream.rows, insertedRows, elapsed);
+            database.track(elapsed, 0, (int) insertedRows, 1);
+        }
+    }
+
     @Override
     public boolean batchInsertIgnore(List<T> entities) {
         var watch = new StopWatch();
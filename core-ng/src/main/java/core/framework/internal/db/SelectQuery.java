@@ -18,6 +18,8 @@ final class SelectQuery<T> {
     private final String table;
     private final String columns;
     int primaryKeyColumns;
+    @Nullable
+    Field primaryKeyField;      // only for entity with single primary key column
 
     SelectQuery(Class<T> entityClass, Dialect dialect) {
         table = entityClass.getDeclaredAnnotation(Table.class).name();
@@ -30,14 +32,17 @@ final class SelectQuery<T> {
     private String getSQL(List<Field> fields) {
         var builder = new StringBuilder(64);
         builder.append("SELECT ").append(columns).append(" FROM ").append(table).append(" WHERE ");
+        Field primaryKeyField = null;
         for (Field field : fields) {
             if (field.isAnnotationPresent(PrimaryKey.class)) {
                 Column column = field.getDeclaredAnnotation(Column.class);
                 if (primaryKeyColumns > 0) builder.append(" AND ");
                 builder.append(column.name()).append(" = ?");
                 primaryKeyColumns++;
+                primaryKeyField = field;
             }
         }
+        if (primaryKeyColumns == 1) this.primaryKeyField = primaryKeyField;
         return builder.toString();
     }
 
@@ -19,6 +19,10 @@ public final class TransactionManager {
     private static final ThreadLocal<@Nullable PoolItem<Connection>> CURRENT_CONNECTION = new ThreadLocal<>();
     private static final ThreadLocal<@Nullable TransactionState> CURRENT_TRANSACTION_STATE = new ThreadLocal<>();
 
+    static boolean inTransaction() {
+        return CURRENT_CONNECTION.get() != null;
+    }
+
     private final Logger logger = LoggerFactory.getLogger(TransactionManager.class);
     private final Pool<Connection> pool;
     public long longTransactionThresholdInNanos = Duration.ofSeconds(5).toNanos();
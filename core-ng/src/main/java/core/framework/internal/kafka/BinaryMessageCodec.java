@@ -0,0 +1,57 @@
+package core.framework.internal.kafka;
+
+import core.framework.internal.codec.BeanCodec;
+import core.framework.internal.codec.BeanCodecBuilder;
+import core.framework.internal.codec.BinaryInput;
+import core.framework.internal.codec.BinaryOutput;
+
+import java.io.IOException;
+
+/**
+ * binary format generated from message class, same as binary cache codec, format is [fingerprint(4 bytes)][value],
+ * message written by different class structure is rejected by fingerprint, no compression as kafka compresses record batch
+ *
+ * @author neo
+ */
+public final class BinaryMessageCodec<T> implements MessageCodec<T> {
+    static final String CONTENT_TYPE = "application/x-core-ng-binary";
+
+    final int fingerprint;
+    private final BeanCodec codec;
+
+    public BinaryMessageCodec(Class<T> messageClass) {
+        var builder = new BeanCodecBuilder<>(messageClass);
+        codec = builder.build();
+        fingerprint = builder.fingerprint();
+    }
+
+    @Override
+    public String contentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public byte[] encode(T message) {
+        var output = new BinaryOutput(256);
+        output.writeFixedInt(fingerprint);
+        codec.encode(output, message);
+        return output.toByteArray();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T decode(byte[] message) throws IOException {
+        if (message.length < 4) throw new IOException("invalid binary message, length=" + message.length);
+        var input = new BinaryInput(message, 0);
+        int fingerprint = input.readFixedInt();
+        if (fingerprint != this.fingerprint)
+            throw new IOException("binary message was written by different class structure, fingerprint=" + Integer.toHexString(fingerprint));
+        try {
+            T result = (T) codec.decode(input);
+            if (input.hasRemaining()) throw new IOException("unexpected trailing bytes of binary message");
+            return result;
+        } catch (RuntimeException e) {  // e.g. truncated message or enum constant out of range
+            throw new IOException("failed to decode binary message, error=" + e.getMessage(), e);
+        }
+    }
+}
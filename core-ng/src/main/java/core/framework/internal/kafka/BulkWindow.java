@@ -0,0 +1,84 @@
+package core.framework.internal.kafka;
+
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * accumulate bulk messages of topic across polls, until reaching max messages, max bytes or max linger time,
+ * so bulk handler gets stable batch size regardless of fetch timing, offsets are committed after batch is handled
+ *
+ * only accessed by listener thread
+ *
+ * @author neo
+ */
+public final class BulkWindow {
+    final int maxMessages;
+    final long maxBytes;
+    final long maxLingerInNano;
+    private final ArrayDeque<KafkaMessage> pending = new ArrayDeque<>();
+    private long pendingBytes;
+    private long startTime;     // nano time when current window starts
+
+    public BulkWindow(int maxMessages, long maxBytes, Duration maxLinger) {
+        this.maxMessages = maxMessages;
+        this.maxBytes = maxBytes;
+        maxLingerInNano = maxLinger.toNanos();
+    }
+
+    void add(List<KafkaMessage> messages, long now) {
+        if (pending.isEmpty()) startTime = now;
+        for (KafkaMessage message : messages) {
+            pending.add(message);
+            pendingBytes += message.value.length;
+        }
+    }
+
+    // return next batch if window is full or linger time is reached, or take all pending messages if flush
+    @Nullable
+    List<KafkaMessage> poll(long now, boolean flush) {
+        if (pending.isEmpty()) return null;
+        if (!flush && pending.size() < maxMessages && pendingBytes < maxBytes && now - startTime < maxLingerInNano) return null;
+
+        List<KafkaMessage> batch = new ArrayList<>(Math.min(pending.size(), maxMessages));
+        long bytes = 0;
+        while (!pending.isEmpty() && batch.size() < maxMessages) {
+            KafkaMessage message = pending.peek();
+            if (!batch.isEmpty() && bytes + message.value.length > maxBytes) break;     // one message larger than max bytes is handled alone
+            pending.poll();
+            batch.add(message);
+            bytes += message.value.length;
+        }
+        pendingBytes -= bytes;
+        startTime = now;    // remaining messages start next window
+        return batch;
+    }
+
+    // drop pending messages of revoked partitions, they will be redelivered to new owner from committed offset, return number of dropped messages
+    int removeRevoked() {
+        int removed = 0;
+        var iterator = pending.iterator();
+        while (iterator.hasNext()) {
+            KafkaMessage message = iterator.next();
+            if (message.partitionOffsets != null && message.partitionOffsets.revoked) {
+                iterator.remove();
+                pendingBytes -= message.value.length;
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    // nanos until pending messages reach linger time, -1 if there is no pending message
+    long remainingLinger(long now) {
+        if (pending.isEmpty()) return -1;
+        return Math.max(0, startTime + maxLingerInNano - now);
+    }
+
+    int pendingMessages() {
+        return pending.size();
+    }
+}
@@ -1,23 +1,35 @@
 package core.framework.internal.kafka;
 
+import core.framework.internal.stat.Histogram;
 import core.framework.internal.stat.Metrics;
 import core.framework.internal.stat.Stats;
+import core.framework.util.ASCII;
 import org.apache.kafka.common.Metric;
 import org.apache.kafka.common.MetricName;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
+ * kafka client metrics, plus metrics collected by listener, lag is end offset minus committed offset of each partition
+ *
  * @author neo
  */
 public class ConsumerMetrics implements Metrics {
+    public final Map<String, TopicMetrics> topics = new ConcurrentHashMap<>();
+    public final AtomicInteger inFlightMessages = new AtomicInteger();      // messages polled but not handled yet
+    public volatile List<PartitionLag> lags = List.of();     // updated by listener thread
     private final String name;
     private final List<Metric> recordsLagMax = new CopyOnWriteArrayList<>();    // all metrics are added in message thread, so to use concurrent list
     private final List<Metric> recordsConsumedRate = new CopyOnWriteArrayList<>();
     private final List<Metric> bytesConsumedRate = new CopyOnWriteArrayList<>();
     private final List<Metric> fetchRate = new CopyOnWriteArrayList<>();
+    private long lastCollectTime = System.nanoTime();
 
     ConsumerMetrics(String name) {
         this.name = name;
@@ -29,6 +41,40 @@ public class ConsumerMetrics implements Metrics {
         stats.put(statName("records_consumed_rate"), sum(recordsConsumedRate));
         stats.put(statName("bytes_consumed_rate"), sum(bytesConsumedRate));
         stats.put(statName("fetch_rate"), sum(fetchRate));
+
+        stats.put(statName("in_flight_messages"), inFlightMessages.get());
+        Map<String, Long> topicLags = topicLags();
+        long totalLag = 0;
+        for (long lag : topicLags.values()) {
+            totalLag += lag;
+        }
+        stats.put(statName("lag"), totalLag);
+
+        long now = System.nanoTime();
+        double seconds = (now - lastCollectTime) / 1_000_000_000.0;
+        lastCollectTime = now;
+        for (TopicMetrics metrics : topics.values()) {
+            metrics.collect(seconds);
+            String prefix = "topic_" + metrics.statKey + "_";
+            stats.put(statName(prefix + "lag"), topicLags.getOrDefault(metrics.topic, 0L));
+            stats.put(statName(prefix + "records_rate"), metrics.recordsRate);
+            stats.put(statName(prefix + "bytes_rate"), metrics.bytesRate);
+            stats.put(statName(prefix + "handler_p50"), metrics.handlerP50);
+            stats.put(statName(prefix + "handler_p99"), metrics.handlerP99);
+            stats.put(statName(prefix + "handler_max"), metrics.handlerMax);
+        }
+    }
+
+    public Map<String, Long> topicLags() {
+        Map<String, Long> lags = new LinkedHashMap<>();
+        for (PartitionLag lag : this.lags) {
+            lags.merge(lag.topic(), lag.lag(), Long::sum);
+        }
+        return lags;
+    }
+
+    public TopicMetrics topic(String topic) {
+        return topics.computeIfAbsent(topic, TopicMetrics::new);
     }
 
     void add(Map<MetricName, ? extends Metric> kafkaMetrics) {
@@ -58,4 +104,54 @@ public class ConsumerMetrics implements Metrics {
         builder.append('_').append(statName);
         return builder.toString();
     }
+
+    public record PartitionLag(String topic, int partition, long committedOffset, long endOffset) {
+        public long lag() {
+            return Math.max(0, endOffset - committedOffset);
+        }
+    }
+
+    // records/bytes rate and handler elapsed percentiles are calculated on each collect, and kept for /_sys/kafka
+    public static final class TopicMetrics {
+        public final String topic;
+        final String statKey;       // topic may contain '.' or '-', which is not allowed in stat key
+        final LongAdder records = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        final Histogram handlerElapsed = new Histogram();
+        public volatile double recordsRate;
+        public volatile double bytesRate;
+        public volatile long handlerP50;
+        public volatile long handlerP99;
+        public volatile long handlerMax;
+
+        TopicMetrics(String topic) {
+            this.topic = topic;
+            statKey = statKey(topic);
+        }
+
+        static String statKey(String topic) {
+            String value = ASCII.toLowerCase(topic);
+            var builder = new StringBuilder(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                char ch = value.charAt(i);
+                builder.append(ch >= 'a' && ch <= 'z' || ch >= '0' && ch <= '9' || ch == '_' ? ch : '_');
+            }
+            return builder.toString();
+        }
+
+        void handled(int records, long bytes, long elapsed) {
+            this.records.add(records);
+            this.bytes.add(bytes);
+            handlerElapsed.record(elapsed);
+        }
+
+        void collect(double seconds) {
+            recordsRate = seconds > 0 ? records.sumThenReset() / seconds : 0;
+            bytesRate = seconds > 0 ? bytes.sumThenReset() / seconds : 0;
+            Histogram.Snapshot snapshot = handlerElapsed.snapshot();
+            handlerP50 = snapshot.percentile(0.5);
+            handlerP99 = snapshot.percentile(0.99);
+            handlerMax = snapshot.max();
+        }
+    }
 }
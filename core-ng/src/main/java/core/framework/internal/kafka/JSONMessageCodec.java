@@ -0,0 +1,38 @@
+package core.framework.internal.kafka;
+
+import core.framework.internal.json.JSONMapper;
+import core.framework.internal.json.JSONReader;
+import core.framework.internal.json.JSONWriter;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+
+/**
+ * @author neo
+ */
+public final class JSONMessageCodec<T> implements MessageCodec<T> {
+    final JSONReader<T> reader;
+    private final JSONWriter<T> writer;
+
+    public JSONMessageCodec(Class<T> messageClass) {
+        reader = JSONMapper.reader(messageClass);
+        writer = JSONMapper.writer(messageClass);
+    }
+
+    @Nullable
+    @Override
+    public String contentType() {
+        return null;
+    }
+
+    @Override
+    public byte[] encode(T message) {
+        return writer.toJSON(message);
+    }
+
+    @Nullable
+    @Override
+    public T decode(byte[] message) throws IOException {
+        return reader.fromJSON(message);
+    }
+}
@@ -1,9 +1,11 @@
 package core.framework.internal.kafka;
 
 import core.framework.internal.log.Trace;
+import core.framework.internal.log.filter.BytesLogParam;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.common.header.Header;
 import org.apache.kafka.common.header.Headers;
+import org.jspecify.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -15,6 +17,7 @@ public class KafkaMessage {
     public static final String HEADER_TRACE = "trace";
     public static final String HEADER_CLIENT = "client";
     public static final String HEADER_REF_ID = "refId";
+    public static final String HEADER_CONTENT_TYPE = "contentType";
 
     final String key;
     final byte[] value;
@@ -22,7 +25,11 @@ public class KafkaMessage {
     final String correlationId;
     final String refId;
     final String client;
+    @Nullable
+    final String contentType;
     final long timestamp;
+    final long offset;
+    OffsetTracker.@Nullable PartitionOffsets partitionOffsets;
 
     // one poll batch is small (~500) and short (~500ms), it doesn't expect many messages with same key (less than 3?)
     List<KafkaMessage> subsequent;
@@ -35,10 +42,12 @@ public class KafkaMessage {
         refId = header(headers, HEADER_REF_ID);
         correlationId = header(headers, HEADER_CORRELATION_ID);
         client = header(headers, HEADER_CLIENT);
+        contentType = header(headers, HEADER_CONTENT_TYPE);
         String trace = header(headers, HEADER_TRACE);
         this.trace = trace == null ? null : Trace.parse(trace);
 
         timestamp = record.timestamp();
+        offset = record.offset();
     }
 
     final String header(Headers headers, String key) {
@@ -47,6 +56,15 @@ public class KafkaMessage {
         return new String(header.value(), UTF_8);
     }
 
+    // binary message is not readable as text
+    Object valueLogParam() {
+        return contentType == null ? new BytesLogParam(value) : contentType + "(size=" + value.length + ")";
+    }
+
+    void complete() {
+        if (partitionOffsets != null) partitionOffsets.complete(offset);
+    }
+
     void addSubsequent(KafkaMessage message) {
         if (subsequent == null) subsequent = new ArrayList<>(5);
         subsequent.add(message);
@@ -21,8 +21,8 @@ class KafkaMessages {
         this.topic = topic;
     }
 
-    void addOrdered(ConsumerRecord<String, byte[]> record) {
-        var message = new KafkaMessage(record);
+    void addOrdered(ConsumerRecord<String, byte[]> record, OffsetTracker.PartitionOffsets offsets) {
+        KafkaMessage message = message(record, offsets);
         if (message.key != null) {
             // only ensure message processing order by key, be aware of kafka ensures by partition, in practice, we only need key level ordering
             KafkaMessage root = ordered.get(message.key);
@@ -35,10 +35,17 @@ class KafkaMessages {
         size += message.value.length;
     }
 
-    void addUnordered(ConsumerRecord<String, byte[]> record) {
-        var message = new KafkaMessage(record);
+    void addUnordered(ConsumerRecord<String, byte[]> record, OffsetTracker.PartitionOffsets offsets) {
+        KafkaMessage message = message(record, offsets);
         unordered.add(message);
         count++;
         size += message.value.length;
     }
+
+    private KafkaMessage message(ConsumerRecord<String, byte[]> record, OffsetTracker.PartitionOffsets offsets) {
+        var message = new KafkaMessage(record);
+        message.partitionOffsets = offsets;
+        offsets.add(message.offset);
+        return message;
+    }
 }
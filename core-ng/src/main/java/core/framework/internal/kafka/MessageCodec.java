@@ -0,0 +1,19 @@
+package core.framework.internal.kafka;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+
+/**
+ * @author neo
+ */
+public interface MessageCodec<T> {
+    // value of contentType header, null means JSON, to be compatible with consumers not aware of content type
+    @Nullable
+    String contentType();
+
+    byte[] encode(T message);
+
+    @Nullable
+    T decode(byte[] message) throws IOException;
+}
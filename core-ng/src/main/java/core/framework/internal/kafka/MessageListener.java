@@ -57,19 +57,24 @@ public class MessageListener {
         this.consumerMetrics = new ConsumerMetrics(name);
     }
 
-    public <T> void subscribe(String topic, Class<T> messageClass, @Nullable MessageHandler<T> handler, @Nullable BulkMessageHandler<T> bulkHandler) {
+    public <T> MessageProcess<T> subscribe(String topic, Class<T> messageClass, @Nullable MessageHandler<T> handler, @Nullable BulkMessageHandler<T> bulkHandler) {
         boolean added = topics.add(topic);
         if (!added) throw new Error("topic is already subscribed, topic=" + topic);
+        MessageProcess<T> process;
         if (handler != null) {
-            processes.put(topic, new MessageProcess<>(handler, messageClass));
-        } else if (bulkHandler != null) {
-            bulkProcesses.put(topic, new MessageProcess<>(bulkHandler, messageClass));
+            process = new MessageProcess<>(handler, messageClass);
+            processes.put(topic, process);
+        } else {
+            process = new MessageProcess<>(bulkHandler, messageClass);
+            bulkProcesses.put(topic, process);
         }
+        return process;
     }
 
     public void start() {
         Consumer<String, byte[]> consumer = createConsumer();
         thread = new MessageListenerThread(threadName(name), consumer, this);
+        consumer.subscribe(topics, thread.offsets);     // commit completed offsets before partitions are revoked
         thread.start();
         logger.info("kafka listener started, uri={}, topics={}, name={}, groupId={}", uri, topics, name, groupId);
     }
@@ -120,11 +125,9 @@ public class MessageListener {
             config.put(ConsumerConfig.ENABLE_METRICS_PUSH_CONFIG, Boolean.FALSE);
             Consumer<String, byte[]> consumer = new KafkaConsumer<>(config, new KeyDeserializer(), new ByteArrayDeserializer());
             consumerMetrics.add(consumer.metrics());
-
-            consumer.subscribe(topics);
             return consumer;
         } finally {
-            logger.info("create kafka consumer, topics={}, name={}, elapsed={}", topics, name, watch.elapsed());
+            logger.info("create kafka consumer, name={}, elapsed={}", name, watch.elapsed());
         }
     }
 }
@@ -2,11 +2,9 @@ package core.framework.internal.kafka;
 
 import core.framework.internal.async.ThreadPools;
 import core.framework.internal.async.VirtualThread;
-import core.framework.internal.json.JSONReader;
 import core.framework.internal.log.ActionLog;
 import core.framework.internal.log.LogManager;
 import core.framework.internal.log.PerformanceWarning;
-import core.framework.internal.log.filter.BytesLogParam;
 import core.framework.kafka.Message;
 import core.framework.util.Sets;
 import core.framework.util.StopWatch;
@@ -14,15 +12,18 @@ import core.framework.util.Threads;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -30,24 +31,45 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
 import static core.framework.log.Markers.errorCode;
 
 /**
+ * messages are processed in pipeline, listener thread keeps polling while previous messages are still being handled,
+ * messages with same key are handled in order by one virtual thread (lane), completed offsets are committed per partition,
+ * and partitions are paused if there are too many in-flight messages,
+ * bulk messages of topic with window are accumulated across polls, and handled when window is full or reaches linger time
+ *
  * @author neo
  */
 class MessageListenerThread extends Thread {
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration COMMIT_INTERVAL = Duration.ofMillis(500);    // poll timeout when there are in-flight messages, to commit progress in time
+    private static final long LAG_UPDATE_INTERVAL_IN_NANO = 1_000_000_000L;
+
+    final OffsetTracker offsets;
+    final AtomicInteger inFlightMessages;
+
     private final Logger logger = LoggerFactory.getLogger(MessageListenerThread.class);
     private final MessageListener listener;
     private final LogManager logManager;
+    private final ConsumerMetrics metrics;
+    private long lastLagUpdateTime;
 
     private final Consumer<String, byte[]> consumer;
     private final Builder.OfVirtual thread;
 
     private final Semaphore semaphore;
     private final int concurrency;
+    private final int maxInFlightMessages;
+
+    // topic/key -> pending tasks of running lane, to keep order of messages with same key across polls
+    private final Map<String, ArrayDeque<Runnable>> lanes = new HashMap<>();
+    private final ReentrantLock laneLock = new ReentrantLock();
+    private boolean paused;
 
     private final ReentrantLock lock = new ReentrantLock();
     private final Condition notProcessing = lock.newCondition();
@@ -60,11 +82,29 @@ class MessageListenerThread extends Thread {
         this.consumer = consumer;
         this.listener = listener;
         logManager = listener.logManager;
+        metrics = listener.consumerMetrics;
+        inFlightMessages = metrics.inFlightMessages;
+        for (String topic : listener.processes.keySet()) {
+            metrics.topic(topic);
+        }
+        for (String topic : listener.bulkProcesses.keySet()) {
+            metrics.topic(topic);
+        }
         concurrency = listener.concurrency;
         semaphore = new Semaphore(concurrency);
+        maxInFlightMessages = maxInFlightMessages(listener);
+        offsets = new OffsetTracker(consumer);
         thread = ThreadPools.virtualThreadBuilder(name + "-");   // used in single thread, no need to use factory()
     }
 
+    private int maxInFlightMessages(MessageListener listener) {
+        int max = listener.maxPollRecords * 4;
+        for (MessageProcess<?> process : listener.bulkProcesses.values()) {
+            if (process.window != null) max = Math.max(max, process.window.maxMessages * 2);    // not to pause before window is full
+        }
+        return max;
+    }
+
     @Override
     public void run() {
         try {
@@ -88,10 +128,12 @@ class MessageListenerThread extends Thread {
     private void process() {
         while (!shutdown) {
             try {
+                pauseOrResume();
                 Collection<KafkaMessages> allMessages = poll();   // consumer should call poll at least once every MAX_POLL_INTERVAL_MS
-                if (allMessages == null) continue;
-
-                processAll(allMessages);
+                if (allMessages != null) processAll(allMessages);
+                processWindows(false);
+                offsets.commitAsync();
+                updateLags();
             } catch (Throwable e) {
                 if (!shutdown) {
                     logger.error("failed to poll messages, retry in 10 seconds", e);
@@ -100,30 +142,73 @@ class MessageListenerThread extends Thread {
             }
         }
 
+        try {
+            processWindows(true);   // handle pending messages of windows before closing
+            semaphore.acquire(concurrency);     // wait until all in-flight messages are handled, to commit final offsets
+            offsets.commitSync();
+        } catch (Throwable e) {
+            logger.warn("failed to commit offsets, name={}", getName(), e);
+        }
         logger.info("close kafka consumer, name={}", getName());
         consumer.close();
     }
 
+    private void updateLags() {
+        long now = System.nanoTime();
+        if (now - lastLagUpdateTime < LAG_UPDATE_INTERVAL_IN_NANO) return;
+        lastLagUpdateTime = now;
+        metrics.lags = offsets.lags();
+    }
+
+    // pause fetching if handlers fall behind, still keep polling to stay in consumer group
+    void pauseOrResume() {
+        int inFlight = inFlightMessages.get();
+        if (!paused && inFlight >= maxInFlightMessages) {
+            logger.info("too many in-flight messages, pause consumer, inFlight={}", inFlight);
+            consumer.pause(consumer.assignment());
+            paused = true;
+        } else if (paused && inFlight < maxInFlightMessages / 2) {
+            logger.info("resume consumer, inFlight={}", inFlight);
+            consumer.resume(consumer.paused());
+            paused = false;
+        }
+    }
+
     @Nullable
     Collection<KafkaMessages> poll() {
-        ConsumerRecords<String, byte[]> records = consumer.poll(Duration.ofSeconds(30));
+        ConsumerRecords<String, byte[]> records = consumer.poll(pollTimeout());
         if (records.isEmpty()) return null;
 
-        // topic -> messages, use linked hash map to keep message in same order as polled from kafka
+        // topic -> messages, use linked hash map to keep topic in same order as polled from kafka
         Map<String, KafkaMessages> messageMappings = new LinkedHashMap<>();
-        for (ConsumerRecord<String, byte[]> record : records) {
-            String topic = record.topic();
-            KafkaMessages messages = messageMappings.computeIfAbsent(topic, KafkaMessages::new);
-            if (listener.bulkProcesses.containsKey(topic)) {
-                messages.addUnordered(record);  // bulk is processed in single thread
-                messages.bulk = true;
-            } else {
-                messages.addOrdered(record);
+        for (TopicPartition partition : records.partitions()) {
+            OffsetTracker.PartitionOffsets partitionOffsets = offsets.partition(partition);
+            for (ConsumerRecord<String, byte[]> record : records.records(partition)) {
+                String topic = record.topic();
+                KafkaMessages messages = messageMappings.computeIfAbsent(topic, KafkaMessages::new);
+                if (listener.bulkProcesses.containsKey(topic)) {
+                    messages.addUnordered(record, partitionOffsets);  // bulk is processed in single thread
+                    messages.bulk = true;
+                } else {
+                    messages.addOrdered(record, partitionOffsets);
+                }
             }
         }
         return messageMappings.values();
     }
 
+    private Duration pollTimeout() {
+        if (inFlightMessages.get() == 0) return POLL_TIMEOUT;
+        long timeout = COMMIT_INTERVAL.toNanos();
+        long now = System.nanoTime();
+        for (MessageProcess<?> process : listener.bulkProcesses.values()) {
+            if (process.window == null) continue;
+            long remaining = process.window.remainingLinger(now);
+            if (remaining >= 0 && remaining < timeout) timeout = remaining;
+        }
+        return Duration.ofNanos(timeout);
+    }
+
     void shutdown() {
         shutdown = true;
         // do not call interrupt(), it will interrupt consumer coordinator,
@@ -156,59 +241,102 @@ class MessageListenerThread extends Thread {
         for (KafkaMessages messages : allMessages) {
             count += messages.count;
             size += messages.size;
+            inFlightMessages.addAndGet(messages.count);
 
             if (messages.bulk) {
                 MessageProcess<?> bulkProcess = listener.bulkProcesses.get(messages.topic);
-                processBulk(bulkProcess, messages);
+                if (bulkProcess.window != null) bulkProcess.window.add(messages.unordered, System.nanoTime());
+                else processBulk(messages.topic, bulkProcess, messages.unordered);
             } else {
                 MessageProcess<?> process = listener.processes.get(messages.topic);
                 processSingle(process, messages);
             }
         }
 
-        semaphore.acquire(concurrency);
-        try {
-            consumer.commitAsync();
-        } finally {
-            semaphore.release(concurrency);
-        }
-
-        logger.info("process kafka messages, count={}, size={}, elapsed={}", count, size, watch.elapsed());
+        logger.info("process kafka messages, count={}, size={}, inFlight={}, elapsed={}", count, size, inFlightMessages.get(), watch.elapsed());
     }
 
     private void processSingle(MessageProcess<?> process, KafkaMessages messages) throws InterruptedException {
         for (KafkaMessage message : messages.unordered) {
-            semaphore.acquire();
-            thread.start(() -> {
+            submit(null, () -> {
                 try {
-                    VirtualThread.COUNT.increase();
                     handleSingle(messages.topic, process, message);
                 } finally {
-                    VirtualThread.COUNT.decrease();
-                    semaphore.release();
+                    complete(message);
                 }
             });
         }
         for (KafkaMessage message : messages.ordered.values()) {
-            semaphore.acquire();
-            thread.start(() -> {
+            submit(messages.topic + '/' + message.key, () -> {
                 try {
-                    VirtualThread.COUNT.increase();
                     handleSingle(messages.topic, process, message);
-                    if (message.subsequent != null) {
-                        for (KafkaMessage subsequent : message.subsequent) {
+                } finally {
+                    complete(message);
+                }
+                if (message.subsequent != null) {
+                    for (KafkaMessage subsequent : message.subsequent) {
+                        try {
                             handleSingle(messages.topic, process, subsequent);
+                        } finally {
+                            complete(subsequent);
                         }
                     }
-                } finally {
-                    VirtualThread.COUNT.decrease();
-                    semaphore.release();
                 }
             });
         }
     }
 
+    // if lane of key is running, append task to lane, otherwise start new lane, lane holds one permit until all its tasks are done
+    private void submit(@Nullable String laneKey, Runnable task) throws InterruptedException {
+        if (laneKey != null) {
+            laneLock.lock();
+            try {
+                ArrayDeque<Runnable> tasks = lanes.get(laneKey);
+                if (tasks != null) {
+                    tasks.add(task);
+                    return;
+                }
+                lanes.put(laneKey, new ArrayDeque<>());
+            } finally {
+                laneLock.unlock();
+            }
+        }
+        semaphore.acquire();
+        thread.start(() -> {
+            VirtualThread.COUNT.increase();
+            try {
+                Runnable next = task;
+                while (next != null) {
+                    next.run();
+                    next = laneKey == null ? null : nextTask(laneKey);
+                }
+            } finally {
+                VirtualThread.COUNT.decrease();
+                semaphore.release();
+            }
+        });
+    }
+
+    @Nullable
+    private Runnable nextTask(String laneKey) {
+        laneLock.lock();
+        try {
+            ArrayDeque<Runnable> tasks = lanes.get(laneKey);
+            Runnable task = tasks.poll();
+            if (task == null) lanes.remove(laneKey);
+            return task;
+        } finally {
+            laneLock.unlock();
+        }
+    }
+
+    private void complete(KafkaMessage message) {
+        message.complete();
+        inFlightMessages.decrementAndGet();
+    }
+
     <T> void handleSingle(String topic, MessageProcess<T> process, KafkaMessage message) {
+        long start = System.nanoTime();
         ActionLog actionLog = logManager.begin("=== message handling begin ===", null);
         try {
             initAction(actionLog, topic, process.handler.getClass().getCanonicalName(), process.warnings);
@@ -225,39 +353,58 @@ class MessageListenerThread extends Thread {
 
             checkConsumerDelay(actionLog, message.timestamp, listener.longConsumerDelayThresholdInNano);
 
-            logger.debug("[message] key={}, value={}, timestamp={}", message.key, new BytesLogParam(message.value), message.timestamp);
+            logger.debug("[message] key={}, value={}, timestamp={}", message.key, message.valueLogParam(), message.timestamp);
 
-            T messageObject = process.reader.fromJSON(message.value);
-            process.validator.validate(messageObject, false);
+            T messageObject = process.decode(message);
+            process.validate(messageObject);
             process.handler().handle(message.key, messageObject);
         } catch (Throwable e) {
             logManager.logError(e);
         } finally {
             logManager.end("=== message handling end ===");
+            handled(topic, 1, message.value.length, start);
         }
     }
 
-    private void processBulk(MessageProcess<?> bulkProcess, KafkaMessages messages) throws InterruptedException {
-        semaphore.acquire();
-        thread.start(() -> {
-            VirtualThread.COUNT.increase();
+    void processWindows(boolean flush) throws InterruptedException {
+        long now = System.nanoTime();
+        for (Map.Entry<String, MessageProcess<?>> entry : listener.bulkProcesses.entrySet()) {
+            MessageProcess<?> bulkProcess = entry.getValue();
+            if (bulkProcess.window == null) continue;
+            int revoked = bulkProcess.window.removeRevoked();
+            if (revoked > 0) {
+                logger.info("drop pending messages of revoked partitions, topic={}, count={}", entry.getKey(), revoked);
+                inFlightMessages.addAndGet(-revoked);
+            }
+            List<KafkaMessage> batch;
+            while ((batch = bulkProcess.window.poll(now, flush)) != null) {
+                processBulk(entry.getKey(), bulkProcess, batch);
+            }
+        }
+    }
+
+    // bulk messages of same topic are handled in order, one batch at a time
+    private void processBulk(String topic, MessageProcess<?> bulkProcess, List<KafkaMessage> messages) throws InterruptedException {
+        submit(topic, () -> {
             try {
-                handleBulk(messages.topic, bulkProcess, messages.unordered);
+                handleBulk(topic, bulkProcess, messages);
             } finally {
-                VirtualThread.COUNT.decrease();
-                semaphore.release();
+                for (KafkaMessage message : messages) {
+                    complete(message);
+                }
             }
         });
     }
 
     <T> void handleBulk(String topic, MessageProcess<T> process, List<KafkaMessage> messages) {
+        long start = System.nanoTime();
         ActionLog actionLog = logManager.begin("=== message handling begin ===", null);
         try {
             initAction(actionLog, topic, process.handler.getClass().getCanonicalName(), process.warnings);
 
-            List<Message<T>> messageObjects = messages(messages, actionLog, process.reader);
-            for (Message<T> message : messageObjects) {   // validate after fromJSON, so it can track refId/correlationId
-                process.validator.validate(message.value, false);
+            List<Message<T>> messageObjects = messages(messages, actionLog, process);
+            for (Message<T> message : messageObjects) {   // validate after decoding, so it can track refId/correlationId
+                process.validate(message.value);
             }
 
             process.bulkHandler().handle(messageObjects);
@@ -265,9 +412,19 @@ class MessageListenerThread extends Thread {
             logManager.logError(e);
         } finally {
             logManager.end("=== message handling end ===");
+            long size = 0;
+            for (KafkaMessage message : messages) {
+                size += message.value.length;
+            }
+            handled(topic, messages.size(), size, start);
         }
     }
 
+    private void handled(String topic, int count, long size, long start) {
+        ConsumerMetrics.TopicMetrics topicMetrics = metrics.topics.get(topic);
+        if (topicMetrics != null) topicMetrics.handled(count, size, System.nanoTime() - start);
+    }
+
     private void initAction(ActionLog actionLog, String topic, String handler, PerformanceWarning[] warnings) {
         actionLog.action("topic:" + topic);
         actionLog.warningContext.maxProcessTimeInNano(listener.maxProcessTimeInNano);
@@ -277,7 +434,7 @@ class MessageListenerThread extends Thread {
         if (warnings != null) actionLog.initializeWarnings(warnings);
     }
 
-    <T> List<Message<T>> messages(List<KafkaMessage> messages, ActionLog actionLog, JSONReader<T> reader) throws IOException {
+    <T> List<Message<T>> messages(List<KafkaMessage> messages, ActionLog actionLog, MessageProcess<T> process) throws IOException {
         int size = messages.size();
         actionLog.track("kafka", 0, size, 0);
         List<Message<T>> messageObjects = new ArrayList<>(size);
@@ -295,11 +452,11 @@ class MessageListenerThread extends Thread {
             keys.add(message.key);
 
             logger.debug("[message] key={}, value={}, timestamp={}, refId={}, client={}, correlationId={}, trace={}",
-                message.key, new BytesLogParam(message.value), message.timestamp, message.refId, message.client, message.correlationId, message.trace);
+                message.key, message.valueLogParam(), message.timestamp, message.refId, message.client, message.correlationId, message.trace);
 
             if (minTimestamp > message.timestamp) minTimestamp = message.timestamp;
 
-            T messageObject = reader.fromJSON(message.value);
+            T messageObject = process.decode(message);
             messageObjects.add(new Message<>(message.key, messageObject));
         }
         actionLog.context.put("key", new ArrayList<>(keys));    // keys could contain null
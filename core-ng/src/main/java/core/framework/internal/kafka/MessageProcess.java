@@ -10,6 +10,7 @@ import core.framework.kafka.MessageHandler;
 import core.framework.log.IOWarning;
 import org.jspecify.annotations.Nullable;
 
+import java.io.IOException;
 import java.lang.reflect.Method;
 import java.util.List;
 
@@ -22,6 +23,11 @@ public class MessageProcess<T> {
     public final Validator<T> validator;
     @Nullable
     public final PerformanceWarning[] warnings;
+    @Nullable
+    public MessageCodec<T> binaryCodec;     // accept binary message in addition to JSON
+    public boolean validate = true;         // skip validation for trusted publishers, which validate before publishing
+    @Nullable
+    public BulkWindow window;               // accumulate bulk messages across polls
 
     MessageProcess(Object handler, Class<T> messageClass) {
         this.handler = handler;
@@ -30,6 +36,17 @@ public class MessageProcess<T> {
         this.warnings = warnings(handler);
     }
 
+    @Nullable
+    T decode(KafkaMessage message) throws IOException {
+        if (message.contentType == null) return reader.fromJSON(message.value);
+        if (binaryCodec != null && message.contentType.equals(binaryCodec.contentType())) return binaryCodec.decode(message.value);
+        throw new IOException("unsupported message content type, contentType=" + message.contentType);
+    }
+
+    void validate(T message) {
+        if (validate) validator.validate(message, false);
+    }
+
     @SuppressWarnings("unchecked")
     public MessageHandler<T> handler() {
         return (MessageHandler<T>) handler;
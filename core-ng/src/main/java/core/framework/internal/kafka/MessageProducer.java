@@ -15,6 +15,7 @@ import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.Future;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
@@ -22,6 +23,9 @@ import static java.nio.charset.StandardCharsets.UTF_8;
  * @author neo
  */
 public class MessageProducer {
+    static final int DELIVERY_TIMEOUT_MS = 60_000;     // 60s, DELIVERY_TIMEOUT_MS_CONFIG is INT type
+    static final long MAX_BLOCK_MS = 30_000L;          // 30s, metadata update timeout, shorter than default, to get exception sooner if kafka is not available
+
     public final ProducerMetrics producerMetrics;
     private final Logger logger = LoggerFactory.getLogger(MessageProducer.class);
     private final KafkaURI uri;
@@ -41,8 +45,8 @@ public class MessageProducer {
         producer = createProducer(uri);
     }
 
-    public void send(ProducerRecord<byte[], byte[]> record) {
-        producer.send(record, new KafkaCallback(record));
+    public Future<RecordMetadata> send(ProducerRecord<byte[], byte[]> record) {
+        return producer.send(record, new KafkaCallback(record));
     }
 
     Producer<byte[], byte[]> createProducer(KafkaURI uri) {
@@ -50,11 +54,11 @@ public class MessageProducer {
         try {
             Map<String, Object> config = Map.of(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, uri.bootstrapURIs,
                 ProducerConfig.COMPRESSION_TYPE_CONFIG, CompressionType.ZSTD.name,
-                ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, 60_000,                       // 60s, DELIVERY_TIMEOUT_MS_CONFIG is INT type
+                ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, DELIVERY_TIMEOUT_MS,
                 ProducerConfig.LINGER_MS_CONFIG, 5L,                                         // use small linger time within acceptable range to improve batching
                 ProducerConfig.RECONNECT_BACKOFF_MS_CONFIG, 500L,                            // longer backoff to reduce cpu usage when kafka is not available
                 ProducerConfig.RECONNECT_BACKOFF_MAX_MS_CONFIG, 5_000L,                      // 5s
-                ProducerConfig.MAX_BLOCK_MS_CONFIG, 30_000L,                                 // 30s, metadata update timeout, shorter than default, to get exception sooner if kafka is not available
+                ProducerConfig.MAX_BLOCK_MS_CONFIG, MAX_BLOCK_MS,
                 ProducerConfig.MAX_REQUEST_SIZE_CONFIG, maxRequestSize,
                 ProducerConfig.METRIC_REPORTER_CLASSES_CONFIG, EmptyMetricsReporter.class.getName(),
                 ProducerConfig.ENABLE_METRICS_PUSH_CONFIG, Boolean.FALSE);
@@ -1,7 +1,5 @@
 package core.framework.internal.kafka;
 
-import core.framework.internal.json.JSONMapper;
-import core.framework.internal.json.JSONWriter;
 import core.framework.internal.log.ActionLog;
 import core.framework.internal.log.LogManager;
 import core.framework.internal.log.Trace;
@@ -23,14 +21,21 @@ public class MessagePublisherImpl<T> implements MessagePublisher<T> {
     private final Logger logger = LoggerFactory.getLogger(MessagePublisherImpl.class);
 
     private final MessageProducer producer;
+    @Nullable
+    private final Outbox outbox;
     private final String topic;
-    private final JSONWriter<T> writer;
+    private final MessageCodec<T> codec;
+    @Nullable
+    private final byte[] contentType;
     private final Validator<T> validator;
 
-    public MessagePublisherImpl(MessageProducer producer, String topic, Class<T> messageClass) {
+    public MessagePublisherImpl(MessageProducer producer, @Nullable Outbox outbox, String topic, Class<T> messageClass, MessageCodec<T> codec) {
         this.producer = producer;
+        this.outbox = outbox;
         this.topic = topic;
-        writer = JSONMapper.writer(messageClass);
+        this.codec = codec;
+        String contentType = codec.contentType();
+        this.contentType = contentType == null ? null : Strings.bytes(contentType);
         validator = Validator.of(messageClass);
     }
 
@@ -39,14 +44,16 @@ public class MessagePublisherImpl<T> implements MessagePublisher<T> {
         var watch = new StopWatch();
         byte[] keyBytes = key == null ? null : Strings.bytes(key);
         validator.validate(value, false);
-        byte[] message = writer.toJSON(value);
+        byte[] message = codec.encode(value);
         try {
             var record = new ProducerRecord<>(topic, null, System.currentTimeMillis(), keyBytes, message, null);
+            if (contentType != null) record.headers().add(KafkaMessage.HEADER_CONTENT_TYPE, contentType);
             linkContext(record.headers());
-            producer.send(record);
+            if (outbox != null) outbox.add(record);     // write into current db transaction, relay sends after commit
+            else producer.send(record);
         } finally {
             long elapsed = watch.elapsed();
-            logger.debug("publish, topic={}, key={}, message={}, elapsed={}", topic, key, new BytesLogParam(message), elapsed);
+            logger.debug("publish, topic={}, key={}, message={}, elapsed={}", topic, key, contentType == null ? new BytesLogParam(message) : codec.contentType() + "(size=" + message.length + ")", elapsed);
             ActionLog actionLog = LogManager.CURRENT_ACTION_LOG.get();
             if (actionLog != null) {
                 trackMaxMessageSize(actionLog, message.length);
@@ -0,0 +1,240 @@
+package core.framework.internal.kafka;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * track offsets of polled messages per partition, messages complete out of order, offset to commit is the first not completed one,
+ * so all messages before it are done, and messages after it will be redelivered if consumer crashes or partition is reassigned
+ *
+ * partitions are only accessed by listener thread (poll, commit and rebalance callback), only PartitionOffsets.complete() is called by handler threads
+ *
+ * @author neo
+ */
+final class OffsetTracker implements ConsumerRebalanceListener {
+    final Map<TopicPartition, PartitionOffsets> partitions = new HashMap<>();
+    private final Logger logger = LoggerFactory.getLogger(OffsetTracker.class);
+    private final Consumer<String, byte[]> consumer;
+
+    OffsetTracker(Consumer<String, byte[]> consumer) {
+        this.consumer = consumer;
+    }
+
+    PartitionOffsets partition(TopicPartition partition) {
+        return partitions.computeIfAbsent(partition, key -> new PartitionOffsets());
+    }
+
+    void commitAsync() {
+        Map<TopicPartition, OffsetAndMetadata> offsets = offsets(partitions.keySet());
+        if (!offsets.isEmpty()) consumer.commitAsync(offsets, this::onCommitted);  // callback is called by listener thread within poll()
+    }
+
+    void commitSync() {
+        Map<TopicPartition, OffsetAndMetadata> offsets = offsets(partitions.keySet());
+        if (offsets.isEmpty()) return;
+        try {
+            consumer.commitSync(offsets);
+            committed(offsets, true);
+        } catch (RuntimeException e) {
+            committed(offsets, false);
+            throw e;
+        }
+    }
+
+    void onCommitted(Map<TopicPartition, OffsetAndMetadata> offsets, @Nullable Exception exception) {
+        if (exception != null) logger.warn("failed to commit offsets, will retry with next commit, offsets={}", offsets, exception);
+        committed(offsets, exception == null);
+    }
+
+    private void committed(Map<TopicPartition, OffsetAndMetadata> offsets, boolean succeeded) {
+        for (Map.Entry<TopicPartition, OffsetAndMetadata> entry : offsets.entrySet()) {
+            PartitionOffsets partitionOffsets = partitions.get(entry.getKey());
+            if (partitionOffsets != null) partitionOffsets.committed(entry.getValue().offset(), succeeded);
+        }
+    }
+
+    private Map<TopicPartition, OffsetAndMetadata> offsets(Collection<TopicPartition> partitions) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            PartitionOffsets partitionOffsets = this.partitions.get(partition);
+            if (partitionOffsets == null) continue;
+            long offset = partitionOffsets.commitOffset();
+            if (offset >= 0) offsets.put(partition, new OffsetAndMetadata(offset));
+        }
+        return offsets;
+    }
+
+    // lag is end offset minus committed offset, end offset is position plus lag of last fetch response, so not to call broker,
+    // for partition without committed offset (e.g. new consumer group), lag is counted from log start offset, which is fetched from broker
+    List<ConsumerMetrics.PartitionLag> lags() {
+        List<ConsumerMetrics.PartitionLag> lags = new ArrayList<>(partitions.size());
+        List<TopicPartition> notCommittedPartitions = new ArrayList<>();
+        for (Map.Entry<TopicPartition, PartitionOffsets> entry : partitions.entrySet()) {
+            TopicPartition partition = entry.getKey();
+            PartitionOffsets offsets = entry.getValue();
+            // nextOffset and committedOffset are only updated by listener thread
+            if (offsets.committedOffset < 0) {
+                notCommittedPartitions.add(partition);
+                continue;
+            }
+            lags.add(new ConsumerMetrics.PartitionLag(partition.topic(), partition.partition(), offsets.committedOffset, endOffset(partition, offsets)));
+        }
+        if (!notCommittedPartitions.isEmpty()) {
+            Map<TopicPartition, Long> startOffsets = startOffsets(notCommittedPartitions);
+            for (Map.Entry<TopicPartition, Long> entry : startOffsets.entrySet()) {
+                TopicPartition partition = entry.getKey();
+                PartitionOffsets offsets = partitions.get(partition);
+                if (offsets == null) continue;
+                lags.add(new ConsumerMetrics.PartitionLag(partition.topic(), partition.partition(), entry.getValue(), endOffset(partition, offsets)));
+            }
+        }
+        return lags;
+    }
+
+    private long endOffset(TopicPartition partition, PartitionOffsets offsets) {
+        OptionalLong lag = consumer.currentLag(partition);
+        return offsets.nextOffset + (lag.isPresent() ? lag.getAsLong() : 0);
+    }
+
+    private Map<TopicPartition, Long> startOffsets(List<TopicPartition> partitions) {
+        try {
+            return consumer.beginningOffsets(partitions, Duration.ofSeconds(5));
+        } catch (RuntimeException e) {     // not to fail listener loop for metrics, lag of these partitions is skipped
+            logger.warn("failed to get beginning offsets, partitions={}", partitions, e);
+            return Map.of();
+        }
+    }
+
+    // called within poll(), commit what is completed, in-flight messages of revoked partitions will be redelivered to new owner
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = offsets(partitions);
+        try {
+            if (!offsets.isEmpty()) consumer.commitSync(offsets);
+        } catch (Throwable e) {
+            logger.warn("failed to commit offsets of revoked partitions, partitions={}", partitions, e);
+        }
+        remove(partitions);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+    }
+
+    @Override
+    public void onPartitionsLost(Collection<TopicPartition> partitions) {
+        remove(partitions);
+    }
+
+    private void remove(Collection<TopicPartition> partitions) {
+        for (TopicPartition partition : partitions) {
+            PartitionOffsets offsets = this.partitions.remove(partition);
+            if (offsets != null) offsets.revoked = true;
+        }
+    }
+
+    static final class PartitionOffsets {
+        private final ReentrantLock lock = new ReentrantLock();     // not to pin virtual thread
+        // offsets of polled messages in circular array, in ascending order, from first not completed one
+        private long[] offsets = new long[64];
+        private boolean[] completed = new boolean[64];
+        private int head;
+        private int size;
+        private long nextOffset = -1;       // next offset of last polled message
+        private long committedOffset = -1;  // only updated once commit succeeded
+        private long committingOffset = -1; // offset of in-flight commit, not to commit same offset again
+        boolean revoked;                    // only accessed by listener thread, pending messages of revoked partition will be redelivered to new owner
+
+        void add(long offset) {
+            lock.lock();
+            try {
+                if (size == offsets.length) grow();
+                int index = (head + size) & (offsets.length - 1);
+                offsets[index] = offset;
+                completed[index] = false;
+                size++;
+                nextOffset = offset + 1;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void complete(long offset) {
+            lock.lock();
+            try {
+                int mask = offsets.length - 1;
+                int low = 0;
+                int high = size - 1;
+                while (low <= high) {   // binary search in circular array
+                    int middle = (low + high) >>> 1;
+                    int index = (head + middle) & mask;
+                    long value = offsets[index];
+                    if (value == offset) {
+                        completed[index] = true;
+                        break;
+                    }
+                    if (value < offset) low = middle + 1;
+                    else high = middle - 1;
+                }
+                while (size > 0 && completed[head]) {
+                    head = (head + 1) & mask;
+                    size--;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // return -1 if there is no progress since last commit
+        long commitOffset() {
+            lock.lock();
+            try {
+                long offset = size == 0 ? nextOffset : offsets[head];
+                if (offset == committedOffset || offset == committingOffset) return -1;
+                committingOffset = offset;
+                return offset;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // if failed, offset will be committed again by next commit
+        void committed(long offset, boolean succeeded) {
+            lock.lock();
+            try {
+                if (succeeded && offset > committedOffset) committedOffset = offset;
+                if (offset == committingOffset) committingOffset = -1;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void grow() {
+            int length = offsets.length;
+            long[] offsets = new long[length << 1];
+            boolean[] completed = new boolean[length << 1];
+            for (int i = 0; i < size; i++) {
+                int index = (head + i) & (length - 1);
+                offsets[i] = this.offsets[index];
+                completed[i] = this.completed[index];
+            }
+            this.offsets = offsets;
+            this.completed = completed;
+            head = 0;
+        }
+    }
+}
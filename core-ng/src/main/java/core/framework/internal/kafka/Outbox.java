@@ -0,0 +1,72 @@
+package core.framework.internal.kafka;
+
+import core.framework.db.Database;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Base64;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * transactional outbox, publisher inserts message into outbox table with current db transaction (or auto commit if not within transaction),
+ * so message is only published if transaction commits, OutboxRelay sends committed messages to kafka in id order, then deletes them
+ *
+ * message value is stored as text, JSON as is, binary in base64, table schema (mysql), rows are claimed by lease to allow multiple relays:
+ * CREATE TABLE outbox (
+ *   id                    BIGINT AUTO_INCREMENT PRIMARY KEY,
+ *   topic                 VARCHAR(200) NOT NULL,
+ *   message_key           VARCHAR(200),
+ *   message_value         MEDIUMTEXT NOT NULL,
+ *   content_type          VARCHAR(100),
+ *   correlation_id        VARCHAR(100),
+ *   ref_id                VARCHAR(100),
+ *   trace                 VARCHAR(20),
+ *   created_time          BIGINT NOT NULL,
+ *   lease_owner           VARCHAR(200),
+ *   lease_expiration_time BIGINT NOT NULL DEFAULT 0,
+ *   INDEX (lease_expiration_time, id)
+ * )
+ *
+ * @author neo
+ */
+public final class Outbox {
+    final Database database;
+    final String table;
+    private final String insertSQL;
+
+    public Outbox(Database database, String table) {
+        this.database = database;
+        this.table = table;
+        insertSQL = "INSERT INTO " + table + " (topic, message_key, message_value, content_type, correlation_id, ref_id, trace, created_time) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    }
+
+    void add(ProducerRecord<byte[], byte[]> record) {
+        Headers headers = record.headers();
+        String contentType = header(headers, KafkaMessage.HEADER_CONTENT_TYPE);
+        String key = record.key() == null ? null : new String(record.key(), UTF_8);
+        Long timestamp = record.timestamp();
+        database.execute(insertSQL, record.topic(), key, encode(record.value(), contentType), contentType,
+            header(headers, KafkaMessage.HEADER_CORRELATION_ID), header(headers, KafkaMessage.HEADER_REF_ID), header(headers, KafkaMessage.HEADER_TRACE),
+            timestamp == null ? System.currentTimeMillis() : timestamp);
+    }
+
+    String encode(byte[] value, @Nullable String contentType) {
+        if (contentType == null) return new String(value, UTF_8);
+        return Base64.getEncoder().encodeToString(value);
+    }
+
+    byte[] decode(String value, @Nullable String contentType) {
+        if (contentType == null) return value.getBytes(UTF_8);
+        return Base64.getDecoder().decode(value);
+    }
+
+    @Nullable
+    private String header(Headers headers, String key) {
+        Header header = headers.lastHeader(key);
+        if (header == null) return null;
+        return new String(header.value(), UTF_8);
+    }
+}
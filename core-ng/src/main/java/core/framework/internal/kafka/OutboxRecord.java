@@ -0,0 +1,35 @@
+package core.framework.internal.kafka;
+
+import core.framework.db.Column;
+
+/**
+ * @author neo
+ */
+public class OutboxRecord {
+    @Column(name = "id")
+    public Long id;
+
+    @Column(name = "topic")
+    public String topic;
+
+    @Column(name = "message_key")
+    public String key;
+
+    @Column(name = "message_value")
+    public String value;
+
+    @Column(name = "content_type")
+    public String contentType;
+
+    @Column(name = "correlation_id")
+    public String correlationId;
+
+    @Column(name = "ref_id")
+    public String refId;
+
+    @Column(name = "trace")
+    public String trace;
+
+    @Column(name = "created_time")
+    public Long createdTime;
+}
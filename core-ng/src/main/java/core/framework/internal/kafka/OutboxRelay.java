@@ -0,0 +1,152 @@
+package core.framework.internal.kafka;
+
+import core.framework.internal.log.ActionLog;
+import core.framework.internal.log.LogManager;
+import core.framework.util.Network;
+import core.framework.util.StopWatch;
+import core.framework.util.Strings;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.header.Headers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static core.framework.log.Markers.errorCode;
+
+/**
+ * relay claims batch of committed outbox rows by id range lease, sends them to kafka in id order without waiting for each one,
+ * then deletes them after all sent, if relay fails or process crashes, rows will be claimed again after lease expires (at least once),
+ * with multiple relays (instances), each batch is sent in order, but batches claimed by different relays may interleave
+ *
+ * @author neo
+ */
+public final class OutboxRelay {
+    private final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+    private final Outbox outbox;
+    private final MessageProducer producer;
+    private final LogManager logManager;
+    private final String owner = Network.LOCAL_HOST_NAME;
+    private final String selectSQL;
+    private final String claimSQL;
+    private final String selectClaimedSQL;
+    private final String deleteSQL;
+    private final CountDownLatch shutdown = new CountDownLatch(1);
+    private final Thread thread;
+
+    public int batchSize = 500;
+    public Duration pollInterval = Duration.ofMillis(500);
+    // each send may block up to max block time then wait up to delivery timeout, double it as headroom, otherwise other relay may claim and send again
+    public Duration lease = Duration.ofMillis(2 * (MessageProducer.DELIVERY_TIMEOUT_MS + MessageProducer.MAX_BLOCK_MS));
+    private long lastLeaseExpirationTime;
+
+    public OutboxRelay(Outbox outbox, MessageProducer producer, LogManager logManager) {
+        this.outbox = outbox;
+        this.producer = producer;
+        this.logManager = logManager;
+        String table = outbox.table;
+        String columns = "id, topic, message_key, message_value, content_type, correlation_id, ref_id, trace, created_time";
+        selectSQL = "SELECT " + columns + " FROM " + table + " WHERE lease_expiration_time < ? ORDER BY id LIMIT ?";
+        claimSQL = "UPDATE " + table + " SET lease_owner = ?, lease_expiration_time = ? WHERE id >= ? AND id <= ? AND lease_expiration_time < ?";
+        selectClaimedSQL = "SELECT " + columns + " FROM " + table + " WHERE lease_owner = ? AND lease_expiration_time = ? ORDER BY id";
+        deleteSQL = "DELETE FROM " + table + " WHERE lease_owner = ? AND lease_expiration_time = ?";
+        thread = Thread.ofPlatform().name("kafka-outbox-relay").unstarted(this::process);
+    }
+
+    public void start() {
+        thread.start();
+        logger.info("outbox relay started, table={}", outbox.table);
+    }
+
+    public void shutdown() {
+        logger.info("shutting down outbox relay, table={}", outbox.table);
+        shutdown.countDown();
+    }
+
+    public void awaitTermination(long timeoutInMs) {
+        try {
+            thread.join(timeoutInMs);
+            if (thread.isAlive()) logger.warn(errorCode("FAILED_TO_STOP"), "failed to terminate outbox relay, table={}", outbox.table);
+        } catch (InterruptedException e) {
+            logger.warn(e.getMessage(), e);
+        }
+    }
+
+    private void process() {
+        while (shutdown.getCount() > 0) {
+            try {
+                int count = relay(System.currentTimeMillis());
+                if (count < batchSize) shutdown.await(pollInterval.toMillis(), TimeUnit.MILLISECONDS);  // continue without waiting if there are more rows
+            } catch (Throwable e) {
+                logger.warn(errorCode("FAILED_TO_RELAY_OUTBOX"), "failed to relay outbox messages, retry in 10 seconds, table={}", outbox.table, e);
+                try {
+                    shutdown.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ignored) {
+                    return;
+                }
+            }
+        }
+    }
+
+    int relay(long now) throws InterruptedException, ExecutionException {
+        List<OutboxRecord> records = outbox.database.select(selectSQL, OutboxRecord.class, now, batchSize);
+        if (records.isEmpty()) return 0;    // only start action if there are messages to relay, not to log action for every poll
+
+        ActionLog actionLog = logManager.begin("=== outbox relay begin ===", null);
+        try {
+            actionLog.action("outbox:" + outbox.table);
+            actionLog.context("table", outbox.table);
+            return relay(records, now);
+        } catch (Throwable e) {
+            logManager.logError(e);
+            throw e;
+        } finally {
+            logManager.end("=== outbox relay end ===");
+        }
+    }
+
+    private int relay(List<OutboxRecord> records, long now) throws InterruptedException, ExecutionException {
+        var watch = new StopWatch();
+        long leaseExpirationTime = Math.max(now + lease.toMillis(), lastLeaseExpirationTime + 1);   // lease expiration time identifies claimed batch
+        lastLeaseExpirationTime = leaseExpirationTime;
+        int claimed = outbox.database.execute(claimSQL, owner, leaseExpirationTime, records.getFirst().id, records.getLast().id, now);
+        if (claimed == 0) return 0;     // claimed by other relay
+        if (claimed != records.size()) {    // part of range was claimed by other relay, or rows were committed into range after select
+            records = outbox.database.select(selectClaimedSQL, OutboxRecord.class, owner, leaseExpirationTime);
+        }
+
+        List<Future<RecordMetadata>> results = new ArrayList<>(records.size());
+        for (OutboxRecord record : records) {
+            results.add(producer.send(record(record)));
+        }
+        for (Future<RecordMetadata> result : results) {
+            result.get();   // wait until all sent, kafka producer keeps order within partition
+        }
+        int deleted = outbox.database.execute(deleteSQL, owner, leaseExpirationTime);
+        if (deleted != records.size()) {    // lease expired before all sent, and rows were claimed by other relay
+            logger.warn(errorCode("OUTBOX_LEASE_EXPIRED"), "outbox lease expired before relay completed, messages may be sent again, table={}, claimed={}, deleted={}, elapsed={}",
+                outbox.table, records.size(), deleted, watch.elapsed());
+        }
+        logger.info("relay outbox messages, table={}, count={}, elapsed={}", outbox.table, records.size(), watch.elapsed());
+        return records.size();
+    }
+
+    ProducerRecord<byte[], byte[]> record(OutboxRecord record) {
+        byte[] key = record.key == null ? null : Strings.bytes(record.key);
+        var producerRecord = new ProducerRecord<>(record.topic, null, record.createdTime, key, outbox.decode(record.value, record.contentType), null);
+        Headers headers = producerRecord.headers();
+        if (record.contentType != null) headers.add(KafkaMessage.HEADER_CONTENT_TYPE, Strings.bytes(record.contentType));
+        headers.add(KafkaMessage.HEADER_CLIENT, Strings.bytes(LogManager.APP_NAME));
+        if (record.correlationId != null) headers.add(KafkaMessage.HEADER_CORRELATION_ID, Strings.bytes(record.correlationId));
+        if (record.trace != null) headers.add(KafkaMessage.HEADER_TRACE, Strings.bytes(record.trace));
+        if (record.refId != null) headers.add(KafkaMessage.HEADER_REF_ID, Strings.bytes(record.refId));
+        return producerRecord;
+    }
+}
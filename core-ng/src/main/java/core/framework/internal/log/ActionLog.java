@@ -1,18 +1,20 @@
 package core.framework.internal.log;
 
+import core.framework.internal.log.filter.LogParam;
+import core.framework.internal.log.marker.ErrorCodeMarker;
 import core.framework.log.Markers;
 import core.framework.util.Strings;
 import org.jspecify.annotations.Nullable;
+import org.slf4j.Marker;
 
 import java.text.DecimalFormat;
 import java.time.Instant;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
-import static core.framework.internal.log.LogLevel.DEBUG;
 import static core.framework.internal.log.LogLevel.WARN;
 
 /**
@@ -22,8 +24,7 @@ public final class ActionLog {
     public static final int MAX_CONTEXT_VALUE_LENGTH = 1000;
     static final int MAX_CONTEXT_VALUES_SIZE = 5000;    // e.g. roughly 5000 "order_id=UUID"=>(8+36+3)*5000=235k
 
-    private static final String LOGGER = LoggerImpl.abbreviateLoggerName(ActionLog.class.getCanonicalName());
-    private static final int SOFT_EVENTS_LIMIT = 3000;    // normally 3000 lines trace is about 350k, and limit memory usage for each action
+    static final String LOGGER = LoggerImpl.abbreviateLoggerName(ActionLog.class.getCanonicalName());
 
     public final String id;
     public final Instant date;
@@ -32,7 +33,7 @@ public final class ActionLog {
     public final WarningContext warningContext;
 
     final Map<String, PerformanceStat> performanceStats;
-    private final List<LogEvent> events;
+    private final TraceBuffer events;
     private final long startTime;
     public LogLevel result = LogLevel.INFO;
     public Trace trace = Trace.NONE;        // whether flush trace log for all subsequent actions
@@ -41,10 +42,16 @@ public final class ActionLog {
     public List<String> clients;
     public List<String> refIds;
     public String errorMessage;
+    public boolean readFromPrimaryDB;   // set after db write, to read own writes from primary for rest of action
     long elapsed;
+    boolean sampled;    // trace is picked by trace sampler
     private String errorCode;
 
     public ActionLog(String message, String id) {
+        this(message, id, 0);
+    }
+
+    ActionLog(String message, String id, int maxTraceDebugEvents) {
         startTime = System.nanoTime();
         date = Instant.now();
         if (id == null) {
@@ -52,27 +59,34 @@ public final class ActionLog {
         } else {
             this.id = id;   // in executor, id is generated in advance to link parent and task
         }
-        events = new ArrayList<>(32);   // according to benchmark, ArrayList is as fast as LinkedList with max 3000 items, and has smaller memory footprint
+        events = new TraceBuffer(maxTraceDebugEvents);
         context = new HashMap<>();  // default capacity is 16, no need to keep insertion order, kibana will sort all keys on display
         stats = new HashMap<>();
         performanceStats = new HashMap<>();
         warningContext = new WarningContext();
 
-        add(event(message));
-        add(event("id={}", this.id));
-        add(event("date={}", DateTimeFormatter.ISO_INSTANT.format(date)));
-        add(event("thread={}", Thread.currentThread().getName()));
+        add(message);
+        add("id={}", this.id);
+        add("date={}", date);     // Instant.toString() is in ISO format, only formatted when flushing trace
+        add("thread={}", Thread.currentThread().getName());
     }
 
-    void process(LogEvent event) {
-        if (event.level.value > result.value) {
-            result = event.level;
-            errorCode = event.errorCode();      // only update errorCode/message if level raised, so errorCode will be first WARN or ERROR
-            errorMessage = Strings.truncate(event.message(), MAX_CONTEXT_VALUE_LENGTH);     // limit error message length in action log
-        }
-        if (event.level.value >= WARN.value || events.size() < SOFT_EVENTS_LIMIT) {       // after reach max holding lines, only add warning/error events
-            add(event);
+    void process(String logger, @Nullable Marker marker, LogLevel level, @Nullable String message, @Nullable Object[] arguments, @Nullable Throwable exception) {
+        if (level.value > result.value) {
+            result = level;
+            errorCode = marker instanceof ErrorCodeMarker ? marker.getName() : null;      // only update errorCode/message if level raised, so errorCode will be first WARN or ERROR
+            errorMessage = Strings.truncate(message(message, arguments), MAX_CONTEXT_VALUE_LENGTH);     // limit error message length in action log
         }
+        events.add(logger, marker, level, message, arguments, exception);
+    }
+
+    @Nullable
+    private String message(@Nullable String message, @Nullable Object[] arguments) {
+        if (arguments == null || arguments.length == 0) return message;     // most case, message is from exception, and without no arguments
+
+        var builder = new StringBuilder(256);
+        LogManager.FILTER.append(builder, message, arguments);
+        return builder.toString();
     }
 
     void end(String message) {
@@ -81,25 +95,18 @@ public final class ActionLog {
         }
 
         elapsed = elapsed();
-        add(event("elapsed={}", elapsed));
+        add("elapsed={}", elapsed);
         warningContext.checkMaxProcessTime(elapsed);
 
-        add(event(message));
+        add(message);
     }
 
     public long elapsed() {
         return System.nanoTime() - startTime;
     }
 
-    private void add(LogEvent event) {  // log inside action log will call this to add log event directly, so internal message won't be suspended
-        events.add(event);
-        if (events.size() == SOFT_EVENTS_LIMIT) {
-            events.add(event("...(soft trace limit reached)"));
-        }
-    }
-
-    private LogEvent event(String message, Object... arguments) {
-        return new LogEvent(LOGGER, null, DEBUG, message, arguments, null);
+    private void add(String message, Object... arguments) {  // log inside action log will call this to add log event directly, so internal message won't be suspended
+        events.add(message, arguments);
     }
 
     String result() {
@@ -108,7 +115,7 @@ public final class ActionLog {
     }
 
     boolean flushTraceLog() {
-        return trace != Trace.NONE || result.value >= WARN.value;
+        return trace != Trace.NONE || result.value >= WARN.value || sampled;
     }
 
     public String errorCode() {
@@ -123,22 +130,21 @@ public final class ActionLog {
             String contextValue = String.valueOf(value);
             if (contextValue.length() > MAX_CONTEXT_VALUE_LENGTH) { // prevent application code from putting large blob as context, e.g. xml or json response
                 // use new Error() to print calling stack
-                process(new LogEvent(LOGGER, Markers.errorCode("CONTEXT_TOO_LARGE"), WARN, "context value is too long, key={}, value={}", new Object[]{key, contextValue}, new Error("context value is too long")));
+                process(LOGGER, Markers.errorCode("CONTEXT_TOO_LARGE"), WARN, "context value is too long, key={}, value={}", new Object[]{key, contextValue}, new Error("context value is too long"));
             } else if (contextValues.size() >= MAX_CONTEXT_VALUES_SIZE) {
                 // try to warn once only, generally if hits here, the app likely will add much more within loop
                 if (!"CONTEXT_TOO_LARGE".equals(errorCode))
-                    process(new LogEvent(LOGGER, Markers.errorCode("CONTEXT_TOO_LARGE"), WARN, "too many context values, key={}, size={}", new Object[]{key, contextValues.size()}, new Error("too many context values")));
+                    process(LOGGER, Markers.errorCode("CONTEXT_TOO_LARGE"), WARN, "too many context values, key={}, size={}", new Object[]{key, contextValues.size()}, new Error("too many context values"));
             } else {
                 contextValues.add(contextValue);
             }
         }
-        add(event("[context] {}={}", key, values.length == 1 ? values[0] : values));
+        add("[context] {}={}", key, values.length == 1 ? values[0] : values);
     }
 
     public void stat(String key, double value) {
         stats.compute(key, (k, oldValue) -> (oldValue == null) ? value : oldValue + value);
-        var format = new DecimalFormat();
-        add(event("[stat] {}={}", key, format.format(value)));
+        add("[stat] {}={}", key, new StatValue(value));
     }
 
     public void initializeWarnings(PerformanceWarning[] warnings) {
@@ -164,7 +170,7 @@ public final class ActionLog {
     }
 
     public void action(String action) {
-        add(event("action={}", action));
+        add("action={}", action);
         this.action = action;
     }
 
@@ -176,9 +182,7 @@ public final class ActionLog {
 
     public String trace() {
         var builder = new StringBuilder(events.size() << 7);  // length * 128 as rough initial capacity
-        for (LogEvent event : events) {
-            event.appendTrace(builder, startTime);
-        }
+        events.appendTrace(builder, startTime);
         return builder.toString();
     }
 
@@ -190,4 +194,12 @@ public final class ActionLog {
         if (configs.isEmpty()) return null;
         return configs.toArray(new PerformanceWarning[0]);
     }
+
+    // DecimalFormat is not thread safe and expensive to create, only format when flushing trace
+    private record StatValue(double value) implements LogParam {
+        @Override
+        public void append(StringBuilder builder, Set<String> maskedFields, int maxParamLength) {
+            builder.append(new DecimalFormat().format(value));
+        }
+    }
 }
@@ -14,11 +14,13 @@ import java.time.Instant;
 public final class CollectStatTask implements Runnable {
     private final LogAppender appender;
     private final StatCollector collector;
+    private final LogManager logManager;
     private int count;
 
-    public CollectStatTask(LogAppender appender, StatCollector collector) {
+    public CollectStatTask(LogAppender appender, StatCollector collector, LogManager logManager) {
         this.appender = appender;
         this.collector = collector;
+        this.logManager = logManager;
     }
 
     @Override
@@ -46,6 +48,8 @@ public final class CollectStatTask implements Runnable {
         message.errorMessage = stats.errorMessage;
         message.stats = stats.stats;
         message.info = stats.info;
+        PerformanceHistograms histograms = logManager.performanceHistograms;
+        if (histograms != null) message.performanceHistograms = histograms.collect();
         return message;
     }
 }
@@ -45,9 +45,12 @@ public class LogManager {
 
     private final ActionLogMessageFactory actionLogMessageFactory = new ActionLogMessageFactory();
     public LogAppender appender;
+    public int maxTraceDebugEvents;     // 0 means keep all trace events until soft limit, otherwise only keep last N debug events plus all warning/error events
+    public TraceSampler traceSampler;
+    public PerformanceHistograms performanceHistograms;
 
     public ActionLog begin(String message, String id) {
-        var actionLog = new ActionLog(message, id);
+        var actionLog = new ActionLog(message, id, maxTraceDebugEvents);
         CURRENT_ACTION_LOG.set(actionLog);
         return actionLog;
     }
@@ -56,6 +59,8 @@ public class LogManager {
         ActionLog actionLog = CURRENT_ACTION_LOG.get();
         actionLog.end(message);
         CURRENT_ACTION_LOG.remove();    // actionLog.end(message) may produce more logs
+        if (performanceHistograms != null) performanceHistograms.record(actionLog);
+        if (traceSampler != null && traceSampler.sample(actionLog)) actionLog.sampled = true;
 
         if (appender != null) {
             try {
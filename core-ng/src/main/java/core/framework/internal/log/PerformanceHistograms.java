@@ -0,0 +1,71 @@
+package core.framework.internal.log;
+
+import core.framework.internal.stat.Histogram;
+import core.framework.log.message.PerformanceHistogramMessage;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * aggregate elapsed of every action and its operations (e.g. db/redis/http/kafka) into histograms in process,
+ * histograms are rolled and shipped with stat message every collecting interval, so percentiles per action are accurate even if OK action logs are dropped
+ *
+ * recording is lock free, with nested maps to avoid creating key for every action
+ *
+ * @author neo
+ */
+public final class PerformanceHistograms {
+    static final String ELAPSED = "elapsed";
+    private static final int MAX_ACTIONS = 1000;    // action is bounded in general, limit it in case of dynamic action names
+
+    final Map<String, Map<String, Histogram>> histograms = new ConcurrentHashMap<>();
+
+    void record(ActionLog log) {
+        Map<String, Histogram> operations = operations(log.action);
+        if (operations == null) return;
+        histogram(operations, ELAPSED).record(log.elapsed);
+        for (Map.Entry<String, PerformanceStat> entry : log.performanceStats.entrySet()) {
+            PerformanceStat stat = entry.getValue();
+            if (stat.count == 0) continue;  // initialized by warnings but not used by current action
+            histogram(operations, entry.getKey()).record(stat.totalElapsed);
+        }
+    }
+
+    @Nullable
+    private Map<String, Histogram> operations(String action) {
+        Map<String, Histogram> operations = histograms.get(action);
+        if (operations != null) return operations;
+        if (histograms.size() >= MAX_ACTIONS) return null;
+        return histograms.computeIfAbsent(action, key -> new ConcurrentHashMap<>());
+    }
+
+    private Histogram histogram(Map<String, Histogram> operations, String operation) {
+        Histogram histogram = operations.get(operation);
+        if (histogram != null) return histogram;
+        return operations.computeIfAbsent(operation, key -> new Histogram());
+    }
+
+    // roll all histograms, only return ones recorded values since last collecting
+    public List<PerformanceHistogramMessage> collect() {
+        List<PerformanceHistogramMessage> messages = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Histogram>> actionEntry : histograms.entrySet()) {
+            for (Map.Entry<String, Histogram> entry : actionEntry.getValue().entrySet()) {
+                Histogram.Snapshot snapshot = entry.getValue().snapshot();
+                if (snapshot.count == 0) continue;
+                var message = new PerformanceHistogramMessage();
+                message.action = actionEntry.getKey();
+                message.operation = entry.getKey();
+                message.count = snapshot.count;
+                message.p50 = snapshot.percentile(0.5);
+                message.p99 = snapshot.percentile(0.99);
+                message.p999 = snapshot.percentile(0.999);
+                message.max = snapshot.max();
+                messages.add(message);
+            }
+        }
+        return messages;
+    }
+}
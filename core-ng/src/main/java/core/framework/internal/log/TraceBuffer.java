@@ -0,0 +1,174 @@
+package core.framework.internal.log;
+
+import core.framework.util.Exceptions;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Marker;
+
+import static core.framework.internal.log.LogLevel.DEBUG;
+import static core.framework.internal.log.LogLevel.WARN;
+
+/**
+ * trace events of action log, keeps event fields in chunks of parallel arrays instead of event objects, and formats only when trace log is flushed,
+ * most of actions end without flushing trace, so recording must be as cheap as possible, chunks are linked to avoid copying on growth
+ *
+ * with tail sampling (maxDebugEvents > 0), only keeps last N debug events in ring, plus all warning/error and action log own events
+ *
+ * @author neo
+ */
+final class TraceBuffer {
+    static final int SOFT_EVENTS_LIMIT = 3000;    // normally 3000 lines trace is about 350k, and limit memory usage for each action
+    private static final int CHUNK_SIZE = 64;
+
+    private final Chunk head = new Chunk(CHUNK_SIZE);
+    @Nullable
+    private final Chunk debugEvents;     // ring of last debug events, only with tail sampling
+    private Chunk tail = head;
+    private int size;
+    private int debugEventsCount;
+    private int sequence;
+
+    TraceBuffer(int maxDebugEvents) {
+        debugEvents = maxDebugEvents > 0 ? new Chunk(maxDebugEvents) : null;
+    }
+
+    // action log own events are always kept, e.g. begin/context/stat/elapsed
+    void add(String message, @Nullable Object[] arguments) {
+        add(System.nanoTime(), ActionLog.LOGGER, null, DEBUG, message, arguments, null);
+    }
+
+    void add(String logger, @Nullable Marker marker, LogLevel level, @Nullable String message, @Nullable Object[] arguments, @Nullable Throwable exception) {
+        long time = System.nanoTime();
+        if (level.value >= WARN.value) {
+            add(time, logger, marker, level, message, arguments, exception);
+        } else if (debugEvents != null) {
+            debugEvents.set(debugEventsCount % debugEvents.capacity(), sequence++, time, logger, marker, level, message, arguments, exception);
+            debugEventsCount++;
+        } else if (size < SOFT_EVENTS_LIMIT) {   // after reach max holding lines, only add warning/error events
+            add(time, logger, marker, level, message, arguments, exception);
+        }
+    }
+
+    private void add(long time, String logger, @Nullable Marker marker, LogLevel level, @Nullable String message, @Nullable Object[] arguments, @Nullable Throwable exception) {
+        int index = size % CHUNK_SIZE;
+        if (index == 0 && size > 0) {
+            Chunk chunk = new Chunk(CHUNK_SIZE);
+            tail.next = chunk;
+            tail = chunk;
+        }
+        tail.set(index, sequence++, time, logger, marker, level, message, arguments, exception);
+        size++;
+        if (debugEvents == null && size == SOFT_EVENTS_LIMIT) {     // mark once whichever event reaches limit, including warning/error
+            add(System.nanoTime(), ActionLog.LOGGER, null, DEBUG, "...(soft trace limit reached)", null, null);
+        }
+    }
+
+    int size() {
+        return size + (debugEvents == null ? 0 : Math.min(debugEventsCount, debugEvents.capacity()));
+    }
+
+    // merge kept events and debug ring by sequence
+    void appendTrace(StringBuilder builder, long startTime) {
+        int debugIndex = 0;     // from oldest to latest debug event
+        Chunk chunk = head;
+        for (int i = 0; i < size; i++) {
+            int index = i % CHUNK_SIZE;
+            if (index == 0 && i > 0) chunk = chunk.next;
+            debugIndex = appendDebugEvents(builder, startTime, debugIndex, chunk.sequences[index]);
+            chunk.appendTrace(builder, index, startTime);
+        }
+        appendDebugEvents(builder, startTime, debugIndex, Integer.MAX_VALUE);
+    }
+
+    private int appendDebugEvents(StringBuilder builder, long startTime, int from, int beforeSequence) {
+        if (debugEvents == null) return from;
+        int capacity = debugEvents.capacity();
+        int size = Math.min(debugEventsCount, capacity);
+        int skipped = debugEventsCount - size;
+        int i = from;
+        for (; i < size; i++) {
+            int index = (skipped + i) % capacity;
+            if (debugEvents.sequences[index] > beforeSequence) break;
+            if (i == 0 && skipped > 0) {
+                appendDuration(builder, debugEvents.times[index] - startTime);
+                builder.append(' ').append(ActionLog.LOGGER).append(" - ...(skipped ").append(skipped).append(" debug events)").append(System.lineSeparator());
+            }
+            debugEvents.appendTrace(builder, index, startTime);
+        }
+        return i;
+    }
+
+    static void appendDuration(StringBuilder builder, long durationInNanos) {
+        long seconds = durationInNanos / 1000000000;
+
+        String minutePart = String.valueOf(seconds / 60);
+        if (minutePart.length() < 2) builder.append('0');
+        builder.append(minutePart).append(':');
+
+        String secondPart = String.valueOf(seconds % 60);
+        if (secondPart.length() < 2) builder.append('0');
+        builder.append(secondPart).append('.');
+
+        String nanoPart = String.valueOf(durationInNanos % 1000000000);
+        int padding = 9 - nanoPart.length();
+        for (int i = 0; i < padding; i++) {
+            builder.append('0');
+        }
+        builder.append(nanoPart);
+    }
+
+    private static final class Chunk {
+        final int[] sequences;
+        final long[] times;
+        final String[] loggers;
+        final LogLevel[] levels;
+        final String[] messages;
+        final Object[][] arguments;
+        Marker[] markers;           // most of events have no marker or exception, only create on demand
+        Throwable[] exceptions;
+        Chunk next;
+
+        Chunk(int capacity) {
+            sequences = new int[capacity];
+            times = new long[capacity];
+            loggers = new String[capacity];
+            levels = new LogLevel[capacity];
+            messages = new String[capacity];
+            arguments = new Object[capacity][];
+        }
+
+        int capacity() {
+            return times.length;
+        }
+
+        void set(int index, int sequence, long time, String logger, @Nullable Marker marker, LogLevel level, @Nullable String message, @Nullable Object[] arguments, @Nullable Throwable exception) {
+            sequences[index] = sequence;
+            times[index] = time;
+            loggers[index] = logger;
+            levels[index] = level;
+            messages[index] = message;
+            this.arguments[index] = arguments;
+            if (marker != null || markers != null) {
+                if (markers == null) markers = new Marker[capacity()];
+                markers[index] = marker;
+            }
+            if (exception != null || exceptions != null) {
+                if (exceptions == null) exceptions = new Throwable[capacity()];
+                exceptions[index] = exception;
+            }
+        }
+
+        void appendTrace(StringBuilder builder, int index, long startTime) {
+            appendDuration(builder, times[index] - startTime);
+            builder.append(' ');
+            LogLevel level = levels[index];
+            if (level != DEBUG) builder.append(level.name()).append(' ');
+            builder.append(loggers[index]).append(" - ");
+            Marker marker = markers == null ? null : markers[index];
+            if (marker != null) builder.append('[').append(marker.getName()).append("] ");
+            LogManager.FILTER.append(builder, messages[index], arguments[index]);
+            builder.append(System.lineSeparator());
+            Throwable exception = exceptions == null ? null : exceptions[index];
+            if (exception != null) builder.append(Exceptions.stackTrace(exception));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package core.framework.internal.log;
+
+import core.framework.internal.stat.Histogram;
+import core.framework.internal.stat.Metrics;
+import core.framework.internal.stat.Stats;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * flush trace of OK actions which are slower than rolling percentile of same action, or picked by random sample,
+ * within global budget of traces per second, to have visibility of slow path without shipping every trace
+ *
+ * elapsed of every action is recorded into histogram of its action, percentile threshold is updated on collecting stats once there are enough samples
+ *
+ * @author neo
+ */
+public final class TraceSampler implements Metrics {
+    static final int MIN_SAMPLES = 100;     // not to judge slow actions until percentile is meaningful
+    private static final int MAX_ACTIONS = 1000;    // action is bounded in general, e.g. api:get:/order/:id, limit it in case of dynamic action names
+
+    final Map<String, ActionLatency> latencies = new ConcurrentHashMap<>();
+    final LongAdder sampled = new LongAdder();
+    final LongAdder dropped = new LongAdder();
+
+    private final double slowPercentile;
+    private final double sampleRate;
+    private final int maxTracesPerSecond;
+    private final AtomicInteger traces = new AtomicInteger();
+    private volatile long currentSecond;
+
+    public TraceSampler(double slowPercentile, double sampleRate, int maxTracesPerSecond) {
+        this.slowPercentile = slowPercentile;
+        this.sampleRate = sampleRate;
+        this.maxTracesPerSecond = maxTracesPerSecond;
+    }
+
+    // called after action ended, elapsed is available
+    boolean sample(ActionLog log) {
+        ActionLatency latency = latency(log.action);
+        if (latency != null) latency.record(log.elapsed);
+        if (log.flushTraceLog()) return false;   // already has trace
+
+        boolean slow = latency != null && log.elapsed > latency.threshold;
+        if (!slow && (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) return false;
+
+        if (!acquire(System.currentTimeMillis() / 1000)) {
+            dropped.increment();
+            return false;
+        }
+        sampled.increment();
+        return true;
+    }
+
+    @Nullable
+    private ActionLatency latency(String action) {
+        ActionLatency latency = latencies.get(action);
+        if (latency != null) return latency;
+        if (latencies.size() >= MAX_ACTIONS) return null;
+        return latencies.computeIfAbsent(action, key -> new ActionLatency());
+    }
+
+    // fixed window per second, race on window switching only results in few traces over or under budget
+    boolean acquire(long second) {
+        if (second != currentSecond) {
+            currentSecond = second;
+            traces.set(0);
+        }
+        return traces.incrementAndGet() <= maxTracesPerSecond;
+    }
+
+    @Override
+    public void collect(Stats stats) {
+        for (ActionLatency latency : latencies.values()) {
+            latency.roll(slowPercentile);
+        }
+        stats.put("log_trace_sampled", sampled.sumThenReset());
+        stats.put("log_trace_sampling_dropped", dropped.sumThenReset());
+    }
+
+    static final class ActionLatency {
+        final Histogram histogram = new Histogram();
+        final LongAdder count = new LongAdder();
+        volatile long threshold = Long.MAX_VALUE;
+
+        void record(long elapsed) {
+            histogram.record(elapsed);
+            count.increment();
+        }
+
+        // keep accumulating until there are enough samples, then use percentile of this window as threshold of next window
+        void roll(double percentile) {
+            if (count.sum() < MIN_SAMPLES) return;
+            count.reset();
+            Histogram.Snapshot snapshot = histogram.snapshot();
+            threshold = snapshot.percentile(percentile);
+        }
+    }
+}
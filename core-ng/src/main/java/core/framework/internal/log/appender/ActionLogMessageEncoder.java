@@ -0,0 +1,303 @@
+package core.framework.internal.log.appender;
+
+import core.framework.log.message.ActionLogMessage;
+import core.framework.log.message.PerformanceStatMessage;
+import org.jspecify.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * write action log message as json into reused buffer, output is same as JSONWriter, and trace_log is the last field,
+ * size limit is enforced during writing, trace log is escaped char by char and truncated to fit the remaining space, so message never needs to be serialized twice,
+ * it's not thread safe, only used by log forwarder thread
+ *
+ * @author neo
+ */
+final class ActionLogMessageEncoder {
+    static final String TRUNCATION_WARNING = "...(hard trace limit reached, please check console log for full trace)";
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+    private static final int LARGE_CONTEXT_SIZE = 10;
+
+    private final int maxSize;
+    boolean truncated;      // whether last encoded message was truncated
+    private final char[] chars = new char[1024];
+    private byte[] buffer = new byte[64 * 1024];
+    private int position;
+
+    ActionLogMessageEncoder(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    byte[] encode(ActionLogMessage message) {
+        truncated = false;
+        position = 0;
+        String traceLog = message.traceLog;
+        writeFields(message, false);
+        int traceLogSize = traceLog == null ? 0 : encodedSize(traceLog, maxSize - position - 16);
+        if (position + traceLogSize + 16 > maxSize) {      // 16 bytes of ,"trace_log":""}, clear all large context, trace log most likely has enough room after that
+            truncated = true;
+            position = 0;
+            writeFields(message, true);
+        }
+        writeASCII(",\"trace_log\":");
+        if (traceLog == null || position + traceLogSize + 3 <= maxSize) {
+            writeString(traceLog);
+        } else {
+            truncated = true;
+            write((byte) '"');
+            writeChars(traceLog, 0, truncateIndex(traceLog, maxSize - position - TRUNCATION_WARNING.length() - 2));
+            writeASCII(TRUNCATION_WARNING);
+            write((byte) '"');
+        }
+        write((byte) '}');
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private void writeFields(ActionLogMessage message, boolean skipLargeContext) {
+        writeASCII("{\"id\":");
+        writeString(message.id);
+        writeASCII(",\"date\":");
+        writeString(message.date == null ? null : message.date.toString());
+        writeASCII(",\"app\":");
+        writeString(message.app);
+        writeASCII(",\"host\":");
+        writeString(message.host);
+        writeASCII(",\"result\":");
+        writeString(message.result);
+        writeASCII(",\"action\":");
+        writeString(message.action);
+        writeASCII(",\"correlation_ids\":");
+        writeList(message.correlationIds);
+        writeASCII(",\"clients\":");
+        writeList(message.clients);
+        writeASCII(",\"ref_ids\":");
+        writeList(message.refIds);
+        writeASCII(",\"error_code\":");
+        writeString(message.errorCode);
+        writeASCII(",\"error_message\":");
+        writeString(message.errorMessage);
+        writeASCII(",\"elapsed\":");
+        writeNumber(message.elapsed);
+        writeASCII(",\"context\":");
+        writeContext(message.context, skipLargeContext);
+        writeASCII(",\"stats\":");
+        writeStats(message.stats);
+        writeASCII(",\"perf_stats\":");
+        writePerformanceStats(message.performanceStats);
+    }
+
+    // only count exact size if it may not fit in remaining bytes, max escaped length of one char is 6 bytes
+    private int encodedSize(String value, int remaining) {
+        int length = value.length();
+        if (length * 6L <= remaining) return length * 6;
+        int size = 0;
+        for (int i = 0; i < length; i++) {
+            size += encodedSize(value.charAt(i));
+        }
+        return size;
+    }
+
+    private int truncateIndex(String value, int maxBytes) {
+        int size = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            size += encodedSize(value.charAt(i));
+            if (size > maxBytes) {
+                if (i > 0 && Character.isHighSurrogate(value.charAt(i - 1)) && Character.isLowSurrogate(value.charAt(i))) return i - 1;  // not to split surrogate pair
+                return i;
+            }
+        }
+        return length;
+    }
+
+    private int encodedSize(char ch) {
+        if (ch < 0x20) return ch == '\n' || ch == '\t' || ch == '\r' || ch == '\b' || ch == '\f' ? 2 : 6;
+        if (ch == '"' || ch == '\\') return 2;
+        if (ch < 0x80) return 1;
+        if (ch < 0x800) return 2;
+        if (Character.isHighSurrogate(ch)) return 3;    // surrogate pair is 4 bytes in total
+        if (Character.isLowSurrogate(ch)) return 1;
+        return 3;
+    }
+
+    private void writeList(@Nullable List<String> values) {
+        if (values == null) {
+            writeASCII("null");
+            return;
+        }
+        write((byte) '[');
+        int size = values.size();
+        for (int i = 0; i < size; i++) {
+            if (i > 0) write((byte) ',');
+            writeString(values.get(i));
+        }
+        write((byte) ']');
+    }
+
+    private void writeContext(@Nullable Map<String, List<String>> context, boolean skipLargeContext) {
+        if (context == null) {
+            writeASCII("null");
+            return;
+        }
+        write((byte) '{');
+        boolean first = true;
+        for (Map.Entry<String, List<String>> entry : context.entrySet()) {
+            if (skipLargeContext && entry.getValue() != null && entry.getValue().size() > LARGE_CONTEXT_SIZE) continue;
+            if (!first) write((byte) ',');
+            first = false;
+            writeString(entry.getKey());
+            write((byte) ':');
+            writeList(entry.getValue());
+        }
+        write((byte) '}');
+    }
+
+    private void writeStats(@Nullable Map<String, Double> stats) {
+        if (stats == null) {
+            writeASCII("null");
+            return;
+        }
+        write((byte) '{');
+        boolean first = true;
+        for (Map.Entry<String, Double> entry : stats.entrySet()) {
+            if (!first) write((byte) ',');
+            first = false;
+            writeString(entry.getKey());
+            write((byte) ':');
+            writeNumber(entry.getValue());
+        }
+        write((byte) '}');
+    }
+
+    private void writePerformanceStats(@Nullable Map<String, PerformanceStatMessage> stats) {
+        if (stats == null) {
+            writeASCII("null");
+            return;
+        }
+        write((byte) '{');
+        boolean first = true;
+        for (Map.Entry<String, PerformanceStatMessage> entry : stats.entrySet()) {
+            if (!first) write((byte) ',');
+            first = false;
+            writeString(entry.getKey());
+            write((byte) ':');
+            PerformanceStatMessage stat = entry.getValue();
+            if (stat == null) {
+                writeASCII("null");
+                continue;
+            }
+            writeASCII("{\"total_elapsed\":");
+            writeNumber(stat.totalElapsed);
+            writeASCII(",\"count\":");
+            writeNumber(stat.count);
+            writeASCII(",\"read_entries\":");
+            writeNumber(stat.readEntries);
+            writeASCII(",\"write_entries\":");
+            writeNumber(stat.writeEntries);
+            write((byte) '}');
+        }
+        write((byte) '}');
+    }
+
+    private void writeNumber(@Nullable Number value) {
+        if (value == null) {
+            writeASCII("null");
+        } else if (value instanceof Double number && !Double.isFinite(number)) {
+            write((byte) '"');      // jackson writes NaN and Infinity as string
+            writeASCII(number.toString());
+            write((byte) '"');
+        } else {
+            writeASCII(value.toString());
+        }
+    }
+
+    private void writeString(@Nullable String value) {
+        if (value == null) {
+            writeASCII("null");
+            return;
+        }
+        write((byte) '"');
+        writeChars(value, 0, value.length());
+        write((byte) '"');
+    }
+
+    // copy chars in batch, and reserve buffer for max escaped length of batch, to keep the loop tight
+    private void writeChars(String value, int from, int to) {
+        int start = from;
+        while (start < to) {
+            int end = Math.min(start + chars.length, to);
+            if (end < to && Character.isHighSurrogate(value.charAt(end - 1))) end--;     // keep surrogate pair in same batch
+            int length = end - start;
+            value.getChars(start, end, chars, 0);
+            ensureCapacity(length * 6);
+            for (int i = 0; i < length; i++) {
+                char ch = chars[i];
+                if (ch < 0x80) {
+                    if (ch >= 0x20 && ch != '"' && ch != '\\') {
+                        buffer[position++] = (byte) ch;
+                    } else {
+                        writeEscapedASCII(ch);
+                    }
+                } else if (ch < 0x800) {
+                    buffer[position++] = (byte) (0xC0 | (ch >> 6));
+                    buffer[position++] = (byte) (0x80 | (ch & 0x3F));
+                } else if (Character.isHighSurrogate(ch) && i + 1 < length && Character.isLowSurrogate(chars[i + 1])) {
+                    int codePoint = Character.toCodePoint(ch, chars[++i]);
+                    buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(ch)) {
+                    buffer[position++] = '?';   // malformed surrogate, same as String.getBytes(UTF_8)
+                } else {
+                    buffer[position++] = (byte) (0xE0 | (ch >> 12));
+                    buffer[position++] = (byte) (0x80 | ((ch >> 6) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | (ch & 0x3F));
+                }
+            }
+            start = end;
+        }
+    }
+
+    private void writeEscapedASCII(char ch) {
+        buffer[position++] = '\\';
+        switch (ch) {
+            case '"' -> buffer[position++] = '"';
+            case '\\' -> buffer[position++] = '\\';
+            case '\n' -> buffer[position++] = 'n';
+            case '\t' -> buffer[position++] = 't';
+            case '\r' -> buffer[position++] = 'r';
+            case '\b' -> buffer[position++] = 'b';
+            case '\f' -> buffer[position++] = 'f';
+            default -> {
+                buffer[position++] = 'u';
+                buffer[position++] = '0';
+                buffer[position++] = '0';
+                buffer[position++] = HEX[ch >> 4];
+                buffer[position++] = HEX[ch & 0xF];
+            }
+        }
+    }
+
+    private void writeASCII(String value) {
+        int length = value.length();
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            buffer[position++] = (byte) value.charAt(i);
+        }
+    }
+
+    private void write(byte value) {
+        ensureCapacity(1);
+        buffer[position++] = value;
+    }
+
+    private void ensureCapacity(int length) {
+        if (position + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, position + length));
+        }
+    }
+}
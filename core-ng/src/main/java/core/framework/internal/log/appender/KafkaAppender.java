@@ -17,34 +17,69 @@ import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.kafka.common.record.CompressionType;
 import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.InetSocketAddress;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
 import static core.framework.log.Markers.errorCode;
 
 /**
+ * request threads only put messages into bounded queue, log forwarder thread serializes and sends them in batch,
+ * when queue is filling up, messages are dropped by priority, trace of action log first, then stat, then action log itself
+ *
+ * with spill enabled, messages are written to local disk instead of being dropped if kafka is not available, and replayed once kafka is back
+ *
  * @author neo
  */
 public final class KafkaAppender implements LogAppender {
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final long REPLAY_DELAY_IN_MS = 30_000;    // only replay spilled messages if kafka has been available for a while
+
     public final ProducerMetrics producerMetrics = new ProducerMetrics("log-forwarder");
+    public final LogForwarderMetrics metrics = new LogForwarderMetrics(this);
 
-    final BlockingQueue<ProducerRecord<byte[], byte[]>> records = new LinkedBlockingQueue<>();
+    final LongAdder droppedTraces = new LongAdder();
+    final LongAdder droppedStats = new LongAdder();
+    final LongAdder droppedActions = new LongAdder();
+    final LongAdder failedRecords = new LongAdder();
+    final LongAdder spilledRecords = new LongAdder();
+    final LongAdder replayedRecords = new LongAdder();
+    final AtomicLong queuedTraceLength = new AtomicLong();
+    RingBuffer<Object> queue = new RingBuffer<>(5000);
+    int dropTraceSize = 1000;
+    int dropStatSize = 4000;
+    long maxQueuedTraceLength = 50_000_000;     // chars of trace in queue, roughly 100M heap
+    @Nullable
+    SpillLog spill;
+    Producer<byte[], byte[]> producer;
+    volatile long lastFailedTime;
     private final Logger logger = LoggerFactory.getLogger(KafkaAppender.class);
     private final Thread logForwarderThread;
-    private final JSONWriter<ActionLogMessage> actionLogWriter = new JSONWriter<>(ActionLogMessage.class);
+    // refer to org.apache.kafka.common.record.DefaultRecordBatch.estimateBatchSizeUpperBound, overhead is 88 + valueSize
+    private final ActionLogMessageEncoder actionLogEncoder = new ActionLogMessageEncoder(2_000_000);
     private final JSONWriter<StatMessage> statWriter = new JSONWriter<>(StatMessage.class);
     private final Callback callback = new KafkaCallback();
     private final KafkaURI uri;
+    private final Queue<ProducerRecord<byte[], byte[]>> failedRecordsQueue = new ConcurrentLinkedQueue<>();    // records failed in kafka callback, to be spilled by log forwarder thread
+    @Nullable
+    private volatile Exception sendError;   // last error of failed records, to log once per spilled batch
 
-    private Producer<byte[], byte[]> producer;
     private volatile boolean stop;
+    private volatile boolean waiting;   // whether log forwarder thread is waiting for messages
 
     public KafkaAppender(KafkaURI uri) {
         this.uri = uri;
@@ -62,26 +97,137 @@ public final class KafkaAppender implements LogAppender {
                 break;
             }
             logger.warn("failed to resolve log kafka uri, retry in 10 seconds, uri={}", this.uri);
-            records.clear();    // throw away records, to prevent from high heap usage
+            clear();    // throw away or spill messages, to keep queue available for latest logs
             Threads.sleepRoughly(Duration.ofSeconds(10));
         }
     }
 
-    private void process() {
+    void process() {
+        List<ProducerRecord<byte[], byte[]>> records = new ArrayList<>(MAX_BATCH_SIZE);
         while (!stop) {
             try {
-                ProducerRecord<byte[], byte[]> record = records.take();
-                producer.send(record, callback);
+                spillFailedRecords();
+                poll(records);
+                if (records.isEmpty()) {
+                    if (!replay()) await();
+                    continue;
+                }
+                send(records);
+                records.clear();
             } catch (Throwable e) {
-                if (!stop) {    // if during stop and records.take() is interrupted, not clear records and sleep
+                if (!stop) {
                     logger.warn("failed to send log message, retry in 30 seconds", e);
-                    records.clear();
+                    lastFailedTime = System.currentTimeMillis();
+                    spill(records);
+                    records.clear();    // keep queued messages, queue is bounded, new messages are dropped by priority while waiting
                     Threads.sleepRoughly(Duration.ofSeconds(30));
                 }
             }
         }
     }
 
+    private void send(List<ProducerRecord<byte[], byte[]>> records) {
+        for (ProducerRecord<byte[], byte[]> record : records) {
+            producer.send(record, spill == null ? callback : new SpillCallback(record));
+        }
+    }
+
+    // replay spilled records only when there is no live message, records will be spilled again if failed to send
+    boolean replay() {
+        if (spill == null || spill.size.get() == 0) return false;
+        if (System.currentTimeMillis() - lastFailedTime < REPLAY_DELAY_IN_MS) return false;
+        List<ProducerRecord<byte[], byte[]>> records = spill.read(MAX_BATCH_SIZE);
+        send(records);      // not commit if failed to send, to replay again later
+        producer.flush();   // replay batch by batch, not to flood producer buffer if kafka is still not stable
+        spill.commit();
+        replayedRecords.add(records.size());
+        return true;
+    }
+
+    void spillFailedRecords() {
+        if (failedRecordsQueue.isEmpty()) return;
+        lastFailedTime = System.currentTimeMillis();
+        List<ProducerRecord<byte[], byte[]>> records = new ArrayList<>();
+        while (true) {
+            ProducerRecord<byte[], byte[]> record = failedRecordsQueue.poll();
+            if (record == null) break;
+            records.add(record);
+        }
+        logger.warn("failed to send log messages, spill to local disk, records={}", records.size(), sendError);
+        spill(records);
+    }
+
+    private void spill(List<ProducerRecord<byte[], byte[]>> records) {
+        if (spill == null) {
+            failedRecords.add(records.size());
+            return;
+        }
+        for (ProducerRecord<byte[], byte[]> record : records) {
+            if (spill.append(record)) {
+                spilledRecords.increment();
+            } else {
+                failedRecords.increment();
+            }
+        }
+    }
+
+    // serialize messages on log forwarder thread, to keep it out of critical path of request threads
+    void poll(List<ProducerRecord<byte[], byte[]>> records) {
+        while (records.size() < MAX_BATCH_SIZE) {
+            Object message = queue.poll();
+            if (message == null) break;
+            if (message instanceof ActionLogMessage actionLog) {
+                if (actionLog.traceLog != null) queuedTraceLength.addAndGet(-actionLog.traceLog.length());
+                records.add(record(actionLog));
+            } else {
+                records.add(new ProducerRecord<>(LogTopics.TOPIC_STAT, statWriter.toJSON((StatMessage) message)));  // not specify message key for sticky partition
+            }
+        }
+    }
+
+    private ProducerRecord<byte[], byte[]> record(ActionLogMessage message) {
+        byte[] value = actionLogEncoder.encode(message);
+        if (actionLogEncoder.truncated) {
+            logger.warn(errorCode("LOG_TOO_LARGE"), "action log message is too large, truncated to size={}, id={}, action={}", value.length, message.id, message.action);
+            new ConsoleAppender().append(message);  // fall back to console appender to print
+        }
+
+        // not specify message key for sticky partition, StickyPartitionCache will be used if key is null
+        // refer to org.apache.kafka.clients.producer.internals.DefaultPartitioner.partition
+        return new ProducerRecord<>(LogTopics.TOPIC_ACTION_LOG, value);
+    }
+
+    private void await() {
+        waiting = true;
+        try {
+            if (queue.size() == 0) LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));  // recheck after flag is set, in case message is added in between
+        } finally {
+            waiting = false;
+        }
+    }
+
+    private void clear() {
+        if (spill != null) {
+            List<ProducerRecord<byte[], byte[]>> records = new ArrayList<>(MAX_BATCH_SIZE);
+            do {
+                records.clear();
+                poll(records);
+                spill(records);
+            } while (!records.isEmpty());
+            return;
+        }
+        while (true) {
+            Object message = queue.poll();
+            if (message == null) return;
+            if (message instanceof ActionLogMessage actionLog) {
+                if (actionLog.traceLog != null) queuedTraceLength.addAndGet(-actionLog.traceLog.length());
+                droppedActions.increment();
+            } else {
+                droppedStats.increment();
+            }
+        }
+    }
+
     KafkaProducer<byte[], byte[]> createProducer(KafkaURI uri) {
         var watch = new StopWatch();
         try {
@@ -108,26 +254,45 @@ public final class KafkaAppender implements LogAppender {
 
     @Override
     public void append(ActionLogMessage message) {
-        byte[] value = actionLogWriter.toJSON(message);
-
-        // refer to org.apache.kafka.common.record.DefaultRecordBatch.estimateBatchSizeUpperBound
-        // overhead is 88 + valueSize
-        if (value.length > 2_000_000) {
-            logger.warn(errorCode("LOG_TOO_LARGE"), "action log message is too large, size={}, id={}, action={}", value.length, message.id, message.action);
-            new ConsoleAppender().append(message);  // fall back to console appender to print
-
-            truncate(message, value.length - 2_000_000, 10_000);
-            value = actionLogWriter.toJSON(message);    // the value length is supposed to be less than 2_000_000, since json escapes '\n' as 2 chars, but in trace string it's one char
+        int size = queue.size();
+        String traceLog = message.traceLog;
+        if (traceLog != null) {
+            if (size >= dropTraceSize || queuedTraceLength.get() + traceLog.length() > maxQueuedTraceLength) {
+                message.traceLog = null;
+                droppedTraces.increment();
+            } else {
+                queuedTraceLength.addAndGet(traceLog.length());
+            }
+        }
+        if (!offer(message)) {
+            if (message.traceLog != null) queuedTraceLength.addAndGet(-traceLog.length());
+            droppedActions.increment();
         }
-
-        // not specify message key for sticky partition, StickyPartitionCache will be used if key is null
-        // refer to org.apache.kafka.clients.producer.internals.DefaultPartitioner.partition
-        records.add(new ProducerRecord<>(LogTopics.TOPIC_ACTION_LOG, value));
     }
 
     @Override
     public void append(StatMessage message) {
-        records.add(new ProducerRecord<>(LogTopics.TOPIC_STAT, statWriter.toJSON(message)));    // not specify message key for sticky partition
+        if (queue.size() >= dropStatSize || !offer(message)) {
+            droppedStats.increment();
+        }
+    }
+
+    private boolean offer(Object message) {
+        if (!queue.offer(message)) return false;
+        if (waiting) LockSupport.unpark(logForwarderThread);
+        return true;
+    }
+
+    // must be called during configuration, before any message is appended
+    public void queue(int capacity, double dropTraceRatio, double dropStatRatio) {
+        queue = new RingBuffer<>(capacity);
+        dropTraceSize = (int) (capacity * dropTraceRatio);
+        dropStatSize = (int) (capacity * dropStatRatio);
+    }
+
+    // must be called during configuration, segment is 16M, to hold at least one max size action log message
+    public void spill(Path directory, long maxSizeInBytes) {
+        spill = new SpillLog(directory, maxSizeInBytes, 16 * 1024 * 1024);
     }
 
     // during startup, if it encounters configuration runtime error, logForwarderThread won't start as all startup tasks will be skipped,
@@ -141,31 +306,32 @@ public final class KafkaAppender implements LogAppender {
         stop = true;
         logForwarderThread.interrupt();
 
+        try {
+            logForwarderThread.join(timeoutInMs);                       // wait until log forwarder thread stops, to make sure only one consumer polls queue
+        } catch (InterruptedException e) {
+            logger.warn(e.getMessage(), e);
+        }
+
         if (producer == null && resolveURI(uri)) producer = createProducer(uri);           // producer can be null if app failed to start (exception thrown by configure(), startup hook will not run)
         if (producer != null) {                                         // producer can be null if uri is not resolved
-            for (ProducerRecord<byte[], byte[]> record : records) {     // if log-kafka is not available, here will block MAX_BLOCK_MS, to simplify it's ok not handling timeout since kafka appender is at end of shutdown, no more critical resources left to handle
-                producer.send(record);
+            List<ProducerRecord<byte[], byte[]>> records = new ArrayList<>(MAX_BATCH_SIZE);
+            try {
+                do {
+                    records.clear();
+                    poll(records);
+                    send(records);      // if log-kafka is not available, here will block MAX_BLOCK_MS, to simplify it's ok not handling timeout since kafka appender is at end of shutdown, no more critical resources left to handle
+                } while (!records.isEmpty());
+            } catch (Throwable e) {
+                logger.warn("failed to send log message", e);
+                spill(records);     // spill or drop current batch and rest of queue, not to block on each batch
+                clear();
             }
             producer.close(Duration.ofMillis(timeoutInMs));
+            spillFailedRecords();       // callbacks are completed after producer closed
+        } else {
+            clear();
         }
-    }
-
-    // traceLog string length can be much smaller than json bytes size,
-    // since json encodes some chars into 2 bytes, e.g. \n, '"',
-    // if traceLog contains many of them like logs contains json string, it may over truncates
-    // in worst case, minTraceLength will be kept
-    void truncate(ActionLogMessage message, int overflow, int minTraceLength) {
-        // clear all large context
-        message.context.entrySet().removeIf(entry -> entry.getValue().size() > 10);
-        if (message.traceLog != null) {
-            int traceLength = message.traceLog.length();
-            // leave trace at least minTraceLength chars, if large context is removed, trace log most likely has enough room
-            int endIndex = Math.max(traceLength - overflow, minTraceLength);
-            String warning = "...(hard trace limit reached, please check console log for full trace)";
-            if (endIndex + warning.length() < traceLength) {
-                message.traceLog = message.traceLog.substring(0, endIndex) + warning;
-            }
-        }
+        if (spill != null) spill.close();
     }
 
     boolean resolveURI(KafkaURI kafkaURI) {
@@ -188,7 +354,23 @@ public final class KafkaAppender implements LogAppender {
         public void onCompletion(RecordMetadata metadata, Exception exception) {
             if (exception != null) {
                 logger.warn("failed to send log message", exception);
-                records.clear();
+                failedRecords.increment();
+            }
+        }
+    }
+
+    class SpillCallback implements Callback {
+        private final ProducerRecord<byte[], byte[]> record;
+
+        SpillCallback(ProducerRecord<byte[], byte[]> record) {
+            this.record = record;
+        }
+
+        @Override
+        public void onCompletion(RecordMetadata metadata, Exception exception) {
+            if (exception != null) {
+                sendError = exception;
+                failedRecordsQueue.add(record);
             }
         }
     }
@@ -0,0 +1,34 @@
+package core.framework.internal.log.appender;
+
+import core.framework.internal.stat.Metrics;
+import core.framework.internal.stat.Stats;
+
+/**
+ * @author neo
+ */
+public final class LogForwarderMetrics implements Metrics {
+    private final KafkaAppender appender;
+
+    LogForwarderMetrics(KafkaAppender appender) {
+        this.appender = appender;
+    }
+
+    @Override
+    public void collect(Stats stats) {
+        RingBuffer<Object> queue = appender.queue;
+        int size = queue.size();
+        stats.put("log_forwarder_queue_size", size);
+        stats.put("log_forwarder_dropped_traces", appender.droppedTraces.sumThenReset());
+        stats.put("log_forwarder_dropped_stats", appender.droppedStats.sumThenReset());
+        stats.put("log_forwarder_dropped_actions", appender.droppedActions.sumThenReset());
+        stats.put("log_forwarder_failed_records", appender.failedRecords.sumThenReset());
+        SpillLog spill = appender.spill;
+        if (spill != null) {
+            stats.put("log_forwarder_spilled_records", appender.spilledRecords.sumThenReset());
+            stats.put("log_forwarder_replayed_records", appender.replayedRecords.sumThenReset());
+            stats.put("log_forwarder_spill_evicted_segments", spill.evictedSegments.sumThenReset());
+            stats.put("log_forwarder_spill_size", spill.size.get());
+        }
+        stats.checkHighUsage((double) size / queue.capacity, 0.8, "log_forwarder_queue");
+    }
+}
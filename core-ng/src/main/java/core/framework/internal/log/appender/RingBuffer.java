@@ -0,0 +1,73 @@
+package core.framework.internal.log.appender;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * bounded lock free multi-producer single-consumer queue, refer to https://www.1024cores.net/home/lock-free-algorithms/queues/bounded-mpmc-queue
+ * every slot has sequence to indicate whether it's ready to write (sequence == position) or to read (sequence == position + 1),
+ * offer never blocks, and returns false if queue is full
+ *
+ * @author neo
+ */
+final class RingBuffer<T> {
+    final int capacity;
+    private final Object[] buffer;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;     // only written by consumer
+
+    RingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;   // round up to power of 2
+        this.capacity = capacity;
+        buffer = new Object[size];
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        mask = size - 1;
+    }
+
+    boolean offer(T value) {
+        long position = tail.get();
+        while (true) {
+            if (position - head >= capacity) return false;
+            int index = (int) (position & mask);
+            long diff = sequences.getAcquire(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    buffer[index] = value;
+                    sequences.setRelease(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (diff < 0) {
+                return false;   // slot is not consumed yet, queue is full
+            } else {
+                position = tail.get();  // other producer took the slot
+            }
+        }
+    }
+
+    // must only be called by consumer thread
+    @Nullable
+    @SuppressWarnings("unchecked")
+    T poll() {
+        long position = head;
+        int index = (int) (position & mask);
+        if (sequences.getAcquire(index) != position + 1) return null;   // empty, or producer is still writing
+        T value = (T) buffer[index];
+        buffer[index] = null;
+        sequences.setRelease(index, position + buffer.length);
+        head = position + 1;
+        return value;
+    }
+
+    int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+}
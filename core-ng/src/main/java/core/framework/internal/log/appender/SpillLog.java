@@ -0,0 +1,198 @@
+package core.framework.internal.log.appender;
+
+import core.framework.log.message.LogTopics;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * durable local buffer of serialized log messages while log kafka is not available,
+ * records are appended into rotating memory mapped segment files, and read oldest first to replay once kafka is back,
+ * when total size reaches quota, oldest segment is evicted
+ *
+ * segment file is "{sequence}.spill" with format: [int readPosition][record]..., record is [int length][byte topic][value],
+ * length is written after value, so partially written record (e.g. process crashed) is treated as end of segment,
+ * readPosition is updated after records are replayed, to continue from there after restart
+ *
+ * not thread safe, only used by log forwarder thread, and the directory must be dedicated to one app instance
+ *
+ * @author neo
+ */
+final class SpillLog {
+    private static final int HEADER_SIZE = 4;
+    private static final int RECORD_HEADER_SIZE = 5;
+    private static final byte TOPIC_ACTION_LOG = 1;
+    private static final byte TOPIC_STAT = 2;
+
+    final int segmentSize;
+    final int maxSegments;
+    final LongAdder evictedSegments = new LongAdder();
+    final AtomicLong size = new AtomicLong();     // size of records not replayed yet, read by metrics
+    private final Logger logger = LoggerFactory.getLogger(SpillLog.class);
+    private final Path directory;
+    private final Deque<Segment> segments = new ArrayDeque<>();     // from oldest to latest
+    private long nextSequence;
+
+    SpillLog(Path directory, long maxSize, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        maxSegments = (int) Math.max(2, maxSize / segmentSize);
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> stream = Files.list(directory)) {
+                files = new ArrayList<>(stream.filter(path -> path.getFileName().toString().endsWith(".spill")).sorted().toList());
+            }
+            for (Path file : files) {
+                Segment segment = open(file, sequence(file));
+                size.addAndGet(segment.writePosition - segment.readPosition);
+                segments.add(segment);
+                nextSequence = segment.sequence + 1;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!segments.isEmpty()) logger.info("found spilled log messages, directory={}, segments={}, size={}", directory, segments.size(), size.get());
+    }
+
+    // return false if record is too large to fit in one segment
+    boolean append(ProducerRecord<byte[], byte[]> record) {
+        byte[] value = record.value();
+        int length = RECORD_HEADER_SIZE + value.length;
+        if (HEADER_SIZE + length > segmentSize) return false;
+        Segment segment = segments.peekLast();
+        if (segment == null || segment.writePosition + length > segmentSize) segment = rotate();
+        int position = segment.writePosition;
+        segment.buffer.put(position + RECORD_HEADER_SIZE, value);
+        segment.buffer.put(position + 4, LogTopics.TOPIC_ACTION_LOG.equals(record.topic()) ? TOPIC_ACTION_LOG : TOPIC_STAT);
+        segment.buffer.putInt(position, value.length);
+        segment.writePosition = position + length;
+        size.addAndGet(length);
+        return true;
+    }
+
+    // read records from oldest, position is only moved by commit() after records are sent
+    List<ProducerRecord<byte[], byte[]>> read(int maxRecords) {
+        List<ProducerRecord<byte[], byte[]>> records = new ArrayList<>();
+        for (Segment segment : segments) {
+            segment.pendingReadPosition = segment.readPosition;     // discard previous read which is not committed
+        }
+        for (Segment segment : segments) {
+            int position = segment.readPosition;
+            while (records.size() < maxRecords && position < segment.writePosition) {
+                int length = segment.buffer.getInt(position);
+                byte topic = segment.buffer.get(position + 4);
+                var value = new byte[length];
+                segment.buffer.get(position + RECORD_HEADER_SIZE, value);
+                records.add(new ProducerRecord<>(topic == TOPIC_ACTION_LOG ? LogTopics.TOPIC_ACTION_LOG : LogTopics.TOPIC_STAT, value));
+                position += RECORD_HEADER_SIZE + length;
+            }
+            segment.pendingReadPosition = position;
+            if (records.size() >= maxRecords) break;
+        }
+        return records;
+    }
+
+    void commit() {
+        while (true) {
+            Segment segment = segments.peekFirst();
+            if (segment == null || segment.pendingReadPosition <= segment.readPosition) return;
+            size.addAndGet(-(segment.pendingReadPosition - segment.readPosition));
+            segment.readPosition = segment.pendingReadPosition;
+            segment.buffer.putInt(0, segment.readPosition);
+            if (segment.readPosition < segment.writePosition) return;
+            if (segments.size() == 1) return;   // keep latest segment to append
+            segments.removeFirst();
+            delete(segment);
+        }
+    }
+
+    void close() {
+        for (Segment segment : segments) {
+            segment.buffer.force();
+        }
+    }
+
+    private Segment rotate() {
+        if (segments.size() >= maxSegments) {
+            Segment oldest = segments.removeFirst();
+            size.addAndGet(-(oldest.writePosition - oldest.readPosition));
+            evictedSegments.increment();
+            logger.warn("spilled log messages reached max size, evict oldest segment, file={}", oldest.path);
+            delete(oldest);
+        }
+        long sequence = nextSequence++;
+        try {
+            Segment segment = open(directory.resolve(String.format("%020d.spill", sequence)), sequence);
+            segments.add(segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Segment open(Path path, long sequence) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);   // mapping is still valid after channel is closed
+            var segment = new Segment(path, sequence, buffer);
+            segment.readPosition = Math.max(HEADER_SIZE, buffer.getInt(0));
+            segment.pendingReadPosition = segment.readPosition;
+            segment.writePosition = scan(buffer, segment.readPosition);
+            return segment;
+        }
+    }
+
+    // find end of records, new segment file is filled with zero
+    private int scan(MappedByteBuffer buffer, int from) {
+        int position = from;
+        while (position + RECORD_HEADER_SIZE <= segmentSize) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + RECORD_HEADER_SIZE + length > segmentSize) break;
+            position += RECORD_HEADER_SIZE + length;
+        }
+        return position;
+    }
+
+    private long sequence(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - ".spill".length()));
+    }
+
+    private void delete(Segment segment) {
+        try {
+            Files.deleteIfExists(segment.path);    // mapped buffer will be released by GC
+        } catch (IOException e) {
+            logger.warn("failed to delete spill segment, file={}", segment.path, e);
+        }
+    }
+
+    private static final class Segment {
+        final Path path;
+        final long sequence;
+        final MappedByteBuffer buffer;
+        int readPosition;
+        int pendingReadPosition;
+        int writePosition;
+
+        Segment(Path path, long sequence, MappedByteBuffer buffer) {
+            this.path = path;
+            this.sequence = sequence;
+            this.buffer = buffer;
+        }
+    }
+}
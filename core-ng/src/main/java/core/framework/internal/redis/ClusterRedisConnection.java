@@ -0,0 +1,249 @@
+package core.framework.internal.redis;
+
+import core.framework.internal.resource.PoolItem;
+import org.jspecify.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static core.framework.internal.redis.Protocol.Command.ASKING;
+import static core.framework.internal.redis.Protocol.Command.GET;
+import static core.framework.internal.redis.Protocol.Command.HGETALL;
+import static core.framework.internal.redis.Protocol.Command.MGET;
+import static core.framework.internal.redis.Protocol.Command.PUBLISH;
+import static core.framework.internal.redis.Protocol.Command.SCAN;
+
+/**
+ * lightweight connection borrowed from pool in cluster mode, which buffers commands, and sends every command to node of its key's slot on flush,
+ * commands to different nodes are in flight at same time, replies are read in order of commands,
+ * node connections are borrowed from node pools, and returned once all replies are read
+ *
+ * MOVED/ASK error reply is handled by resending the command to target node with separated node connection, to keep other pending replies in order
+ *
+ * @author neo
+ */
+final class ClusterRedisConnection extends RedisConnection {
+    private static final int MAX_REDIRECTS = 5;
+
+    private final RedisCluster cluster;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+    private final List<Command> unsentCommands = new ArrayList<>();
+    private final Deque<Command> commands = new ArrayDeque<>();     // sent commands waiting for reply
+    private final Map<RedisCluster.Node, NodeConnection> connections = new HashMap<>();
+    @Nullable
+    private Command current;
+
+    ClusterRedisConnection(RedisCluster cluster) {
+        this.cluster = cluster;
+        outputStream = new RedisOutputStream(buffer, 1024);
+    }
+
+    @Override
+    void writeArray(int length) throws IOException {
+        endCommand();   // every command is array of blob strings
+        current = new Command();
+        super.writeArray(length);
+    }
+
+    @Override
+    void writeBlobString(byte[] value) throws IOException {
+        argument(value, null);
+        super.writeBlobString(value);
+    }
+
+    @Override
+    void writeBlobString(String value) throws IOException {
+        argument(null, value);
+        super.writeBlobString(value);
+    }
+
+    // 1st argument is command name, and 2nd is key except keyless commands
+    private void argument(byte @Nullable [] bytes, @Nullable String value) {
+        Command command = current;
+        if (command == null) return;
+        if (command.arguments == 0) {
+            command.readOnly = bytes == GET || bytes == MGET || bytes == HGETALL;
+            command.keyless = bytes == SCAN || bytes == PUBLISH;
+        } else if (command.arguments == 1 && !command.keyless) {
+            command.slot = bytes != null ? RedisCluster.slot(bytes) : RedisCluster.slot(value);
+        }
+        command.arguments++;
+    }
+
+    private void endCommand() throws IOException {
+        Command command = current;
+        if (command == null) return;
+        outputStream.flush();
+        command.bytes = buffer.toByteArray();   // keep command to resend in case of redirection
+        buffer.reset();
+        unsentCommands.add(command);
+        current = null;
+    }
+
+    @Override
+    void flush() throws IOException {
+        endCommand();
+        if (unsentCommands.isEmpty()) return;
+        try {
+            for (Command command : unsentCommands) {
+                NodeConnection connection = connection(command);
+                connection.pendingReplies++;
+                command.connection = connection;
+                commands.add(command);
+                connection.item.resource.outputStream.write(command.bytes, 0, command.bytes.length);
+            }
+            for (NodeConnection connection : connections.values()) {
+                connection.item.resource.flush();
+            }
+        } finally {
+            unsentCommands.clear();
+        }
+    }
+
+    private NodeConnection connection(Command command) throws IOException {
+        RedisCluster.Node node = null;
+        try {
+            node = command.slot == -1 ? cluster.anyNode() : cluster.node(command.slot, command.readOnly);
+            NodeConnection connection = connections.get(node);
+            if (connection == null) {
+                connection = new NodeConnection(node, node.pool.borrowItem());
+                connections.put(node, connection);
+            }
+            return connection;
+        } catch (RuntimeException e) {     // failed to load slots or connect to node, treat as broken connection to reset all pending states
+            throw new IOException("failed to connect to redis node, node=" + (node == null ? null : node.host), e);
+        }
+    }
+
+    @Nullable
+    @Override
+    Object read() throws IOException {
+        return read(RedisConnection::read);
+    }
+
+    @Override
+    void read(RedisReplyVisitor visitor) throws IOException {
+        read(connection -> {
+            connection.read(visitor);
+            return null;
+        });
+    }
+
+    @Nullable
+    private <T> T read(ReplyReader<T> reader) throws IOException {
+        Command command = commands.poll();
+        if (command == null) throw new IOException("no pending redis reply");
+        NodeConnection connection = command.connection;
+        try {
+            return reader.read(connection.item.resource);
+        } catch (RedisException e) {
+            Redirection redirection = Redirection.parse(e.getMessage());
+            if (redirection == null) throw e;
+            return redirect(command, redirection, reader);
+        } catch (IOException e) {
+            connection.item.broken = true;
+            throw e;
+        } finally {
+            connection.pendingReplies--;
+            if (connection.pendingReplies == 0) {
+                connections.remove(connection.node);
+                connection.node.pool.returnItem(connection.item);
+            }
+        }
+    }
+
+    @Nullable
+    private <T> T redirect(Command command, Redirection redirection, ReplyReader<T> reader) throws IOException {
+        Redirection current = redirection;
+        for (int i = 0; ; i++) {
+            RedisCluster.Node node = cluster.node(current.host);
+            if (!current.ask) cluster.moved(current.slot, node);
+            PoolItem<RedisConnection> item;
+            try {
+                item = node.pool.borrowItem();
+            } catch (RuntimeException e) {
+                throw new IOException("failed to connect to redis node, node=" + node.host, e);
+            }
+            try {
+                RedisConnection connection = item.resource;
+                if (current.ask) {
+                    connection.writeArray(1);
+                    connection.writeBlobString(ASKING);
+                }
+                connection.outputStream.write(command.bytes, 0, command.bytes.length);
+                connection.flush();
+                if (current.ask) connection.readSimpleString();
+                return reader.read(connection);
+            } catch (RedisException e) {
+                Redirection next = Redirection.parse(e.getMessage());
+                if (next == null || i >= MAX_REDIRECTS) throw e;
+                current = next;
+            } catch (IOException e) {
+                item.broken = true;
+                throw e;
+            } finally {
+                node.pool.returnItem(item);
+            }
+        }
+    }
+
+    // pending replies are not consumed, node connections are out of sync
+    @Override
+    public void close() {
+        for (NodeConnection connection : connections.values()) {
+            connection.item.broken = true;
+            connection.node.pool.returnItem(connection.item);
+        }
+        connections.clear();
+        commands.clear();
+        unsentCommands.clear();
+        current = null;
+        buffer.reset();
+    }
+
+    private interface ReplyReader<T> {
+        @Nullable
+        T read(RedisConnection connection) throws IOException;
+    }
+
+    private static final class Command {
+        byte[] bytes;
+        int arguments;
+        int slot = -1;
+        boolean readOnly;
+        boolean keyless;
+        NodeConnection connection;
+    }
+
+    private static final class NodeConnection {
+        final RedisCluster.Node node;
+        final PoolItem<RedisConnection> item;
+        int pendingReplies;
+
+        NodeConnection(RedisCluster.Node node, PoolItem<RedisConnection> item) {
+            this.node = node;
+            this.item = item;
+        }
+    }
+
+    // e.g. "MOVED 3999 127.0.0.1:6381" or "ASK 3999 127.0.0.1:6381"
+    record Redirection(boolean ask, int slot, RedisHost host) {
+        @Nullable
+        static Redirection parse(@Nullable String message) {
+            if (message == null) return null;
+            boolean ask;
+            if (message.startsWith("MOVED ")) ask = false;
+            else if (message.startsWith("ASK ")) ask = true;
+            else return null;
+            String[] parts = message.split(" ");
+            if (parts.length != 3) return null;
+            return new Redirection(ask, Integer.parseInt(parts[1]), new RedisHost(parts[2]));
+        }
+    }
+}
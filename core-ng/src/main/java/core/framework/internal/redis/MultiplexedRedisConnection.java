@@ -0,0 +1,108 @@
+package core.framework.internal.redis;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * lightweight connection borrowed from pool, which buffers request, and sends/reads via shared RedisMultiplexer
+ *
+ * @author neo
+ */
+final class MultiplexedRedisConnection extends RedisConnection {
+    private final RedisMultiplexer multiplexer;
+    private final RequestBuffer buffer = new RequestBuffer();
+    private final Deque<Ticket> tickets = new ArrayDeque<>();
+    private int commands;
+
+    MultiplexedRedisConnection(RedisMultiplexer multiplexer) {
+        this.multiplexer = multiplexer;
+        outputStream = new RedisOutputStream(buffer, 1024);
+    }
+
+    @Override
+    void writeArray(int length) throws IOException {
+        commands++;     // every command is array of blob strings
+        super.writeArray(length);
+    }
+
+    @Override
+    void flush() throws IOException {
+        outputStream.flush();
+        if (commands == 0) return;
+        try {
+            long ticket = multiplexer.send(buffer.bytes(), buffer.size());
+            tickets.add(new Ticket(ticket, commands));
+        } finally {
+            buffer.reset();
+            commands = 0;
+        }
+    }
+
+    @Nullable
+    @Override
+    Object read() throws IOException {
+        Ticket ticket = ticket();
+        try {
+            return multiplexer.read(ticket.ticket);
+        } finally {     // reply is consumed even if it's error reply (RedisException)
+            consumed(ticket);
+        }
+    }
+
+    @Override
+    void read(RedisReplyVisitor visitor) throws IOException {
+        Ticket ticket = ticket();
+        try {
+            multiplexer.read(ticket.ticket, visitor);
+        } finally {
+            consumed(ticket);
+        }
+    }
+
+    private Ticket ticket() throws IOException {
+        Ticket ticket = tickets.peek();
+        if (ticket == null) throw new IOException("no pending redis reply");
+        return ticket;
+    }
+
+    private void consumed(Ticket ticket) {
+        ticket.remainingReplies--;
+        if (ticket.remainingReplies == 0) {
+            tickets.poll();
+            multiplexer.complete(ticket.ticket);
+        }
+    }
+
+    boolean closed() {
+        return multiplexer.closed();
+    }
+
+    @Override
+    public void close() {
+        if (!tickets.isEmpty()) multiplexer.close();  // replies are not consumed, stream is out of sync
+    }
+
+    private static final class Ticket {
+        final long ticket;
+        int remainingReplies;
+
+        Ticket(long ticket, int remainingReplies) {
+            this.ticket = ticket;
+            this.remainingReplies = remainingReplies;
+        }
+    }
+
+    private static final class RequestBuffer extends ByteArrayOutputStream {
+        RequestBuffer() {
+            super(1024);
+        }
+
+        byte[] bytes() {
+            return buf;
+        }
+    }
+}
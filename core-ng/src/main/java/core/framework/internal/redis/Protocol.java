@@ -26,11 +26,55 @@ final class Protocol {
         stream.writeBytesCRLF(value);
     }
 
+    // most keys are short ascii, which is written to buffer directly without encoding to byte[]
+    static void writeBlobString(RedisOutputStream stream, String value) throws IOException {
+        if (!ascii(value)) {
+            writeBlobString(stream, RedisEncodings.encode(value));
+            return;
+        }
+        stream.write(BLOB_STRING_BYTE);
+        stream.writeBytesCRLF(RedisEncodings.encode(value.length()));
+        stream.writeASCIICRLF(value);
+    }
+
+    private static boolean ascii(String value) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) >= 0x80) return false;
+        }
+        return true;
+    }
+
     @Nullable
     static Object read(RedisInputStream stream) throws IOException {
         return parseObject(stream);
     }
 
+    static void visit(RedisInputStream stream, RedisReplyVisitor visitor) throws IOException {
+        byte firstByte = stream.readByte();
+        switch (firstByte) {
+            case SIMPLE_STRING_BYTE -> visitor.simpleString(stream.readSimpleString());
+            case BLOB_STRING_BYTE -> {
+                int length = (int) stream.readLong();
+                if (length == -1) visitor.blobString(null, 0, 0);
+                else stream.readBlobString(length, visitor);
+            }
+            case ARRAY_BYTE -> {
+                int length = (int) stream.readLong();
+                visitor.array(length);
+                for (int i = 0; i < length; i++) {
+                    visit(stream, visitor);
+                }
+            }
+            case NUMBER_BYTE -> visitor.number(stream.readLong());
+            case SIMPLE_ERROR_BYTE -> {
+                String message = stream.readSimpleString();
+                throw new RedisException(message);
+            }
+            default -> throw new IOException("unknown redis response, firstByte=" + (char) firstByte);
+        }
+    }
+
     @Nullable
     private static Object parseObject(RedisInputStream stream) throws IOException {
         byte firstByte = stream.readByte();
@@ -77,6 +121,12 @@ final class Protocol {
         static final byte[] MGET = Strings.bytes("MGET");
         static final byte[] MSET = Strings.bytes("MSET");
         static final byte[] SCAN = Strings.bytes("SCAN");
+        static final byte[] PUBLISH = Strings.bytes("PUBLISH");
+        static final byte[] SUBSCRIBE = Strings.bytes("SUBSCRIBE");
+
+        static final byte[] CLUSTER = Strings.bytes("CLUSTER");
+        static final byte[] READONLY = Strings.bytes("READONLY");
+        static final byte[] ASKING = Strings.bytes("ASKING");
 
         static final byte[] HGET = Strings.bytes("HGET");
         static final byte[] HGETALL = Strings.bytes("HGETALL");
@@ -117,5 +167,6 @@ final class Protocol {
         static final byte[] WITHSCORES = Strings.bytes("WITHSCORES");
         static final byte[] BYSCORE = Strings.bytes("BYSCORE");
         static final byte[] FIELDS = Strings.bytes("FIELDS");
+        static final byte[] SLOTS = Strings.bytes("SLOTS");
     }
 }
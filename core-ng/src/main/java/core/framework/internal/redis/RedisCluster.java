@@ -0,0 +1,252 @@
+package core.framework.internal.redis;
+
+import core.framework.internal.resource.Pool;
+import core.framework.internal.resource.PoolItem;
+import core.framework.internal.resource.PoolMetrics;
+import core.framework.internal.stat.Metrics;
+import core.framework.internal.stat.Stats;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static core.framework.internal.redis.Protocol.Command.CLUSTER;
+import static core.framework.internal.redis.Protocol.Keyword.SLOTS;
+import static core.framework.internal.redis.RedisEncodings.decode;
+import static core.framework.log.Markers.errorCode;
+
+/**
+ * route commands to nodes by hash slot, refer to https://redis.io/docs/latest/operate/oss_and_stack/reference/cluster-spec/
+ * slot map is loaded by CLUSTER SLOTS from known nodes, refreshed in background, and updated by MOVED redirection in between,
+ * every node has its own connection pool
+ *
+ * @author neo
+ */
+final class RedisCluster implements Metrics {
+    static final int SLOTS_SIZE = 16384;
+    private static final int[] CRC16_TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {     // CRC16 XMODEM, polynomial 0x1021
+            int crc = i << 8;
+            for (int j = 0; j < 8; j++) {
+                crc = (crc & 0x8000) != 0 ? (crc << 1) ^ 0x1021 : crc << 1;
+            }
+            CRC16_TABLE[i] = crc & 0xFFFF;
+        }
+    }
+
+    static int slot(String key) {
+        return slot(RedisEncodings.encode(key));
+    }
+
+    // only hash the part within first {...} if it's not empty, so keys with same hash tag are in same slot
+    static int slot(byte[] key) {
+        int start = 0;
+        int end = key.length;
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] == '{') {
+                for (int j = i + 1; j < key.length; j++) {
+                    if (key[j] == '}') {
+                        if (j > i + 1) {
+                            start = i + 1;
+                            end = j;
+                        }
+                        break;
+                    }
+                }
+                break;
+            }
+        }
+        int crc = 0;
+        for (int i = start; i < end; i++) {
+            crc = ((crc << 8) ^ CRC16_TABLE[((crc >>> 8) ^ key[i]) & 0xFF]) & 0xFFFF;
+        }
+        return crc & (SLOTS_SIZE - 1);
+    }
+
+    final List<RedisHost> seeds;
+    private final Logger logger = LoggerFactory.getLogger(RedisCluster.class);
+    private final String name;
+    private final RedisConnectionFactory connectionFactory;    // to share password and timeout with node connections
+    private final Pool<RedisConnection> pool;      // node pool max size follows client pool, as each caller holds one node connection at a time
+    private final Map<String, Node> nodes = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    boolean readFromReplica;
+    private volatile Shard @Nullable [] slots;
+
+    RedisCluster(String name, RedisConnectionFactory connectionFactory, Pool<RedisConnection> pool, List<RedisHost> seeds) {
+        this.name = name;
+        this.connectionFactory = connectionFactory;
+        this.pool = pool;
+        this.seeds = seeds;
+    }
+
+    Node node(int slot, boolean readOnly) {
+        Shard shard = slots()[slot];
+        if (shard == null) return node(seeds.getFirst());   // slot is not covered yet, target node will reply MOVED
+        if (readOnly && readFromReplica && shard.replicas.length > 0) {
+            return shard.replicas[ThreadLocalRandom.current().nextInt(shard.replicas.length)];
+        }
+        return shard.master;
+    }
+
+    // for command without key, e.g. INFO, PUBLISH
+    Node anyNode() {
+        Shard shard = slots()[0];
+        return shard == null ? node(seeds.getFirst()) : shard.master;
+    }
+
+    List<Node> masters() {
+        Set<Node> masters = new LinkedHashSet<>();
+        for (Shard shard : slots()) {
+            if (shard != null) masters.add(shard.master);
+        }
+        return new ArrayList<>(masters);
+    }
+
+    Node node(RedisHost host) {
+        return nodes.computeIfAbsent(host.toString(), key -> new Node(host));
+    }
+
+    // move slot to node as MOVED redirection indicates, the whole slot map will be reloaded by next refresh
+    void moved(int slot, Node node) {
+        Shard[] slots = this.slots;
+        if (slots != null) slots[slot] = new Shard(node, new Node[0]);
+    }
+
+    private Shard[] slots() {
+        Shard[] slots = this.slots;
+        if (slots != null) return slots;
+        lock.lock();
+        try {
+            if (this.slots == null) refreshSlots();
+            return this.slots;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void refresh() {
+        lock.lock();
+        try {
+            refreshSlots();
+        } finally {
+            lock.unlock();
+        }
+        for (Node node : nodes.values()) {
+            node.pool.refresh();
+        }
+    }
+
+    // load from known masters first, then seeds, in case cluster topology changed
+    private void refreshSlots() {
+        Set<Node> candidates = new LinkedHashSet<>();
+        Shard[] current = this.slots;
+        if (current != null) candidates.addAll(masters());
+        for (RedisHost seed : seeds) {
+            candidates.add(node(seed));
+        }
+        Exception lastError = null;
+        for (Node node : candidates) {
+            try {
+                slots = loadSlots(node);
+                return;
+            } catch (RuntimeException e) {     // e.g. node is down
+                logger.warn(errorCode("REDIS_CLUSTER_REFRESH_FAILED"), "failed to load redis cluster slots, node={}", node.host, e);
+                lastError = e;
+            }
+        }
+        throw new UncheckedIOException(new IOException("failed to load redis cluster slots, name=" + name, lastError));
+    }
+
+    // reply is [[start, end, [host, port, id], [replicaHost, replicaPort, replicaId], ...], ...]
+    private Shard[] loadSlots(Node node) {
+        var slots = new Shard[SLOTS_SIZE];
+        PoolItem<RedisConnection> item = node.pool.borrowItem();
+        try {
+            RedisConnection connection = item.resource;
+            connection.writeArray(2);
+            connection.writeBlobString(CLUSTER);
+            connection.writeBlobString(SLOTS);
+            connection.flush();
+            Object[] ranges = connection.readArray();
+            if (ranges == null) throw new IOException("unexpected cluster slots reply");
+            for (Object value : ranges) {
+                Object[] range = (Object[]) value;
+                int start = (int) (long) range[0];
+                int end = (int) (long) range[1];
+                Node master = node(host((Object[]) range[2], node.host));
+                var replicas = new Node[range.length - 3];
+                for (int i = 3; i < range.length; i++) {
+                    replicas[i - 3] = node(host((Object[]) range[i], node.host));
+                }
+                var shard = new Shard(master, replicas);
+                for (int slot = start; slot <= end; slot++) {
+                    slots[slot] = shard;
+                }
+            }
+            logger.debug("load redis cluster slots, name={}, node={}, ranges={}", name, node.host, ranges.length);
+            return slots;
+        } catch (IOException e) {
+            item.broken = true;
+            throw new UncheckedIOException(e);
+        } finally {
+            node.pool.returnItem(item);
+        }
+    }
+
+    // empty or unknown host means the node which replied
+    private RedisHost host(Object[] address, RedisHost current) {
+        String host = decode((byte[]) address[0]);
+        if (host == null || host.isEmpty() || "?".equals(host)) host = current.host;
+        return new RedisHost(host + ':' + address[1]);
+    }
+
+    void close() {
+        for (Node node : nodes.values()) {
+            node.pool.close();
+        }
+    }
+
+    @Override
+    public void collect(Stats stats) {
+        for (Node node : nodes.values()) {
+            node.metrics.collect(stats);
+        }
+    }
+
+    record Shard(Node master, Node[] replicas) {
+    }
+
+    final class Node {
+        final RedisHost host;
+        final Pool<RedisConnection> pool;
+        final PoolMetrics metrics;
+
+        Node(RedisHost host) {
+            this.host = host;
+            var factory = new RedisConnectionFactory();
+            factory.host = host;
+            factory.password = connectionFactory.password;
+            factory.timeoutInMs = connectionFactory.timeoutInMs;
+            factory.readOnly = readFromReplica;
+            pool = new Pool<>(factory, name + "-" + host.host.replace('.', '_') + "_" + host.port);     // pool name is part of stat key
+            pool.size(1, RedisCluster.this.pool.maxSize());
+            pool.maxIdleTime = Duration.ofMinutes(30);
+            pool.checkoutTimeout(Duration.ofMillis(connectionFactory.timeoutInMs));
+            metrics = new PoolMetrics(pool);
+        }
+    }
+}
@@ -6,8 +6,6 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 
-import static core.framework.internal.redis.RedisEncodings.encode;
-
 /**
  * @author neo
  */
@@ -28,6 +26,11 @@ public class RedisConnection implements AutoCloseable {
         inputStream = new RedisInputStream(socket.getInputStream());
     }
 
+    // for subscriber to wait for messages without timeout
+    void readTimeout(int timeoutInMs) throws IOException {
+        socket.setSoTimeout(timeoutInMs);
+    }
+
     void writeCommand(byte[] command) throws IOException {
         writeArray(1);
         writeBlobString(command);
@@ -37,7 +40,7 @@ public class RedisConnection implements AutoCloseable {
     void writeKeyCommand(byte[] command, String key) throws IOException {
         writeArray(2);
         writeBlobString(command);
-        writeBlobString(encode(key));
+        writeBlobString(key);
         flush();
     }
 
@@ -45,7 +48,7 @@ public class RedisConnection implements AutoCloseable {
         writeArray(1 + keys.length);
         writeBlobString(command);
         for (String key : keys) {
-            writeBlobString(encode(key));
+            writeBlobString(key);
         }
         flush();
     }
@@ -53,7 +56,7 @@ public class RedisConnection implements AutoCloseable {
     void writeKeyArgumentCommand(byte[] command, String key, byte[] argument) throws IOException {
         writeArray(3);
         writeBlobString(command);
-        writeBlobString(encode(key));
+        writeBlobString(key);
         writeBlobString(argument);
         flush();
     }
@@ -61,7 +64,7 @@ public class RedisConnection implements AutoCloseable {
     void writeKeyArgumentsCommand(byte[] command, String key, byte[] argument1, byte[] argument2) throws IOException {
         writeArray(4);
         writeBlobString(command);
-        writeBlobString(encode(key));
+        writeBlobString(key);
         writeBlobString(argument1);
         writeBlobString(argument2);
         flush();
@@ -70,9 +73,9 @@ public class RedisConnection implements AutoCloseable {
     void writeKeyArgumentsCommand(byte[] command, String key, String... arguments) throws IOException {
         writeArray(2 + arguments.length);
         writeBlobString(command);
-        writeBlobString(encode(key));
+        writeBlobString(key);
         for (String value : arguments) {
-            writeBlobString(encode(value));
+            writeBlobString(value);
         }
         flush();
     }
@@ -85,6 +88,10 @@ public class RedisConnection implements AutoCloseable {
         Protocol.writeBlobString(outputStream, value);
     }
 
+    void writeBlobString(String value) throws IOException {
+        Protocol.writeBlobString(outputStream, value);
+    }
+
     void flush() throws IOException {
         outputStream.flush();
     }
@@ -96,19 +103,29 @@ public class RedisConnection implements AutoCloseable {
 
     @Nullable
     String readSimpleString() throws IOException {
-        return (String) Protocol.read(inputStream);
+        return (String) read();
     }
 
     byte @Nullable [] readBlobString() throws IOException {
-        return (byte[]) Protocol.read(inputStream);
+        return (byte[]) read();
     }
 
     long readLong() throws IOException {
-        return (long) Protocol.read(inputStream);
+        return (long) read();
     }
 
     Object @Nullable [] readArray() throws IOException {
-        return (Object[]) Protocol.read(inputStream);
+        return (Object[]) read();
+    }
+
+    // read one reply
+    @Nullable
+    Object read() throws IOException {
+        return Protocol.read(inputStream);
+    }
+
+    void read(RedisReplyVisitor visitor) throws IOException {
+        Protocol.visit(inputStream, visitor);
     }
 
     @Nullable
@@ -117,7 +134,7 @@ public class RedisConnection implements AutoCloseable {
         @Nullable Object[] results = new Object[size];
         for (int i = 0; i < size; i++) {
             try {
-                results[i] = Protocol.read(inputStream);
+                results[i] = read();
             } catch (RedisException e) {
                 exception = e;
             }
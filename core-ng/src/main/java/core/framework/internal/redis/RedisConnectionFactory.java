@@ -6,9 +6,11 @@ import org.jspecify.annotations.Nullable;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
 
 import static core.framework.internal.redis.Protocol.Command.AUTH;
+import static core.framework.internal.redis.Protocol.Command.READONLY;
 
 /**
  * @author neo
@@ -18,12 +20,54 @@ class RedisConnectionFactory implements Supplier<RedisConnection> {
     @Nullable
     String password;
     int timeoutInMs = (int) Duration.ofSeconds(5).toMillis();
+    @Nullable
+    RedisCluster cluster;
+    boolean readOnly;   // allow to read from cluster replica
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private RedisMultiplexer @Nullable [] multiplexers;    // shared connections in multiplexed mode
+    private int index;
 
     @Override
     public RedisConnection get() {
+        if (cluster != null) return new ClusterRedisConnection(cluster);
+        if (multiplexers != null) return multiplexedConnection();
         return create(timeoutInMs);
     }
 
+    void multiplex(int connections) {
+        multiplexers = new RedisMultiplexer[connections];
+    }
+
+    // pick shared connection in round robin, and reconnect if it's closed
+    private RedisConnection multiplexedConnection() {
+        lock.lock();
+        try {
+            int current = index;
+            index = (index + 1) % multiplexers.length;
+            RedisMultiplexer multiplexer = multiplexers[current];
+            if (multiplexer == null || multiplexer.closed()) {
+                multiplexer = new RedisMultiplexer(create(timeoutInMs), timeoutInMs);
+                multiplexers[current] = multiplexer;
+            }
+            return new MultiplexedRedisConnection(multiplexer);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void close() {
+        if (multiplexers == null) return;
+        lock.lock();
+        try {
+            for (RedisMultiplexer multiplexer : multiplexers) {
+                if (multiplexer != null) multiplexer.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
     RedisConnection create(int timeoutInMs) {
         if (host == null) throw new Error("redis host must not be null");
         var connection = new RedisConnection(); // this won't throw exception
@@ -33,6 +77,10 @@ class RedisConnectionFactory implements Supplier<RedisConnection> {
                 connection.writeKeyCommand(AUTH, password);
                 connection.readSimpleString();
             }
+            if (readOnly) {
+                connection.writeCommand(READONLY);
+                connection.readSimpleString();
+            }
             return connection;
         } catch (RedisException e) {    // redis throws error (WRONGPASS) if AUTH failed
             Pool.closeQuietly(connection);
@@ -54,4 +54,10 @@ class RedisEncodings {
         if (value == null) return null;
         return new String(value, StandardCharsets.UTF_8);
     }
+
+    @Nullable
+    static String decode(byte @Nullable [] buffer, int offset, int length) {
+        if (buffer == null) return null;
+        return new String(buffer, offset, length, StandardCharsets.UTF_8);
+    }
 }
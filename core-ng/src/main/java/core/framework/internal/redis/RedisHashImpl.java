@@ -73,12 +73,9 @@ public final class RedisHashImpl implements RedisHash {
         try {
             RedisConnection connection = item.resource;
             connection.writeKeyCommand(HGETALL, key);
-            Object[] response = connection.readArray();
-            if (response.length % 2 != 0) throw new IOException("unexpected length of array, length=" + response.length);
-            values = Maps.newHashMapWithExpectedSize(response.length / 2);
-            for (int i = 0; i < response.length; i += 2) {
-                values.put(decode((byte[]) response[i]), decode((byte[]) response[i + 1]));
-            }
+            var visitor = new HashReplyVisitor();
+            connection.read(visitor);
+            values = visitor.values;
             return values;
         } catch (IOException e) {
             item.broken = true;
@@ -221,4 +218,28 @@ public final class RedisHashImpl implements RedisHash {
             ActionLogContext.track("redis", elapsed, 0, 1);
         }
     }
+
+    // decode field/value directly from read buffer, without creating array and byte[] for every element
+    private static final class HashReplyVisitor implements RedisReplyVisitor {
+        Map<String, String> values = Map.of();
+        @Nullable
+        private String field;
+
+        @Override
+        public void array(int length) throws IOException {
+            if (length < 0 || length % 2 != 0) throw new IOException("unexpected length of array, length=" + length);
+            values = Maps.newHashMapWithExpectedSize(length / 2);
+        }
+
+        @Override
+        public void blobString(byte @Nullable [] buffer, int offset, int length) {
+            String value = decode(buffer, offset, length);
+            if (field == null) {
+                field = value;
+            } else {
+                values.put(field, value);
+                field = null;
+            }
+        }
+    }
 }
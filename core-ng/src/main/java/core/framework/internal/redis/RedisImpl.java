@@ -6,12 +6,14 @@ import core.framework.internal.log.filter.BytesMapLogParam;
 import core.framework.internal.log.filter.FieldMapLogParam;
 import core.framework.internal.resource.Pool;
 import core.framework.internal.resource.PoolItem;
+import core.framework.internal.stat.Stats;
 import core.framework.log.ActionLogContext;
 import core.framework.redis.Redis;
 import core.framework.redis.RedisAdmin;
 import core.framework.redis.RedisHash;
 import core.framework.redis.RedisHyperLogLog;
 import core.framework.redis.RedisList;
+import core.framework.redis.RedisPipeline;
 import core.framework.redis.RedisSet;
 import core.framework.redis.RedisSortedSet;
 import core.framework.util.Maps;
@@ -23,6 +25,10 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
 
@@ -32,6 +38,7 @@ import static core.framework.internal.redis.Protocol.Command.INCRBY;
 import static core.framework.internal.redis.Protocol.Command.MGET;
 import static core.framework.internal.redis.Protocol.Command.MSET;
 import static core.framework.internal.redis.Protocol.Command.PEXPIRE;
+import static core.framework.internal.redis.Protocol.Command.PUBLISH;
 import static core.framework.internal.redis.Protocol.Command.SCAN;
 import static core.framework.internal.redis.Protocol.Command.SET;
 import static core.framework.internal.redis.Protocol.Keyword.COUNT;
@@ -57,6 +64,8 @@ public final class RedisImpl implements Redis {
     private final RedisAdmin redisAdmin = new RedisAdminImpl(this);
     private final String name;
     public Pool<RedisConnection> pool;
+    @Nullable
+    RedisCluster cluster;
 
     public RedisImpl(String name) {
         this.name = name;
@@ -70,6 +79,32 @@ public final class RedisImpl implements Redis {
         connectionFactory.host = new RedisHost(host);
     }
 
+    // hosts are seed nodes to load cluster slots, pooled connections become lightweight views which route commands to node pools
+    public void cluster(String... hosts) {
+        List<RedisHost> seeds = new ArrayList<>(hosts.length);
+        for (String host : hosts) {
+            seeds.add(new RedisHost(host));
+        }
+        connectionFactory.host = seeds.getFirst();  // for subscriber, pub/sub messages are broadcast to all nodes in cluster
+        cluster = new RedisCluster(name, connectionFactory, pool, seeds);
+        connectionFactory.cluster = cluster;
+    }
+
+    // read get/multiGet/hash().getAll from replicas if available, replica may lag behind master
+    public void readFromReplica() {
+        if (cluster == null) throw new Error("read from replica requires cluster");
+        cluster.readFromReplica = true;
+    }
+
+    // node pools are created when cluster slots are loaded, collect them all
+    public void collectClusterMetrics(Stats stats) {
+        if (cluster != null) cluster.collect(stats);
+    }
+
+    public void refreshCluster() {
+        if (cluster != null) cluster.refresh();
+    }
+
     public void password(@Nullable String password) {
         connectionFactory.password = password;
     }
@@ -79,9 +114,18 @@ public final class RedisImpl implements Redis {
         pool.checkoutTimeout(timeout);
     }
 
+    // share small number of connections with all callers, and pipeline commands from concurrent callers
+    public void multiplex(int connections) {
+        if (cluster != null) throw new Error("multiplex is not supported with cluster");
+        connectionFactory.multiplex(connections);
+        pool.validator(connection -> !((MultiplexedRedisConnection) connection).closed(), Duration.ZERO);   // skip items on closed shared connection, it only checks flag
+    }
+
     public void close() {
         logger.info("close redis client, name={}, host={}", name, connectionFactory.host);
         pool.close();
+        connectionFactory.close();
+        if (cluster != null) cluster.close();
     }
 
     @Override
@@ -183,8 +227,19 @@ public final class RedisImpl implements Redis {
         PoolItem<RedisConnection> item = pool.borrowItem();
         try {
             RedisConnection connection = item.resource;
-            connection.writeKeysCommand(DEL, keys);
-            deletedKeys = connection.readLong();
+            List<String[]> groups = groupBySlot(keys);
+            for (String[] group : groups) {
+                connection.writeKeysCommand(DEL, group);
+            }
+            RedisException exception = null;    // read all replies before throwing error, to keep connection in sync
+            for (int i = 0; i < groups.size(); i++) {
+                try {
+                    deletedKeys += connection.readLong();
+                } catch (RedisException e) {
+                    if (exception == null) exception = e;
+                }
+            }
+            if (exception != null) throw exception;
             return deletedKeys;
         } catch (IOException e) {
             item.broken = true;
@@ -221,35 +276,43 @@ public final class RedisImpl implements Redis {
 
     @Override
     public Map<String, String> multiGet(String... keys) {
-        Map<String, byte[]> values = multiGetBytes(keys);
-        Map<String, String> result = Maps.newLinkedHashMapWithExpectedSize(values.size());
-        for (Map.Entry<String, byte[]> entry : values.entrySet()) {
-            result.put(entry.getKey(), decode(entry.getValue()));
-        }
-        return result;
+        Map<String, String> values = Maps.newLinkedHashMapWithExpectedSize(keys.length);
+        multiGet(keys, values, values, (key, buffer, offset, length) -> values.put(key, decode(buffer, offset, length)));
+        return values;
     }
 
     public Map<String, byte[]> multiGetBytes(String... keys) {
+        Map<String, byte[]> values = Maps.newLinkedHashMapWithExpectedSize(keys.length);
+        multiGet(keys, values, new BytesMapLogParam(values), (key, buffer, offset, length) -> values.put(key, Arrays.copyOfRange(buffer, offset, offset + length)));
+        return values;
+    }
+
+    private void multiGet(String[] keys, Map<String, ?> values, Object valuesLogParam, MultiGetReplyVisitor.ValueConsumer consumer) {
         var watch = new StopWatch();
         validate("keys", keys);
-        Map<String, byte[]> values = Maps.newLinkedHashMapWithExpectedSize(keys.length);
         PoolItem<RedisConnection> item = pool.borrowItem();
         try {
             RedisConnection connection = item.resource;
-            connection.writeKeysCommand(MGET, keys);
-            Object[] response = connection.readArray();
-            for (int i = 0; i < response.length; i++) {
-                byte[] value = (byte[]) response[i];
-                if (value != null) values.put(keys[i], value);
+            List<String[]> groups = groupBySlot(keys);
+            for (String[] group : groups) {
+                connection.writeKeysCommand(MGET, group);
             }
-            return values;
+            RedisException exception = null;    // read all replies before throwing error, to keep connection in sync
+            for (String[] group : groups) {
+                try {
+                    connection.read(new MultiGetReplyVisitor(group, consumer));
+                } catch (RedisException e) {
+                    if (exception == null) exception = e;
+                }
+            }
+            if (exception != null) throw exception;
         } catch (IOException e) {
             item.broken = true;
             throw new UncheckedIOException(e);
         } finally {
             pool.returnItem(item);
             long elapsed = watch.elapsed();
-            logger.debug("mget, keys={}, size={}, returnedValues={}, elapsed={}", new ArrayLogParam(keys), keys.length, new BytesMapLogParam(values), elapsed);
+            logger.debug("mget, keys={}, size={}, returnedValues={}, elapsed={}", new ArrayLogParam(keys), keys.length, valuesLogParam, elapsed);
             ActionLogContext.track("redis", elapsed, values.size(), 0);
         }
     }
@@ -261,14 +324,17 @@ public final class RedisImpl implements Redis {
         PoolItem<RedisConnection> item = pool.borrowItem();
         try {
             RedisConnection connection = item.resource;
-            connection.writeArray(1 + values.size() * 2);
-            connection.writeBlobString(MSET);
-            for (Map.Entry<String, String> entry : values.entrySet()) {
-                connection.writeBlobString(encode(entry.getKey()));
-                connection.writeBlobString(encode(entry.getValue()));
+            List<String[]> groups = groupBySlot(values.keySet().toArray(String[]::new));
+            for (String[] group : groups) {
+                connection.writeArray(1 + group.length * 2);
+                connection.writeBlobString(MSET);
+                for (String key : group) {
+                    connection.writeBlobString(key);
+                    connection.writeBlobString(values.get(key));
+                }
             }
             connection.flush();
-            connection.readSimpleString();
+            connection.readAll(groups.size());
         } catch (IOException e) {
             item.broken = true;
             throw new UncheckedIOException(e);
@@ -310,6 +376,30 @@ public final class RedisImpl implements Redis {
         }
     }
 
+    public void publish(String channel, byte[] message) {
+        var watch = new StopWatch();
+        long receivers = 0;
+        PoolItem<RedisConnection> item = pool.borrowItem();
+        try {
+            RedisConnection connection = item.resource;
+            connection.writeKeyArgumentCommand(PUBLISH, channel, message);
+            receivers = connection.readLong();
+        } catch (IOException e) {
+            item.broken = true;
+            throw new UncheckedIOException(e);
+        } finally {
+            pool.returnItem(item);
+            long elapsed = watch.elapsed();
+            logger.debug("publish, channel={}, message={}, receivers={}, elapsed={}", channel, new BytesLogParam(message), receivers, elapsed);
+            ActionLogContext.track("redis", elapsed, 0, 1);
+        }
+    }
+
+    @Override
+    public RedisPipeline pipeline() {
+        return new RedisPipelineImpl(this);
+    }
+
     @Override
     public RedisHash hash() {
         return redisHash;
@@ -327,8 +417,18 @@ public final class RedisImpl implements Redis {
 
     @Override
     public void forEach(String pattern, Consumer<String> consumer) {
-        var watch = new StopWatch();
         if (pattern == null) throw new Error("pattern must not be null");
+        if (cluster == null) {
+            scan(pool, pattern, consumer);
+        } else {
+            for (RedisCluster.Node node : cluster.masters()) {  // keys are distributed to all masters
+                scan(node.pool, pattern, consumer);
+            }
+        }
+    }
+
+    private void scan(Pool<RedisConnection> pool, String pattern, Consumer<String> consumer) {
+        var watch = new StopWatch();
         long start = System.nanoTime();
         long redisTook = 0;
         PoolItem<RedisConnection> item = pool.borrowItem();
@@ -336,23 +436,24 @@ public final class RedisImpl implements Redis {
         try {
             RedisConnection connection = item.resource;
             byte[] batchSize = encode("500"); // use 500 as batch
+            var visitor = new ScanReplyVisitor();
             String cursor = "0";
             do {
                 connection.writeArray(6);
                 connection.writeBlobString(SCAN);
-                connection.writeBlobString(encode(cursor));
+                connection.writeBlobString(cursor);
                 connection.writeBlobString(MATCH);
-                connection.writeBlobString(encode(pattern));
+                connection.writeBlobString(pattern);
                 connection.writeBlobString(COUNT);
                 connection.writeBlobString(batchSize);
                 connection.flush();
-                Object[] response = connection.readArray();
-                cursor = decode((byte[]) response[0]);
-                Object[] keys = (Object[]) response[1];
-                returnedKeys += keys.length;
+                visitor.reset();
+                connection.read(visitor);
+                cursor = visitor.cursor;
+                returnedKeys += visitor.keys.size();
                 redisTook += System.nanoTime() - start;
-                for (Object key : keys) {
-                    consumer.accept(decode((byte[]) key));
+                for (String key : visitor.keys) {   // call consumer after reply is fully read, consumer may call redis
+                    consumer.accept(key);
                 }
                 start = System.nanoTime();
             } while (!"0".equals(cursor));
@@ -367,6 +468,20 @@ public final class RedisImpl implements Redis {
         }
     }
 
+    // multi-key command must be within same slot in cluster
+    List<String[]> groupBySlot(String[] keys) {
+        if (cluster == null) return List.<String[]>of(keys);
+        Map<Integer, List<String>> groups = new LinkedHashMap<>();
+        for (String key : keys) {
+            groups.computeIfAbsent(RedisCluster.slot(key), slot -> new ArrayList<>()).add(key);
+        }
+        List<String[]> results = new ArrayList<>(groups.size());
+        for (List<String> group : groups.values()) {
+            results.add(group.toArray(String[]::new));
+        }
+        return results;
+    }
+
     @Override
     public RedisAdmin admin() {
         return redisAdmin;
@@ -382,4 +497,54 @@ public final class RedisImpl implements Redis {
         if (expirationTime <= 0) throw new Error("expiration time must be longer than 0ms");
         return encode(expirationTime);
     }
+
+    private static final class MultiGetReplyVisitor implements RedisReplyVisitor {
+        private final String[] keys;
+        private final ValueConsumer consumer;
+        private int index;
+
+        MultiGetReplyVisitor(String[] keys, ValueConsumer consumer) {
+            this.keys = keys;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void array(int length) throws IOException {
+            if (length != keys.length) throw new IOException("unexpected length of array, length=" + length);
+        }
+
+        @Override
+        public void blobString(byte @Nullable [] buffer, int offset, int length) {
+            if (buffer != null) consumer.accept(keys[index], buffer, offset, length);
+            index++;
+        }
+
+        interface ValueConsumer {
+            void accept(String key, byte[] buffer, int offset, int length);
+        }
+    }
+
+    // reply is [cursor, [key1, key2, ...]]
+    private static final class ScanReplyVisitor implements RedisReplyVisitor {
+        final List<String> keys = new ArrayList<>();
+        String cursor = "0";
+        private boolean cursorRead;
+
+        void reset() {
+            keys.clear();
+            cursorRead = false;
+        }
+
+        @Override
+        public void blobString(byte @Nullable [] buffer, int offset, int length) throws IOException {
+            String value = decode(buffer, offset, length);
+            if (value == null) throw new IOException("unexpected null blob string");
+            if (cursorRead) {
+                keys.add(value);
+            } else {
+                cursor = value;
+                cursorRead = true;
+            }
+        }
+    }
 }
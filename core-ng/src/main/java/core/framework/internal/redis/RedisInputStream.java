@@ -9,12 +9,17 @@ import java.io.InputStream;
  */
 class RedisInputStream {
     private final InputStream stream;
-    private final byte[] buffer = new byte[8192];
+    private final byte[] buffer;
     private int position;
     private int limit;
 
     RedisInputStream(InputStream stream) {
+        this(stream, 8192);
+    }
+
+    RedisInputStream(InputStream stream, int bufferSize) {
         this.stream = stream;
+        buffer = new byte[bufferSize];
     }
 
     byte readByte() throws IOException {
@@ -86,6 +91,33 @@ class RedisInputStream {
         return response;
     }
 
+    // pass blob string as slice of read buffer if it fits in buffer, to avoid copying, slice is only valid during visit
+    void readBlobString(int length, RedisReplyVisitor visitor) throws IOException {
+        if (length + 2 > buffer.length) {
+            visitor.blobString(readBytes(length), 0, length);
+            return;
+        }
+        require(length + 2);
+        int offset = position;
+        position += length;
+        if (buffer[position++] != '\r' || buffer[position++] != '\n') throw new IOException("unexpected character");
+        visitor.blobString(buffer, offset, length);
+    }
+
+    // make sure length bytes are available continuously in buffer
+    private void require(int length) throws IOException {
+        if (limit - position >= length) return;
+        int remaining = limit - position;
+        System.arraycopy(buffer, position, buffer, 0, remaining);
+        position = 0;
+        limit = remaining;
+        while (limit < length) {
+            int read = stream.read(buffer, limit, buffer.length - limit);
+            if (read == -1) throw new IOException("unexpected end of stream");
+            limit += read;
+        }
+    }
+
     private void fill() throws IOException {
         if (position >= limit) {
             limit = stream.read(buffer);
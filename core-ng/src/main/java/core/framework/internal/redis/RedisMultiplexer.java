@@ -0,0 +1,120 @@
+package core.framework.internal.redis;
+
+import core.framework.internal.resource.Pool;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * share one redis connection with many callers, commands are written to wire in order of flush without waiting for previous replies (pipelining),
+ * and every flush takes a ticket, callers read their replies in ticket order, which is the order redis replies
+ *
+ * if any caller failed in middle of reading, or waited too long, the stream is out of sync, then connection is closed and all pending callers fail
+ *
+ * @author neo
+ */
+final class RedisMultiplexer {
+    private final RedisConnection connection;
+    private final long timeoutInNanos;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock readLock = new ReentrantLock();
+    private final Condition turn = readLock.newCondition();
+    private long writeSequence;     // guarded by writeLock
+    private long readSequence;      // guarded by readLock
+    private volatile boolean closed;
+
+    RedisMultiplexer(RedisConnection connection, int timeoutInMs) {
+        this.connection = connection;
+        timeoutInNanos = TimeUnit.MILLISECONDS.toNanos(timeoutInMs);
+    }
+
+    // return ticket to read replies
+    long send(byte[] request, int length) throws IOException {
+        writeLock.lock();
+        try {
+            if (closed) throw new IOException("redis connection is closed");
+            try {
+                connection.outputStream.write(request, 0, length);
+                connection.flush();
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+            return writeSequence++;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Nullable
+    Object read(long ticket) throws IOException {
+        awaitTurn(ticket);
+        try {
+            return connection.read();
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    void read(long ticket, RedisReplyVisitor visitor) throws IOException {
+        awaitTurn(ticket);
+        try {
+            connection.read(visitor);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    // all replies of ticket are read, pass turn to next ticket
+    void complete(long ticket) {
+        readLock.lock();
+        try {
+            if (readSequence == ticket) {
+                readSequence++;
+                turn.signalAll();
+            }
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private void awaitTurn(long ticket) throws IOException {
+        readLock.lock();
+        try {
+            long remainingNanos = timeoutInNanos;
+            while (readSequence != ticket) {
+                if (closed) throw new IOException("redis connection is closed");
+                if (remainingNanos <= 0) {
+                    close();
+                    throw new IOException("timeout to wait for redis reply");
+                }
+                remainingNanos = turn.awaitNanos(remainingNanos);
+            }
+        } catch (InterruptedException e) {
+            close();
+            throw new IOException("interrupted during waiting for redis reply", e);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    boolean closed() {
+        return closed;
+    }
+
+    void close() {
+        closed = true;
+        Pool.closeQuietly(connection);
+        readLock.lock();
+        try {
+            turn.signalAll();
+        } finally {
+            readLock.unlock();
+        }
+    }
+}
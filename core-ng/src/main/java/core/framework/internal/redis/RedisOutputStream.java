@@ -44,6 +44,35 @@ class RedisOutputStream {
         buffer[position++] = '\n';
     }
 
+    // caller must make sure all chars are ascii
+    void writeASCIICRLF(String value) throws IOException {
+        int length = value.length();
+        int index = 0;
+        while (index < length) {
+            if (position == buffer.length) flush();
+            int end = Math.min(length, index + buffer.length - position);
+            for (; index < end; index++) {
+                buffer[position++] = (byte) value.charAt(index);
+            }
+        }
+
+        if (buffer.length - position < 2) {
+            flush();
+        }
+        buffer[position++] = '\r';
+        buffer[position++] = '\n';
+    }
+
+    void write(byte[] bytes, int offset, int length) throws IOException {
+        if (length > buffer.length - position) {
+            flush();
+            stream.write(bytes, offset, length);
+        } else {
+            System.arraycopy(bytes, offset, buffer, position, length);
+            position += length;
+        }
+    }
+
     void flush() throws IOException {
         if (position > 0) {
             stream.write(buffer, 0, position);
@@ -0,0 +1,130 @@
+package core.framework.internal.redis;
+
+import core.framework.internal.resource.PoolItem;
+import core.framework.log.ActionLogContext;
+import core.framework.redis.RedisPipeline;
+import core.framework.util.StopWatch;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static core.framework.internal.redis.Protocol.Command.DEL;
+import static core.framework.internal.redis.Protocol.Command.GET;
+import static core.framework.internal.redis.Protocol.Command.INCRBY;
+import static core.framework.internal.redis.Protocol.Command.PEXPIRE;
+import static core.framework.internal.redis.Protocol.Command.SET;
+import static core.framework.internal.redis.Protocol.Keyword.PX;
+import static core.framework.internal.redis.RedisEncodings.decode;
+import static core.framework.internal.redis.RedisEncodings.encode;
+import static core.framework.internal.redis.RedisEncodings.validate;
+
+/**
+ * @author neo
+ */
+public final class RedisPipelineImpl implements RedisPipeline {
+    private final Logger logger = LoggerFactory.getLogger(RedisPipelineImpl.class);
+    private final RedisImpl redis;
+    private final List<byte[][]> commands = new ArrayList<>();
+    private @Nullable Object @Nullable [] results;
+    private int readEntries;
+    private int writeEntries;
+
+    RedisPipelineImpl(RedisImpl redis) {
+        this.redis = redis;
+    }
+
+    @Override
+    public Supplier<@Nullable String> get(String key) {
+        validate("key", key);
+        int index = add(GET, encode(key));
+        readEntries++;
+        return () -> decode((byte[]) result(index));
+    }
+
+    @Override
+    public void set(String key, String value, @Nullable Duration expiration) {
+        validate("key", key);
+        validate("value", value);
+        if (expiration == null) {
+            add(SET, encode(key), encode(value));
+        } else {
+            long expirationTime = expiration.toMillis();
+            if (expirationTime <= 0) throw new Error("expiration time must be longer than 0ms");
+            add(SET, encode(key), encode(value), PX, encode(expirationTime));
+        }
+        writeEntries++;
+    }
+
+    @Override
+    public void expire(String key, Duration expiration) {
+        validate("key", key);
+        add(PEXPIRE, encode(key), encode(expiration.toMillis()));
+        writeEntries++;
+    }
+
+    @Override
+    public void del(String... keys) {
+        validate("keys", keys);
+        byte[][] command = new byte[keys.length + 1][];
+        command[0] = DEL;
+        for (int i = 0; i < keys.length; i++) {
+            command[i + 1] = encode(keys[i]);
+        }
+        commands.add(command);
+        writeEntries += keys.length;
+    }
+
+    @Override
+    public Supplier<Long> increaseBy(String key, long increment) {
+        validate("key", key);
+        int index = add(INCRBY, encode(key), encode(increment));
+        writeEntries++;
+        return () -> (Long) result(index);
+    }
+
+    @Override
+    public void execute() {
+        if (results != null) throw new Error("pipeline was executed");
+        if (commands.isEmpty()) throw new Error("pipeline must not be empty");
+        var watch = new StopWatch();
+        int size = commands.size();
+        PoolItem<RedisConnection> item = redis.pool.borrowItem();
+        try {
+            RedisConnection connection = item.resource;
+            for (byte[][] command : commands) {
+                connection.writeArray(command.length);
+                for (byte[] value : command) {
+                    connection.writeBlobString(value);
+                }
+            }
+            connection.flush();
+            results = connection.readAll(size);
+        } catch (IOException e) {
+            item.broken = true;
+            throw new UncheckedIOException(e);
+        } finally {
+            redis.pool.returnItem(item);
+            long elapsed = watch.elapsed();
+            logger.debug("pipeline, commands={}, elapsed={}", size, elapsed);
+            ActionLogContext.track("redis", elapsed, readEntries, writeEntries);
+        }
+    }
+
+    private int add(byte[]... command) {
+        commands.add(command);
+        return commands.size() - 1;
+    }
+
+    @Nullable
+    private Object result(int index) {
+        if (results == null) throw new Error("pipeline is not executed");
+        return results[index];
+    }
+}
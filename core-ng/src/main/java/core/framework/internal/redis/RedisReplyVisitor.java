@@ -0,0 +1,30 @@
+package core.framework.internal.redis;
+
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+
+/**
+ * visit reply as events, to process large reply without materializing intermediate arrays and blob strings,
+ * blob string is passed as slice of read buffer, which is only valid during callback, visitor must decode or copy it if needed
+ *
+ * visitor must not call redis, and should throw IOException on unexpected reply, so the connection will be closed
+ *
+ * @author neo
+ */
+interface RedisReplyVisitor {
+    // called before elements, length is -1 for null array
+    default void array(int length) throws IOException {
+    }
+
+    // buffer is null for null blob string
+    void blobString(byte @Nullable [] buffer, int offset, int length) throws IOException;
+
+    default void simpleString(String value) throws IOException {
+        throw new IOException("unexpected simple string, value=" + value);
+    }
+
+    default void number(long value) throws IOException {
+        throw new IOException("unexpected number, value=" + value);
+    }
+}
@@ -0,0 +1,87 @@
+package core.framework.internal.redis;
+
+import core.framework.internal.resource.Pool;
+import core.framework.util.Threads;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+import static core.framework.internal.redis.Protocol.Command.SUBSCRIBE;
+import static core.framework.internal.redis.RedisEncodings.decode;
+import static core.framework.log.Markers.errorCode;
+
+/**
+ * subscribe redis channel with dedicated connection, and reconnect if connection is broken,
+ * messages published during reconnecting are lost, listener.onSubscribe() is called after every (re)subscription to handle that
+ *
+ * @author neo
+ */
+public final class RedisSubscriber {
+    private final Logger logger = LoggerFactory.getLogger(RedisSubscriber.class);
+    private final RedisConnectionFactory connectionFactory;
+    private final String channel;
+    private final Listener listener;
+    private final Thread subscriberThread;
+
+    @Nullable
+    private volatile RedisConnection connection;
+    private volatile boolean stop;
+
+    public RedisSubscriber(RedisImpl redis, String channel, Listener listener) {
+        connectionFactory = redis.connectionFactory;
+        this.channel = channel;
+        this.listener = listener;
+        subscriberThread = Thread.ofPlatform().name("redis-subscriber-" + channel).unstarted(this::process);
+    }
+
+    public void start() {
+        subscriberThread.start();
+    }
+
+    public void close() {
+        logger.info("stop redis subscriber, channel={}", channel);
+        stop = true;
+        Pool.closeQuietly(connection);  // interrupt blocking read
+        subscriberThread.interrupt();
+    }
+
+    private void process() {
+        logger.info("redis subscriber thread started, channel={}", channel);
+        while (!stop) {
+            try {
+                subscribe();
+            } catch (Throwable e) {
+                if (!stop) {
+                    logger.warn(errorCode("REDIS_SUBSCRIBER_FAILED"), "failed to subscribe redis channel, retry in 10 seconds, channel={}", channel, e);
+                    Threads.sleepRoughly(Duration.ofSeconds(10));
+                }
+            }
+        }
+    }
+
+    void subscribe() throws Exception {
+        try (RedisConnection connection = connectionFactory.create(connectionFactory.timeoutInMs)) {    // subscriber always uses dedicated connection
+            this.connection = connection;
+            if (stop) return;
+            connection.writeKeyCommand(SUBSCRIBE, channel);
+            connection.readArray();     // ["subscribe", channel, count]
+            connection.readTimeout(0);  // wait for messages without timeout, connection is closed by close()
+            listener.onSubscribe();
+
+            while (!stop) {
+                Object[] message = connection.readArray();  // ["message", channel, payload]
+                if (message != null && message.length == 3 && "message".equals(decode((byte[]) message[0]))) {
+                    listener.onMessage((byte[]) message[2]);
+                }
+            }
+        }
+    }
+
+    public interface Listener {
+        void onSubscribe();
+
+        void onMessage(byte[] message);
+    }
+}
@@ -1,15 +1,20 @@
 package core.framework.internal.resource;
 
+import core.framework.internal.stat.Counter;
+import core.framework.internal.stat.Histogram;
 import core.framework.util.StopWatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
 import java.util.Iterator;
-import java.util.concurrent.BlockingDeque;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Supplier;
 
 import static core.framework.log.Markers.errorCode;
@@ -21,6 +26,10 @@ import static core.framework.log.Markers.errorCode;
  * is to keep original exception, and simplify context variable access (read or write var within method),
  * <p>
  * the downside is boilerplate code, so to keep it only for internal
+ * <p>
+ * idle items are kept in lock free LIFO stack, to reuse recently returned resource and let idle ones age at tail for eviction,
+ * borrowers wait in FIFO queue when pool is exhausted, returning item wakes up the first waiter,
+ * not to use thread affinity cache, as with virtual threads each action runs on new thread, per thread slot will never be hit
  *
  * @author neo
  */
@@ -38,9 +47,15 @@ public class Pool<T extends AutoCloseable> {
         }
     }
 
-    final BlockingDeque<PoolItem<T>> idleItems = new LinkedBlockingDeque<>();
+    final ConcurrentLinkedDeque<PoolItem<T>> idleItems = new ConcurrentLinkedDeque<>();
+    final Queue<Thread> waiters = new ConcurrentLinkedQueue<>();
     final String name;
     final AtomicInteger size = new AtomicInteger(0);
+    final Counter active = new Counter();     // to track peak active count
+    final Histogram waitTime = new Histogram();
+    final LongAdder timeoutCount = new LongAdder();
+    final LongAdder createCount = new LongAdder();
+    final LongAdder createElapsed = new LongAdder();
     private final Supplier<T> factory;
     public Duration maxIdleTime = Duration.ofMinutes(30);
     private int minSize = 1;
@@ -59,6 +74,10 @@ public class Pool<T extends AutoCloseable> {
         this.maxSize = maxSize;
     }
 
+    public int maxSize() {
+        return maxSize;
+    }
+
     public void checkoutTimeout(Duration timeout) {
         checkoutTimeoutInMs = timeout.toMillis();
     }
@@ -69,6 +88,12 @@ public class Pool<T extends AutoCloseable> {
     }
 
     public PoolItem<T> borrowItem() {
+        PoolItem<T> item = pollItem();
+        active.increase();
+        return item;
+    }
+
+    private PoolItem<T> pollItem() {
         while (true) {
             PoolItem<T> item = idleItems.poll();
             if (item != null) {
@@ -76,7 +101,7 @@ public class Pool<T extends AutoCloseable> {
                 else continue;
             }
 
-            if (size.get() < maxSize) {
+            if (reserve(maxSize)) {
                 return createNewItem();         // do not need to check newly created resource
             } else {
                 return waitNextAvailableItem(); // do not need to check valid since it's just returned resource
@@ -101,6 +126,7 @@ public class Pool<T extends AutoCloseable> {
     }
 
     public void returnItem(PoolItem<T> item) {
+        active.decrease();
         if (item.broken) {
             // not to replenish new item if current is broken to keep it simple,
             // if pool is full and someone is waiting for resource, there will be other to release resource soon,
@@ -108,26 +134,59 @@ public class Pool<T extends AutoCloseable> {
             closeItem(item);
         } else {
             item.returnTime = System.currentTimeMillis();
-            idleItems.push(item);
+            release(item);
         }
     }
 
+    private void release(PoolItem<T> item) {
+        idleItems.push(item);
+        signal();
+    }
+
+    // wake up first waiter, it competes with other borrowers for idle item, to avoid parking/unparking every returning thread with strict handoff
+    private void signal() {
+        Thread waiter = waiters.peek();
+        if (waiter != null) LockSupport.unpark(waiter);
+    }
+
     private PoolItem<T> waitNextAvailableItem() {
         var watch = new StopWatch();
+        Thread waiter = Thread.currentThread();
+        waiters.add(waiter);
         try {
-            PoolItem<T> item = idleItems.poll(checkoutTimeoutInMs, TimeUnit.MILLISECONDS);
-            if (item == null) throw new PoolException("timeout to wait for next available resource", "POOL_TIME_OUT");
-            return item;
-        } catch (InterruptedException e) {
-            throw new Error("interrupted during waiting for next available resource", e);
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(checkoutTimeoutInMs);
+            while (true) {
+                PoolItem<T> item = idleItems.poll();    // item may be pushed to idle stack right before waiter enqueued, so poll before park
+                if (item != null) return item;
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    timeoutCount.increment();
+                    throw new PoolException("timeout to wait for next available resource", "POOL_TIME_OUT");
+                }
+                LockSupport.parkNanos(this, remaining);
+                if (Thread.interrupted()) throw new Error("interrupted during waiting for next available resource");
+            }
         } finally {
-            LOGGER.debug("wait for next available resource, pool={}, elapsed={}", name, watch.elapsed());
+            waiters.remove(waiter);
+            if (!idleItems.isEmpty()) signal();     // pass on signal if multiple items were returned before current waiter woke up
+            long elapsed = watch.elapsed();
+            waitTime.record(elapsed);
+            LOGGER.debug("wait for next available resource, pool={}, elapsed={}", name, elapsed);
+        }
+    }
+
+    // increase size only if not exceeding limit, to make sure concurrent borrowers won't create more than max size
+    private boolean reserve(int limit) {
+        while (true) {
+            int current = size.get();
+            if (current >= limit) return false;
+            if (size.compareAndSet(current, current + 1)) return true;
         }
     }
 
+    // size must be reserved before calling
     private PoolItem<T> createNewItem() {
         var watch = new StopWatch();
-        size.incrementAndGet();
         PoolItem<T> item = null;
         try {
             item = new PoolItem<>(factory.get());
@@ -136,7 +195,10 @@ public class Pool<T extends AutoCloseable> {
             size.getAndDecrement();
             throw e;
         } finally {
-            LOGGER.debug("create new resource, pool={}, item={}, elapsed={}", name, item == null ? null : item.resource, watch.elapsed());
+            long elapsed = watch.elapsed();
+            createCount.increment();
+            createElapsed.add(elapsed);
+            LOGGER.debug("create new resource, pool={}, item={}, elapsed={}", name, item == null ? null : item.resource, elapsed);
         }
     }
 
@@ -172,8 +234,10 @@ public class Pool<T extends AutoCloseable> {
     }
 
     private void replenish() {
-        while (size.get() < minSize) {
-            returnItem(createNewItem());
+        while (reserve(minSize)) {
+            PoolItem<T> item = createNewItem();
+            item.returnTime = System.currentTimeMillis();
+            release(item);
         }
     }
 
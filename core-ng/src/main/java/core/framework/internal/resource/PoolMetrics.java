@@ -1,5 +1,6 @@
 package core.framework.internal.resource;
 
+import core.framework.internal.stat.Histogram;
 import core.framework.internal.stat.Metrics;
 import core.framework.internal.stat.Stats;
 
@@ -17,6 +18,18 @@ public class PoolMetrics implements Metrics {
     public void collect(Stats stats) {
         stats.put(statName("total_count"), pool.totalCount());
         stats.put(statName("active_count"), pool.activeCount());
+        stats.put(statName("peak_active_count"), pool.active.max());
+
+        // all values are collected within interval, to help size pool by how long borrowers wait
+        Histogram.Snapshot waitTime = pool.waitTime.snapshot();
+        stats.put(statName("wait_count"), waitTime.count);
+        stats.put(statName("wait_p50"), waitTime.percentile(0.5));
+        stats.put(statName("wait_p99"), waitTime.percentile(0.99));
+        stats.put(statName("wait_p999"), waitTime.percentile(0.999));
+        stats.put(statName("wait_max"), waitTime.max());
+        stats.put(statName("timeout_count"), pool.timeoutCount.sumThenReset());
+        stats.put(statName("create_count"), pool.createCount.sumThenReset());
+        stats.put(statName("create_elapsed"), pool.createElapsed.sumThenReset());
     }
 
     String statName(String statName) {
@@ -0,0 +1,76 @@
+package core.framework.internal.stat;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * lock free log-linear histogram (similar to HdrHistogram with 16 sub buckets per power of 2, within 6.25% relative error),
+ * record() is safe to be called by many threads, snapshot() resets the histogram to track values between collecting
+ *
+ * @author neo
+ */
+public final class Histogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    static int index(long value) {
+        if (value < SUB_BUCKET_COUNT) return (int) Math.max(value, 0);
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    // the highest value of bucket, so percentile won't be under estimated
+    static long highestValue(int index) {
+        if (index < SUB_BUCKET_COUNT) return index;
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long mantissa = (index & (SUB_BUCKET_COUNT - 1)) + SUB_BUCKET_COUNT;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    public void record(long value) {
+        counts.incrementAndGet(index(value));
+    }
+
+    public Snapshot snapshot() {
+        long[] values = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (counts.get(i) == 0) continue;
+            long count = counts.getAndSet(i, 0);
+            values[i] = count;
+            total += count;
+        }
+        return new Snapshot(values, total);
+    }
+
+    public static final class Snapshot {
+        public final long count;
+        private final long[] counts;
+
+        Snapshot(long[] counts, long count) {
+            this.counts = counts;
+            this.count = count;
+        }
+
+        // percentile is from 0 to 1, e.g. 0.99 for p99, return 0 if no value recorded
+        public long percentile(double percentile) {
+            if (count == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(percentile * count));
+            long current = 0;
+            for (int i = 0; i < counts.length; i++) {
+                current += counts[i];
+                if (current >= rank) return highestValue(i);
+            }
+            return max();
+        }
+
+        public long max() {
+            for (int i = counts.length - 1; i >= 0; i--) {
+                if (counts[i] > 0) return highestValue(i);
+            }
+            return 0;
+        }
+    }
+}
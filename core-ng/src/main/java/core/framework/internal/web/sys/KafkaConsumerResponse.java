@@ -0,0 +1,47 @@
+package core.framework.internal.web.sys;
+
+import core.framework.api.json.Property;
+
+import java.util.List;
+
+/**
+ * @author neo
+ */
+public class KafkaConsumerResponse {
+    @Property(name = "inFlightMessages")
+    public Integer inFlightMessages;
+    @Property(name = "lag")
+    public Long lag;
+    @Property(name = "topics")
+    public List<Topic> topics;
+
+    public static class Topic {
+        @Property(name = "name")
+        public String name;
+        @Property(name = "lag")
+        public Long lag;
+        @Property(name = "recordsRate")
+        public Double recordsRate;
+        @Property(name = "bytesRate")
+        public Double bytesRate;
+        @Property(name = "handlerP50")
+        public Long handlerP50;
+        @Property(name = "handlerP99")
+        public Long handlerP99;
+        @Property(name = "handlerMax")
+        public Long handlerMax;
+        @Property(name = "partitions")
+        public List<Partition> partitions;
+    }
+
+    public static class Partition {
+        @Property(name = "partition")
+        public Integer partition;
+        @Property(name = "committedOffset")
+        public Long committedOffset;
+        @Property(name = "endOffset")
+        public Long endOffset;
+        @Property(name = "lag")
+        public Long lag;
+    }
+}
@@ -1,5 +1,7 @@
 package core.framework.internal.web.sys;
 
+import core.framework.http.ContentType;
+import core.framework.internal.kafka.ConsumerMetrics;
 import core.framework.internal.kafka.KafkaMessage;
 import core.framework.internal.kafka.MessageListener;
 import core.framework.internal.kafka.MessageProcess;
@@ -20,7 +22,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import static core.framework.log.Markers.errorCode;
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -76,6 +81,45 @@ public class KafkaController {
         return Response.text(Strings.format("message handled, id={}, topic={}, key={}, message={}", actionLog.id, topic, key, new String(body, UTF_8)));
     }
 
+    // rates and handler elapsed are calculated by stat collector, lags are updated by listener thread every second
+    public Response consumer(Request request) {
+        accessControl.validate(request.clientIP());
+        return Response.text(JSON.toJSON(consumerResponse(listener.consumerMetrics))).contentType(ContentType.APPLICATION_JSON);
+    }
+
+    KafkaConsumerResponse consumerResponse(ConsumerMetrics metrics) {
+        var response = new KafkaConsumerResponse();
+        response.inFlightMessages = metrics.inFlightMessages.get();
+        response.lag = 0L;
+        Map<String, KafkaConsumerResponse.Topic> topics = new TreeMap<>();
+        for (ConsumerMetrics.TopicMetrics topicMetrics : metrics.topics.values()) {
+            var topic = new KafkaConsumerResponse.Topic();
+            topic.name = topicMetrics.topic;
+            topic.lag = 0L;
+            topic.recordsRate = topicMetrics.recordsRate;
+            topic.bytesRate = topicMetrics.bytesRate;
+            topic.handlerP50 = topicMetrics.handlerP50;
+            topic.handlerP99 = topicMetrics.handlerP99;
+            topic.handlerMax = topicMetrics.handlerMax;
+            topic.partitions = new ArrayList<>();
+            topics.put(topic.name, topic);
+        }
+        for (ConsumerMetrics.PartitionLag lag : metrics.lags) {
+            KafkaConsumerResponse.Topic topic = topics.get(lag.topic());
+            if (topic == null) continue;
+            var partition = new KafkaConsumerResponse.Partition();
+            partition.partition = lag.partition();
+            partition.committedOffset = lag.committedOffset();
+            partition.endOffset = lag.endOffset();
+            partition.lag = lag.lag();
+            topic.partitions.add(partition);
+            topic.lag += lag.lag();
+            response.lag += lag.lag();
+        }
+        response.topics = new ArrayList<>(topics.values());
+        return response;
+    }
+
     private Object message(String topic, String key, byte[] body, MessageProcess<Object> process, ActionLog actionLog) throws IOException {
         Object message = process.reader.fromJSON(body);
         process.validator.validate(message, false);
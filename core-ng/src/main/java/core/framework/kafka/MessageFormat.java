@@ -0,0 +1,11 @@
+package core.framework.kafka;
+
+/**
+ * @author neo
+ */
+public enum MessageFormat {
+    JSON,
+    // compact binary format generated from message class, publisher and consumer must use same message class structure,
+    // it's for high volume internal topics, consumer must accept binary before publisher switches to it
+    BINARY
+}
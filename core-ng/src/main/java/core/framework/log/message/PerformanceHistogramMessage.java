@@ -0,0 +1,23 @@
+package core.framework.log.message;
+
+import core.framework.api.json.Property;
+
+/**
+ * @author neo
+ */
+public class PerformanceHistogramMessage {
+    @Property(name = "action")
+    public String action;
+    @Property(name = "operation")
+    public String operation;
+    @Property(name = "count")
+    public Long count;
+    @Property(name = "p50")
+    public Long p50;
+    @Property(name = "p99")
+    public Long p99;
+    @Property(name = "p999")
+    public Long p999;
+    @Property(name = "max")
+    public Long max;
+}
@@ -3,6 +3,7 @@ package core.framework.log.message;
 import core.framework.api.json.Property;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -27,4 +28,6 @@ public class StatMessage {
     public Map<String, Double> stats;
     @Property(name = "info")
     public Map<String, String> info;
+    @Property(name = "perf_histograms")
+    public List<PerformanceHistogramMessage> performanceHistograms;
 }
@@ -4,14 +4,18 @@ import core.framework.cache.Cache;
 import core.framework.http.HTTPMethod;
 import core.framework.internal.cache.CacheClassValidator;
 import core.framework.internal.cache.CacheImpl;
+import core.framework.internal.cache.CacheInvalidator;
 import core.framework.internal.cache.CacheStore;
 import core.framework.internal.cache.LocalCacheMetrics;
 import core.framework.internal.cache.LocalCacheStore;
+import core.framework.internal.cache.NearCacheStore;
 import core.framework.internal.cache.RedisCacheStore;
+import core.framework.internal.log.LogManager;
 import core.framework.internal.module.Config;
 import core.framework.internal.module.ModuleContext;
 import core.framework.internal.module.ShutdownHook;
 import core.framework.internal.redis.RedisImpl;
+import core.framework.internal.redis.RedisSubscriber;
 import core.framework.internal.resource.PoolMetrics;
 import core.framework.internal.web.sys.CacheController;
 import core.framework.util.ASCII;
@@ -36,6 +40,12 @@ public class CacheConfig extends Config {
     private LocalCacheStore localCacheStore;
     @Nullable
     private CacheStore redisCacheStore;
+    @Nullable
+    private RedisImpl redis;
+    @Nullable
+    private LocalCacheStore nearCacheStore;
+    @Nullable
+    private CacheInvalidator invalidator;
     private int maxLocalSize;
 
     @Override
@@ -58,6 +68,9 @@ public class CacheConfig extends Config {
         if (maxLocalSize > 0 && localCacheStore != null) {
             localCacheStore.maxSize = maxLocalSize;
         }
+        if (maxLocalSize > 0 && nearCacheStore != null) {
+            nearCacheStore.maxSize = maxLocalSize;
+        }
     }
 
     public void local() {
@@ -109,6 +122,7 @@ public class CacheConfig extends Config {
         context.backgroundTask().scheduleWithFixedDelay(redis.pool::refresh, Duration.ofMinutes(5));
         context.collector.metrics.add(new PoolMetrics(redis.pool));
         redisCacheStore = new RedisCacheStore(redis);
+        this.redis = redis;
     }
 
     LocalCacheStore localCacheStore() {
@@ -121,4 +135,24 @@ public class CacheConfig extends Config {
         }
         return localCacheStore;
     }
+
+    NearCacheStore nearCacheStore(Duration localDuration) {
+        if (redis == null || redisCacheStore == null) throw new Error("near cache requires redis cache store");
+        if (nearCacheStore == null) {
+            logger.info("create near cache store");
+            var nearCacheStore = new LocalCacheStore();
+            context.backgroundTask().scheduleWithFixedDelay(nearCacheStore::cleanup, Duration.ofMinutes(5));
+            context.collector.metrics.add(new LocalCacheMetrics(nearCacheStore, "near_cache_size"));
+
+            String channel = CacheInvalidator.channel(LogManager.APP_NAME);
+            var invalidator = new CacheInvalidator(redis, channel, nearCacheStore);
+            var subscriber = new RedisSubscriber(redis, channel, invalidator);
+            context.startupHook.start.add(subscriber::start);
+            context.shutdownHook.add(ShutdownHook.STAGE_6, timeout -> subscriber.close());
+
+            this.nearCacheStore = nearCacheStore;
+            this.invalidator = invalidator;
+        }
+        return new NearCacheStore(nearCacheStore, redisCacheStore, invalidator, localDuration);
+    }
 }
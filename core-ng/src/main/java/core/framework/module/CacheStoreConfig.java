@@ -1,8 +1,11 @@
 package core.framework.module;
 
+import core.framework.internal.cache.BinaryCacheCodec;
 import core.framework.internal.cache.CacheImpl;
 import core.framework.internal.cache.RedisCacheStore;
 
+import java.time.Duration;
+
 /**
  * @author neo
  */
@@ -23,4 +26,27 @@ public class CacheStoreConfig {
             cache.cacheStore = config.localCacheStore();
         }
     }
+
+    // for read heavy data, keep local copy in front of redis, updates are broadcast via redis pub/sub to evict local copies on other instances,
+    // local copy expires after localDuration, which bounds stale time in case of lost invalidation message
+    public void near(Duration localDuration) {
+        if (cache.cacheStore instanceof RedisCacheStore) {
+            cache.cacheStore = config.nearCacheStore(localDuration);
+        }
+    }
+
+    // for hot keys and expensive loader, reload value probabilistically before expiration (XFetch), to avoid latency spike and load stampede when hot key expires
+    public void earlyRefresh() {
+        cache.earlyRefresh = true;
+    }
+
+    // store value in compact binary format instead of JSON, for large objects, to reduce redis memory and encoding/decoding cost,
+    // binary value is not readable by other tools, and values written by previous class structure or JSON are treated as stale and reloaded
+    public void binaryCodec() {
+        binaryCodec(cache);
+    }
+
+    private <T> void binaryCodec(CacheImpl<T> cache) {
+        cache.context.codec = new BinaryCacheCodec<>(cache.cacheClass);
+    }
 }
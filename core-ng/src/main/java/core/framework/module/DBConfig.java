@@ -5,6 +5,7 @@ import core.framework.db.Database;
 import core.framework.db.IsolationLevel;
 import core.framework.db.Repository;
 import core.framework.internal.db.DatabaseImpl;
+import core.framework.internal.db.Replica;
 import core.framework.internal.db.cloud.AzureAuthProvider;
 import core.framework.internal.db.cloud.GCloudAuthProvider;
 import core.framework.internal.module.Config;
@@ -33,6 +34,7 @@ public class DBConfig extends Config {
     @Nullable
     private String url;
     private boolean entityAdded;
+    private boolean replicationLagChecked;
 
     @Override
     protected void initialize(ModuleContext context, @Nullable String name) {
@@ -60,6 +62,29 @@ public class DBConfig extends Config {
         this.url = url;
     }
 
+    // route reads outside transaction to replicas, can be called multiple times to add more replicas
+    public void replica(String url) {
+        if (this.url == null) throw new Error("db url must be configured first, name=" + name);
+        Replica replica = database.replica(databaseURL(url));
+        context.backgroundTask().scheduleWithFixedDelay(replica.pool::refresh, Duration.ofMinutes(10));
+        context.collector.metrics.add(new PoolMetrics(replica.pool));
+    }
+
+    // eject replica while replication lag exceeds max lag, replica is checked every 10s
+    public void maxReplicationLag(Duration maxLag) {
+        if (replicationLagChecked) throw new Error("max replication lag is already configured, name=" + name);
+        context.backgroundTask().scheduleWithFixedDelay(() -> database.checkReplicationLag(maxLag), Duration.ofSeconds(10));
+        replicationLagChecked = true;
+    }
+
+    // coalesce concurrent repository.get() (e.g. from parallel tasks) within window into one query, first caller waits for window, e.g. 1ms,
+    // only applies to repositories with single non-String primary key added after this,
+    // String key is excluded as db may match different value by collation (e.g. case-insensitive or PAD SPACE), which can't be mapped back to caller
+    public void batchGet(Duration window) {
+        if (!entityClasses.isEmpty()) throw new Error("batchGet must be configured before adding repository, name=" + name);
+        database.batchGetWindowInNanos = window.toNanos();
+    }
+
     String databaseURL(String url) {
         return url;
     }
@@ -96,7 +121,7 @@ public class DBConfig extends Config {
     }
 
     public void poolSize(int minSize, int maxSize) {
-        database.pool.size(minSize, maxSize);
+        database.poolSize(minSize, maxSize);
     }
 
     public void isolationLevel(IsolationLevel level) {
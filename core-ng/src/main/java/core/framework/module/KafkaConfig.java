@@ -2,15 +2,23 @@ package core.framework.module;
 
 import core.framework.http.HTTPMethod;
 import core.framework.internal.inject.InjectValidator;
+import core.framework.internal.kafka.BinaryMessageCodec;
+import core.framework.internal.kafka.JSONMessageCodec;
 import core.framework.internal.kafka.KafkaURI;
+import core.framework.internal.kafka.MessageCodec;
 import core.framework.internal.kafka.MessageListener;
+import core.framework.internal.kafka.MessageProcess;
 import core.framework.internal.kafka.MessageProducer;
 import core.framework.internal.kafka.MessagePublisherImpl;
+import core.framework.internal.kafka.Outbox;
+import core.framework.internal.kafka.OutboxRecord;
+import core.framework.internal.kafka.OutboxRelay;
 import core.framework.internal.module.Config;
 import core.framework.internal.module.ModuleContext;
 import core.framework.internal.module.ShutdownHook;
 import core.framework.internal.web.sys.KafkaController;
 import core.framework.kafka.BulkMessageHandler;
+import core.framework.kafka.MessageFormat;
 import core.framework.kafka.MessageHandler;
 import core.framework.kafka.MessagePublisher;
 import core.framework.util.Types;
@@ -31,6 +39,8 @@ public class KafkaConfig extends Config {
     String name;
     @Nullable
     MessageProducer producer;
+    @Nullable
+    Outbox outbox;
     private ModuleContext context;
     @Nullable
     private KafkaURI uri;
@@ -65,18 +75,23 @@ public class KafkaConfig extends Config {
 
     // to make IoC simpler, each topic should have its own message class
     public <T> MessagePublisher<T> publish(@Nullable String topic, Class<T> messageClass) {
+        return publish(topic, messageClass, MessageFormat.JSON);
+    }
+
+    // binary format is for high volume internal topics, all consumers must acceptBinary() before publisher switches to it
+    public <T> MessagePublisher<T> publish(@Nullable String topic, Class<T> messageClass, MessageFormat format) {
         if (topic == null) throw new Error("topic must not be null");
-        logger.info("publish, topic={}, messageClass={}, name={}", topic, messageClass.getTypeName(), name);
+        logger.info("publish, topic={}, messageClass={}, format={}, name={}", topic, messageClass.getTypeName(), format, name);
         if (uri == null) throw new Error("kafka uri must be configured first, name=" + name);
         context.beanClassValidator.validate(messageClass);
-        MessagePublisher<T> publisher = createMessagePublisher(topic, messageClass);
+        MessagePublisher<T> publisher = createMessagePublisher(topic, messageClass, format);
         context.beanFactory.bind(Types.generic(MessagePublisher.class, messageClass), name, publisher);
         context.apiController.topics.put(topic, messageClass);
         handlerAdded = true;
         return publisher;
     }
 
-    <T> MessagePublisher<T> createMessagePublisher(String topic, Class<T> messageClass) {
+    <T> MessagePublisher<T> createMessagePublisher(String topic, Class<T> messageClass, MessageFormat format) {
         if (producer == null) {
             var producer = new MessageProducer(uri, name, maxRequestSize);
             context.collector.metrics.add(producer.producerMetrics);
@@ -84,9 +99,25 @@ public class KafkaConfig extends Config {
             context.shutdownHook.add(ShutdownHook.STAGE_4, producer::close);
             controller.producer = producer;
             context.route(HTTPMethod.POST, managementPathPattern("/topic/:topic/key/:key/publish"), (LambdaController) controller::publish, true);
+            if (outbox != null) {
+                var relay = new OutboxRelay(outbox, producer, context.logManager);
+                context.startupHook.start.add(relay::start);
+                context.shutdownHook.add(ShutdownHook.STAGE_0, timeout -> relay.shutdown());
+                context.shutdownHook.add(ShutdownHook.STAGE_1, relay::awaitTermination);
+            }
             this.producer = producer;
         }
-        return new MessagePublisherImpl<>(producer, topic, messageClass);
+        MessageCodec<T> codec = format == MessageFormat.BINARY ? new BinaryMessageCodec<>(messageClass) : new JSONMessageCodec<>(messageClass);
+        return new MessagePublisherImpl<>(producer, outbox, topic, messageClass, codec);
+    }
+
+    // publishers write messages into outbox table within current db transaction, relay sends them to kafka after commit,
+    // refer to core.framework.internal.kafka.Outbox for table schema
+    public void outbox(DBConfig db, String table) {
+        if (producer != null) throw new Error("kafka().outbox() must be configured before adding publisher");
+        if (outbox != null) throw new Error("kafka outbox is already configured, name=" + name);
+        db.view(OutboxRecord.class);
+        outbox = new Outbox(db.database, table);
     }
 
     String managementPathPattern(String postfix) {
@@ -96,21 +127,22 @@ public class KafkaConfig extends Config {
         return builder.toString();
     }
 
-    public <T> void subscribe(String topic, Class<T> messageClass, MessageHandler<T> handler) {
-        subscribe(topic, messageClass, handler, null);
+    public <T> KafkaSubscriptionConfig<T> subscribe(String topic, Class<T> messageClass, MessageHandler<T> handler) {
+        return subscribe(topic, messageClass, handler, null);
     }
 
-    public <T> void subscribe(String topic, Class<T> messageClass, BulkMessageHandler<T> handler) {
-        subscribe(topic, messageClass, null, handler);
+    public <T> KafkaSubscriptionConfig<T> subscribe(String topic, Class<T> messageClass, BulkMessageHandler<T> handler) {
+        return subscribe(topic, messageClass, null, handler);
     }
 
-    private <T> void subscribe(String topic, Class<T> messageClass, @Nullable MessageHandler<T> handler, @Nullable BulkMessageHandler<T> bulkHandler) {
+    private <T> KafkaSubscriptionConfig<T> subscribe(String topic, Class<T> messageClass, @Nullable MessageHandler<T> handler, @Nullable BulkMessageHandler<T> bulkHandler) {
         if (handler == null && bulkHandler == null) throw new Error("handler must not be null");
         logger.info("subscribe, topic={}, messageClass={}, handlerClass={}, name={}", topic, messageClass.getTypeName(), handler != null ? handler.getClass().getCanonicalName() : bulkHandler.getClass().getCanonicalName(), name);
         context.beanClassValidator.validate(messageClass);
         new InjectValidator(handler != null ? handler : bulkHandler).validate();
-        listener().subscribe(topic, messageClass, handler, bulkHandler);
+        MessageProcess<T> process = listener().subscribe(topic, messageClass, handler, bulkHandler);
         handlerAdded = true;
+        return new KafkaSubscriptionConfig<>(process, messageClass);
     }
 
     private MessageListener listener() {
@@ -123,6 +155,7 @@ public class KafkaConfig extends Config {
             context.collector.metrics.add(listener.consumerMetrics);
             controller.listener = listener;
             context.route(HTTPMethod.POST, managementPathPattern("/topic/:topic/key/:key/handle"), (LambdaController) controller::handle, true);
+            context.route(HTTPMethod.GET, managementPathPattern("/consumer"), (LambdaController) controller::consumer, true);
             this.listener = listener;   // make lambda not refer to this class/field
         }
         return listener;
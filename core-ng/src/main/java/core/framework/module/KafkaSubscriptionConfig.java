@@ -0,0 +1,40 @@
+package core.framework.module;
+
+import core.framework.internal.kafka.BinaryMessageCodec;
+import core.framework.internal.kafka.BulkWindow;
+import core.framework.internal.kafka.MessageProcess;
+import core.framework.kafka.BulkMessageHandler;
+
+import java.time.Duration;
+
+/**
+ * @author neo
+ */
+public final class KafkaSubscriptionConfig<T> {
+    private final MessageProcess<T> process;
+    private final Class<T> messageClass;
+
+    KafkaSubscriptionConfig(MessageProcess<T> process, Class<T> messageClass) {
+        this.process = process;
+        this.messageClass = messageClass;
+    }
+
+    // accept binary messages in addition to JSON, to migrate topic to binary format, upgrade all consumers first, then publish with MessageFormat.BINARY
+    public void acceptBinary() {
+        process.binaryCodec = new BinaryMessageCodec<>(messageClass);
+    }
+
+    // skip validating messages from trusted internal publishers, which already validate before publishing
+    public void skipValidation() {
+        process.validate = false;
+    }
+
+    // accumulate messages across polls for bulk handler, handle batch when reaching maxMessages, maxBytes or maxLinger, whichever comes first
+    public void bulkWindow(int maxMessages, long maxBytes, Duration maxLinger) {
+        if (!(process.handler instanceof BulkMessageHandler)) throw new Error("bulk window only applies to bulk message handler, handler=" + process.handler.getClass().getCanonicalName());
+        if (maxMessages <= 0) throw new Error("maxMessages must be greater than 0, value=" + maxMessages);
+        if (maxBytes <= 0) throw new Error("maxBytes must be greater than 0, value=" + maxBytes);
+        if (maxLinger.isNegative() || maxLinger.isZero()) throw new Error("maxLinger must be greater than 0, value=" + maxLinger);
+        process.window = new BulkWindow(maxMessages, maxBytes, maxLinger);
+    }
+}
@@ -2,6 +2,8 @@ package core.framework.module;
 
 import core.framework.internal.kafka.KafkaURI;
 import core.framework.internal.log.CollectStatTask;
+import core.framework.internal.log.PerformanceHistograms;
+import core.framework.internal.log.TraceSampler;
 import core.framework.internal.log.appender.ConsoleAppender;
 import core.framework.internal.log.appender.KafkaAppender;
 import core.framework.internal.module.Config;
@@ -10,6 +12,7 @@ import core.framework.internal.module.ShutdownHook;
 import core.framework.log.LogAppender;
 import org.jspecify.annotations.Nullable;
 
+import java.nio.file.Path;
 import java.time.Duration;
 
 /**
@@ -33,12 +36,53 @@ public class LogConfig extends Config {
         context.startupHook.start.add(appender::start);
         context.shutdownHook.add(ShutdownHook.STAGE_7, appender::stop);
         context.collector.metrics.add(appender.producerMetrics);
+        context.collector.metrics.add(appender.metrics);
+    }
+
+    // bound queue of kafka appender, when queue size is over dropTraceRatio, action logs are sent without trace,
+    // when over dropStatRatio, stats are dropped, and when queue is full, action logs are dropped
+    public void kafkaQueue(int capacity, double dropTraceRatio, double dropStatRatio) {
+        if (!(context.logManager.appender instanceof KafkaAppender appender)) throw new Error("kafka appender is not configured, please call appendToKafka() first");
+        if (capacity <= 0) throw new Error("capacity must be greater than 0, capacity=" + capacity);
+        if (dropTraceRatio > dropStatRatio || dropStatRatio > 1) throw new Error("drop ratio must satisfy dropTraceRatio <= dropStatRatio <= 1, dropTraceRatio=" + dropTraceRatio + ", dropStatRatio=" + dropStatRatio);
+        appender.queue(capacity, dropTraceRatio, dropStatRatio);
+    }
+
+    // spill log messages into memory mapped segment files under directory when log kafka is not available, and replay once it's back,
+    // oldest segment is evicted when spilled messages reach maxSizeInBytes, directory must not be shared by other app instances
+    public void kafkaSpill(Path directory, long maxSizeInBytes) {
+        if (!(context.logManager.appender instanceof KafkaAppender appender)) throw new Error("kafka appender is not configured, please call appendToKafka() first");
+        if (maxSizeInBytes < 32 * 1024 * 1024) throw new Error("maxSizeInBytes must be at least 32M, maxSizeInBytes=" + maxSizeInBytes);
+        appender.spill(directory, maxSizeInBytes);
+    }
+
+    // tail sampling, only keep last N debug events plus all warning/error events in trace, to limit memory of actions with large amount of logs
+    public void traceTailSampling(int maxDebugEvents) {
+        if (maxDebugEvents <= 0) throw new Error("maxDebugEvents must be greater than 0, maxDebugEvents=" + maxDebugEvents);
+        context.logManager.maxTraceDebugEvents = maxDebugEvents;
+    }
+
+    // flush trace of OK actions which are slower than slowPercentile (e.g. 0.99) of same action, plus random sample by sampleRate (e.g. 0.001),
+    // at most maxTracesPerSecond sampled traces will be flushed
+    public void sampleTrace(double slowPercentile, double sampleRate, int maxTracesPerSecond) {
+        if (context.logManager.traceSampler != null) throw new Error("trace sampling is already configured");
+        if (slowPercentile <= 0 || slowPercentile >= 1) throw new Error("slowPercentile must be between 0 and 1, slowPercentile=" + slowPercentile);
+        if (sampleRate < 0 || sampleRate > 1) throw new Error("sampleRate must be between 0 and 1, sampleRate=" + sampleRate);
+        if (maxTracesPerSecond <= 0) throw new Error("maxTracesPerSecond must be greater than 0, maxTracesPerSecond=" + maxTracesPerSecond);
+        var sampler = new TraceSampler(slowPercentile, sampleRate, maxTracesPerSecond);
+        context.logManager.traceSampler = sampler;
+        context.collector.metrics.add(sampler);
+    }
+
+    // aggregate elapsed of actions and db/redis/http/kafka operations into histograms, and ship p50/p99/p999/max with stat message
+    public void performanceHistograms() {
+        if (context.logManager.performanceHistograms == null) context.logManager.performanceHistograms = new PerformanceHistograms();
     }
 
     public void appender(LogAppender appender) {
         if (context.logManager.appender != null) throw new Error("log appender is already set, appender=" + context.logManager.appender.getClass().getSimpleName());
         context.logManager.appender = appender;
-        context.backgroundTask().scheduleWithFixedDelay(new CollectStatTask(appender, context.collector), Duration.ofSeconds(10));
+        context.backgroundTask().scheduleWithFixedDelay(new CollectStatTask(appender, context.collector, context.logManager), Duration.ofSeconds(10));
     }
 
     public void maskFields(String... fields) {
@@ -57,6 +57,28 @@ public class RedisConfig extends Config {
         context.probe.hostURIs.add(host);
     }
 
+    // hosts are seed nodes of redis cluster, commands are routed to nodes by key slot, multi-key commands are split by slot
+    public void cluster(String... hosts) {
+        if (hosts.length == 0) throw new Error("hosts must not be empty");
+        setCluster(hosts);
+        host = hosts[0];
+    }
+
+    void setCluster(String... hosts) {
+        RedisImpl redis = (RedisImpl) this.redis;
+        redis.cluster(hosts);
+        for (String host : hosts) {
+            context.probe.hostURIs.add(host);
+        }
+        context.backgroundTask().scheduleWithFixedDelay(redis::refreshCluster, Duration.ofMinutes(1));
+        context.collector.metrics.add(redis::collectClusterMetrics);
+    }
+
+    // read get/multiGet/hash().getAll from replicas of cluster, for read heavy use cases which tolerate replication lag
+    public void readFromReplica() {
+        ((RedisImpl) redis).readFromReplica();
+    }
+
     public void password(String password) {
         RedisImpl redis = (RedisImpl) this.redis;
         redis.password(password);
@@ -66,6 +88,12 @@ public class RedisConfig extends Config {
         ((RedisImpl) redis).pool.size(minSize, maxSize);
     }
 
+    // share given number of connections with all callers, commands from concurrent callers are pipelined, poolSize limits max concurrent callers
+    public void multiplex(int connections) {
+        if (connections <= 0) throw new Error("connections must be greater than 0, connections=" + connections);
+        ((RedisImpl) redis).multiplex(connections);
+    }
+
     public void timeout(Duration timeout) {
         ((RedisImpl) redis).timeout(timeout);
     }
@@ -46,4 +46,6 @@ public interface Redis {
     RedisAdmin admin();
 
     RedisHyperLogLog hyperLogLog();
+
+    RedisPipeline pipeline();
 }
@@ -0,0 +1,29 @@
+package core.framework.redis;
+
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * queue commands and send all in one round trip on execute(), returned suppliers are only available after execute()
+ *
+ * @author neo
+ */
+public interface RedisPipeline {
+    Supplier<@Nullable String> get(String key);
+
+    default void set(String key, String value) {
+        set(key, value, null);
+    }
+
+    void set(String key, String value, @Nullable Duration expiration);
+
+    void expire(String key, Duration expiration);
+
+    void del(String... keys);
+
+    Supplier<Long> increaseBy(String key, long increment);
+
+    void execute();
+}
@@ -2,15 +2,20 @@ package core.framework.db;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
 import java.util.List;
+import java.util.stream.IntStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.verify;
 
 /**
@@ -41,6 +46,27 @@ class QueryTest<T> {
         verify(query).where("id IN (?, ?)", "1", "2");
 
         query.in("id", List.of("1", "2", "3"));
-        verify(query).where("id IN (?, ?, ?)", "1", "2", "3");
+        verify(query).where("id IN (?, ?, ?, ?)", "1", "2", "3", "3");
+
+        query.in("id", List.of("1", "2", "3", "4", "5"));
+        verify(query).where("id IN (?, ?, ?, ?, ?, ?, ?, ?)", "1", "2", "3", "4", "5", "5", "5", "5");
+    }
+
+    @Test
+    void inWithLargeParams() {
+        assertThat(placeholders(256)).isEqualTo(256);
+        assertThat(placeholders(257)).isEqualTo(512);
+        assertThat(placeholders(32769)).isEqualTo(33024);
+        assertThat(placeholders(65280)).isEqualTo(65280);
+        assertThat(placeholders(65281)).isEqualTo(65535);
+        assertThat(placeholders(65535)).isEqualTo(65535);
+        assertThat(placeholders(70000)).isEqualTo(70000);
+    }
+
+    private int placeholders(int size) {
+        query.in("id", IntStream.range(0, size).boxed().toList());
+        ArgumentCaptor<Object[]> params = ArgumentCaptor.forClass(Object[].class);
+        verify(query, atLeastOnce()).where(anyString(), params.capture());
+        return params.getValue().length;    // last call
     }
 }
@@ -0,0 +1,132 @@
+package core.framework.internal.cache;
+
+import core.framework.util.Strings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author neo
+ */
+class BinaryCacheCodecTest {
+    private BinaryCacheCodec<TestCache> codec;
+
+    @BeforeEach
+    void createBinaryCacheCodec() {
+        codec = new BinaryCacheCodec<>(TestCache.class);
+    }
+
+    @Test
+    void encode() throws IOException {
+        var value = new TestCache();
+        value.dateTimeField = LocalDateTime.of(2025, 8, 1, 10, 30, 15, 123456789);
+        value.timeField = LocalTime.of(23, 59, 59);
+        value.dateField = LocalDate.of(1969, 12, 31);
+        value.zonedDateTimeField = ZonedDateTime.of(2025, 8, 1, 10, 30, 0, 0, ZoneId.of("America/New_York"));
+        value.instantField = Instant.ofEpochSecond(-1, 999);
+        value.uuidField = UUID.randomUUID();
+        value.intField = -1;
+        value.longField = Long.MAX_VALUE;
+        value.doubleField = 1.5;
+        value.booleanField = Boolean.FALSE;
+        value.enumField = TestCache.TestEnum.V2;
+        value.stringField = "value, 值";
+        value.listField = Arrays.asList("v1", null, "v3");
+        value.mapField = Map.of("k1", "v1");
+        value.childField = new TestCache.Child();
+        value.childField.bigDecimalField = new BigDecimal("-12345678901234567890.123");
+        value.childrenField = new ArrayList<>();
+        value.childrenField.add(new TestCache.Child());
+        value.childrenField.add(null);
+        value.enumMapField = Map.of(TestCache.TestEnum.V1, "v1");
+        value.listMapField = Map.of("k1", List.of("v1", "v2"));
+
+        TestCache result = codec.decode(codec.encode(value));
+        assertThat(result).usingRecursiveComparison().isEqualTo(value);
+    }
+
+    @Test
+    void encodeWithNullFields() throws IOException {
+        var value = new TestCache();
+        value.childField = new TestCache.Child();
+        value.childField.bigDecimalField = null;
+
+        byte[] bytes = codec.encode(value);
+        assertThat(bytes[0]).isEqualTo(BinaryCacheCodec.FORMAT_BINARY);
+        TestCache result = codec.decode(bytes);
+        assertThat(result).usingRecursiveComparison().isEqualTo(value);
+    }
+
+    @Test
+    void encodeWithCompression() throws IOException {
+        var value = new TestCache();
+        value.stringField = "value".repeat(1000);
+
+        byte[] bytes = codec.encode(value);
+        assertThat(bytes[0]).isEqualTo(BinaryCacheCodec.FORMAT_LZ4);
+        assertThat(bytes.length).isLessThan(1000);
+        assertThat(codec.decode(bytes).stringField).isEqualTo(value.stringField);
+    }
+
+    @Test
+    void decodeWithInvalidCompressedLength() {
+        var value = new TestCache();
+        value.stringField = "value".repeat(1000);
+        byte[] bytes = codec.encode(value);
+        bytes[5] = 0x7F;    // original length is stored after header
+
+        assertThatThrownBy(() -> codec.decode(bytes))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("invalid decompressed length");
+    }
+
+    @Test
+    void decodeWithJSON() {
+        assertThatThrownBy(() -> codec.decode(Strings.bytes("{\"stringField\":\"value\"}")))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("unknown cache value format");
+    }
+
+    @Test
+    void decodeWithDifferentFingerprint() {
+        byte[] bytes = codec.encode(new TestCache());
+        bytes[1]++;
+
+        assertThatThrownBy(() -> codec.decode(bytes))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("different class structure");
+    }
+
+    @Test
+    void decodeWithTruncatedValue() {
+        var value = new TestCache();
+        value.stringField = "value";
+        byte[] bytes = codec.encode(value);
+
+        assertThatThrownBy(() -> codec.decode(Arrays.copyOf(bytes, bytes.length - 10)))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("failed to decode cache value");
+    }
+
+    @Test
+    void fingerprint() {
+        assertThat(new BinaryCacheCodec<>(TestCache.class).fingerprint).isEqualTo(codec.fingerprint);
+        assertThat(new BinaryCacheCodec<>(TestCache.Child.class).fingerprint).isNotEqualTo(codec.fingerprint);
+    }
+}
@@ -12,6 +12,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -54,7 +55,65 @@ class CacheImplTest {
         TestCache value = cache.get("key", key -> cacheItem("value"));
         assertThat(value.stringField).isEqualTo("value");
 
-        verify(cacheStore).put("name:key", value, Duration.ofHours(1), cache.context);
+        verify(cacheStore).putLoaded("name:key", value, Duration.ofHours(1), cache.context);
+    }
+
+    @Test
+    void getWhenLoading() {
+        TestCache value = cacheItem("value");
+        cache.loadings.put("name:key", CompletableFuture.completedFuture(value));
+
+        TestCache result = cache.get("key", key -> {
+            throw new Error("loader should not be called");
+        });
+        assertThat(result).isSameAs(value);
+        verify(cacheStore, never()).putLoaded(any(), any(), any(), any());
+    }
+
+    @Test
+    void getWhenLoadingFailed() {
+        cache.loadings.put("name:key", CompletableFuture.failedFuture(new IllegalStateException("failed to load")));
+
+        assertThatThrownBy(() -> cache.get("key", key -> cacheItem("value")))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("failed to load");
+    }
+
+    @Test
+    void getWhenLoadingTimeout() {
+        cache.maxWaitTimeInNano = Duration.ofMillis(10).toNanos();
+        cache.loadings.put("name:key", new CompletableFuture<>());
+
+        TestCache value = cache.get("key", key -> cacheItem("value"));
+        assertThat(value.stringField).isEqualTo("value");
+        verify(cacheStore).putLoaded("name:key", value, Duration.ofHours(1), cache.context);
+    }
+
+    @Test
+    void getWithEarlyRefresh() {
+        cache.earlyRefresh = true;
+        TestCache value = cacheItem("value");
+        when(cacheStore.get("name:key", cache.context)).thenReturn(value);
+        cache.loadStats.put("name:key", new CacheImpl.LoadStat(System.currentTimeMillis() + 1000, Long.MAX_VALUE));
+
+        TestCache newValue = cacheItem("newValue");
+        TestCache result = cache.get("key", key -> newValue);
+        assertThat(result).isSameAs(value);
+        verify(cacheStore).putLoaded("name:key", newValue, Duration.ofHours(1), cache.context);
+        assertThat(cache.loadStats.get("name:key").expirationTime()).isGreaterThan(System.currentTimeMillis() + Duration.ofMinutes(59).toMillis());
+        assertThat(cache.loadings).isEmpty();
+    }
+
+    @Test
+    void shouldRefresh() {
+        assertThat(cache.shouldRefresh("name:key")).isFalse();
+
+        cache.loadStats.put("name:key", new CacheImpl.LoadStat(System.currentTimeMillis() + Duration.ofHours(1).toMillis(), 1000));
+        assertThat(cache.shouldRefresh("name:key")).isFalse();
+
+        cache.loadStats.put("name:key", new CacheImpl.LoadStat(System.currentTimeMillis() - 1, 1000));
+        assertThat(cache.shouldRefresh("name:key")).isFalse();
+        assertThat(cache.loadStats).isEmpty();
     }
 
     @Test
@@ -73,6 +132,7 @@ class CacheImplTest {
         assertThatThrownBy(() -> cache.get("key", key -> null))
             .isInstanceOf(Error.class)
             .hasMessageContaining("value must not be null");
+        assertThat(cache.loadings).isEmpty();
     }
 
     @Test
@@ -88,7 +148,21 @@ class CacheImplTest {
         assertThat(results.get("key2").stringField).isEqualTo("v2");
         assertThat(results.get("key3").stringField).isEqualTo("v3");
 
-        verify(cacheStore).putAll(argThat(argument -> argument.size() == 1 && "v2".equals(argument.getFirst().value().stringField)), eq(Duration.ofHours(1)), eq(cache.context));
+        verify(cacheStore).putAllLoaded(argThat(argument -> argument.size() == 1 && "v2".equals(argument.getFirst().value().stringField)), eq(Duration.ofHours(1)), eq(cache.context));
+    }
+
+    @Test
+    void getAllWhenLoading() {
+        when(cacheStore.getAll(new String[]{"name:key1", "name:key2"}, cache.context)).thenReturn(Map.of());
+        TestCache item1 = cacheItem("v1");
+        cache.loadings.put("name:key1", CompletableFuture.completedFuture(item1));
+
+        TestCache item2 = cacheItem("v2");
+        Map<String, TestCache> results = cache.getAll(Arrays.asList("key1", "key2"), key -> item2);
+        assertThat(results).containsEntry("key1", item1).containsEntry("key2", item2);
+
+        verify(cacheStore).putAllLoaded(argThat(argument -> argument.size() == 1 && "name:key2".equals(argument.getFirst().key())), eq(Duration.ofHours(1)), eq(cache.context));
+        assertThat(cache.loadings).containsOnlyKeys("name:key1");
     }
 
     @Test
@@ -100,7 +174,7 @@ class CacheImplTest {
         Map<String, TestCache> results = cache.getAll(Arrays.asList("key1", "key2"), key -> null);
         assertThat(results).containsKeys("key1", "key2");
 
-        verify(cacheStore, never()).putAll(any(), any(), any());
+        verify(cacheStore, never()).putAllLoaded(any(), any(), any());
     }
 
     @Test
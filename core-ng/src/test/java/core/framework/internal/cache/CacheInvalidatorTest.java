@@ -0,0 +1,76 @@
+package core.framework.internal.cache;
+
+import core.framework.internal.redis.RedisException;
+import core.framework.internal.redis.RedisImpl;
+import core.framework.util.Strings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @author neo
+ */
+@ExtendWith(MockitoExtension.class)
+class CacheInvalidatorTest {
+    @Mock
+    RedisImpl redis;
+    private LocalCacheStore localCacheStore;
+    private CacheContext<TestCache> context;
+    private CacheInvalidator invalidator;
+
+    @BeforeEach
+    void createCacheInvalidator() {
+        localCacheStore = new LocalCacheStore();
+        context = new CacheContext<>(TestCache.class);
+        invalidator = new CacheInvalidator(redis, "cache:invalidation:test", localCacheStore);
+    }
+
+    @Test
+    void invalidate() {
+        invalidator.invalidate("key1", "key2");
+
+        verify(redis).publish("cache:invalidation:test", Strings.bytes(invalidator.instanceId + "\nkey1\nkey2"));
+    }
+
+    @Test
+    void invalidateWithFailure() {
+        doThrow(new RedisException("unexpected")).when(redis).publish(eq("cache:invalidation:test"), any());
+
+        invalidator.invalidate("key");
+    }
+
+    @Test
+    void onMessage() {
+        localCacheStore.put("key1", new TestCache(), Duration.ofMinutes(1), context);
+        localCacheStore.put("key2", new TestCache(), Duration.ofMinutes(1), context);
+
+        invalidator.onMessage(Strings.bytes("other\nkey1"));
+        assertThat(localCacheStore.caches).containsOnlyKeys("key2");
+    }
+
+    @Test
+    void onMessageFromSelf() {
+        localCacheStore.put("key", new TestCache(), Duration.ofMinutes(1), context);
+
+        invalidator.onMessage(Strings.bytes(invalidator.instanceId + "\nkey"));
+        assertThat(localCacheStore.caches).containsOnlyKeys("key");
+    }
+
+    @Test
+    void onSubscribe() {
+        localCacheStore.put("key", new TestCache(), Duration.ofMinutes(1), context);
+
+        invalidator.onSubscribe();
+        assertThat(localCacheStore.caches).isEmpty();
+    }
+}
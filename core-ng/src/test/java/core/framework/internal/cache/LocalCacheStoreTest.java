@@ -38,12 +38,24 @@ class LocalCacheStoreTest {
 
         TestCache retrievedValue = cacheStore.get("key1", null);
         assertThat(retrievedValue).isSameAs(value);
+    }
 
-        LocalCacheStore.CacheItem<?> item = cacheStore.caches.get("key1");
-        assertThat(item.hits).isEqualTo(1);
+    @Test
+    void putWithExistingKey() {
+        cacheStore.put("key1", new TestCache(), Duration.ofMinutes(1), null);
+        var value = new TestCache();
+        cacheStore.put("key1", value, Duration.ofMinutes(1), null);
 
-        cacheStore.get("key1", null);
-        assertThat(item.hits).isEqualTo(2);
+        assertThat(cacheStore.caches).hasSize(1);
+        assertThat((TestCache) cacheStore.get("key1", null)).isSameAs(value);
+    }
+
+    @Test
+    void putWithZeroExpiration() {
+        cacheStore.put("key1", new TestCache(), Duration.ofMinutes(1), null);
+        cacheStore.put("key1", new TestCache(), Duration.ZERO, null);
+
+        assertThat(cacheStore.caches).isEmpty();
     }
 
     @Test
@@ -57,25 +69,46 @@ class LocalCacheStoreTest {
 
     @Test
     void cleanup() {
-        cacheStore.put("key1", new TestCache(), Duration.ZERO, null);
+        cacheStore.put("key1", new TestCache(), Duration.ofMillis(1), null);
         cacheStore.put("key2", new TestCache(), Duration.ofMinutes(1), null);
         cacheStore.cleanup();
 
-        assertThat(cacheStore.caches).hasSize(1);
+        assertThat(cacheStore.caches).hasSize(2);   // timer wheel expires items in ~1s granularity
     }
 
     @Test
-    void cleanupWithEviction() {
-        cacheStore.maxSize = 1;
+    void putWithEviction() {
+        cacheStore.maxSize = 2;     // window size = 1, main size = 1
         cacheStore.put("k1", new TestCache(), Duration.ofHours(1), null);
-        cacheStore.put("k2", new TestCache(), Duration.ofHours(1), null);
-        cacheStore.put("k3", new TestCache(), Duration.ofHours(1), null);
         cacheStore.get("k1", null);
-        cacheStore.get("k2", null);
-        cacheStore.get("k2", null);
+        cacheStore.get("k1", null);
+        cacheStore.put("k2", new TestCache(), Duration.ofHours(1), null);   // k1 moves to main
+        assertThat(cacheStore.caches).containsOnlyKeys("k1", "k2");
 
-        cacheStore.cleanup();
-        assertThat(cacheStore.caches).containsOnlyKeys("k2");
+        cacheStore.put("k3", new TestCache(), Duration.ofHours(1), null);   // k2 is less frequently used than k1, not admitted
+        assertThat(cacheStore.caches).containsOnlyKeys("k1", "k3");
+
+        cacheStore.get("k3", null);
+        cacheStore.get("k3", null);
+        cacheStore.get("k3", null);
+        cacheStore.put("k4", new TestCache(), Duration.ofHours(1), null);   // k3 is more frequently used than k1, replaces k1
+        assertThat(cacheStore.caches).containsOnlyKeys("k3", "k4");
+    }
+
+    @Test
+    void putWithScan() {
+        cacheStore.maxSize = 100;
+        for (int i = 0; i < 100; i++) {
+            cacheStore.put("hot-" + i, new TestCache(), Duration.ofHours(1), null);
+            cacheStore.get("hot-" + i, null);
+            cacheStore.get("hot-" + i, null);
+        }
+        for (int i = 0; i < 1000; i++) {    // one time accessed items should not flush frequently used items
+            cacheStore.put("scan-" + i, new TestCache(), Duration.ofHours(1), null);
+        }
+
+        assertThat(cacheStore.caches).hasSize(100);
+        assertThat(cacheStore.caches.keySet().stream().filter(key -> key.startsWith("hot-")).count()).isGreaterThanOrEqualTo(90);
     }
 
     @Test
@@ -0,0 +1,127 @@
+package core.framework.internal.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author neo
+ */
+@ExtendWith(MockitoExtension.class)
+class NearCacheStoreTest {
+    @Mock
+    CacheStore redisCacheStore;
+    @Mock
+    CacheInvalidator invalidator;
+    private LocalCacheStore localCacheStore;
+    private CacheContext<TestCache> context;
+    private NearCacheStore cacheStore;
+
+    @BeforeEach
+    void createNearCacheStore() {
+        localCacheStore = new LocalCacheStore();
+        context = new CacheContext<>(TestCache.class);
+        cacheStore = new NearCacheStore(localCacheStore, redisCacheStore, invalidator, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void get() {
+        var value = new TestCache();
+        when(redisCacheStore.get("key", context)).thenReturn(value);
+
+        assertThat(cacheStore.get("key", context)).isSameAs(value);
+        assertThat(localCacheStore.get("key", context)).isSameAs(value);
+
+        assertThat(cacheStore.get("key", context)).isSameAs(value);
+        verify(redisCacheStore).get("key", context);
+    }
+
+    @Test
+    void getWithMiss() {
+        assertThat(cacheStore.get("key", context)).isNull();
+        assertThat(localCacheStore.caches).isEmpty();
+    }
+
+    @Test
+    void getAll() {
+        var value1 = new TestCache();
+        var value2 = new TestCache();
+        localCacheStore.put("key1", value1, Duration.ofMinutes(1), context);
+        when(redisCacheStore.getAll(new String[]{"key2", "key3"}, context)).thenReturn(Map.of("key2", value2));
+
+        Map<String, TestCache> values = cacheStore.getAll(new String[]{"key1", "key2", "key3"}, context);
+        assertThat(values).containsOnlyKeys("key1", "key2");
+        assertThat(localCacheStore.get("key2", context)).isSameAs(value2);
+    }
+
+    @Test
+    void getAllWithLocalHits() {
+        localCacheStore.put("key1", new TestCache(), Duration.ofMinutes(1), context);
+
+        assertThat(cacheStore.getAll(new String[]{"key1"}, context)).containsOnlyKeys("key1");
+        verify(redisCacheStore, never()).getAll(any(), any());
+    }
+
+    @Test
+    void put() {
+        var value = new TestCache();
+        cacheStore.put("key", value, Duration.ofHours(1), context);
+
+        verify(redisCacheStore).put("key", value, Duration.ofHours(1), context);
+        verify(invalidator).invalidate("key");
+        assertThat(localCacheStore.get("key", context)).isSameAs(value);
+    }
+
+    @Test
+    void putAll() {
+        List<CacheStore.Entry<TestCache>> values = List.of(new CacheStore.Entry<>("key1", new TestCache()), new CacheStore.Entry<>("key2", new TestCache()));
+        cacheStore.putAll(values, Duration.ofHours(1), context);
+
+        verify(redisCacheStore).putAll(values, Duration.ofHours(1), context);
+        verify(invalidator).invalidate("key1", "key2");
+        assertThat(localCacheStore.caches).containsOnlyKeys("key1", "key2");
+    }
+
+    @Test
+    void putLoaded() {
+        var value = new TestCache();
+        cacheStore.putLoaded("key", value, Duration.ofHours(1), context);
+
+        verify(redisCacheStore).put("key", value, Duration.ofHours(1), context);
+        verifyNoInteractions(invalidator);
+        assertThat(localCacheStore.get("key", context)).isSameAs(value);
+    }
+
+    @Test
+    void putAllLoaded() {
+        List<CacheStore.Entry<TestCache>> values = List.of(new CacheStore.Entry<>("key1", new TestCache()), new CacheStore.Entry<>("key2", new TestCache()));
+        cacheStore.putAllLoaded(values, Duration.ofHours(1), context);
+
+        verify(redisCacheStore).putAll(values, Duration.ofHours(1), context);
+        verifyNoInteractions(invalidator);
+        assertThat(localCacheStore.caches).containsOnlyKeys("key1", "key2");
+    }
+
+    @Test
+    void delete() {
+        localCacheStore.put("key", new TestCache(), Duration.ofMinutes(1), context);
+        when(redisCacheStore.delete("key")).thenReturn(true);
+
+        assertThat(cacheStore.delete("key")).isTrue();
+        verify(invalidator).invalidate("key");
+        assertThat(localCacheStore.caches).isEmpty();
+    }
+}
@@ -91,14 +91,14 @@ class RedisCacheStoreTest {
         Duration expiration = Duration.ofHours(1);
         var value = new TestCache();
         cacheStore.put("key", value, expiration, context);
-        verify(redis).set("key", context.writer.toJSON(value), expiration, false);
+        verify(redis).set("key", context.codec.encode(value), expiration, false);
     }
 
     @Test
     void putWithFailure() {
         var value = new TestCache();
         Duration expiration = Duration.ofHours(1);
-        doThrow(new RedisException("unexpected")).when(redis).set("key", context.writer.toJSON(value), expiration, false);
+        doThrow(new RedisException("unexpected")).when(redis).set("key", context.codec.encode(value), expiration, false);
 
         cacheStore.put("key", value, expiration, context);
     }
@@ -0,0 +1,21 @@
+package core.framework.internal.codec;
+
+import core.framework.internal.cache.TestCache;
+import core.framework.util.ClasspathResources;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class BeanCodecBuilderTest {
+    @Test
+    void sourceCode() {
+        var builder = new BeanCodecBuilder<>(TestCache.class);
+        builder.build();
+
+        String sourceCode = builder.builder.sourceCode();
+        assertThat(sourceCode).isEqualTo(ClasspathResources.text("codec-test/test-bean-codec.java"));
+    }
+}
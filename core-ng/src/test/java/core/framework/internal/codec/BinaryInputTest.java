@@ -0,0 +1,36 @@
+package core.framework.internal.codec;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author neo
+ */
+class BinaryInputTest {
+    @Test
+    void readCollectionSize() {
+        var output = new BinaryOutput(16);
+        output.writeSize(2);
+        output.writeSize(1);
+        output.writeSize(1);
+        var input = new BinaryInput(output.toByteArray(), 0);
+        assertThat(input.readCollectionSize()).isEqualTo(2);
+
+        output = new BinaryOutput(16);
+        output.writeSize(-1);
+        assertThat(new BinaryInput(output.toByteArray(), 0).readCollectionSize()).isEqualTo(-1);
+    }
+
+    @Test
+    void readCollectionSizeWithMalformedSize() {
+        var output = new BinaryOutput(16);
+        output.writeSize(Integer.MAX_VALUE - 1);
+        var input = new BinaryInput(output.toByteArray(), 0);
+
+        assertThatThrownBy(input::readCollectionSize)
+            .isInstanceOf(IndexOutOfBoundsException.class)
+            .hasMessageContaining("invalid collection size");
+    }
+}
@@ -0,0 +1,89 @@
+package core.framework.internal.db;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author neo
+ */
+class BulkLoadWriterTest {
+    private EnumDBMapper enumMapper;
+
+    @BeforeEach
+    void createEnumMapper() {
+        enumMapper = new EnumDBMapper();
+        enumMapper.registerEnumClass(TestEnum.class);
+    }
+
+    @Test
+    void write() {
+        var writer = new BulkLoadWriter(Dialect.MYSQL, enumMapper);
+        writer.writeString("a\tb\nc\\d\re中文");
+        writer.writeString(null);
+        writer.writeNumber(1);
+        writer.writeNumber(2.5);
+        writer.writeDecimal(new BigDecimal("1E+3"));
+        writer.writeBoolean(true);
+        writer.writeEnum(TestEnum.V1);
+        writer.endRow();
+        writer.writeDate(LocalDate.of(2025, 1, 2));
+        writer.writeDateTime(LocalDateTime.of(2025, 1, 2, 3, 4, 5, 6000));
+        writer.writeUUID(UUID.fromString("2f8e2e2c-2e43-4b0c-9d0f-3c1f6f2a0b11"));
+        writer.endRow();
+
+        assertThat(text(writer)).isEqualTo("a\\tb\\nc\\\\d\\re中文\t\\N\t1\t2.5\t1000\t1\tDB_V1\n"
+                                           + "2025-01-02\t2025-01-02 03:04:05.000006\t2f8e2e2c-2e43-4b0c-9d0f-3c1f6f2a0b11\n");
+    }
+
+    @Test
+    void writeZonedDateTime() {
+        ZonedDateTime value = ZonedDateTime.of(LocalDateTime.of(2025, 1, 2, 8, 0, 0), ZoneId.of("Asia/Shanghai"));
+
+        var writer = new BulkLoadWriter(Dialect.MYSQL, enumMapper);
+        writer.writeZonedDateTime(value);
+        assertThat(text(writer)).isEqualTo("2025-01-02 00:00:00.000000");
+        assertThatThrownBy(() -> writer.writeZonedDateTime(ZonedDateTime.of(LocalDateTime.of(1960, 1, 1, 0, 0), ZoneId.of("UTC"))))
+            .isInstanceOf(Error.class)
+            .hasMessageContaining("timestamp must be after 1970-01-01 00:00:00");
+
+        var postgresWriter = new BulkLoadWriter(Dialect.POSTGRESQL, enumMapper);
+        postgresWriter.writeZonedDateTime(value);
+        assertThat(text(postgresWriter)).isEqualTo("2025-01-02 00:00:00.000000+00");
+    }
+
+    @Test
+    void readStream() throws IOException {
+        var query = new InsertQueryBuilder<>(AutoIncrementIdEntity.class, Dialect.POSTGRESQL).build();
+        var entities = new ArrayList<AutoIncrementIdEntity>();
+        for (int i = 0; i < 1000; i++) {
+            var entity = new AutoIncrementIdEntity();
+            entity.stringField = "value" + i;
+            entity.enumField = TestEnum.V2;
+            entities.add(entity);
+        }
+        var stream = new BulkLoadInputStream<>(entities, query, new BulkLoadWriter(Dialect.POSTGRESQL, enumMapper));
+        String content = new String(stream.readAllBytes(), StandardCharsets.UTF_8);    // read multiple times with encoding in between
+
+        assertThat(stream.rows).isEqualTo(1000);
+        assertThat(content.split("\n")).hasSize(1000)
+            .startsWith("value0\t\\N\tDB_V2\t\\N\t\\N")
+            .endsWith("value999\t\\N\tDB_V2\t\\N\t\\N");
+    }
+
+    private String text(BulkLoadWriter writer) {
+        return new String(writer.bytes, 0, writer.size, StandardCharsets.UTF_8);
+    }
+}
@@ -15,9 +15,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
@@ -74,6 +76,23 @@ class DatabaseImplTest {
         assertThat(views.get(1).enumField).isEqualTo(TestEnum.V2);
     }
 
+    @Test
+    void forEachWithView() {
+        insertRow(1, "string1", TestEnum.V1);
+        insertRow(2, "string2", TestEnum.V2);
+
+        List<EntityView> views = new ArrayList<>();
+        database.forEach("SELECT string_field as string_label, enum_field as enum_label FROM database_test ORDER BY id", EntityView.class, views::add);
+        assertThat(views).extracting(view -> view.stringField).containsExactly("string1", "string2");
+
+        try (Transaction transaction = database.beginTransaction()) {
+            views.clear();
+            database.forEach("SELECT string_field as string_label, enum_field as enum_label FROM database_test WHERE id = ?", EntityView.class, views::add, 2);
+            assertThat(views).hasSize(1);
+            transaction.commit();
+        }
+    }
+
     @Test
     void selectEmptyWithView() {
         List<EntityView> views = database.select("SELECT string_field as string_label, enum_field as enum_label FROM database_test where id = -1", EntityView.class);
@@ -296,6 +315,77 @@ class DatabaseImplTest {
         logManager.end("end");
     }
 
+    @Test
+    void routeToReplica() {
+        var database = new DatabaseImpl("db");
+        database.url("jdbc:hsqldb:mem:.;sql.syntax_mys=true");
+        assertThat(database.replica()).isNull();
+
+        Replica replica = database.replica("jdbc:hsqldb:mem:.;sql.syntax_mys=true");
+        assertThat(database.replica()).isSameAs(replica);
+        assertThat(database.selectOne("SELECT count(1) FROM database_test", Integer.class)).hasValue(0);
+
+        try (Transaction transaction = database.beginTransaction()) {
+            assertThat(database.replica()).isNull();
+            transaction.commit();
+        }
+
+        var logManager = new LogManager();
+        logManager.begin("begin", null);
+        assertThat(database.replica()).isSameAs(replica);
+        database.execute("INSERT INTO database_test (id, string_field) VALUES (?, ?)", 1, "value");
+        assertThat(database.replica()).isNull();      // read own writes from primary
+        logManager.end("end");
+        database.close();
+    }
+
+    @Test
+    void routeToReplicaWithLeastOutstandingRequests() {
+        var database = new DatabaseImpl("db");
+        database.url("jdbc:hsqldb:mem:.;sql.syntax_mys=true");
+        Replica replica1 = database.replica("jdbc:hsqldb:mem:.;sql.syntax_mys=true");
+        Replica replica2 = database.replica("jdbc:hsqldb:mem:.;sql.syntax_mys=true");
+
+        replica1.outstandingRequests.incrementAndGet();
+        assertThat(database.replica()).isSameAs(replica2);
+        assertThat(database.replica()).isSameAs(replica2);
+
+        replica2.lagging = true;
+        assertThat(database.replica()).isSameAs(replica1);
+        replica1.ejectedUntil = System.currentTimeMillis() + Replica.EJECT_TIME_IN_MS;
+        assertThat(database.replica()).isNull();
+    }
+
+    @Test
+    void selectWithFailedReplica() {
+        var database = new DatabaseImpl("db");
+        database.url("jdbc:hsqldb:mem:.;sql.syntax_mys=true");
+        database.timeout(Duration.ofSeconds(1));
+        Replica replica = database.replica("jdbc:hsqldb:hsql://localhost:1/replica");
+
+        assertThat(database.select("SELECT count(1) FROM database_test", Integer.class)).containsExactly(0);    // retry on primary
+        assertThat(replica.available(System.currentTimeMillis())).isFalse();
+        database.close();
+    }
+
+    @Test
+    void checkReplicationLag() {
+        var database = new DatabaseImpl("db");
+        database.url("jdbc:hsqldb:mem:.;sql.syntax_mys=true");
+        Replica replica = database.replica("jdbc:hsqldb:mem:.;sql.syntax_mys=true");
+
+        database.checkReplicationLag(Duration.ofSeconds(10));
+        assertThat(replica.lagging).isTrue();   // hsqldb does not support "SHOW REPLICA STATUS"
+
+        replica.lagSQL = "VALUES (CAST(5 AS DOUBLE))";
+        database.checkReplicationLag(Duration.ofSeconds(10));
+        assertThat(replica.lagging).isFalse();
+
+        database.checkReplicationLag(Duration.ofSeconds(1));
+        assertThat(replica.lagging).isTrue();
+        database.close();
+    }
+
     private void insertRow(int id, String stringField, TestEnum enumField) {
         database.execute("INSERT INTO database_test (id, string_field, enum_field) VALUES (?, ?, ?)", id, stringField, enumField);
     }
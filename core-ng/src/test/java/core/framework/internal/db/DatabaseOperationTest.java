@@ -2,8 +2,10 @@ package core.framework.internal.db;
 
 import core.framework.db.Database;
 import core.framework.db.QueryDiagnostic;
+import core.framework.db.UncheckedSQLException;
 import core.framework.internal.log.ActionLog;
 import core.framework.internal.log.LogManager;
+import core.framework.internal.resource.Pool;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,9 +13,19 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,6 +49,45 @@ class DatabaseOperationTest {
         logManager.end("end");
     }
 
+    @Test
+    void forEachWithFailedResetAutoCommit() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.getAutoCommit()).thenReturn(Boolean.TRUE);
+        when(connection.prepareStatement(anyString(), anyInt(), anyInt())).thenThrow(new SQLException("query failed"));
+        doThrow(new SQLException("connection reset")).when(connection).rollback();
+        var pool = new Pool<>(() -> connection, "db");
+        operation = new DatabaseOperation(new TransactionManager(pool));
+        operation.dialect = Dialect.POSTGRESQL;
+
+        assertThatThrownBy(() -> operation.forEach("SELECT 1", row -> 1, value -> {
+        }))
+            .isInstanceOf(UncheckedSQLException.class)
+            .hasMessageContaining("query failed");
+        verify(connection).close();     // broken connection is closed when returned to pool
+    }
+
+    @Test
+    void forEachWithMySQLStreamingFailed() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(statement);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getMetaData()).thenReturn(mock(ResultSetMetaData.class));
+        when(resultSet.next()).thenReturn(Boolean.TRUE);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        var pool = new Pool<>(() -> connection, "db");
+        operation = new DatabaseOperation(new TransactionManager(pool));
+        operation.dialect = Dialect.MYSQL;
+        operation.fetchSize = Integer.MIN_VALUE;
+
+        assertThatThrownBy(() -> operation.forEach("SELECT 1", row -> 1, value -> {
+            throw new IllegalStateException("consumer failed");
+        }))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("consumer failed");
+        verify(statement).cancel();
+        verify(connection).close();     // not to reuse connection with unread streaming rows
+    }
+
     @Test
     void logSlowQuery() {
         QueryDiagnostic diagnostic = (QueryDiagnostic) statement;
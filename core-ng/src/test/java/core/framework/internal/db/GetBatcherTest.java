@@ -0,0 +1,87 @@
+package core.framework.internal.db;
+
+import core.framework.internal.log.ActionLog;
+import core.framework.internal.log.LogManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class GetBatcherTest {
+    private DatabaseImpl database;
+    private RepositoryImpl<AutoIncrementIdEntity> repository;
+
+    @BeforeAll
+    void createDatabase() {
+        database = new DatabaseImpl("db");
+        database.url("jdbc:hsqldb:mem:batch;sql.syntax_mys=true");
+        database.batchGetWindowInNanos = Duration.ofMillis(200).toNanos();
+        database.execute("CREATE TABLE auto_increment_id_entity (id INT AUTO_INCREMENT PRIMARY KEY, string_field VARCHAR(20), double_field DOUBLE, enum_field VARCHAR(10), date_time_field DATETIME, zoned_date_time_field TIMESTAMP)");
+        repository = (RepositoryImpl<AutoIncrementIdEntity>) database.repository(AutoIncrementIdEntity.class);
+        for (int i = 0; i < 2; i++) {
+            var entity = new AutoIncrementIdEntity();
+            entity.stringField = "string" + i;
+            repository.insert(entity);
+        }
+    }
+
+    @AfterAll
+    void cleanupDatabase() {
+        database.execute("DROP TABLE auto_increment_id_entity");
+    }
+
+    @Test
+    void get() throws InterruptedException, ExecutionException {
+        CompletableFuture<Optional<AutoIncrementIdEntity>> leader = CompletableFuture.supplyAsync(() -> repository.get(1));
+        Thread.sleep(50);   // join batch opened by leader
+
+        var logManager = new LogManager();
+        ActionLog actionLog = logManager.begin("begin", null);
+        Optional<AutoIncrementIdEntity> result = repository.get(2);
+        assertThat(actionLog.stats).containsEntry("db_coalesced_gets", 1.0);
+        logManager.end("end");
+
+        assertThat(result.orElseThrow().stringField).isEqualTo("string1");
+        assertThat(leader.get().orElseThrow().stringField).isEqualTo("string0");
+    }
+
+    @Test
+    void getWithSameKey() throws InterruptedException, ExecutionException {
+        CompletableFuture<Optional<AutoIncrementIdEntity>> leader = CompletableFuture.supplyAsync(() -> repository.get(1));
+        Thread.sleep(50);   // key is already in batch opened by leader
+
+        var logManager = new LogManager();
+        ActionLog actionLog = logManager.begin("begin", null);
+        AutoIncrementIdEntity result = repository.get(1).orElseThrow();
+        assertThat(actionLog.stats).doesNotContainKey("db_coalesced_gets");
+        logManager.end("end");
+
+        assertThat(result.stringField).isEqualTo("string0");
+        assertThat(leader.get().orElseThrow()).isNotSameAs(result);
+    }
+
+    @Test
+    void getNotFound() {
+        assertThat(repository.get(3)).isEmpty();
+    }
+
+    @Test
+    void getWithDifferentKeyType() {
+        var logManager = new LogManager();
+        ActionLog actionLog = logManager.begin("begin", null);
+        assertThat(repository.get(1L).orElseThrow().stringField).isEqualTo("string0");   // not batched, as result is keyed by Integer
+        assertThat(actionLog.elapsed()).isLessThan(Duration.ofMillis(200).toNanos());
+        logManager.end("end");
+    }
+}
@@ -3,7 +3,12 @@ package core.framework.internal.db;
 import core.framework.util.ClasspathResources;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * @author neo
@@ -19,6 +24,7 @@ class InsertQueryBuilderTest {
         assertThat(query.insertSQL).isEqualTo("INSERT INTO assigned_id_entity (id, string_field, int_field, big_decimal_field, date_field, zoned_date_time_field) VALUES (?, ?, ?, ?, ?, ?)");
         assertThat(query.insertIgnoreSQL).isEqualTo("INSERT IGNORE INTO assigned_id_entity (id, string_field, int_field, big_decimal_field, date_field, zoned_date_time_field) VALUES (?, ?, ?, ?, ?, ?)");
         assertThat(query.upsertSQL).isEqualTo("INSERT INTO assigned_id_entity (id, string_field, int_field, big_decimal_field, date_field, zoned_date_time_field) VALUES (?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE string_field = VALUES(string_field), int_field = VALUES(int_field), big_decimal_field = VALUES(big_decimal_field), date_field = VALUES(date_field), zoned_date_time_field = VALUES(zoned_date_time_field)");
+        assertThat(query.bulkLoadSQL).isEqualTo("LOAD DATA LOCAL INFILE 'stream' INTO TABLE assigned_id_entity CHARACTER SET utf8mb4 (id, string_field, int_field, big_decimal_field, date_field, zoned_date_time_field)");
         assertThat(query.generatedColumn).isNull();
     }
 
@@ -32,6 +38,7 @@ class InsertQueryBuilderTest {
         assertThat(query.insertSQL).isEqualTo("INSERT INTO assigned_id_entity (id, string_field, int_field, big_decimal_field, date_field, zoned_date_time_field) VALUES (?, ?, ?, ?, ?, ?)");
         assertThat(query.insertIgnoreSQL).isEqualTo("INSERT INTO assigned_id_entity (id, string_field, int_field, big_decimal_field, date_field, zoned_date_time_field) VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING");
         assertThat(query.upsertSQL).isEqualTo("INSERT INTO assigned_id_entity (id, string_field, int_field, big_decimal_field, date_field, zoned_date_time_field) VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (id) DO UPDATE SET string_field = EXCLUDED.string_field, int_field = EXCLUDED.int_field, big_decimal_field = EXCLUDED.big_decimal_field, date_field = EXCLUDED.date_field, zoned_date_time_field = EXCLUDED.zoned_date_time_field");
+        assertThat(query.bulkLoadSQL).isEqualTo("COPY assigned_id_entity (id, string_field, int_field, big_decimal_field, date_field, zoned_date_time_field) FROM STDIN");
         assertThat(query.generatedColumn).isNull();
     }
 
@@ -45,6 +52,7 @@ class InsertQueryBuilderTest {
         assertThat(query.insertSQL).isEqualTo("INSERT INTO auto_increment_id_entity (string_field, double_field, enum_field, date_time_field, zoned_date_time_field) VALUES (?, ?, ?, ?, ?)");
         assertThat(query.insertIgnoreSQL).isNull();
         assertThat(query.upsertSQL).isNull();
+        assertThat(query.bulkLoadSQL).isEqualTo("LOAD DATA LOCAL INFILE 'stream' INTO TABLE auto_increment_id_entity CHARACTER SET utf8mb4 (string_field, double_field, enum_field, date_time_field, zoned_date_time_field)");
         assertThat(query.generatedColumn).isEqualTo("id");
     }
 
@@ -62,4 +70,18 @@ class InsertQueryBuilderTest {
         InsertQuery<CompositeKeyEntity> query = builder.build();
         assertThat(query.upsertSQL).isEqualTo("INSERT INTO composite_key_entity (id1, id_2, boolean_field, long_field) VALUES (?, ?, ?, ?) ON CONFLICT (id1, id_2) DO UPDATE SET boolean_field = EXCLUDED.boolean_field, long_field = EXCLUDED.long_field");
     }
+
+    @Test
+    void checkBulkLoadRange() {
+        InsertQuery<AssignedIdEntity> query = new InsertQueryBuilder<>(AssignedIdEntity.class, Dialect.MYSQL).build();
+        var entity = new AssignedIdEntity();
+        query.checkBulkLoadRange(entity);
+
+        entity.zonedDateTimeField = ZonedDateTime.of(LocalDateTime.of(1960, 1, 1, 0, 0), ZoneId.of("UTC"));
+        assertThatThrownBy(() -> query.checkBulkLoadRange(entity))
+            .isInstanceOf(Error.class)
+            .hasMessageContaining("timestamp must be after 1970-01-01 00:00:00");
+
+        new InsertQueryBuilder<>(AssignedIdEntity.class, Dialect.POSTGRESQL).build().checkBulkLoadRange(entity);
+    }
 }
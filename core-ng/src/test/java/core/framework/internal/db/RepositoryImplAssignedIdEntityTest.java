@@ -189,6 +189,17 @@ class RepositoryImplAssignedIdEntityTest {
         assertThat(ids).isEmpty();
     }
 
+    @Test
+    void bulkInsert() {
+        List<AssignedIdEntity> entities = Lists.newArrayList();
+        for (int i = 1; i < 5; i++) {
+            entities.add(entity(String.valueOf(i), "value" + i, 10 + i));
+        }
+        assertThat(repository.bulkInsert(entities)).isEqualTo(4);    // hsqldb falls back to batch insert
+
+        assertThat(repository.get("3")).get().usingRecursiveComparison().isEqualTo(entities.get(2));
+    }
+
     @Test
     void batchInsertWithEmptyEntities() {
         assertThatThrownBy(() -> repository.batchInsert(List.of()))
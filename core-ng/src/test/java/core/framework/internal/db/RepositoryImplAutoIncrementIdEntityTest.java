@@ -14,7 +14,9 @@ import java.time.Month;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.chrono.ChronoZonedDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.stream.LongStream;
@@ -143,6 +145,49 @@ class RepositoryImplAutoIncrementIdEntityTest {
         assertThat(count).isEqualTo(1);
     }
 
+    @Test
+    void forEachWithKeysetPagination() {
+        for (int i = 0; i < 5; i++) {
+            repository.insert(entity("string" + i, i));
+        }
+
+        List<String> values = new ArrayList<>();
+        Query<AutoIncrementIdEntity> query = repository.select();
+        query.where("double_field >= ?", 1d);
+        query.forEach(entity -> values.add(entity.stringField));
+        assertThat(values).containsExactlyInAnyOrder("string1", "string2", "string3", "string4");
+
+        List<List<Integer>> pages = new ArrayList<>();
+        Integer lastId = null;
+        while (true) {
+            Query<AutoIncrementIdEntity> pageQuery = repository.select();
+            pageQuery.after("id", lastId);
+            pageQuery.limit(2);
+            List<AutoIncrementIdEntity> page = pageQuery.fetch();
+            if (page.isEmpty()) break;
+            pages.add(page.stream().map(entity -> entity.id).toList());
+            lastId = page.getLast().id;
+        }
+        assertThat(pages).containsExactly(List.of(1, 2), List.of(3, 4), List.of(5));
+    }
+
+    @Test
+    void getAll() {
+        for (int i = 0; i < 3; i++) {
+            repository.insert(entity("string" + i, i));
+        }
+
+        Map<Integer, AutoIncrementIdEntity> entities = repository.getAll(List.of(1, 3, 4, 3));
+        assertThat(entities).containsOnlyKeys(1, 3);
+        assertThat(entities.get(3).stringField).isEqualTo("string2");
+
+        assertThat(repository.getAll(List.of())).isEmpty();
+
+        assertThatThrownBy(() -> repository.getAll(List.of(1L)))
+            .isInstanceOf(Error.class)
+            .hasMessageContaining("primary key type does not match field type");
+    }
+
     private AutoIncrementIdEntity entity(String stringField, double doubleFiled) {
         var entity = new AutoIncrementIdEntity();
         entity.stringField = stringField;
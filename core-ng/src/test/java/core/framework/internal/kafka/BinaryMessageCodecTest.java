@@ -0,0 +1,66 @@
+package core.framework.internal.kafka;
+
+import core.framework.util.Strings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author neo
+ */
+class BinaryMessageCodecTest {
+    private BinaryMessageCodec<TestMessage> codec;
+
+    @BeforeEach
+    void createBinaryMessageCodec() {
+        codec = new BinaryMessageCodec<>(TestMessage.class);
+    }
+
+    @Test
+    void encodeAndDecode() throws IOException {
+        var message = new TestMessage();
+        message.stringField = "value";
+        message.zonedDateTimeField = ZonedDateTime.now();
+        message.listField = List.of("item1", "item2");
+        message.mapField = Map.of("key", "value");
+        message.childField = new TestMessage.Child();
+        message.childField.booleanField = Boolean.TRUE;
+        message.enumField = TestMessage.TestEnum.VALUE2;
+
+        TestMessage decodedMessage = codec.decode(codec.encode(message));
+        assertThat(decodedMessage).usingRecursiveComparison().isEqualTo(message);
+    }
+
+    @Test
+    void decodeWithDifferentFingerprint() {
+        var message = new TestMessage();
+        message.stringField = "value";
+        byte[] bytes = codec.encode(message);
+        bytes[0] = (byte) (bytes[0] + 1);
+
+        assertThatThrownBy(() -> codec.decode(bytes))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("different class structure");
+    }
+
+    @Test
+    void decodeInvalidMessage() {
+        assertThatThrownBy(() -> codec.decode(Strings.bytes("{}")))
+            .isInstanceOf(IOException.class);
+
+        var message = new TestMessage();
+        message.stringField = "value";
+        byte[] bytes = codec.encode(message);
+        assertThatThrownBy(() -> codec.decode(Arrays.copyOf(bytes, bytes.length - 2)))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("failed to decode");
+    }
+}
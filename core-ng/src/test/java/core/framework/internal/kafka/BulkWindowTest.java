@@ -0,0 +1,80 @@
+package core.framework.internal.kafka;
+
+import core.framework.util.Strings;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class BulkWindowTest {
+    private BulkWindow window;
+
+    @BeforeEach
+    void createBulkWindow() {
+        window = new BulkWindow(3, 100, Duration.ofNanos(1000));
+    }
+
+    @Test
+    void pollByMaxMessages() {
+        window.add(List.of(message(10), message(10)), 0);
+        assertThat(window.poll(10, false)).isNull();
+        assertThat(window.remainingLinger(10)).isEqualTo(990);
+
+        window.add(List.of(message(10), message(10)), 20);
+        assertThat(window.poll(30, false)).hasSize(3);
+        assertThat(window.poll(30, false)).isNull();
+        assertThat(window.pendingMessages()).isEqualTo(1);
+    }
+
+    @Test
+    void pollByMaxBytes() {
+        window.add(List.of(message(60), message(60)), 0);
+        assertThat(window.poll(10, false)).hasSize(1);
+        assertThat(window.poll(10, false)).isNull();
+
+        window.add(List.of(message(200)), 20);
+        assertThat(window.poll(30, false)).hasSize(1);   // 60 + 200 > max bytes
+        assertThat(window.poll(30, false)).hasSize(1);   // one message larger than max bytes is handled alone
+        assertThat(window.remainingLinger(30)).isEqualTo(-1);
+    }
+
+    @Test
+    void pollByMaxLinger() {
+        window.add(List.of(message(10)), 0);
+        assertThat(window.poll(999, false)).isNull();
+        assertThat(window.poll(1000, false)).hasSize(1);
+    }
+
+    @Test
+    void flush() {
+        assertThat(window.poll(0, true)).isNull();
+
+        window.add(List.of(message(10)), 0);
+        assertThat(window.poll(0, true)).hasSize(1);
+    }
+
+    @Test
+    void removeRevoked() {
+        var revoked = new OffsetTracker.PartitionOffsets();
+        revoked.revoked = true;
+        KafkaMessage message1 = message(10);
+        message1.partitionOffsets = revoked;
+        KafkaMessage message2 = message(10);
+        message2.partitionOffsets = new OffsetTracker.PartitionOffsets();
+        window.add(List.of(message1, message2), 0);
+
+        assertThat(window.removeRevoked()).isEqualTo(1);
+        assertThat(window.poll(0, true)).containsExactly(message2);
+    }
+
+    private KafkaMessage message(int size) {
+        return new KafkaMessage(new ConsumerRecord<>("topic", 0, 0, null, Strings.bytes("x".repeat(size))));
+    }
+}
@@ -24,6 +24,11 @@ class ConsumerMetricsTest {
         assertEquals("kafka_consumer_lag_max", metrics.statName("lag_max"));
     }
 
+    @Test
+    void topicStatKey() {
+        assertEquals("order_updated_v2", ConsumerMetrics.TopicMetrics.statKey("Order.updated-v2"));
+    }
+
     @Test
     void sum() {
         var metric1 = mock(Metric.class);
@@ -46,4 +51,23 @@ class ConsumerMetricsTest {
                 "kafka_consumer_bytes_consumed_rate",
                 "kafka_consumer_fetch_rate");
     }
+
+    @Test
+    void collectListenerMetrics() {
+        var metrics = new ConsumerMetrics("log");
+        metrics.topic("topic1").handled(10, 1000, 5_000_000);
+        metrics.inFlightMessages.set(3);
+        metrics.lags = List.of(new ConsumerMetrics.PartitionLag("topic1", 0, 100, 150),
+            new ConsumerMetrics.PartitionLag("topic1", 1, 200, 210));
+        var stats = new Stats();
+        metrics.collect(stats);
+
+        assertThat(stats.stats)
+            .containsEntry("kafka_consumer_log_in_flight_messages", 3d)
+            .containsEntry("kafka_consumer_log_lag", 60d)
+            .containsEntry("kafka_consumer_log_topic_topic1_lag", 60d)
+            .containsKeys("kafka_consumer_log_topic_topic1_records_rate", "kafka_consumer_log_topic_topic1_bytes_rate");
+        assertThat(stats.stats.get("kafka_consumer_log_topic_topic1_records_rate")).isPositive();
+        assertThat(stats.stats.get("kafka_consumer_log_topic_topic1_handler_max")).isGreaterThanOrEqualTo(5_000_000d);
+    }
 }
@@ -1,6 +1,8 @@
 package core.framework.internal.kafka;
 
+import core.framework.internal.log.LogManager;
 import core.framework.kafka.BulkMessageHandler;
+import core.framework.kafka.Message;
 import core.framework.kafka.MessageHandler;
 import core.framework.util.Strings;
 import org.apache.kafka.clients.consumer.Consumer;
@@ -13,10 +15,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -59,6 +65,70 @@ class MessageListenerThreadProcessTest {
         thread.awaitTermination(1000);
     }
 
+    @Test
+    void processInOrderByKeyAcrossPolls() throws InterruptedException {
+        var handler = new OrderedHandler();
+        var listener = new MessageListener(null, null, new LogManager(), 300_000L);
+        listener.processes.put("topic1", new MessageProcess<>(handler, TestMessage.class));
+        thread = new MessageListenerThread("kafka-listener", consumer, listener);
+
+        TopicPartition partition = topic("topic1");
+        when(consumer.poll(any()))
+            .thenReturn(new ConsumerRecords<>(Map.of(partition, List.of(record("key1", 0, "slow"), record("key2", 1, "1"))), Map.of()))
+            .thenReturn(new ConsumerRecords<>(Map.of(partition, List.of(record("key1", 2, "2"), record("key2", 3, "3"))), Map.of()));
+        thread.processAll(thread.poll());
+        thread.processAll(thread.poll());      // not blocked by slow message of previous poll
+
+        waitUntil(() -> handler.handled.size() == 2);
+        assertThat(handler.handled).containsExactly("key2:1", "key2:3");
+        assertThat(thread.offsets.partition(partition).commitOffset()).isEqualTo(0);
+
+        handler.slow.countDown();
+        waitUntil(() -> thread.inFlightMessages.get() == 0);
+        assertThat(handler.handled).containsSubsequence("key1:slow", "key1:2");
+        assertThat(thread.offsets.partition(partition).commitOffset()).isEqualTo(4);
+    }
+
+    @Test
+    void processWithBulkWindow() throws InterruptedException {
+        var handler = new BatchHandler();
+        var listener = new MessageListener(null, null, new LogManager(), 300_000L);
+        var process = new MessageProcess<>(handler, TestMessage.class);
+        process.window = new BulkWindow(3, 1024, Duration.ofHours(1));
+        listener.bulkProcesses.put("topic1", process);
+        thread = new MessageListenerThread("kafka-listener", consumer, listener);
+
+        TopicPartition partition = topic("topic1");
+        when(consumer.poll(any()))
+            .thenReturn(new ConsumerRecords<>(Map.of(partition, List.of(record("key1", 0, "1"), record("key2", 1, "2"))), Map.of()))
+            .thenReturn(new ConsumerRecords<>(Map.of(partition, List.of(record("key1", 2, "3"), record("key2", 3, "4"))), Map.of()));
+        thread.processAll(thread.poll());
+        thread.processWindows(false);
+        assertThat(thread.inFlightMessages.get()).isEqualTo(2);
+
+        thread.processAll(thread.poll());
+        thread.processWindows(false);
+        waitUntil(() -> thread.inFlightMessages.get() == 1);
+        assertThat(handler.batches).containsExactly(3);
+        assertThat(thread.offsets.partition(partition).commitOffset()).isEqualTo(3);   // last message is still pending in window
+
+        thread.processWindows(true);
+        waitUntil(() -> thread.inFlightMessages.get() == 0);
+        assertThat(handler.batches).containsExactly(3, 1);
+        assertThat(thread.offsets.partition(partition).commitOffset()).isEqualTo(4);
+    }
+
+    private void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long end = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+    }
+
+    ConsumerRecord<String, byte[]> record(String key, long offset, String value) {
+        return new ConsumerRecord<>("topic1", 1, offset, key, Strings.bytes("{\"string_field\":\"" + value + "\"}"));
+    }
+
     ConsumerRecord<String, byte[]> record(String topic, String key) {
         return new ConsumerRecord<>(topic, 1, 1, key, Strings.bytes("{}"));
     }
@@ -66,4 +136,24 @@ class MessageListenerThreadProcessTest {
     TopicPartition topic(String topic) {
         return new TopicPartition(topic, 1);
     }
+
+    static class BatchHandler implements BulkMessageHandler<TestMessage> {
+        final List<Integer> batches = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void handle(List<Message<TestMessage>> messages) {
+            batches.add(messages.size());
+        }
+    }
+
+    static class OrderedHandler implements MessageHandler<TestMessage> {
+        final CountDownLatch slow = new CountDownLatch(1);
+        final List<String> handled = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void handle(String key, TestMessage message) throws Exception {
+            if ("slow".equals(message.stringField)) slow.await();
+            handled.add(key + ":" + message.stringField);
+        }
+    }
 }
@@ -1,6 +1,5 @@
 package core.framework.internal.kafka;
 
-import core.framework.internal.json.JSONMapper;
 import core.framework.internal.log.ActionLog;
 import core.framework.internal.log.LogLevel;
 import core.framework.internal.log.LogManager;
@@ -54,7 +53,7 @@ class MessageListenerThreadTest {
         record.headers().add(KafkaMessage.HEADER_REF_ID, Strings.bytes("refId"));
         record.headers().add(KafkaMessage.HEADER_CORRELATION_ID, Strings.bytes("correlationId"));
         var actionLog = new ActionLog(null, null);
-        List<Message<TestMessage>> messages = thread.messages(List.of(new KafkaMessage(record)), actionLog, JSONMapper.reader(TestMessage.class));
+        List<Message<TestMessage>> messages = thread.messages(List.of(new KafkaMessage(record)), actionLog, new MessageProcess<>(bulkMessageHandler, TestMessage.class));
 
         assertThat(messages).hasSize(1);
         assertThat(messages.getFirst().key).isEqualTo("key");
@@ -0,0 +1,57 @@
+package core.framework.internal.kafka;
+
+import core.framework.kafka.MessageHandler;
+import core.framework.util.Strings;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author neo
+ */
+class MessageProcessTest {
+    private MessageProcess<TestMessage> process;
+
+    @BeforeEach
+    void createMessageProcess() {
+        process = new MessageProcess<>(new TestMessageHandler(), TestMessage.class);
+    }
+
+    @Test
+    void decodeJSON() throws IOException {
+        TestMessage message = process.decode(message(Strings.bytes("{\"string_field\":\"value\"}"), null));
+        assertThat(message.stringField).isEqualTo("value");
+    }
+
+    @Test
+    void decodeBinary() throws IOException {
+        var codec = new BinaryMessageCodec<>(TestMessage.class);
+        var value = new TestMessage();
+        value.stringField = "value";
+        KafkaMessage message = message(codec.encode(value), BinaryMessageCodec.CONTENT_TYPE);
+
+        assertThatThrownBy(() -> process.decode(message))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("unsupported message content type");
+
+        process.binaryCodec = codec;
+        assertThat(process.decode(message).stringField).isEqualTo("value");
+    }
+
+    private KafkaMessage message(byte[] value, String contentType) {
+        var record = new ConsumerRecord<>("topic", 0, 1, "key", value);
+        if (contentType != null) record.headers().add(KafkaMessage.HEADER_CONTENT_TYPE, Strings.bytes(contentType));
+        return new KafkaMessage(record);
+    }
+
+    static class TestMessageHandler implements MessageHandler<TestMessage> {
+        @Override
+        public void handle(String key, TestMessage value) {
+        }
+    }
+}
@@ -30,7 +30,7 @@ class MessagePublisherImplTest {
 
     @BeforeEach
     void createMessagePublisher() {
-        publisher = new MessagePublisherImpl<>(producer, "topic", TestMessage.class);
+        publisher = new MessagePublisherImpl<>(producer, null, "topic", TestMessage.class, new JSONMessageCodec<>(TestMessage.class));
         logManager = new LogManager();
     }
 
@@ -57,4 +57,20 @@ class MessagePublisherImplTest {
 
         logManager.end("end");
     }
+
+    @Test
+    void publishBinary() {
+        publisher = new MessagePublisherImpl<>(producer, null, "topic", TestMessage.class, new BinaryMessageCodec<>(TestMessage.class));
+        logManager.begin("begin", null);
+
+        var message = new TestMessage();
+        message.stringField = "value";
+        publisher.publish(message);
+        verify(producer).send(argThat(record -> {
+            assertThat(new String(record.headers().lastHeader(KafkaMessage.HEADER_CONTENT_TYPE).value(), UTF_8)).isEqualTo(BinaryMessageCodec.CONTENT_TYPE);
+            return true;
+        }));
+
+        logManager.end("end");
+    }
 }
@@ -0,0 +1,131 @@
+package core.framework.internal.kafka;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author neo
+ */
+@ExtendWith(MockitoExtension.class)
+class OffsetTrackerTest {
+    @Mock
+    Consumer<String, byte[]> consumer;
+    private OffsetTracker tracker;
+
+    @BeforeEach
+    void createOffsetTracker() {
+        tracker = new OffsetTracker(consumer);
+    }
+
+    @Test
+    void completeOutOfOrder() {
+        var offsets = new OffsetTracker.PartitionOffsets();
+        offsets.add(10);
+        offsets.add(11);
+        offsets.add(13);    // offset may not be continuous, e.g. compacted topic
+        assertThat(offsets.commitOffset()).isEqualTo(10);
+
+        offsets.complete(11);
+        offsets.complete(13);
+        assertThat(offsets.commitOffset()).isEqualTo(-1);   // 10 is not completed yet
+
+        offsets.complete(10);
+        assertThat(offsets.commitOffset()).isEqualTo(14);
+        assertThat(offsets.commitOffset()).isEqualTo(-1);   // commit is in flight
+    }
+
+    @Test
+    void commitFailed() {
+        var offsets = new OffsetTracker.PartitionOffsets();
+        offsets.add(10);
+        offsets.complete(10);
+        assertThat(offsets.commitOffset()).isEqualTo(11);
+
+        offsets.committed(11, false);
+        assertThat(offsets.commitOffset()).isEqualTo(11);   // commit again
+
+        offsets.committed(11, true);
+        assertThat(offsets.commitOffset()).isEqualTo(-1);
+    }
+
+    @Test
+    void grow() {
+        var offsets = new OffsetTracker.PartitionOffsets();
+        for (int i = 0; i < 50; i++) {
+            offsets.add(i);
+            offsets.complete(i);
+        }
+        for (int i = 50; i < 200; i++) {    // wrap around then grow
+            offsets.add(i);
+        }
+        for (int i = 199; i > 50; i--) {
+            offsets.complete(i);
+        }
+        assertThat(offsets.commitOffset()).isEqualTo(50);
+        offsets.complete(50);
+        assertThat(offsets.commitOffset()).isEqualTo(200);
+    }
+
+    @Test
+    void commitAsync() {
+        var partition = new TopicPartition("topic", 0);
+        OffsetTracker.PartitionOffsets offsets = tracker.partition(partition);
+        offsets.add(1);
+        offsets.complete(1);
+
+        tracker.commitAsync();
+        verify(consumer).commitAsync(eq(Map.of(partition, new OffsetAndMetadata(2))), any());
+        assertThat(tracker.lags()).isEmpty();     // not committed until callback
+
+        tracker.onCommitted(Map.of(partition, new OffsetAndMetadata(2)), null);
+        assertThat(tracker.lags()).containsExactly(new ConsumerMetrics.PartitionLag("topic", 0, 2, 2));
+    }
+
+    @Test
+    void lags() {
+        var partition = new TopicPartition("topic", 0);
+        OffsetTracker.PartitionOffsets offsets = tracker.partition(partition);
+        offsets.add(10);
+        offsets.add(11);
+        when(consumer.beginningOffsets(List.of(partition), Duration.ofSeconds(5))).thenReturn(Map.of(partition, 5L));
+        assertThat(tracker.lags()).containsExactly(new ConsumerMetrics.PartitionLag("topic", 0, 5, 12));     // not committed yet, count from log start offset
+
+        offsets.complete(10);
+        offsets.committed(offsets.commitOffset(), true);
+        when(consumer.currentLag(partition)).thenReturn(OptionalLong.of(5));
+        assertThat(tracker.lags()).containsExactly(new ConsumerMetrics.PartitionLag("topic", 0, 11, 17));
+    }
+
+    @Test
+    void onPartitionsRevoked() {
+        var partition = new TopicPartition("topic", 0);
+        OffsetTracker.PartitionOffsets offsets = tracker.partition(partition);
+        offsets.add(1);
+        tracker.onPartitionsRevoked(List.of(partition));
+        assertThat(offsets.revoked).isTrue();
+
+        verify(consumer).commitSync(Map.of(partition, new OffsetAndMetadata(1)));
+        assertThat(tracker.partitions).isEmpty();
+
+        tracker.commitAsync();
+        verify(consumer, never()).commitAsync(any(), any());
+    }
+}
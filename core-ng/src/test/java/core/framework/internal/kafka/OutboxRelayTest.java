@@ -0,0 +1,135 @@
+package core.framework.internal.kafka;
+
+import core.framework.db.Transaction;
+import core.framework.internal.db.DatabaseImpl;
+import core.framework.internal.log.LogManager;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author neo
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OutboxRelayTest {
+    private DatabaseImpl database;
+    private Outbox outbox;
+    private MessageProducer producer;
+    private OutboxRelay relay;
+
+    @BeforeAll
+    void createDatabase() {
+        database = new DatabaseImpl("db");
+        database.url("jdbc:hsqldb:mem:outbox;sql.syntax_mys=true");
+        database.execute("CREATE TABLE outbox (id BIGINT AUTO_INCREMENT PRIMARY KEY, topic VARCHAR(200) NOT NULL, message_key VARCHAR(200), message_value LONGVARCHAR NOT NULL,"
+            + " content_type VARCHAR(100), correlation_id VARCHAR(100), ref_id VARCHAR(100), trace VARCHAR(20), created_time BIGINT NOT NULL,"
+            + " lease_owner VARCHAR(200), lease_expiration_time BIGINT DEFAULT 0 NOT NULL)");
+        database.view(OutboxRecord.class);
+        outbox = new Outbox(database, "outbox");
+    }
+
+    @AfterAll
+    void cleanupDatabase() {
+        database.execute("DROP TABLE outbox");
+    }
+
+    @BeforeEach
+    void createOutboxRelay() {
+        database.execute("TRUNCATE TABLE outbox");
+        producer = mock(MessageProducer.class);
+        relay = new OutboxRelay(outbox, producer, new LogManager());
+    }
+
+    @Test
+    void publishWithTransaction() {
+        var publisher = new MessagePublisherImpl<>(producer, outbox, "topic", TestMessage.class, new JSONMessageCodec<>(TestMessage.class));
+        try (Transaction transaction = database.beginTransaction()) {
+            publisher.publish("key1", message("value1"));
+            transaction.rollback();
+        }
+        try (Transaction transaction = database.beginTransaction()) {
+            publisher.publish("key2", message("value2"));
+            transaction.commit();
+        }
+
+        List<OutboxRecord> records = database.select("SELECT id, topic, message_key, message_value, content_type, correlation_id, ref_id, trace, created_time FROM outbox", OutboxRecord.class);
+        assertThat(records).hasSize(1);
+        assertThat(records.getFirst().key).isEqualTo("key2");
+        assertThat(records.getFirst().value).contains("value2");
+        verify(producer, times(0)).send(any());
+    }
+
+    @Test
+    void relay() throws Exception {
+        var jsonPublisher = new MessagePublisherImpl<>(producer, outbox, "topic1", TestMessage.class, new JSONMessageCodec<>(TestMessage.class));
+        var binaryPublisher = new MessagePublisherImpl<>(producer, outbox, "topic2", TestMessage.class, new BinaryMessageCodec<>(TestMessage.class));
+        jsonPublisher.publish("key1", message("value1"));
+        binaryPublisher.publish("key2", message("value2"));
+        jsonPublisher.publish(null, message("value3"));
+        when(producer.send(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        assertThat(relay.relay(System.currentTimeMillis())).isEqualTo(3);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<byte[], byte[]>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(producer, times(3)).send(captor.capture());
+        List<ProducerRecord<byte[], byte[]>> records = captor.getAllValues();
+        assertThat(records).extracting(ProducerRecord::topic).containsExactly("topic1", "topic2", "topic1");
+        assertThat(new String(records.get(0).value(), UTF_8)).contains("value1");
+        assertThat(new BinaryMessageCodec<>(TestMessage.class).decode(records.get(1).value()).stringField).isEqualTo("value2");
+        assertThat(records.get(1).headers().lastHeader(KafkaMessage.HEADER_CONTENT_TYPE).value()).asString().isEqualTo(BinaryMessageCodec.CONTENT_TYPE);
+        assertThat(records.get(2).key()).isNull();
+
+        assertThat(database.selectOne("SELECT COUNT(1) FROM outbox", Long.class)).hasValue(0L);
+    }
+
+    @Test
+    void relayWithFailure() throws Exception {
+        outbox.add(new ProducerRecord<>("topic", "{}".getBytes(UTF_8)));
+        when(producer.send(any())).thenReturn(CompletableFuture.failedFuture(new Error("kafka is not available")));
+
+        long now = System.currentTimeMillis();
+        assertThatThrownBy(() -> relay.relay(now)).isInstanceOf(ExecutionException.class);
+        assertThat(relay.relay(now + 1000)).isZero();    // lease is not expired yet
+
+        when(producer.send(any())).thenReturn(CompletableFuture.completedFuture((RecordMetadata) null));
+        assertThat(relay.relay(now + relay.lease.toMillis() + 1)).isEqualTo(1);
+        assertThat(database.selectOne("SELECT COUNT(1) FROM outbox", Long.class)).hasValue(0L);
+    }
+
+    @Test
+    void relayWithExpiredLease() throws Exception {
+        outbox.add(new ProducerRecord<>("topic", "{}".getBytes(UTF_8)));
+        when(producer.send(any())).thenAnswer(invocation -> {
+            database.execute("UPDATE outbox SET lease_owner = ?", "other");   // simulate claimed by other relay after lease expired
+            return CompletableFuture.completedFuture(null);
+        });
+
+        assertThat(relay.relay(System.currentTimeMillis())).isEqualTo(1);
+        assertThat(database.selectOne("SELECT COUNT(1) FROM outbox", Long.class)).hasValue(1L);
+    }
+
+    private TestMessage message(String value) {
+        var message = new TestMessage();
+        message.stringField = value;
+        return message;
+    }
+}
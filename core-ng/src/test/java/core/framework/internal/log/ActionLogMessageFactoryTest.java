@@ -23,7 +23,7 @@ class ActionLogMessageFactoryTest {
     void actionLog() {
         var log = new ActionLog("begin", null);
         log.action("action");
-        log.process(new LogEvent("logger", Markers.errorCode("ERROR_CODE"), LogLevel.WARN, "message", null, null));
+        log.process("logger", Markers.errorCode("ERROR_CODE"), LogLevel.WARN, "message", null, null);
         log.track("db", 1000, 1, 2);
         log.track("http", 2000, 0, 0);
         log.context("order_id", "id1", "id2");
@@ -1,5 +1,6 @@
 package core.framework.internal.log;
 
+import core.framework.log.Markers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -54,7 +55,7 @@ class ActionLogTest {
 
     @Test
     void flushTraceLogWithWarning() {
-        log.process(new LogEvent("logger", null, LogLevel.WARN, null, null, null));
+        log.process("logger", null, LogLevel.WARN, null, null, null);
 
         assertThat(log.flushTraceLog()).isTrue();
     }
@@ -62,13 +63,16 @@ class ActionLogTest {
     @Test
     void flushTraceLog() {
         assertThat(log.flushTraceLog()).isFalse();
+
+        log.sampled = true;
+        assertThat(log.flushTraceLog()).isTrue();
     }
 
     @Test
     void result() {
         assertThat(log.result()).isEqualTo("OK");
 
-        log.process(new LogEvent("logger", null, LogLevel.WARN, null, null, null));
+        log.process("logger", null, LogLevel.WARN, null, null, null);
         assertThat(log.result()).isEqualTo("WARN");
     }
 
@@ -76,17 +80,25 @@ class ActionLogTest {
     void errorCode() {
         assertThat(log.errorCode()).isNull();
 
-        log.process(new LogEvent("logger", null, LogLevel.WARN, null, null, null));
+        log.process("logger", null, LogLevel.WARN, null, null, null);
         assertThat(log.errorCode()).isEqualTo("UNASSIGNED");
     }
 
     @Test
     void truncateErrorMessage() {
-        log.process(new LogEvent("logger", null, LogLevel.WARN, "x".repeat(ActionLog.MAX_CONTEXT_VALUE_LENGTH + 1), null, null));
+        log.process("logger", null, LogLevel.WARN, "x".repeat(ActionLog.MAX_CONTEXT_VALUE_LENGTH + 1), null, null);
 
         assertThat(log.errorMessage.length()).isEqualTo(ActionLog.MAX_CONTEXT_VALUE_LENGTH);
     }
 
+    @Test
+    void errorMessage() {
+        log.process("logger", Markers.errorCode("ERROR_CODE"), LogLevel.ERROR, "error-{}", new Object[]{1}, null);
+
+        assertThat(log.errorMessage).isEqualTo("error-1");
+        assertThat(log.errorCode()).isEqualTo("ERROR_CODE");
+    }
+
     @Test
     void stat() {
         log.stat("stat", 1);
@@ -120,12 +132,33 @@ class ActionLogTest {
         assertThat(stat.writeEntries).isZero();
     }
 
+    @Test
+    void statTrace() {
+        log.stat("stat", 3);
+        assertThat(log.trace()).contains("[stat] stat=3");
+    }
+
+    @Test
+    void traceWithTailSampling() {
+        log = new ActionLog("begin", "actionId", 2);
+        log.process("logger", null, LogLevel.DEBUG, "debug-{}", new Object[]{1}, null);
+        log.process("logger", null, LogLevel.WARN, "warning", null, null);
+        log.process("logger", null, LogLevel.DEBUG, "debug-{}", new Object[]{2}, null);
+        log.process("logger", null, LogLevel.DEBUG, "debug-{}", new Object[]{3}, null);
+        log.end("end");
+
+        String trace = log.trace();
+        assertThat(trace).contains("begin", "id=actionId", "WARN logger - warning", "debug-2", "debug-3", "...(skipped 1 debug events)", "end")
+            .doesNotContain("debug-1");
+        assertThat(trace.indexOf("warning")).isLessThan(trace.indexOf("debug-2"));
+    }
+
     @Test
     void trace() {
         String trace = log.trace();
         assertThat(trace).contains("c.f.i.log.ActionLog - begin");
 
-        log.process(new LogEvent("logger", null, LogLevel.WARN, "warning", null, null));
+        log.process("logger", null, LogLevel.WARN, "warning", null, null);
         trace = log.trace();
         assertThat(trace).contains("WARN logger - warning");
     }
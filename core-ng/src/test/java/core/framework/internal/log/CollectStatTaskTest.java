@@ -23,10 +23,12 @@ class CollectStatTaskTest {
     @Mock
     LogAppender appender;
     private CollectStatTask task;
+    private LogManager logManager;
 
     @BeforeEach
     void createCollectStatTask() {
-        task = new CollectStatTask(appender, new StatCollector());
+        logManager = new LogManager();
+        task = new CollectStatTask(appender, new StatCollector(), logManager);
     }
 
     @Test
@@ -36,6 +38,20 @@ class CollectStatTaskTest {
         StatMessage message = task.message(stats);
         assertThat(message.id).isNotNull();
         assertThat(message.stats).containsOnly(entry("sys_load_avg", 1d));
+        assertThat(message.performanceHistograms).isNull();
+    }
+
+    @Test
+    void messageWithPerformanceHistograms() {
+        logManager.performanceHistograms = new PerformanceHistograms();
+        var log = new ActionLog("begin", null);
+        log.action = "action";
+        log.elapsed = 1000;
+        logManager.performanceHistograms.record(log);
+
+        StatMessage message = task.message(new Stats());
+        assertThat(message.performanceHistograms).hasSize(1);
+        assertThat(message.performanceHistograms.getFirst().action).isEqualTo("action");
     }
 
     @Test
@@ -0,0 +1,58 @@
+package core.framework.internal.log;
+
+import core.framework.log.message.PerformanceHistogramMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class PerformanceHistogramsTest {
+    private PerformanceHistograms histograms;
+
+    @BeforeEach
+    void createPerformanceHistograms() {
+        histograms = new PerformanceHistograms();
+    }
+
+    @Test
+    void collect() {
+        for (int i = 1; i <= 100; i++) {
+            var log = new ActionLog("begin", null);
+            log.action = "api:get:/order/:id";
+            log.elapsed = i * 1_000_000L;
+            log.track("db", i * 100_000L, 1, 0);
+            log.track("db", i * 100_000L, 1, 0);
+            histograms.record(log);
+        }
+
+        List<PerformanceHistogramMessage> messages = histograms.collect();
+        assertThat(messages).hasSize(2);
+        PerformanceHistogramMessage elapsed = messages.stream().filter(message -> PerformanceHistograms.ELAPSED.equals(message.operation)).findFirst().orElseThrow();
+        assertThat(elapsed.action).isEqualTo("api:get:/order/:id");
+        assertThat(elapsed.count).isEqualTo(100);
+        assertThat(elapsed.p50).isBetween(50_000_000L, 53_125_000L);    // within 6.25% relative error
+        assertThat(elapsed.p99).isBetween(99_000_000L, 105_187_500L);
+        assertThat(elapsed.max).isGreaterThanOrEqualTo(100_000_000L);
+
+        PerformanceHistogramMessage db = messages.stream().filter(message -> "db".equals(message.operation)).findFirst().orElseThrow();
+        assertThat(db.max).isGreaterThanOrEqualTo(20_000_000L);     // total elapsed of all db calls in action
+
+        assertThat(histograms.collect()).isEmpty();     // rolled
+    }
+
+    @Test
+    void skipUnusedOperations() {
+        var log = new ActionLog("begin", null);
+        log.action = "action";
+        log.initializeWarnings(new PerformanceWarning[]{new PerformanceWarning("redis", 10, Duration.ofSeconds(1), 10, 10, 10)});
+        histograms.record(log);
+
+        assertThat(histograms.collect()).extracting(message -> message.operation).containsOnly(PerformanceHistograms.ELAPSED);
+    }
+}
@@ -0,0 +1,87 @@
+package core.framework.internal.log;
+
+import core.framework.log.Markers;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class TraceBufferTest {
+    @Test
+    void appendTrace() {
+        var buffer = new TraceBuffer(0);
+        buffer.add("logger", Markers.errorCode("ERROR_CODE"), LogLevel.WARN, "message-{}", new Object[]{1}, new Error());
+        buffer.add("logger", null, LogLevel.DEBUG, "message", null, null);
+        var builder = new StringBuilder();
+        buffer.appendTrace(builder, System.nanoTime());
+        assertThat(builder.toString())
+            .contains("WARN logger - [ERROR_CODE] message-1")
+            .contains(" logger - message");
+    }
+
+    @Test
+    void softLimit() {
+        var buffer = new TraceBuffer(0);
+        for (int i = 0; i < TraceBuffer.SOFT_EVENTS_LIMIT + 10; i++) {
+            buffer.add("logger", null, LogLevel.DEBUG, "message", null, null);
+        }
+        buffer.add("logger", null, LogLevel.WARN, "warning", null, null);
+        assertThat(buffer.size()).isEqualTo(TraceBuffer.SOFT_EVENTS_LIMIT + 2);
+
+        var builder = new StringBuilder();
+        buffer.appendTrace(builder, System.nanoTime());
+        assertThat(builder.toString()).contains("...(soft trace limit reached)", "WARN logger - warning");
+    }
+
+    @Test
+    void softLimitReachedByWarning() {
+        var buffer = new TraceBuffer(0);
+        for (int i = 0; i < TraceBuffer.SOFT_EVENTS_LIMIT - 1; i++) {
+            buffer.add("logger", null, LogLevel.DEBUG, "message", null, null);
+        }
+        buffer.add("logger", null, LogLevel.WARN, "warning", null, null);
+        buffer.add("logger", null, LogLevel.DEBUG, "message", null, null);
+        assertThat(buffer.size()).isEqualTo(TraceBuffer.SOFT_EVENTS_LIMIT + 1);
+
+        var builder = new StringBuilder();
+        buffer.appendTrace(builder, System.nanoTime());
+        assertThat(builder.toString()).contains("WARN logger - warning", "...(soft trace limit reached)");
+    }
+
+    @Test
+    void tailSampling() {
+        var buffer = new TraceBuffer(3);
+        buffer.add("begin", null);
+        for (int i = 0; i < 10; i++) {
+            buffer.add("logger", null, LogLevel.DEBUG, "debug-{}", new Object[]{i}, null);
+            if (i == 8) buffer.add("logger", null, LogLevel.ERROR, "error", null, null);
+        }
+        buffer.add("end", null);
+        assertThat(buffer.size()).isEqualTo(6);
+
+        var builder = new StringBuilder();
+        buffer.appendTrace(builder, System.nanoTime());
+        String trace = builder.toString();
+        assertThat(trace.lines().map(line -> line.substring(line.indexOf(" - ") + 3)))
+            .containsExactly("begin", "...(skipped 7 debug events)", "debug-7", "debug-8", "error", "debug-9", "end");
+    }
+
+    @Test
+    void appendDuration() {
+        var builder = new StringBuilder();
+        TraceBuffer.appendDuration(builder, Duration.ofSeconds(34).plusMillis(145).toNanos());
+        assertThat(builder.toString()).isEqualTo("00:34.145000000");
+
+        builder = new StringBuilder();
+        TraceBuffer.appendDuration(builder, Duration.ofMinutes(5).plusNanos(34512300).toNanos());
+        assertThat(builder.toString()).isEqualTo("05:00.034512300");
+
+        builder = new StringBuilder();
+        TraceBuffer.appendDuration(builder, Duration.ofMinutes(30).plusSeconds(1).plusNanos(123).toNanos());
+        assertThat(builder.toString()).isEqualTo("30:01.000000123");
+    }
+}
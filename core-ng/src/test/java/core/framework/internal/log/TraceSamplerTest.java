@@ -0,0 +1,64 @@
+package core.framework.internal.log;
+
+import core.framework.internal.stat.Stats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class TraceSamplerTest {
+    private TraceSampler sampler;
+
+    @BeforeEach
+    void createTraceSampler() {
+        sampler = new TraceSampler(0.9, 0, 2);
+    }
+
+    @Test
+    void sampleSlowAction() {
+        for (int i = 1; i <= TraceSampler.MIN_SAMPLES; i++) {
+            assertThat(sampler.sample(actionLog("action", i * 1000))).isFalse();
+        }
+        sampler.collect(new Stats());
+        assertThat(sampler.latencies.get("action").threshold).isBetween(90_000L, 96_000L);
+
+        assertThat(sampler.sample(actionLog("action", 50_000))).isFalse();
+        assertThat(sampler.sample(actionLog("action", 200_000))).isTrue();
+        assertThat(sampler.sample(actionLog("other", 200_000))).isFalse();
+
+        var stats = new Stats();
+        sampler.collect(stats);
+        assertThat(stats.stats).containsEntry("log_trace_sampled", 1.0)
+            .containsEntry("log_trace_sampling_dropped", 0.0);
+    }
+
+    @Test
+    void sampleRandomly() {
+        sampler = new TraceSampler(0.99, 1, 2);
+        assertThat(sampler.sample(actionLog("action", 1000))).isTrue();
+        assertThat(sampler.sample(actionLog("action", 1000))).isTrue();
+
+        ActionLog log = actionLog("action", 1000);
+        log.trace = Trace.CURRENT;
+        assertThat(sampler.sample(log)).isFalse();     // already flushed, not counted
+        assertThat(sampler.sampled.sum()).isEqualTo(2);
+    }
+
+    @Test
+    void acquire() {
+        assertThat(sampler.acquire(1)).isTrue();
+        assertThat(sampler.acquire(1)).isTrue();
+        assertThat(sampler.acquire(1)).isFalse();
+        assertThat(sampler.acquire(2)).isTrue();
+    }
+
+    private ActionLog actionLog(String action, long elapsed) {
+        var log = new ActionLog("begin", null);
+        log.action = action;
+        log.elapsed = elapsed;
+        return log;
+    }
+}
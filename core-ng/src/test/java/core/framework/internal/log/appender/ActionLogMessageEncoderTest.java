@@ -0,0 +1,106 @@
+package core.framework.internal.log.appender;
+
+import core.framework.internal.json.JSONReader;
+import core.framework.internal.json.JSONWriter;
+import core.framework.log.message.ActionLogMessage;
+import core.framework.log.message.PerformanceStatMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class ActionLogMessageEncoderTest {
+    private ActionLogMessageEncoder encoder;
+
+    @BeforeEach
+    void createActionLogMessageEncoder() {
+        encoder = new ActionLogMessageEncoder(2_000_000);
+    }
+
+    @Test
+    void encode() {
+        var message = new ActionLogMessage();
+        message.id = "id";
+        message.date = Instant.parse("2025-08-01T00:00:00.123456Z");
+        message.app = "app";
+        message.result = "WARN";
+        message.correlationIds = List.of("id1", "id2");
+        message.errorCode = "ERROR_CODE";
+        message.errorMessage = "error \"message\"\\";
+        message.elapsed = 100L;
+        message.context = new LinkedHashMap<>();
+        message.context.put("key1", List.of("value1", "中文"));
+        message.context.put("key2", List.of("\u0001\t\b\f\r"));
+        message.stats = Map.of("stat1", 1.5, "stat2", 1e20, "stat3", Double.NaN);
+        var stat = new PerformanceStatMessage();
+        stat.count = 1;
+        stat.totalElapsed = 100L;
+        stat.readEntries = 2;
+        message.performanceStats = Map.of("db", stat);
+        message.traceLog = "line1\nline2 😀 é </script>";
+
+        byte[] json = encoder.encode(message);
+        assertThat(encoder.truncated).isFalse();
+        assertThat(new String(json, StandardCharsets.UTF_8))
+            .isEqualTo(new String(new JSONWriter<>(ActionLogMessage.class).toJSON(message), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void encodeMalformedSurrogate() {
+        var message = new ActionLogMessage();
+        message.traceLog = "\uD83Dx\uDE00";
+
+        assertThat(new String(encoder.encode(message), StandardCharsets.UTF_8))
+            .isEqualTo(new String(new JSONWriter<>(ActionLogMessage.class).toJSON(message), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void truncateContext() throws IOException {
+        encoder = new ActionLogMessageEncoder(400);
+        var message = new ActionLogMessage();
+        message.context = new HashMap<>();
+        message.context.put("key1", List.of("1".repeat(100), "2", "3", "4", "5", "6", "7", "8", "9", "10", "11"));
+        message.context.put("key2", List.of("1"));
+        String traceLog = "1234567890".repeat(10);
+        message.traceLog = traceLog;
+
+        byte[] json = encoder.encode(message);
+        assertThat(encoder.truncated).isTrue();
+        ActionLogMessage result = new JSONReader<>(ActionLogMessage.class).fromJSON(json);
+        assertThat(result.context).containsOnlyKeys("key2");
+        assertThat(result.traceLog).isEqualTo(traceLog);
+    }
+
+    @Test
+    void truncateTrace() throws IOException {
+        encoder = new ActionLogMessageEncoder(1000);
+        var message = new ActionLogMessage();
+        message.context = Map.of("key2", List.of("1"));
+        message.traceLog = "12345678\n".repeat(100);
+
+        byte[] json = encoder.encode(message);
+        assertThat(encoder.truncated).isTrue();
+        assertThat(json).hasSizeLessThanOrEqualTo(1000);
+        ActionLogMessage result = new JSONReader<>(ActionLogMessage.class).fromJSON(json);
+        assertThat(result.context).containsOnlyKeys("key2");
+        assertThat(result.traceLog)
+            .startsWith("12345678\n")
+            .endsWith(ActionLogMessageEncoder.TRUNCATION_WARNING);
+
+        message.traceLog = "1".repeat(700);     // fits without warning
+        json = encoder.encode(message);
+        assertThat(encoder.truncated).isFalse();
+        assertThat(new JSONReader<>(ActionLogMessage.class).fromJSON(json).traceLog).isEqualTo(message.traceLog);
+    }
+}
@@ -3,16 +3,25 @@ package core.framework.internal.log.appender;
 import core.framework.internal.kafka.KafkaURI;
 import core.framework.kafka.KafkaException;
 import core.framework.log.message.ActionLogMessage;
+import core.framework.log.message.LogTopics;
+import core.framework.log.message.StatMessage;
+import core.framework.util.Files;
+import core.framework.util.Strings;
 import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.MockProducer;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * @author neo
@@ -40,9 +49,89 @@ class KafkaAppenderTest {
     @Test
     void onCompletion() {
         var callback = appender.new KafkaCallback();
-        appender.records.add(new ProducerRecord<>("topic", new byte[0]));
         callback.onCompletion(null, new KafkaException("unexpected"));
-        assertThat(appender.records).isEmpty();
+        assertThat(appender.failedRecords.sum()).isEqualTo(1);
+    }
+
+    @Test
+    void spillAndReplay() {
+        Path directory = Files.tempDir();
+        try {
+            var producer = new MockProducer<>(true, null, new ByteArraySerializer(), new ByteArraySerializer());     // in-process stand-in of log kafka
+            appender.producer = producer;
+            appender.spill = new SpillLog(directory, 1024 * 1024, 64 * 1024);
+
+            ProducerRecord<byte[], byte[]> record = new ProducerRecord<>(LogTopics.TOPIC_ACTION_LOG, Strings.bytes("{}"));
+            appender.new SpillCallback(record).onCompletion(null, new KafkaException("unexpected"));
+            appender.spillFailedRecords();
+            assertThat(appender.spilledRecords.sum()).isEqualTo(1);
+            assertThat(appender.replay()).isFalse();    // not replay right after failure
+
+            appender.lastFailedTime = 0;
+            producer.sendException = new KafkaException("unexpected");
+            assertThatThrownBy(() -> appender.replay()).isInstanceOf(KafkaException.class);
+            assertThat(appender.spill.size.get()).isGreaterThan(0);
+
+            producer.sendException = null;
+            assertThat(appender.replay()).isTrue();
+            assertThat(producer.history()).hasSize(1);
+            assertThat(appender.replayedRecords.sum()).isEqualTo(1);
+            assertThat(appender.spill.size.get()).isZero();
+            assertThat(appender.replay()).isFalse();
+        } finally {
+            Files.deleteDir(directory);
+        }
+    }
+
+    @Test
+    void stopWithSpill() {
+        Path directory = Files.tempDir();
+        try {
+            var producer = new MockProducer<>(true, null, new ByteArraySerializer(), new ByteArraySerializer());
+            appender.producer = producer;
+            appender.spill = new SpillLog(directory, 1024 * 1024, 64 * 1024);
+            appender.append(actionLog(null));
+            appender.append(new StatMessage());
+
+            producer.sendException = new KafkaException("unexpected");
+            appender.stop(0);
+            assertThat(appender.spilledRecords.sum()).isEqualTo(2);
+            assertThat(appender.queue.size()).isZero();
+        } finally {
+            Files.deleteDir(directory);
+        }
+    }
+
+    @Test
+    void append() {
+        appender.queue(4, 0.5, 0.75);
+        appender.append(actionLog("trace1"));
+        appender.append(new StatMessage());
+        appender.append(actionLog("trace2"));   // queue size is 2, reached dropTraceSize
+        appender.append(new StatMessage());     // queue size is 3, reached dropStatSize
+        appender.append(actionLog("trace3"));
+        appender.append(actionLog("trace4"));   // queue is full
+
+        assertThat(appender.queue.size()).isEqualTo(4);
+        assertThat(appender.droppedTraces.sum()).isEqualTo(3);
+        assertThat(appender.droppedStats.sum()).isEqualTo(1);
+        assertThat(appender.droppedActions.sum()).isEqualTo(1);
+        assertThat(appender.queuedTraceLength.get()).isEqualTo(6);
+
+        List<ProducerRecord<byte[], byte[]>> records = new ArrayList<>();
+        appender.poll(records);
+        assertThat(records).extracting(ProducerRecord::topic)
+            .containsExactly(LogTopics.TOPIC_ACTION_LOG, LogTopics.TOPIC_STAT, LogTopics.TOPIC_ACTION_LOG, LogTopics.TOPIC_ACTION_LOG);
+        assertThat(appender.queuedTraceLength.get()).isZero();
+    }
+
+    @Test
+    void appendWithLargeTrace() {
+        appender.maxQueuedTraceLength = 10;
+        appender.append(actionLog("1234567890"));
+        appender.append(actionLog("1"));
+
+        assertThat(appender.droppedTraces.sum()).isEqualTo(1);
     }
 
     @Test
@@ -56,31 +145,12 @@ class KafkaAppenderTest {
         assertThat(appender.resolveURI(new KafkaURI("notExistedHost"))).isFalse();
     }
 
-    @Test
-    void truncateContext() {
+    private ActionLogMessage actionLog(String traceLog) {
         var message = new ActionLogMessage();
+        message.id = "id";
+        message.action = "action";
         message.context = new HashMap<>();
-        message.context.put("key1", List.of("1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11"));
-        message.context.put("key2", List.of("1"));
-        String traceLog = "1234567890".repeat(10);
         message.traceLog = traceLog;
-        appender.truncate(message, 20, 5000);
-
-        assertThat(message.context).containsOnlyKeys("key2");
-        assertThat(message.traceLog).isEqualTo(traceLog);
-    }
-
-    @Test
-    void truncateTrace() {
-        var message = new ActionLogMessage();
-        message.context = new HashMap<>();
-        message.context.put("key2", List.of("1"));
-        message.traceLog = "1234567890".repeat(50);
-        appender.truncate(message, 200, 100);
-
-        assertThat(message.context).containsOnlyKeys("key2");
-        assertThat(message.traceLog)
-                .hasSize(370)   // last "warning" text has 70 chars, so only trimmed 130 chars, though overflow is 200
-                .endsWith("...(hard trace limit reached, please check console log for full trace)");
+        return message;
     }
 }
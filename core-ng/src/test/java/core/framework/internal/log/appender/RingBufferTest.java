@@ -0,0 +1,60 @@
+package core.framework.internal.log.appender;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class RingBufferTest {
+    @Test
+    void offerAndPoll() {
+        var queue = new RingBuffer<Integer>(3);
+        assertThat(queue.poll()).isNull();
+
+        assertThat(queue.offer(1)).isTrue();
+        assertThat(queue.offer(2)).isTrue();
+        assertThat(queue.offer(3)).isTrue();
+        assertThat(queue.offer(4)).isFalse();
+        assertThat(queue.size()).isEqualTo(3);
+
+        assertThat(queue.poll()).isEqualTo(1);
+        assertThat(queue.offer(4)).isTrue();
+        assertThat(queue.poll()).isEqualTo(2);
+        assertThat(queue.poll()).isEqualTo(3);
+        assertThat(queue.poll()).isEqualTo(4);
+        assertThat(queue.poll()).isNull();
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    void concurrentOffer() throws InterruptedException {
+        var queue = new RingBuffer<Integer>(1024);
+        List<Thread> producers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            int producer = i;
+            producers.add(Thread.ofVirtual().start(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    while (!queue.offer(producer * 1000 + j)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            }));
+        }
+
+        List<Integer> values = new ArrayList<>();
+        while (values.size() < 4000) {
+            Integer value = queue.poll();
+            if (value != null) values.add(value);
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        assertThat(values).doesNotHaveDuplicates().hasSize(4000);
+        assertThat(queue.poll()).isNull();
+    }
+}
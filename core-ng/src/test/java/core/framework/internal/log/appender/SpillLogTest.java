@@ -0,0 +1,97 @@
+package core.framework.internal.log.appender;
+
+import core.framework.log.message.LogTopics;
+import core.framework.util.Files;
+import core.framework.util.Strings;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class SpillLogTest {
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory() {
+        directory = Files.tempDir();
+    }
+
+    @AfterEach
+    void deleteDirectory() {
+        Files.deleteDir(directory);
+    }
+
+    @Test
+    void appendAndRead() {
+        var spill = new SpillLog(directory, 1024, 64);
+        assertThat(spill.read(10)).isEmpty();
+
+        assertThat(spill.append(record(LogTopics.TOPIC_ACTION_LOG, "action1"))).isTrue();
+        assertThat(spill.append(record(LogTopics.TOPIC_STAT, "stat1"))).isTrue();
+        assertThat(spill.size.get()).isEqualTo(12 + 10);
+
+        List<ProducerRecord<byte[], byte[]>> records = spill.read(1);
+        assertThat(records).hasSize(1);
+        assertThat(records.getFirst().topic()).isEqualTo(LogTopics.TOPIC_ACTION_LOG);
+        assertThat(records.getFirst().value()).isEqualTo(Strings.bytes("action1"));
+
+        assertThat(spill.read(10)).hasSize(2);   // not committed, read from beginning again
+        spill.commit();
+        assertThat(spill.size.get()).isZero();
+        assertThat(spill.read(10)).isEmpty();
+    }
+
+    @Test
+    void appendLargeRecord() {
+        var spill = new SpillLog(directory, 1024, 64);
+        assertThat(spill.append(record(LogTopics.TOPIC_ACTION_LOG, "x".repeat(60)))).isFalse();
+    }
+
+    @Test
+    void rotateAndEvict() {
+        var spill = new SpillLog(directory, 128, 64);    // 2 segments, each holds 2 records
+        for (int i = 0; i < 6; i++) {
+            spill.append(record(LogTopics.TOPIC_ACTION_LOG, "action-" + i + "-".repeat(15)));
+        }
+        assertThat(spill.evictedSegments.sum()).isEqualTo(1);
+        assertThat(directory.toFile().list()).hasSize(2);
+
+        List<ProducerRecord<byte[], byte[]>> records = spill.read(10);
+        assertThat(records).hasSize(4);
+        assertThat(new String(records.getFirst().value())).startsWith("action-2");
+
+        spill.commit();
+        assertThat(directory.toFile().list()).hasSize(1);   // fully replayed segment is deleted, and latest one is kept
+    }
+
+    @Test
+    void reopen() {
+        var spill = new SpillLog(directory, 1024, 64);
+        spill.append(record(LogTopics.TOPIC_ACTION_LOG, "action1"));
+        spill.append(record(LogTopics.TOPIC_STAT, "stat1"));
+        spill.read(1);
+        spill.commit();
+        spill.close();
+
+        spill = new SpillLog(directory, 1024, 64);
+        assertThat(spill.size.get()).isEqualTo(10);
+        List<ProducerRecord<byte[], byte[]>> records = spill.read(10);
+        assertThat(records).hasSize(1);
+        assertThat(records.getFirst().topic()).isEqualTo(LogTopics.TOPIC_STAT);
+
+        spill.append(record(LogTopics.TOPIC_ACTION_LOG, "action2"));
+        assertThat(spill.read(10)).hasSize(2);
+    }
+
+    private ProducerRecord<byte[], byte[]> record(String topic, String value) {
+        return new ProducerRecord<>(topic, Strings.bytes(value));
+    }
+}
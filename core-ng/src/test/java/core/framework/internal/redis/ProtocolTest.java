@@ -1,11 +1,14 @@
 package core.framework.internal.redis;
 
 import core.framework.util.Strings;
+import org.jspecify.annotations.Nullable;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import static core.framework.internal.redis.RedisEncodings.decode;
 import static core.framework.internal.redis.RedisEncodings.encode;
@@ -34,6 +37,53 @@ class ProtocolTest {
         assertThat(decode(stream.toByteArray())).isEqualTo("$5\r\nvalue\r\n");
     }
 
+    @Test
+    void writeStringBlobString() throws IOException {
+        var stream = new ByteArrayOutputStream();
+        var outputStream = new RedisOutputStream(stream, 8192);
+        Protocol.writeBlobString(outputStream, "key");
+        Protocol.writeBlobString(outputStream, "键");
+        outputStream.flush();
+        assertThat(decode(stream.toByteArray())).isEqualTo("$3\r\nkey\r\n$3\r\n键\r\n");
+    }
+
+    @Test
+    void visit() throws IOException {
+        var stream = new ByteArrayInputStream(Strings.bytes("*3\r\n$1\r\n0\r\n$-1\r\n*2\r\n:1\r\n+OK\r\n"));
+        List<String> events = new ArrayList<>();
+        Protocol.visit(new RedisInputStream(stream), new RedisReplyVisitor() {
+            @Override
+            public void array(int length) {
+                events.add("array:" + length);
+            }
+
+            @Override
+            public void blobString(byte @Nullable [] buffer, int offset, int length) {
+                events.add("blob:" + decode(buffer, offset, length));
+            }
+
+            @Override
+            public void simpleString(String value) {
+                events.add("simple:" + value);
+            }
+
+            @Override
+            public void number(long value) {
+                events.add("number:" + value);
+            }
+        });
+        assertThat(events).containsExactly("array:3", "blob:0", "blob:null", "array:2", "number:1", "simple:OK");
+    }
+
+    @Test
+    void visitSimpleError() {
+        var stream = new ByteArrayInputStream(Strings.bytes("-error-message\r\n"));
+        assertThatThrownBy(() -> Protocol.visit(new RedisInputStream(stream), (buffer, offset, length) -> {
+        }))
+                .isInstanceOf(RedisException.class)
+                .hasMessage("error-message");
+    }
+
     @Test
     void readSimpleError() {
         var stream = new ByteArrayInputStream(Strings.bytes("-error-message\r\n"));
@@ -0,0 +1,336 @@
+package core.framework.internal.redis;
+
+import core.framework.internal.stat.Stats;
+import core.framework.util.Strings;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static core.framework.internal.redis.RedisEncodings.decode;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * @author neo
+ */
+class RedisClusterTest {
+    private Node node1;
+    private Node node2;
+    private Node replica1;
+    private final List<Shard> shards = new CopyOnWriteArrayList<>();
+    private final Map<Integer, Node> migratingSlots = new ConcurrentHashMap<>();
+    private RedisImpl redis;
+
+    @BeforeEach
+    void createCluster() throws IOException {
+        node1 = new Node();
+        node2 = new Node();
+        replica1 = new Node();
+        shards.add(new Shard(0, 8191, node1, replica1));
+        shards.add(new Shard(8192, 16383, node2, null));
+
+        redis = new RedisImpl("redis");
+        redis.cluster("127.0.0.1:" + node1.port());
+        redis.timeout(Duration.ofSeconds(2));
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        redis.close();
+        node1.close();
+        node2.close();
+        replica1.close();
+    }
+
+    @Test
+    void slot() {
+        assertThat(RedisCluster.slot("123456789")).isEqualTo(12739);
+        assertThat(RedisCluster.slot("foo")).isEqualTo(12182);
+        assertThat(RedisCluster.slot("{user1000}.following")).isEqualTo(RedisCluster.slot("{user1000}.followers"));
+        assertThat(RedisCluster.slot("foo{bar}{zap}")).isEqualTo(RedisCluster.slot("bar"));
+        assertThat(RedisCluster.slot("foo{}{bar}")).isEqualTo(RedisCluster.slot(Strings.bytes("foo{}{bar}")));
+        assertThat(RedisCluster.slot("foo{{bar}}zap")).isEqualTo(RedisCluster.slot("{bar"));
+    }
+
+    @Test
+    void groupBySlot() {
+        assertThat(redis.groupBySlot(new String[]{"{a}1", "{b}1", "{a}2"}))
+            .containsExactly(new String[]{"{a}1", "{a}2"}, new String[]{"{b}1"});
+    }
+
+    @Test
+    void getAndSet() {
+        String key1 = key(node1, 1);
+        String key2 = key(node2, 1);
+        redis.set(key1, "v1");
+        redis.set(key2, "v2");
+
+        assertThat(node1.data).containsOnlyKeys(key1);
+        assertThat(node2.data).containsOnlyKeys(key2);
+        assertThat(redis.get(key1)).isEqualTo("v1");
+        assertThat(redis.get(key2)).isEqualTo("v2");
+    }
+
+    @Test
+    void multiGetAndDel() {
+        String key1 = key(node1, 1);
+        String key2 = key(node2, 1);
+        String key3 = key(node1, 2);
+        redis.multiSet(Map.of(key1, "v1", key2, "v2", key3, "v3"));
+        assertThat(node1.data).containsOnlyKeys(key1, key3);
+
+        assertThat(redis.multiGet(key1, key2, key3, "notExisted")).containsOnly(entry(key1, "v1"), entry(key2, "v2"), entry(key3, "v3"));
+        assertThat(redis.del(key1, key2, key3)).isEqualTo(3);
+    }
+
+    @Test
+    void forEach() {
+        String key1 = key(node1, 1);
+        String key2 = key(node2, 1);
+        redis.set(key1, "v1");
+        redis.set(key2, "v2");
+
+        List<String> keys = new ArrayList<>();
+        redis.forEach("*", keys::add);
+        assertThat(keys).containsExactlyInAnyOrder(key1, key2);
+    }
+
+    @Test
+    void movedRedirection() {
+        String key = key(node1, 1);
+        redis.set(key, "v1");
+
+        int slot = RedisCluster.slot(key);
+        shards.addFirst(new Shard(slot, slot, node2, null));   // migrate slot to node2
+        node2.data.put(key, node1.data.remove(key));
+
+        assertThat(redis.get(key)).isEqualTo("v1");
+        assertThat(redis.cluster.node(slot, false).host.port).isEqualTo(node2.port());
+
+        node1.commands.clear();
+        assertThat(redis.get(key)).isEqualTo("v1");
+        assertThat(node1.commands).isEmpty();
+    }
+
+    @Test
+    void askRedirection() {
+        String key = key(node1, 1);
+        redis.set(key, "v1");
+
+        migratingSlots.put(RedisCluster.slot(key), node2);   // key is moved to node2 during migration
+        node2.data.put(key, node1.data.remove(key));
+
+        assertThat(redis.get(key)).isEqualTo("v1");
+        assertThat(node2.commands).containsSubsequence("ASKING", "GET");
+    }
+
+    @Test
+    void readFromReplica() {
+        redis.readFromReplica();
+        String key = key(node1, 1);
+        redis.set(key, "v1");
+        replica1.data.put(key, node1.data.get(key));   // replicated
+
+        assertThat(redis.get(key)).isEqualTo("v1");
+        assertThat(redis.hash().getAll(key(node1, 2))).isEmpty();
+        assertThat(replica1.commands).containsSubsequence("READONLY", "GET", "HGETALL");
+        assertThat(node1.commands).doesNotContain("GET");
+    }
+
+    @Test
+    void collectClusterMetrics() {
+        redis.pool.size(5, 20);
+        redis.set(key(node1, 1), "v1");
+
+        assertThat(redis.cluster.node(RedisCluster.slot(key(node1, 1)), false).pool.maxSize()).isEqualTo(20);
+        var stats = new Stats();
+        redis.collectClusterMetrics(stats);
+        assertThat(stats.stats).containsKey("pool_redis-127_0_0_1_" + node1.port() + "_total_count");
+    }
+
+    private String key(Node node, int index) {
+        int count = 0;
+        for (int i = 0; ; i++) {
+            String key = "key" + i;
+            if (shard(RedisCluster.slot(key)).master == node && ++count == index) return key;
+        }
+    }
+
+    private Shard shard(int slot) {
+        for (Shard shard : shards) {
+            if (slot >= shard.start && slot <= shard.end) return shard;
+        }
+        throw new Error("slot is not covered, slot=" + slot);
+    }
+
+    record Shard(int start, int end, Node master, @Nullable Node replica) {
+    }
+
+    // redis cluster node stand-in, supports subset of commands and redirection
+    final class Node implements AutoCloseable {
+        final Map<String, byte[]> data = new ConcurrentHashMap<>();
+        final List<String> commands = new CopyOnWriteArrayList<>();
+        private final ServerSocket serverSocket;
+        private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+
+        Node() throws IOException {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread.ofVirtual().start(this::accept);
+        }
+
+        int port() {
+            return serverSocket.getLocalPort();
+        }
+
+        private void accept() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    sockets.add(socket);
+                    Thread.ofVirtual().start(() -> handle(socket));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void handle(Socket socket) {
+            try (socket) {
+                var input = new RedisInputStream(socket.getInputStream());
+                var output = new BufferedOutputStream(socket.getOutputStream());
+                var session = new Session();
+                while (true) {
+                    Object[] request = (Object[]) Protocol.read(input);
+                    process(request, session, output);
+                    output.flush();
+                }
+            } catch (IOException e) {
+                // connection closed
+            }
+        }
+
+        private void process(Object[] request, Session session, OutputStream output) throws IOException {
+            String command = decode((byte[]) request[0]);
+            commands.add(command);
+            boolean asking = session.asking;
+            session.asking = false;
+            switch (command) {
+                case "CLUSTER" -> clusterSlots(output);
+                case "READONLY" -> {
+                    session.readOnly = true;
+                    output.write(Strings.bytes("+OK\r\n"));
+                }
+                case "ASKING" -> {
+                    session.asking = true;
+                    output.write(Strings.bytes("+OK\r\n"));
+                }
+                case "SCAN" -> {
+                    output.write(Strings.bytes("*2\r\n$1\r\n0\r\n*" + data.size() + "\r\n"));
+                    for (String key : data.keySet()) {
+                        writeBlobString(output, Strings.bytes(key));
+                    }
+                }
+                default -> {
+                    String key = decode((byte[]) request[1]);
+                    String error = redirection(key, session, asking, "GET".equals(command) || "HGETALL".equals(command));
+                    if (error != null) {
+                        output.write(Strings.bytes(error));
+                        return;
+                    }
+                    switch (command) {
+                        case "GET" -> writeBlobString(output, data.get(key));
+                        case "HGETALL" -> output.write(Strings.bytes("*0\r\n"));
+                        case "SET" -> {
+                            data.put(key, (byte[]) request[2]);
+                            output.write(Strings.bytes("+OK\r\n"));
+                        }
+                        case "MSET" -> {
+                            for (int i = 1; i < request.length; i += 2) {
+                                data.put(decode((byte[]) request[i]), (byte[]) request[i + 1]);
+                            }
+                            output.write(Strings.bytes("+OK\r\n"));
+                        }
+                        case "MGET" -> {
+                            output.write(Strings.bytes("*" + (request.length - 1) + "\r\n"));
+                            for (int i = 1; i < request.length; i++) {
+                                writeBlobString(output, data.get(decode((byte[]) request[i])));
+                            }
+                        }
+                        case "DEL" -> {
+                            int deleted = 0;
+                            for (int i = 1; i < request.length; i++) {
+                                if (data.remove(decode((byte[]) request[i])) != null) deleted++;
+                            }
+                            output.write(Strings.bytes(":" + deleted + "\r\n"));
+                        }
+                        default -> output.write(Strings.bytes("-ERR unknown command\r\n"));
+                    }
+                }
+            }
+        }
+
+        @Nullable
+        private String redirection(String key, Session session, boolean asking, boolean read) {
+            int slot = RedisCluster.slot(key);
+            Shard shard = shard(slot);
+            Node migratingTo = migratingSlots.get(slot);
+            if (shard.master == this) {
+                if (migratingTo != null && !data.containsKey(key)) return "-ASK " + slot + " 127.0.0.1:" + migratingTo.port() + "\r\n";
+                return null;
+            }
+            if (read && session.readOnly && shard.replica == this) return null;
+            if (asking && migratingTo == this) return null;
+            return "-MOVED " + slot + " 127.0.0.1:" + shard.master.port() + "\r\n";
+        }
+
+        private void clusterSlots(OutputStream output) throws IOException {
+            output.write(Strings.bytes("*" + shards.size() + "\r\n"));
+            for (Shard shard : shards) {
+                output.write(Strings.bytes("*" + (shard.replica == null ? 3 : 4) + "\r\n:" + shard.start + "\r\n:" + shard.end + "\r\n"));
+                writeNode(output, shard.master);
+                if (shard.replica != null) writeNode(output, shard.replica);
+            }
+        }
+
+        private void writeNode(OutputStream output, Node node) throws IOException {
+            output.write(Strings.bytes("*3\r\n$9\r\n127.0.0.1\r\n:" + node.port() + "\r\n$2\r\nid\r\n"));
+        }
+
+        private void writeBlobString(OutputStream output, byte @Nullable [] value) throws IOException {
+            if (value == null) {
+                output.write(Strings.bytes("$-1\r\n"));
+                return;
+            }
+            output.write(Strings.bytes("$" + value.length + "\r\n"));
+            output.write(value);
+            output.write(Strings.bytes("\r\n"));
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+        }
+    }
+
+    static final class Session {
+        boolean readOnly;
+        boolean asking;
+    }
+}
@@ -5,8 +5,12 @@ import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
+import static core.framework.internal.redis.RedisEncodings.decode;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * @author neo
@@ -19,4 +23,31 @@ class RedisInputStreamTest {
 
         assertEquals("line1\rline2", message);
     }
+
+    @Test
+    void readBlobStringAcrossBuffer() throws IOException {
+        var stream = new RedisInputStream(new ByteArrayInputStream(Strings.bytes("$5\r\n12345\r\n")), 8);
+        stream.readByte();
+        int length = (int) stream.readLong();
+        List<String> values = new ArrayList<>();
+        stream.readBlobString(length, (buffer, offset, size) -> values.add(decode(buffer, offset, size)));
+
+        assertEquals(List.of("12345"), values);
+    }
+
+    @Test
+    void readBlobStringLargerThanBuffer() throws IOException {
+        var stream = new RedisInputStream(new ByteArrayInputStream(Strings.bytes("1234567890\r\n")), 8);
+        List<String> values = new ArrayList<>();
+        stream.readBlobString(10, (buffer, offset, size) -> values.add(decode(buffer, offset, size)));
+
+        assertEquals(List.of("1234567890"), values);
+    }
+
+    @Test
+    void readBlobStringWithInvalidEnding() {
+        var stream = new RedisInputStream(new ByteArrayInputStream(Strings.bytes("123\n\r")), 8);
+        assertThrows(IOException.class, () -> stream.readBlobString(3, (buffer, offset, size) -> {
+        }));
+    }
 }
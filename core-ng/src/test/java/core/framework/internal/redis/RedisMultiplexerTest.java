@@ -0,0 +1,104 @@
+package core.framework.internal.redis;
+
+import core.framework.util.Strings;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+import static core.framework.internal.redis.Protocol.Command.GET;
+import static core.framework.internal.redis.RedisEncodings.decode;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author neo
+ */
+class RedisMultiplexerTest {
+    private ByteArrayOutputStream request;
+    private RedisConnection connection;
+    private RedisMultiplexer multiplexer;
+
+    @BeforeEach
+    void createRedisMultiplexer() {
+        request = new ByteArrayOutputStream();
+        connection = new RedisConnection();
+        connection.outputStream = new RedisOutputStream(request, 512);
+        multiplexer = new RedisMultiplexer(connection, 5000);
+    }
+
+    @Test
+    void pipeline() throws IOException {
+        response("$2\r\nv1\r\n$2\r\nv2\r\n");
+        var connection1 = new MultiplexedRedisConnection(multiplexer);
+        var connection2 = new MultiplexedRedisConnection(multiplexer);
+        connection1.writeKeyCommand(GET, "k1");
+        connection2.writeKeyCommand(GET, "k2");
+
+        assertThat(decode(request.toByteArray())).isEqualTo("*2\r\n$3\r\nGET\r\n$2\r\nk1\r\n*2\r\n$3\r\nGET\r\n$2\r\nk2\r\n");
+        assertThat(decode(connection1.readBlobString())).isEqualTo("v1");
+        assertThat(decode(connection2.readBlobString())).isEqualTo("v2");
+    }
+
+    @Test
+    void readInOrder() throws Exception {
+        response("$2\r\nv1\r\n$2\r\nv2\r\n");
+        var connection1 = new MultiplexedRedisConnection(multiplexer);
+        var connection2 = new MultiplexedRedisConnection(multiplexer);
+        connection1.writeKeyCommand(GET, "k1");
+        connection2.writeKeyCommand(GET, "k2");
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<String> value2 = CompletableFuture.supplyAsync(() -> read(connection2), executor);
+            Thread.sleep(50);
+            assertThat(value2).isNotDone();     // wait for connection1 to read first reply
+
+            assertThat(decode(connection1.readBlobString())).isEqualTo("v1");
+            assertThat(value2.get()).isEqualTo("v2");
+        }
+    }
+
+    @Test
+    void readWithErrorReply() throws IOException {
+        response("-ERR unknown command\r\n$2\r\nv2\r\n");
+        var connection1 = new MultiplexedRedisConnection(multiplexer);
+        var connection2 = new MultiplexedRedisConnection(multiplexer);
+        connection1.writeKeyCommand(GET, "k1");
+        connection2.writeKeyCommand(GET, "k2");
+
+        assertThatThrownBy(connection1::readBlobString).isInstanceOf(RedisException.class);
+        assertThat(decode(connection2.readBlobString())).isEqualTo("v2");
+    }
+
+    @Test
+    void closeWithPendingReplies() throws IOException {
+        var connection1 = new MultiplexedRedisConnection(multiplexer);
+        var connection2 = new MultiplexedRedisConnection(multiplexer);
+        connection1.writeKeyCommand(GET, "k1");
+        connection2.writeKeyCommand(GET, "k2");
+
+        connection1.close();
+        assertThat(connection2.closed()).isTrue();
+        assertThatThrownBy(connection2::readBlobString)
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("closed");
+        assertThatThrownBy(() -> connection2.writeKeyCommand(GET, "k2"))
+            .isInstanceOf(IOException.class);
+    }
+
+    private String read(MultiplexedRedisConnection connection) {
+        try {
+            return decode(connection.readBlobString());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void response(String data) {
+        connection.inputStream = new RedisInputStream(new ByteArrayInputStream(Strings.bytes(data)));
+    }
+}
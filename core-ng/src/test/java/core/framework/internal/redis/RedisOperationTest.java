@@ -84,6 +84,15 @@ class RedisOperationTest extends AbstractRedisOperationTest {
         assertRequestEquals("*4\r\n$4\r\nMGET\r\n$2\r\nk1\r\n$2\r\nk2\r\n$2\r\nk3\r\n");
     }
 
+    @Test
+    void multiGetBytes() {
+        response("*2\r\n$2\r\nv1\r\n$-1\r\n");
+        Map<String, byte[]> values = redis.multiGetBytes("k1", "k2");
+
+        assertThat(values).containsOnlyKeys("k1");
+        assertThat(values.get("k1")).isEqualTo(encode("v1"));
+    }
+
     @Test
     void multiSet() {
         response("+OK\r\n");
@@ -124,4 +133,12 @@ class RedisOperationTest extends AbstractRedisOperationTest {
         assertThat(keys).containsExactly("k1", "k2");
         assertRequestEquals("*6\r\n$4\r\nSCAN\r\n$1\r\n0\r\n$5\r\nMATCH\r\n$2\r\nk*\r\n$5\r\nCOUNT\r\n$3\r\n500\r\n");
     }
+
+    @Test
+    void publish() {
+        response(":2\r\n");
+        redis.publish("channel", encode("message"));
+
+        assertRequestEquals("*3\r\n$7\r\nPUBLISH\r\n$7\r\nchannel\r\n$7\r\nmessage\r\n");
+    }
 }
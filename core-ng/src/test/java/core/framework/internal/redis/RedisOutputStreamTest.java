@@ -62,4 +62,12 @@ class RedisOutputStreamTest {
         stream.flush();
         assertEquals("12345", decode(output.toByteArray()));
     }
+
+    @Test
+    void writeASCIICRLF() throws IOException {
+        stream.write((byte) '1');
+        stream.writeASCIICRLF("23456789");
+        stream.flush();
+        assertEquals("123456789\r\n", decode(output.toByteArray()));
+    }
 }
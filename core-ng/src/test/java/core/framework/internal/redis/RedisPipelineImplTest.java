@@ -0,0 +1,34 @@
+package core.framework.internal.redis;
+
+import core.framework.redis.RedisPipeline;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class RedisPipelineImplTest extends AbstractRedisOperationTest {
+    @Test
+    void execute() {
+        response("$6\r\nvalue1\r\n+OK\r\n:1\r\n:2\r\n:1\r\n");
+        RedisPipeline pipeline = redis.pipeline();
+        Supplier<String> value = pipeline.get("k1");
+        pipeline.set("k2", "v2", Duration.ofMinutes(1));
+        pipeline.expire("k3", Duration.ofMinutes(1));
+        Supplier<Long> count = pipeline.increaseBy("k4", 2);
+        pipeline.del("k1");
+        pipeline.execute();
+
+        assertThat(value.get()).isEqualTo("value1");
+        assertThat(count.get()).isEqualTo(2);
+        assertRequestEquals("*2\r\n$3\r\nGET\r\n$2\r\nk1\r\n"
+                            + "*5\r\n$3\r\nSET\r\n$2\r\nk2\r\n$2\r\nv2\r\n$2\r\nPX\r\n$5\r\n60000\r\n"
+                            + "*3\r\n$7\r\nPEXPIRE\r\n$2\r\nk3\r\n$5\r\n60000\r\n"
+                            + "*3\r\n$6\r\nINCRBY\r\n$2\r\nk4\r\n$1\r\n2\r\n"
+                            + "*2\r\n$3\r\nDEL\r\n$2\r\nk1\r\n");
+    }
+}
@@ -34,6 +34,10 @@ class PoolMetricsTest {
 
         assertThat(stats.stats)
                 .containsEntry("pool_test_active_count", 1.0d)
-                .containsEntry("pool_test_total_count", 2.0d);
+                .containsEntry("pool_test_total_count", 2.0d)
+                .containsEntry("pool_test_peak_active_count", 2.0d)
+                .containsEntry("pool_test_wait_count", 0.0d)
+                .containsEntry("pool_test_timeout_count", 0.0d)
+                .containsEntry("pool_test_create_count", 2.0d);
     }
 }
@@ -114,6 +114,25 @@ class PoolTest {
         pool.size(0, 0);
         PoolException exception = catchThrowableOfType(PoolException.class, pool::borrowItem);
         assertThat(exception.errorCode()).isEqualTo("POOL_TIME_OUT");
+        assertThat(pool.waiters).isEmpty();
+    }
+
+    @Test
+    void borrowWithWaiting() throws InterruptedException {
+        pool.size(0, 1);
+        pool.checkoutTimeout(Duration.ofSeconds(5));
+        PoolItem<TestPoolResource> item = pool.borrowItem();
+
+        Thread thread = Thread.ofVirtual().start(() -> pool.returnItem(pool.borrowItem()));
+        while (pool.waiters.isEmpty()) {
+            Thread.onSpinWait();
+        }
+        pool.returnItem(item);
+        thread.join();
+
+        assertThat(pool.waiters).isEmpty();
+        assertThat(pool.idleItems).containsExactly(item);
+        assertThat(pool.size.get()).isEqualTo(1);
     }
 
     @Test
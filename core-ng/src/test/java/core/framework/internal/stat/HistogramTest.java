@@ -0,0 +1,58 @@
+package core.framework.internal.stat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author neo
+ */
+class HistogramTest {
+    private Histogram histogram;
+
+    @BeforeEach
+    void createHistogram() {
+        histogram = new Histogram();
+    }
+
+    @Test
+    void index() {
+        assertThat(Histogram.index(0)).isZero();
+        assertThat(Histogram.index(15)).isEqualTo(15);
+        assertThat(Histogram.index(16)).isEqualTo(16);
+        assertThat(Histogram.index(32)).isEqualTo(32);
+        assertThat(Histogram.index(33)).isEqualTo(32);
+        assertThat(Histogram.index(Long.MAX_VALUE)).isEqualTo(959);
+    }
+
+    @Test
+    void highestValue() {
+        assertThat(Histogram.highestValue(15)).isEqualTo(15);
+        assertThat(Histogram.highestValue(32)).isEqualTo(33);
+        assertThat(Histogram.highestValue(959)).isEqualTo(Long.MAX_VALUE);
+
+        for (long value : new long[]{17, 100, 1000, 123_456_789, 30_000_000_000L}) {
+            long highestValue = Histogram.highestValue(Histogram.index(value));
+            assertThat(highestValue).isGreaterThanOrEqualTo(value).isLessThanOrEqualTo((long) (value * 1.0625));
+        }
+    }
+
+    @Test
+    void snapshot() {
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.count).isEqualTo(100);
+        assertThat(snapshot.percentile(0.5)).isBetween(50L, 51L);
+        assertThat(snapshot.percentile(0.99)).isBetween(99L, 103L);
+        assertThat(snapshot.max()).isBetween(100L, 103L);
+
+        snapshot = histogram.snapshot();
+        assertThat(snapshot.count).isZero();
+        assertThat(snapshot.percentile(0.99)).isZero();
+        assertThat(snapshot.max()).isZero();
+    }
+}
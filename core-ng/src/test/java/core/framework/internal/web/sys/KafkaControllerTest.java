@@ -1,6 +1,8 @@
 package core.framework.internal.web.sys;
 
+import core.framework.internal.kafka.ConsumerMetrics;
 import core.framework.internal.kafka.KafkaMessage;
+import core.framework.internal.kafka.MessageListener;
 import core.framework.internal.log.ActionLog;
 import core.framework.internal.log.LogManager;
 import core.framework.internal.log.Trace;
@@ -9,6 +11,8 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -36,4 +40,24 @@ class KafkaControllerTest {
         ProducerRecord<byte[], byte[]> record = controller.record("topic", "key", new byte[0], actionLog);
         assertThat(record.headers().lastHeader(KafkaMessage.HEADER_TRACE).value()).asString().isEqualTo(Trace.CASCADE.name());
     }
+
+    @Test
+    void consumerResponse() {
+        ConsumerMetrics metrics = new MessageListener(null, null, logManager, 300_000L).consumerMetrics;
+        metrics.topic("topic1");
+        metrics.topic("topic2");
+        metrics.inFlightMessages.set(2);
+        metrics.lags = List.of(new ConsumerMetrics.PartitionLag("topic1", 0, 100, 150), new ConsumerMetrics.PartitionLag("topic1", 1, 200, 210));
+
+        KafkaConsumerResponse response = controller.consumerResponse(metrics);
+        assertThat(response.inFlightMessages).isEqualTo(2);
+        assertThat(response.lag).isEqualTo(60);
+        assertThat(response.topics).hasSize(2);
+        KafkaConsumerResponse.Topic topic = response.topics.getFirst();
+        assertThat(topic.name).isEqualTo("topic1");
+        assertThat(topic.lag).isEqualTo(60);
+        assertThat(topic.partitions).hasSize(2);
+        assertThat(topic.partitions.getFirst().lag).isEqualTo(50);
+        assertThat(response.topics.get(1).partitions).isEmpty();
+    }
 }
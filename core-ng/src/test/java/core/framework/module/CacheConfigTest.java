@@ -1,7 +1,10 @@
 package core.framework.module;
 
+import core.framework.internal.cache.BinaryCacheCodec;
 import core.framework.internal.cache.CacheImpl;
+import core.framework.internal.cache.JSONCacheCodec;
 import core.framework.internal.cache.LocalCacheStore;
+import core.framework.internal.cache.NearCacheStore;
 import core.framework.internal.cache.RedisCacheStore;
 import core.framework.internal.cache.TestCache;
 import core.framework.internal.module.ModuleContext;
@@ -69,6 +72,29 @@ class CacheConfigTest {
         assertThat(cache.cacheStore).isInstanceOf(LocalCacheStore.class);
     }
 
+    @Test
+    void addWithNear() {
+        config.redis("localhost");
+
+        CacheStoreConfig cacheStoreConfig = config.add(TestCache.class, Duration.ofHours(1));
+        CacheImpl<?> cache = config.caches.get("testcache");
+
+        cacheStoreConfig.near(Duration.ofMinutes(1));
+        assertThat(cache.cacheStore).isInstanceOf(NearCacheStore.class);
+    }
+
+    @Test
+    void addWithBinaryCodec() {
+        config.redis("localhost");
+
+        CacheStoreConfig cacheStoreConfig = config.add(TestCache.class, Duration.ofHours(1));
+        CacheImpl<?> cache = config.caches.get("testcache");
+        assertThat(cache.context.codec).isInstanceOf(JSONCacheCodec.class);
+
+        cacheStoreConfig.binaryCodec();
+        assertThat(cache.context.codec).isInstanceOf(BinaryCacheCodec.class);
+    }
+
     @Test
     void cacheName() {
         assertThat(config.cacheName(TestCache.class))
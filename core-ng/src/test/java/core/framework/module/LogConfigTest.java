@@ -6,6 +6,9 @@ import core.framework.log.LogAppender;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.mock;
 
@@ -14,11 +17,13 @@ import static org.mockito.Mockito.mock;
  */
 class LogConfigTest {
     private LogConfig config;
+    private LogManager logManager;
 
     @BeforeEach
     void createLogConfig() {
         config = new LogConfig();
-        config.initialize(new ModuleContext(new LogManager()), null);
+        logManager = new LogManager();
+        config.initialize(new ModuleContext(logManager), null);
     }
 
     @Test
@@ -29,4 +34,55 @@ class LogConfigTest {
             .isInstanceOf(Error.class)
             .hasMessageContaining("log appender is already set");
     }
+
+    @Test
+    void kafkaQueue() {
+        assertThatThrownBy(() -> config.kafkaQueue(1000, 0.2, 0.8))
+            .isInstanceOf(Error.class)
+            .hasMessageContaining("kafka appender is not configured");
+
+        config.appendToKafka("localhost");
+        assertThatThrownBy(() -> config.kafkaQueue(1000, 0.9, 0.8))
+            .isInstanceOf(Error.class)
+            .hasMessageContaining("drop ratio must satisfy");
+
+        config.kafkaQueue(1000, 0.2, 0.8);
+    }
+
+    @Test
+    void kafkaSpill() {
+        assertThatThrownBy(() -> config.kafkaSpill(Path.of("log"), 64 * 1024 * 1024))
+            .isInstanceOf(Error.class)
+            .hasMessageContaining("kafka appender is not configured");
+
+        config.appendToKafka("localhost");
+        assertThatThrownBy(() -> config.kafkaSpill(Path.of("log"), 1024 * 1024))
+            .isInstanceOf(Error.class)
+            .hasMessageContaining("maxSizeInBytes must be at least");
+    }
+
+    @Test
+    void traceTailSampling() {
+        assertThatThrownBy(() -> config.traceTailSampling(0))
+            .isInstanceOf(Error.class)
+            .hasMessageContaining("maxDebugEvents must be greater than 0");
+    }
+
+    @Test
+    void sampleTrace() {
+        assertThatThrownBy(() -> config.sampleTrace(1, 0.001, 10))
+            .isInstanceOf(Error.class)
+            .hasMessageContaining("slowPercentile must be between 0 and 1");
+
+        config.sampleTrace(0.99, 0.001, 10);
+        assertThatThrownBy(() -> config.sampleTrace(0.99, 0.001, 10))
+            .isInstanceOf(Error.class)
+            .hasMessageContaining("trace sampling is already configured");
+    }
+
+    @Test
+    void performanceHistograms() {
+        config.performanceHistograms();
+        assertThat(logManager.performanceHistograms).isNotNull();
+    }
 }
@@ -36,4 +36,27 @@ class RedisConfigTest {
 
         config.validate();
     }
+
+    @Test
+    void multiplex() {
+        assertThatThrownBy(() -> config.multiplex(0))
+            .hasMessageContaining("connections must be greater than 0");
+
+        config.multiplex(2);
+    }
+
+    @Test
+    void cluster() {
+        assertThatThrownBy(() -> config.readFromReplica())
+            .hasMessageContaining("read from replica requires cluster");
+        assertThatThrownBy(() -> config.cluster())
+            .hasMessageContaining("hosts must not be empty");
+
+        config.cluster("localhost:7000", "localhost:7001");
+        config.readFromReplica();
+        config.validate();
+
+        assertThatThrownBy(() -> config.multiplex(2))
+            .hasMessageContaining("multiplex is not supported with cluster");
+    }
 }
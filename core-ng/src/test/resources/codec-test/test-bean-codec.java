@@ -0,0 +1,175 @@
+public class BeanCodec$TestCache implements core.framework.internal.codec.BeanCodec {
+    private final core.framework.internal.cache.TestCache.TestEnum[] enumValues1 = core.framework.internal.cache.TestCache.TestEnum.values();
+
+    private void encodeChild4(core.framework.internal.codec.BinaryOutput output, core.framework.internal.cache.TestCache.Child bean) {
+        if (!output.writePresence(bean)) return;
+        output.writeBigDecimal(bean.bigDecimalField);
+    }
+
+    private void encodeTestCache0(core.framework.internal.codec.BinaryOutput output, core.framework.internal.cache.TestCache bean) {
+        if (!output.writePresence(bean)) return;
+        output.writeLocalDateTime(bean.dateTimeField);
+        output.writeLocalTime(bean.timeField);
+        output.writeLocalDate(bean.dateField);
+        output.writeZonedDateTime(bean.zonedDateTimeField);
+        output.writeInstant(bean.instantField);
+        output.writeUUID(bean.uuidField);
+        output.writeInteger(bean.intField);
+        output.writeLong(bean.longField);
+        output.writeDouble(bean.doubleField);
+        output.writeBoolean(bean.booleanField);
+        output.writeEnum(bean.enumField);
+        output.writeString(bean.stringField);
+        java.util.List list2 = bean.listField;
+        if (list2 == null) output.writeNull();
+        else {
+            output.writeSize(list2.size());
+            java.util.Iterator iterator2 = list2.iterator();
+            while (iterator2.hasNext()) {
+                output.writeString((java.lang.String) iterator2.next());
+            }
+        }
+        java.util.Map map3 = bean.mapField;
+        if (map3 == null) output.writeNull();
+        else {
+            output.writeSize(map3.size());
+            java.util.Iterator iterator3 = map3.entrySet().iterator();
+            while (iterator3.hasNext()) {
+                java.util.Map.Entry entry3 = (java.util.Map.Entry) iterator3.next();
+                output.writeString((java.lang.String) entry3.getKey());
+                output.writeString((java.lang.String) entry3.getValue());
+            }
+        }
+        encodeChild4(output, bean.childField);
+        java.util.List list5 = bean.childrenField;
+        if (list5 == null) output.writeNull();
+        else {
+            output.writeSize(list5.size());
+            java.util.Iterator iterator5 = list5.iterator();
+            while (iterator5.hasNext()) {
+                encodeChild4(output, (core.framework.internal.cache.TestCache.Child) iterator5.next());
+            }
+        }
+        java.util.Map map6 = bean.enumMapField;
+        if (map6 == null) output.writeNull();
+        else {
+            output.writeSize(map6.size());
+            java.util.Iterator iterator6 = map6.entrySet().iterator();
+            while (iterator6.hasNext()) {
+                java.util.Map.Entry entry6 = (java.util.Map.Entry) iterator6.next();
+                output.writeEnum((core.framework.internal.cache.TestCache.TestEnum) entry6.getKey());
+                output.writeString((java.lang.String) entry6.getValue());
+            }
+        }
+        java.util.Map map7 = bean.listMapField;
+        if (map7 == null) output.writeNull();
+        else {
+            output.writeSize(map7.size());
+            java.util.Iterator iterator7 = map7.entrySet().iterator();
+            while (iterator7.hasNext()) {
+                java.util.Map.Entry entry7 = (java.util.Map.Entry) iterator7.next();
+                output.writeString((java.lang.String) entry7.getKey());
+                java.util.List list8 = (java.util.List) entry7.getValue();
+                if (list8 == null) output.writeNull();
+                else {
+                    output.writeSize(list8.size());
+                    java.util.Iterator iterator8 = list8.iterator();
+                    while (iterator8.hasNext()) {
+                        output.writeString((java.lang.String) iterator8.next());
+                    }
+                }
+            }
+        }
+    }
+
+    public void encode(core.framework.internal.codec.BinaryOutput output, Object bean) {
+        encodeTestCache0(output, (core.framework.internal.cache.TestCache) bean);
+    }
+
+    private core.framework.internal.cache.TestCache.Child decodeChild12(core.framework.internal.codec.BinaryInput input) {
+        if (!input.readPresence()) return null;
+        core.framework.internal.cache.TestCache.Child bean = new core.framework.internal.cache.TestCache.Child();
+        bean.bigDecimalField = input.readBigDecimal();
+        return bean;
+    }
+
+    private core.framework.internal.cache.TestCache decodeTestCache9(core.framework.internal.codec.BinaryInput input) {
+        if (!input.readPresence()) return null;
+        core.framework.internal.cache.TestCache bean = new core.framework.internal.cache.TestCache();
+        bean.dateTimeField = input.readLocalDateTime();
+        bean.timeField = input.readLocalTime();
+        bean.dateField = input.readLocalDate();
+        bean.zonedDateTimeField = input.readZonedDateTime();
+        bean.instantField = input.readInstant();
+        bean.uuidField = input.readUUID();
+        bean.intField = input.readInteger();
+        bean.longField = input.readLong();
+        bean.doubleField = input.readDouble();
+        bean.booleanField = input.readBoolean();
+        bean.enumField = (core.framework.internal.cache.TestCache.TestEnum) input.readEnum(enumValues1);
+        bean.stringField = input.readString();
+        java.util.List list10 = null;
+        int size10 = input.readCollectionSize();
+        if (size10 >= 0) {
+            list10 = new java.util.ArrayList(size10);
+            for (int i10 = 0; i10 < size10; i10++) {
+                list10.add(input.readString());
+            }
+        }
+        bean.listField = list10;
+        java.util.Map map11 = null;
+        int size11 = input.readCollectionSize();
+        if (size11 >= 0) {
+            map11 = new java.util.LinkedHashMap(size11);
+            for (int i11 = 0; i11 < size11; i11++) {
+                Object key11 = input.readString();
+                map11.put(key11, input.readString());
+            }
+        }
+        bean.mapField = map11;
+        bean.childField = decodeChild12(input);
+        java.util.List list13 = null;
+        int size13 = input.readCollectionSize();
+        if (size13 >= 0) {
+            list13 = new java.util.ArrayList(size13);
+            for (int i13 = 0; i13 < size13; i13++) {
+                list13.add(decodeChild12(input));
+            }
+        }
+        bean.childrenField = list13;
+        java.util.Map map14 = null;
+        int size14 = input.readCollectionSize();
+        if (size14 >= 0) {
+            map14 = new java.util.EnumMap(core.framework.internal.cache.TestCache.TestEnum.class);
+            for (int i14 = 0; i14 < size14; i14++) {
+                Object key14 = (core.framework.internal.cache.TestCache.TestEnum) input.readEnum(enumValues1);
+                map14.put(key14, input.readString());
+            }
+        }
+        bean.enumMapField = map14;
+        java.util.Map map15 = null;
+        int size15 = input.readCollectionSize();
+        if (size15 >= 0) {
+            map15 = new java.util.LinkedHashMap(size15);
+            for (int i15 = 0; i15 < size15; i15++) {
+                Object key15 = input.readString();
+                java.util.List list16 = null;
+                int size16 = input.readCollectionSize();
+                if (size16 >= 0) {
+                    list16 = new java.util.ArrayList(size16);
+                    for (int i16 = 0; i16 < size16; i16++) {
+                        list16.add(input.readString());
+                    }
+                }
+                map15.put(key15, list16);
+            }
+        }
+        bean.listMapField = map15;
+        return bean;
+    }
+
+    public Object decode(core.framework.internal.codec.BinaryInput input) {
+        return decodeTestCache9(input);
+    }
+
+}
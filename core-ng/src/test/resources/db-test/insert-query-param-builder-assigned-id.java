@@ -12,4 +12,16 @@ public class InsertQueryParamBuilder$AssignedIdEntity implements core.framework.
         return params;
     }
 
+    public void encode(Object value, core.framework.internal.db.BulkLoadWriter writer) {
+        core.framework.internal.db.AssignedIdEntity entity = (core.framework.internal.db.AssignedIdEntity) value;
+        if (entity.id == null) throw new Error("primary key must not be null, field=id");
+        writer.writeString(entity.id);
+        writer.writeString(entity.stringField);
+        writer.writeNumber(entity.intField);
+        writer.writeDecimal(entity.bigDecimalField);
+        writer.writeDate(entity.dateField);
+        writer.writeZonedDateTime(entity.zonedDateTimeField);
+        writer.endRow();
+    }
+
 }
@@ -10,4 +10,14 @@ public class InsertQueryParamBuilder$AutoIncrementIdEntity implements core.frame
         return params;
     }
 
+    public void encode(Object value, core.framework.internal.db.BulkLoadWriter writer) {
+        core.framework.internal.db.AutoIncrementIdEntity entity = (core.framework.internal.db.AutoIncrementIdEntity) value;
+        writer.writeString(entity.stringField);
+        writer.writeNumber(entity.doubleField);
+        writer.writeEnum(entity.enumField);
+        writer.writeDateTime(entity.dateTimeField);
+        writer.writeZonedDateTime(entity.zonedDateTimeField);
+        writer.endRow();
+    }
+
 }
@@ -1,9 +1,11 @@
 package core.log.domain;
 
 import core.framework.api.json.Property;
+import core.framework.log.message.PerformanceHistogramMessage;
 import core.framework.search.Index;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -27,4 +29,6 @@ public class StatDocument {
     public Map<String, Double> stats;
     @Property(name = "info")
     public Map<String, String> info;
+    @Property(name = "perf_histograms")
+    public List<PerformanceHistogramMessage> performanceHistograms;
 }
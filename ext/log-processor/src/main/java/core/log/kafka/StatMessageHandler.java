@@ -49,6 +49,7 @@ public class StatMessageHandler implements BulkMessageHandler<StatMessage> {
         stat.errorMessage = message.errorMessage;
         stat.stats = message.stats;
         stat.info = message.info;
+        stat.performanceHistograms = message.performanceHistograms;
         return stat;
     }
 }
@@ -2,6 +2,7 @@ package core.log.kafka;
 
 import core.framework.inject.Inject;
 import core.framework.kafka.Message;
+import core.framework.log.message.PerformanceHistogramMessage;
 import core.framework.log.message.StatMessage;
 import core.framework.search.ElasticSearchType;
 import core.framework.search.GetRequest;
@@ -35,6 +36,12 @@ class StatMessageHandlerTest extends IntegrationTest {
 
         StatMessage message = message("1");
         message.info = Map.of("key", "value");
+        var histogram = new PerformanceHistogramMessage();
+        histogram.action = "api:get:/order/:id";
+        histogram.operation = "elapsed";
+        histogram.count = 10L;
+        histogram.p99 = 1_000_000L;
+        message.performanceHistograms = List.of(histogram);
         List<Message<StatMessage>> messages = List.of(new Message<>("k1", message), new Message<>("k2", message("2")));
 
         handler.index(messages, now);
@@ -42,6 +49,7 @@ class StatMessageHandlerTest extends IntegrationTest {
         StatDocument stat = get(now, message.id);
         assertThat(stat.stats).isEqualTo(message.stats);
         assertThat(stat.info).isEqualTo(message.info);
+        assertThat(stat.performanceHistograms).singleElement().satisfies(value -> assertThat(value.p99).isEqualTo(1_000_000L));
     }
 
     private StatDocument get(LocalDate now, String id) {